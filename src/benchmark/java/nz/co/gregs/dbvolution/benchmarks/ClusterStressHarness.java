@@ -0,0 +1,380 @@
+/*
+ * Copyright 2019 Gregory Graham.
+ *
+ * Commercial licenses are available, please contact info@gregs.co.nz for details.
+ * 
+ * This work is licensed under the Creative Commons Attribution-NonCommercial-ShareAlike 4.0 International License. 
+ * To view a copy of this license, visit http://creativecommons.org/licenses/by-nc-sa/4.0/ 
+ * or send a letter to Creative Commons, PO Box 1866, Mountain View, CA 94042, USA.
+ * 
+ * You are free to:
+ *     Share - copy and redistribute the material in any medium or format
+ *     Adapt - remix, transform, and build upon the material
+ * 
+ *     The licensor cannot revoke these freedoms as long as you follow the license terms.               
+ *     Under the following terms:
+ *                 
+ *         Attribution - 
+ *             You must give appropriate credit, provide a link to the license, and indicate if changes were made. 
+ *             You may do so in any reasonable manner, but not in any way that suggests the licensor endorses you or your use.
+ *         NonCommercial - 
+ *             You may not use the material for commercial purposes.
+ *         ShareAlike - 
+ *             If you remix, transform, or build upon the material, 
+ *             you must distribute your contributions under the same license as the original.
+ *         No additional restrictions - 
+ *             You may not apply legal terms or technological measures that legally restrict others from doing anything the 
+ *             license permits.
+ * 
+ * Check the Creative Commons website for any details, legalese, and updates.
+ */
+package nz.co.gregs.dbvolution.benchmarks;
+
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import nz.co.gregs.dbvolution.databases.DBDatabase;
+import nz.co.gregs.dbvolution.databases.DBDatabaseCluster;
+import nz.co.gregs.dbvolution.databases.DBStatement;
+import nz.co.gregs.dbvolution.databases.H2MemoryDB;
+import nz.co.gregs.dbvolution.databases.SQLiteDB;
+import nz.co.gregs.dbvolution.example.CarCompany;
+import nz.co.gregs.dbvolution.exceptions.UnableToRemoveLastDatabaseFromClusterException;
+
+/**
+ * A load harness for {@link DBDatabaseCluster}.
+ *
+ * <p>
+ * Builds a cluster of H2MemoryDB and SQLiteDB members and drives a mixed
+ * read/write workload from several threads for a fixed duration. While the
+ * workload runs, an H2MemoryDB member is periodically shut down with the H2
+ * SHUTDOWN command, so its connections fail underneath the cluster. The
+ * cluster must notice the failure through its own error handling. The failed
+ * member is then left out of the cluster while writes continue, and re-added
+ * to exercise resynchronisation.
+ *
+ * <p>
+ * Cluster writes are applied to every member before they return, so there is
+ * no replication lag to measure. The harness reports instead:
+ * <ul>
+ * <li>read and write throughput,</li>
+ * <li>read and write latency percentiles,</li>
+ * <li>failure detection time, the time between a member being shut down and
+ * the cluster no longer treating it as ready,</li>
+ * <li>the number of failures the workload did not detect,</li>
+ * <li>the number of writes each failed member missed while it was out of the
+ * cluster, and</li>
+ * <li>resync time, the time taken by {@link DBDatabaseCluster#addDatabaseAndWait(nz.co.gregs.dbvolution.databases.DBDatabase)
+ * }
+ * to bring the failed member back into the cluster.</li>
+ * </ul>
+ *
+ * <p>
+ * Settings are supplied as key=value arguments, all of which are optional:
+ * members, threads, seconds, readRatio, failureMillis, outageMillis, seed,
+ * and out. When out is supplied the results are also written to that file as
+ * JSON so that regression runs can be compared over time.
+ *
+ * <p style="color: #F90;">Support DBvolution at
+ * <a href="http://patreon.com/dbvolution" target=new>Patreon</a></p>
+ *
+ * @author Gregory Graham
+ */
+public class ClusterStressHarness {
+
+	private final int members;
+	private final int threads;
+	private final int seconds;
+	private final double readRatio;
+	private final long failureMillis;
+	private final long outageMillis;
+	private final long seed;
+	private final String out;
+
+	private final List<File> sqliteFiles = new ArrayList<>();
+	private final AtomicInteger nextKey = new AtomicInteger(1);
+	private final AtomicLong reads = new AtomicLong(0);
+	private final AtomicLong writes = new AtomicLong(0);
+	private final AtomicLong errors = new AtomicLong(0);
+	private final Latencies readLatencies = new Latencies();
+	private final Latencies writeLatencies = new Latencies();
+	private final Latencies detectionTimes = new Latencies();
+	private final Latencies resyncTimes = new Latencies();
+	private final AtomicLong undetectedFailures = new AtomicLong(0);
+	private final AtomicLong missedWrites = new AtomicLong(0);
+
+	private volatile boolean running = true;
+
+	public ClusterStressHarness(Map<String, String> settings) {
+		members = Integer.parseInt(get(settings, "members", "3"));
+		threads = Integer.parseInt(get(settings, "threads", "8"));
+		seconds = Integer.parseInt(get(settings, "seconds", "30"));
+		readRatio = Double.parseDouble(get(settings, "readRatio", "0.8"));
+		failureMillis = Long.parseLong(get(settings, "failureMillis", "5000"));
+		outageMillis = Long.parseLong(get(settings, "outageMillis", "1000"));
+		seed = Long.parseLong(get(settings, "seed", "42"));
+		out = settings.get("out");
+		if (members < 2) {
+			throw new IllegalArgumentException("Too Few Members: the cluster needs at least 2 members to survive failures, but members=" + members);
+		}
+	}
+
+	public static void main(String[] args) throws Exception {
+		Map<String, String> settings = new HashMap<>();
+		for (String arg : args) {
+			final String[] split = arg.split("=", 2);
+			if (split.length != 2) {
+				throw new IllegalArgumentException("Invalid Argument: expected key=value but found " + arg);
+			}
+			settings.put(split[0], split[1]);
+		}
+		new ClusterStressHarness(settings).run();
+		System.exit(0);
+	}
+
+	public void run() throws Exception {
+		DBDatabase[] databases = new DBDatabase[members];
+		for (int i = 0; i < members; i++) {
+			databases[i] = createMember(i);
+		}
+		final DBDatabaseCluster cluster = new DBDatabaseCluster("ClusterStressHarness", DBDatabaseCluster.Configuration.manual(), databases);
+		try {
+			cluster.createTableNoExceptions(new CarCompany());
+			List<CarCompany> initialRows = new ArrayList<>();
+			for (int i = 0; i < 1000; i++) {
+				initialRows.add(newCompany());
+			}
+			cluster.insert(initialRows);
+
+			final CountDownLatch finished = new CountDownLatch(threads + 1);
+			for (int i = 0; i < threads; i++) {
+				startThread("worker-" + i, new Worker(cluster, new Random(seed + i)), finished);
+			}
+			startThread("failure-injector", new FailureInjector(cluster, databases, new Random(seed - 1)), finished);
+
+			final long startNanos = System.nanoTime();
+			Thread.sleep(TimeUnit.SECONDS.toMillis(seconds));
+			running = false;
+			finished.await();
+			final double elapsedSeconds = (System.nanoTime() - startNanos) / 1e9;
+
+			report(elapsedSeconds);
+		} finally {
+			cluster.dismantle();
+			for (DBDatabase database : databases) {
+				database.stop();
+			}
+			for (File file : sqliteFiles) {
+				file.delete();
+			}
+		}
+	}
+
+	private DBDatabase createMember(int index) throws Exception {
+		if (index % 2 == 0) {
+			return H2MemoryDB.randomDatabase();
+		} else {
+			File file = File.createTempFile("dbvolution-cluster-stress", ".sqlite");
+			file.deleteOnExit();
+			sqliteFiles.add(file);
+			return new SQLiteDB(file, "", "");
+		}
+	}
+
+	private CarCompany newCompany() {
+		final int key = nextKey.getAndIncrement();
+		return new CarCompany("STRESS " + key, key);
+	}
+
+	private void startThread(String name, final Runnable task, final CountDownLatch finished) {
+		Thread thread = new Thread(new Runnable() {
+			@Override
+			public void run() {
+				try {
+					task.run();
+				} finally {
+					finished.countDown();
+				}
+			}
+		}, name);
+		thread.setDaemon(true);
+		thread.start();
+	}
+
+	private void report(double elapsedSeconds) throws IOException {
+		StringBuilder json = new StringBuilder();
+		json.append("{\n");
+		json.append(String.format(Locale.ROOT, "  \"members\": %d,\n  \"threads\": %d,\n  \"seconds\": %.3f,\n  \"readRatio\": %.3f,\n  \"failureMillis\": %d,\n  \"outageMillis\": %d,\n  \"seed\": %d,\n",
+				members, threads, elapsedSeconds, readRatio, failureMillis, outageMillis, seed));
+		json.append(String.format(Locale.ROOT, "  \"readsPerSecond\": %.1f,\n  \"writesPerSecond\": %.1f,\n  \"errors\": %d,\n",
+				reads.get() / elapsedSeconds, writes.get() / elapsedSeconds, errors.get()));
+		json.append("  \"readLatencyMicros\": ").append(readLatencies.toJSON()).append(",\n");
+		json.append("  \"writeLatencyMicros\": ").append(writeLatencies.toJSON()).append(",\n");
+		json.append("  \"failureDetectionMicros\": ").append(detectionTimes.toJSON()).append(",\n");
+		json.append(String.format(Locale.ROOT, "  \"undetectedFailures\": %d,\n  \"missedWrites\": %d,\n",
+				undetectedFailures.get(), missedWrites.get()));
+		json.append("  \"resyncMicros\": ").append(resyncTimes.toJSON()).append("\n");
+		json.append("}\n");
+
+		System.out.print(json);
+		if (out != null) {
+			try (PrintWriter writer = new PrintWriter(new FileWriter(out))) {
+				writer.print(json);
+			}
+		}
+	}
+
+	private static String get(Map<String, String> settings, String key, String defaultValue) {
+		final String value = settings.get(key);
+		return value == null ? defaultValue : value;
+	}
+
+	private class Worker implements Runnable {
+
+		private final DBDatabaseCluster cluster;
+		private final Random random;
+
+		Worker(DBDatabaseCluster cluster, Random random) {
+			this.cluster = cluster;
+			this.random = random;
+		}
+
+		@Override
+		public void run() {
+			while (running) {
+				final boolean isRead = random.nextDouble() < readRatio;
+				final long start = System.nanoTime();
+				try {
+					if (isRead) {
+						cluster.getDBTable(new CarCompany()).getRowsByPrimaryKey(1 + random.nextInt(nextKey.get() - 1));
+						readLatencies.add(System.nanoTime() - start);
+						reads.incrementAndGet();
+					} else {
+						cluster.insert(newCompany());
+						writeLatencies.add(System.nanoTime() - start);
+						writes.incrementAndGet();
+					}
+				} catch (Exception ex) {
+					errors.incrementAndGet();
+				}
+			}
+		}
+	}
+
+	private class FailureInjector implements Runnable {
+
+		private final DBDatabaseCluster cluster;
+		private final List<DBDatabase> victims = new ArrayList<>();
+		private final Random random;
+
+		FailureInjector(DBDatabaseCluster cluster, DBDatabase[] databases, Random random) {
+			this.cluster = cluster;
+			for (DBDatabase database : databases) {
+				if (database instanceof H2MemoryDB) {
+					victims.add(database);
+				}
+			}
+			this.random = random;
+		}
+
+		@Override
+		public void run() {
+			while (running) {
+				try {
+					Thread.sleep(failureMillis);
+					if (!running) {
+						return;
+					}
+					final DBDatabase victim = victims.get(random.nextInt(victims.size()));
+					if (cluster.getDatabaseStatus(victim) != DBDatabaseCluster.Status.READY) {
+						continue;
+					}
+					final long failed = System.nanoTime();
+					shutdown(victim);
+					final long deadline = failed + TimeUnit.MILLISECONDS.toNanos(failureMillis);
+					while (cluster.getDatabaseStatus(victim) == DBDatabaseCluster.Status.READY && System.nanoTime() < deadline) {
+						Thread.sleep(1);
+					}
+					if (cluster.getDatabaseStatus(victim) == DBDatabaseCluster.Status.READY) {
+						// the workload never used the failed member, so take it out by hand
+						undetectedFailures.incrementAndGet();
+						cluster.getClusterDetails().quarantineDatabase(victim, new Exception("Undetected Failure"));
+					} else {
+						detectionTimes.add(System.nanoTime() - failed);
+					}
+					final long writesBeforeOutage = writes.get();
+					Thread.sleep(outageMillis);
+					cluster.removeDatabase(victim);
+					missedWrites.addAndGet(writes.get() - writesBeforeOutage);
+					final long start = System.nanoTime();
+					cluster.addDatabaseAndWait(victim);
+					resyncTimes.add(System.nanoTime() - start);
+				} catch (UnableToRemoveLastDatabaseFromClusterException ex) {
+					// the victim is the only ready member, so skip this failure
+				} catch (InterruptedException ex) {
+					return;
+				} catch (Exception ex) {
+					errors.incrementAndGet();
+				}
+			}
+		}
+
+		/**
+		 * Closes the in-memory database and every connection to it, the next
+		 * connection creates a new, empty database.
+		 */
+		private void shutdown(DBDatabase victim) {
+			try (DBStatement statement = victim.getDBStatement()) {
+				statement.execute("SHUTDOWN");
+			} catch (SQLException ex) {
+				// the connection has been closed by the shutdown
+			}
+		}
+	}
+
+	private static class Latencies {
+
+		private long[] values = new long[1024];
+		private int size = 0;
+
+		synchronized void add(long nanos) {
+			if (size == values.length) {
+				values = Arrays.copyOf(values, size * 2);
+			}
+			values[size++] = nanos;
+		}
+
+		synchronized String toJSON() {
+			long[] sorted = Arrays.copyOf(values, size);
+			Arrays.sort(sorted);
+			return String.format(Locale.ROOT, "{\"count\": %d, \"p50\": %d, \"p90\": %d, \"p99\": %d, \"p999\": %d, \"max\": %d}",
+					size,
+					percentile(sorted, 0.5),
+					percentile(sorted, 0.9),
+					percentile(sorted, 0.99),
+					percentile(sorted, 0.999),
+					percentile(sorted, 1.0));
+		}
+
+		private static long percentile(long[] sorted, double fraction) {
+			if (sorted.length == 0) {
+				return 0;
+			}
+			final int index = (int) Math.ceil(fraction * sorted.length) - 1;
+			return TimeUnit.NANOSECONDS.toMicros(sorted[Math.max(0, index)]);
+		}
+	}
+}
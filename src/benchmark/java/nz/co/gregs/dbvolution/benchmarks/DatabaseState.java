@@ -0,0 +1,115 @@
+/*
+ * Copyright 2019 Gregory Graham.
+ *
+ * Commercial licenses are available, please contact info@gregs.co.nz for details.
+ * 
+ * This work is licensed under the Creative Commons Attribution-NonCommercial-ShareAlike 4.0 International License. 
+ * To view a copy of this license, visit http://creativecommons.org/licenses/by-nc-sa/4.0/ 
+ * or send a letter to Creative Commons, PO Box 1866, Mountain View, CA 94042, USA.
+ * 
+ * You are free to:
+ *     Share - copy and redistribute the material in any medium or format
+ *     Adapt - remix, transform, and build upon the material
+ * 
+ *     The licensor cannot revoke these freedoms as long as you follow the license terms.               
+ *     Under the following terms:
+ *                 
+ *         Attribution - 
+ *             You must give appropriate credit, provide a link to the license, and indicate if changes were made. 
+ *             You may do so in any reasonable manner, but not in any way that suggests the licensor endorses you or your use.
+ *         NonCommercial - 
+ *             You may not use the material for commercial purposes.
+ *         ShareAlike - 
+ *             If you remix, transform, or build upon the material, 
+ *             you must distribute your contributions under the same license as the original.
+ *         No additional restrictions - 
+ *             You may not apply legal terms or technological measures that legally restrict others from doing anything the 
+ *             license permits.
+ * 
+ * Check the Creative Commons website for any details, legalese, and updates.
+ */
+package nz.co.gregs.dbvolution.benchmarks;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import nz.co.gregs.dbvolution.databases.DBDatabase;
+import nz.co.gregs.dbvolution.databases.H2MemoryDB;
+import nz.co.gregs.dbvolution.databases.SQLiteDB;
+import nz.co.gregs.dbvolution.example.CarCompany;
+import nz.co.gregs.dbvolution.example.CompanyLogo;
+import nz.co.gregs.dbvolution.example.LinkCarCompanyAndLogo;
+import nz.co.gregs.dbvolution.example.Marque;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+/**
+ * Shared JMH state providing a populated database for the benchmarks.
+ *
+ * <p>
+ * Each trial creates a fresh H2 memory database or SQLite file database,
+ * creates the example tables, and inserts {@link #ROW_COUNT} car companies and
+ * marques so that the materialisation benchmarks can read up to 1000 rows.
+ *
+ * <p style="color: #F90;">Support DBvolution at
+ * <a href="http://patreon.com/dbvolution" target=new>Patreon</a></p>
+ *
+ * @author Gregory Graham
+ */
+@State(Scope.Benchmark)
+public class DatabaseState {
+
+	public static final int ROW_COUNT = 1000;
+
+	@Param({"H2MemoryDB", "SQLiteDB"})
+	public String databaseType;
+
+	public DBDatabase database;
+
+	private File sqliteFile;
+
+	@Setup(Level.Trial)
+	public void setup() throws Exception {
+		database = createDatabase();
+		database.createTableNoExceptions(new CarCompany());
+		database.createTableNoExceptions(new Marque());
+		database.createTableNoExceptions(new CompanyLogo());
+		database.createTableNoExceptions(new LinkCarCompanyAndLogo());
+
+		List<CarCompany> companies = new ArrayList<>();
+		List<Marque> marques = new ArrayList<>();
+		final Date creationDate = new Date();
+		for (int i = 1; i <= ROW_COUNT; i++) {
+			companies.add(new CarCompany("COMPANY " + i, i));
+			marques.add(new Marque(i, "False", 1246974, "", 0, "", "MARQUE " + i, "", "Y", creationDate, i, Boolean.TRUE));
+		}
+		database.insert(companies);
+		database.insert(marques);
+	}
+
+	@TearDown(Level.Trial)
+	public void tearDown() {
+		database.stop();
+		if (sqliteFile != null) {
+			sqliteFile.delete();
+		}
+	}
+
+	private DBDatabase createDatabase() throws Exception {
+		switch (databaseType) {
+			case "H2MemoryDB":
+				return H2MemoryDB.randomDatabase();
+			case "SQLiteDB":
+				sqliteFile = File.createTempFile("dbvolution-benchmark", ".sqlite");
+				sqliteFile.deleteOnExit();
+				return new SQLiteDB(sqliteFile, "", "");
+			default:
+				throw new IllegalArgumentException("Unknown Database Type: " + databaseType);
+		}
+	}
+}
@@ -0,0 +1,90 @@
+/*
+ * Copyright 2019 Gregory Graham.
+ *
+ * Commercial licenses are available, please contact info@gregs.co.nz for details.
+ * 
+ * This work is licensed under the Creative Commons Attribution-NonCommercial-ShareAlike 4.0 International License. 
+ * To view a copy of this license, visit http://creativecommons.org/licenses/by-nc-sa/4.0/ 
+ * or send a letter to Creative Commons, PO Box 1866, Mountain View, CA 94042, USA.
+ * 
+ * You are free to:
+ *     Share - copy and redistribute the material in any medium or format
+ *     Adapt - remix, transform, and build upon the material
+ * 
+ *     The licensor cannot revoke these freedoms as long as you follow the license terms.               
+ *     Under the following terms:
+ *                 
+ *         Attribution - 
+ *             You must give appropriate credit, provide a link to the license, and indicate if changes were made. 
+ *             You may do so in any reasonable manner, but not in any way that suggests the licensor endorses you or your use.
+ *         NonCommercial - 
+ *             You may not use the material for commercial purposes.
+ *         ShareAlike - 
+ *             If you remix, transform, or build upon the material, 
+ *             you must distribute your contributions under the same license as the original.
+ *         No additional restrictions - 
+ *             You may not apply legal terms or technological measures that legally restrict others from doing anything the 
+ *             license permits.
+ * 
+ * Check the Creative Commons website for any details, legalese, and updates.
+ */
+package nz.co.gregs.dbvolution.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+import nz.co.gregs.dbvolution.DBQuery;
+import nz.co.gregs.dbvolution.example.CarCompany;
+import nz.co.gregs.dbvolution.example.CompanyLogo;
+import nz.co.gregs.dbvolution.example.LinkCarCompanyAndLogo;
+import nz.co.gregs.dbvolution.example.Marque;
+import nz.co.gregs.dbvolution.expressions.BooleanExpression;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures the cost of rendering the SQL for a query without executing it.
+ *
+ * <p>
+ * The wide query selects every column of a single table with several
+ * conditions, the deep query chains four tables through their foreign keys.
+ *
+ * <p style="color: #F90;">Support DBvolution at
+ * <a href="http://patreon.com/dbvolution" target=new>Patreon</a></p>
+ *
+ * @author Gregory Graham
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SQLGenerationBenchmark {
+
+	@Benchmark
+	public String wideQuery(DatabaseState state) {
+		Marque marque = new Marque();
+		marque.name.permittedPatternIgnoreCase("M%");
+		marque.uidMarque.permittedRange(1, 500);
+		DBQuery query = state.database.getDBQuery(marque);
+		query.addCondition(
+				BooleanExpression.allOf(
+						marque.column(marque.enabled).isNotNull(),
+						marque.column(marque.creationDate).isNotNull(),
+						marque.column(marque.statusClassID).isNotNull()
+				)
+		);
+		return query.getSQLForQuery();
+	}
+
+	@Benchmark
+	public String deepQuery(DatabaseState state) {
+		Marque marque = new Marque();
+		marque.uidMarque.permittedRange(1, 500);
+		DBQuery query = state.database.getDBQuery(marque, new CarCompany(), new LinkCarCompanyAndLogo(), new CompanyLogo());
+		return query.getSQLForQuery();
+	}
+}
@@ -18,6 +18,7 @@ package nz.co.gregs.dbvolution;
 import nz.co.gregs.dbvolution.columns.QueryColumn;
 import nz.co.gregs.dbvolution.internal.query.*;
 import nz.co.gregs.dbvolution.databases.DBDatabase;
+import nz.co.gregs.dbvolution.actions.DBQueryable;
 import edu.uci.ics.jung.algorithms.layout.*;
 import edu.uci.ics.jung.graph.Graph;
 import edu.uci.ics.jung.visualization.*;
@@ -46,6 +47,8 @@ import nz.co.gregs.dbvolution.internal.querygraph.*;
 import nz.co.gregs.dbvolution.internal.properties.*;
 import nz.co.gregs.dbvolution.results.ExpressionHasStandardStringResult;
 import nz.co.gregs.dbvolution.expressions.search.SearchAcross;
+import nz.co.gregs.dbvolution.reactive.DBQueryPublisher;
+import nz.co.gregs.dbvolution.query.LazyLoadingPolicy;
 
 /**
  * The Definition of a Query on a Database
@@ -85,7 +88,7 @@ import nz.co.gregs.dbvolution.expressions.search.SearchAcross;
  *
  * @author Gregory Graham
  */
-public class DBQuery implements Serializable {
+public class DBQuery implements DBQueryable, Serializable {
 
 	private static final long serialVersionUID = 1l;
 
@@ -281,6 +284,58 @@ public class DBQuery implements Serializable {
 		return details.getSQLForQuery(database, new QueryState(details), QueryType.SELECT, this.details.getOptions());
 	}
 
+	/**
+	 * Retrieves the rows of this query from the database supplied, if they have
+	 * not already been retrieved.
+	 *
+	 * <p>
+	 * Allows DBQuery to be used with
+	 * {@link DBDatabase#executeAll(nz.co.gregs.dbvolution.actions.DBQueryable...) }
+	 * so that several queries can be run at the same time. Use
+	 * {@link #getAllRows() } afterwards to get the rows.
+	 *
+	 * <p style="color: #F90;">Support DBvolution at
+	 * <a href="http://patreon.com/dbvolution" target=new>Patreon</a></p>
+	 *
+	 * @param db the database to query
+	 * @return this query
+	 * @throws SQLException database errors
+	 */
+	@Override
+	public DBQueryable query(DBDatabase db) throws SQLException, AccidentalCartesianJoinException, AccidentalBlankQueryException {
+		fillResultsIfNeeded(db, details.getOptions());
+		return this;
+	}
+
+	@Override
+	public String toSQLString(DBDatabase db) {
+		return details.getSQLForQuery(db, new QueryState(details), QueryType.SELECT, this.details.getOptions());
+	}
+
+	/**
+	 * Compiles this query into a PreparedDBQuery that can be run many times, by
+	 * many threads, with different parameter values.
+	 *
+	 * <p>
+	 * Add the tables, conditions, sort order, and row limit before preparing the
+	 * query. Use {@link DBParameter} to create the parameters used in the
+	 * conditions.
+	 *
+	 * <p>
+	 * Changes made to this DBQuery after it has been prepared do not affect the
+	 * PreparedDBQuery.
+	 *
+	 * <p style="color: #F90;">Support DBvolution at
+	 * <a href="http://patreon.com/dbvolution" target=new>Patreon</a></p>
+	 *
+	 * @return an immutable, thread-safe, version of this query
+	 * @throws AccidentalBlankQueryException if the query has no conditions and
+	 * blank queries have not been allowed
+	 */
+	public PreparedDBQuery prepare() throws AccidentalBlankQueryException {
+		return new PreparedDBQuery(database, details);
+	}
+
 	/**
 	 * Prints the actual SQL to be used by this query.
 	 *
@@ -384,10 +439,7 @@ public class DBQuery implements Serializable {
 	 */
 	public List<DBQueryRow> getAllRows() throws SQLException, AccidentalCartesianJoinException, AccidentalBlankQueryException {
 		final QueryOptions options = details.getOptions();
-		if (this.needsResults(options)) {
-			details.setQueryType(QueryType.SELECT);
-			database.executeDBQuery(details);
-		}
+		fillResultsIfNeeded(database, options);
 		if (options.getRowLimit() > 0 && details.getResults().size() > options.getRowLimit()) {
 			final int firstItemOfPage = options.getPageIndex() * options.getRowLimit();
 			final int firstItemOfNextPage = (options.getPageIndex() + 1) * options.getRowLimit();
@@ -397,6 +449,29 @@ public class DBQuery implements Serializable {
 		}
 	}
 
+	/**
+	 * Publishes the rows of this query as subscribers request them.
+	 *
+	 * <p>
+	 * Unlike {@link #getAllRows() } the rows are not stored by the query, so
+	 * very large queries can be processed with a fixed amount of memory. The
+	 * query is executed separately for each subscriber, when the subscriber
+	 * first requests rows.
+	 *
+	 * <p style="color: #F90;">Support DBvolution at
+	 * <a href="http://patreon.com/dbvolution" target=new>Patreon</a></p>
+	 *
+	 * @return a publisher of the rows of this query
+	 */
+	public DBQueryPublisher<DBQueryRow> publishRows() {
+		return new DBQueryPublisher<>(this, new DBQueryPublisher.RowConverter<DBQueryRow>() {
+			@Override
+			public DBQueryRow convert(DBQueryRow row) {
+				return row;
+			}
+		});
+	}
+
 	/**
 	 * Sets all the expression columns using data from the current ResultSet row.
 	 *
@@ -502,6 +577,14 @@ public class DBQuery implements Serializable {
 		return details.needsResults(options);
 	}
 
+	private void fillResultsIfNeeded(DBDatabase db, QueryOptions options) throws SQLException, AccidentalCartesianJoinException, AccidentalBlankQueryException {
+		final QueryDetails.ResultsCheck check = details.checkResults(options);
+		if (check.isResultsNeeded()) {
+			details.setQueryType(QueryType.SELECT);
+			db.executeDBQuery(details.getQueryable(check));
+		}
+	}
+
 	/**
 	 * Finds all instances of the exemplar in the results and returns them.
 	 *
@@ -526,10 +609,7 @@ public class DBQuery implements Serializable {
 	public <R extends DBRow> List<R> getAllInstancesOf(R exemplar) throws SQLException, AccidentalCartesianJoinException, AccidentalBlankQueryException {
 		List<R> arrayList = new ArrayList<>();
 		final QueryOptions options = details.getOptions();
-		if (details.needsResults(options)) {
-			details.setQueryType(QueryType.SELECT);
-			database.executeDBQuery(details);
-		}
+		fillResultsIfNeeded(database, options);
 		if (!details.getResults().isEmpty()) {
 			for (DBQueryRow row : details.getResults()) {
 				final R found = row.get(exemplar);
@@ -566,10 +646,7 @@ public class DBQuery implements Serializable {
 	 */
 	public void print(PrintStream ps) throws SQLException, AccidentalCartesianJoinException, AccidentalBlankQueryException {
 		final QueryOptions options = details.getOptions();
-		if (needsResults(options)) {
-			details.setQueryType(QueryType.SELECT);
-			database.executeDBQuery(details);
-		}
+		fillResultsIfNeeded(database, options);
 
 		for (DBQueryRow row : details.getResults()) {
 			String tableSeparator = "";
@@ -620,10 +697,7 @@ public class DBQuery implements Serializable {
 	 */
 	public void printAllDataColumns(PrintStream printStream) throws SQLException, AccidentalCartesianJoinException, AccidentalBlankQueryException {
 		final QueryOptions options = details.getOptions();
-		if (needsResults(options)) {
-			details.setQueryType(QueryType.SELECT);
-			database.executeDBQuery(details);
-		}
+		fillResultsIfNeeded(database, options);
 
 		for (DBQueryRow row : details.getResults()) {
 			for (DBRow tab : this.details.getAllQueryTables()) {
@@ -653,10 +727,7 @@ public class DBQuery implements Serializable {
 	 */
 	public void printAllPrimaryKeys(PrintStream ps) throws SQLException, AccidentalCartesianJoinException, AccidentalBlankQueryException {
 		final QueryOptions options = details.getOptions();
-		if (needsResults(options)) {
-			details.setQueryType(QueryType.SELECT);
-			database.executeDBQuery(details);
-		}
+		fillResultsIfNeeded(database, options);
 
 		for (DBQueryRow row : details.getResults()) {
 			for (DBRow tab : this.details.getAllQueryTables()) {
@@ -982,6 +1053,61 @@ public class DBQuery implements Serializable {
 		return this;
 	}
 
+	/**
+	 * Changes which columns are left out of the query and loaded when their
+	 * value is first used.
+	 *
+	 * <p>
+	 * By default only columns annotated with
+	 * {@link nz.co.gregs.dbvolution.annotations.DBLazy} are loaded lazily. Lazy
+	 * columns are retrieved for all the rows of their table in the results,
+	 * using the primary keys, the first time any of them is used.
+	 *
+	 * @param policy the policy to use for this query
+	 * <p style="color: #F90;">Support DBvolution at
+	 * <a href="http://patreon.com/dbvolution" target=new>Patreon</a></p>
+	 * @return this DBQuery instance
+	 */
+	public DBQuery setLazyLoadingPolicy(LazyLoadingPolicy policy) {
+		this.details.getOptions().setLazyLoadingPolicy(policy);
+
+		return this;
+	}
+
+	/**
+	 * Changes whether the conditions of the query are simplified before the SQL
+	 * is generated.
+	 *
+	 * <p>
+	 * By default DBvolution folds constants, flattens nested ANDs and ORs,
+	 * removes duplicate conditions, and combines ORed equality comparisons into
+	 * IN comparisons. Turn simplification off to see the conditions exactly as
+	 * they were added when debugging the generated SQL.
+	 *
+	 * @param simplify FALSE to generate the conditions exactly as added
+	 * <p style="color: #F90;">Support DBvolution at
+	 * <a href="http://patreon.com/dbvolution" target=new>Patreon</a></p>
+	 * @return this DBQuery instance
+	 * @see nz.co.gregs.dbvolution.expressions.BooleanExpressionSimplifier
+	 */
+	public DBQuery setSimplifyConditions(boolean simplify) {
+		this.details.getOptions().setSimplifyConditions(simplify);
+
+		return this;
+	}
+
+	/**
+	 * Returns the policy used to decide which columns are loaded when first used.
+	 *
+	 * <p style="color: #F90;">Support DBvolution at
+	 * <a href="http://patreon.com/dbvolution" target=new>Patreon</a></p>
+	 *
+	 * @return the lazy loading policy of this query
+	 */
+	public LazyLoadingPolicy getLazyLoadingPolicy() {
+		return this.details.getOptions().getLazyLoadingPolicy();
+	}
+
 	/**
 	 * Constructs the SQL for this DBQuery and executes it on the database,
 	 * returning the rows found.
@@ -1465,10 +1591,7 @@ public class DBQuery implements Serializable {
 	 */
 	public List<DBQueryRow> getAllRowsContaining(DBRow instance) throws SQLException, AccidentalCartesianJoinException, AccidentalBlankQueryException {
 		final QueryOptions options = details.getOptions();
-		if (this.needsResults(options)) {
-			details.setQueryType(QueryType.SELECT);
-			database.executeDBQuery(details);
-		}
+		fillResultsIfNeeded(database, options);
 		List<DBQueryRow> returnList = new ArrayList<>();
 		for (DBQueryRow row : details.getResults()) {
 			if (row.get(instance) == instance) {
@@ -1533,6 +1656,67 @@ public class DBQuery implements Serializable {
 		return details.getCurrentPage();
 	}
 
+	/**
+	 * Retrieves the page of DBQueryRows that follows the row supplied.
+	 *
+	 * <p>
+	 * Keyset pagination finds the next page by requiring the rows to sort after
+	 * the last row of the previous page, rather than skipping the earlier rows.
+	 * With an index on the sort columns deep pages cost the same as the first
+	 * page.
+	 *
+	 * <p>
+	 * Use {@link #setRowLimit(int) } to set the page size, and
+	 * {@link #setSortOrder(nz.co.gregs.dbvolution.columns.ColumnProvider...) }
+	 * to set the order of the rows. The primary keys of the tables are added to
+	 * the end of the sort order so every row has a unique position. Only columns
+	 * can be used to sort the query and the last row must have values for all
+	 * the sort columns and primary keys.
+	 *
+	 * <p>
+	 * Call with NULL to get the first page, then call with the last row of each
+	 * page to get the following page. An empty list indicates there are no more
+	 * rows.
+	 *
+	 * @param lastRow the last row of the previous page, or NULL for the first
+	 * page
+	 * <p style="color: #F90;">Support DBvolution at
+	 * <a href="http://patreon.com/dbvolution" target=new>Patreon</a></p>
+	 * @return a list of the DBQueryRows that follow the lastRow.
+	 * @throws java.sql.SQLException java.sql.SQLException
+	 * @throws nz.co.gregs.dbvolution.exceptions.AccidentalBlankQueryException
+	 */
+	public List<DBQueryRow> getPageAfter(DBQueryRow lastRow) throws SQLException, AccidentalCartesianJoinException, AccidentalBlankQueryException {
+		final KeysetPagination keyset = new KeysetPagination(details);
+		return getPageAfter(keyset, lastRow == null ? null : keyset.getConditionForRowsAfter(lastRow));
+	}
+
+	/**
+	 * Retrieves the page of DBQueryRows that follows the row supplied.
+	 *
+	 * <p>
+	 * Used by {@link DBTable#getPageAfter(nz.co.gregs.dbvolution.DBRow)}.
+	 *
+	 * @param lastRow the last row of the previous page, or NULL for the first
+	 * page
+	 * @return a list of the DBQueryRows that follow the lastRow.
+	 */
+	List<DBQueryRow> getPageAfterRow(DBRow lastRow) throws SQLException, AccidentalCartesianJoinException, AccidentalBlankQueryException {
+		final KeysetPagination keyset = new KeysetPagination(details);
+		return getPageAfter(keyset, lastRow == null ? null : keyset.getConditionForRowsAfter(lastRow));
+	}
+
+	private List<DBQueryRow> getPageAfter(KeysetPagination keyset, BooleanExpression seekCondition) throws SQLException, AccidentalCartesianJoinException, AccidentalBlankQueryException {
+		if (details.getOptions().getRowLimit() < 1) {
+			throw new DBRuntimeException("Keyset Pagination Requires A Row Limit: use setRowLimit(int) to set the page size");
+		}
+		final QueryDetails page = details.copyForKeysetPage(keyset.getSortOrder(), seekCondition);
+		page.setQueryType(QueryType.ROWSFORPAGE);
+		page.setResultsPageIndex(0);
+		database.executeDBQuery(page);
+		return new ArrayList<>(page.getCurrentPage());
+	}
+
 	/**
 	 * Use this method to add complex conditions to the DBQuery.
 	 *
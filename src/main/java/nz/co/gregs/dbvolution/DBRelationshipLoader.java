@@ -0,0 +1,218 @@
+/*
+ * Copyright 2019 Gregory Graham.
+ *
+ * Commercial licenses are available, please contact info@gregs.co.nz for details.
+ * 
+ * This work is licensed under the Creative Commons Attribution-NonCommercial-ShareAlike 4.0 International License. 
+ * To view a copy of this license, visit http://creativecommons.org/licenses/by-nc-sa/4.0/ 
+ * or send a letter to Creative Commons, PO Box 1866, Mountain View, CA 94042, USA.
+ * 
+ * You are free to:
+ *     Share - copy and redistribute the material in any medium or format
+ *     Adapt - remix, transform, and build upon the material
+ * 
+ *     The licensor cannot revoke these freedoms as long as you follow the license terms.               
+ *     Under the following terms:
+ *                 
+ *         Attribution - 
+ *             You must give appropriate credit, provide a link to the license, and indicate if changes were made. 
+ *             You may do so in any reasonable manner, but not in any way that suggests the licensor endorses you or your use.
+ *         NonCommercial - 
+ *             You may not use the material for commercial purposes.
+ *         ShareAlike - 
+ *             If you remix, transform, or build upon the material, 
+ *             you must distribute your contributions under the same license as the original.
+ *         No additional restrictions - 
+ *             You may not apply legal terms or technological measures that legally restrict others from doing anything the 
+ *             license permits.
+ * 
+ * Check the Creative Commons website for any details, legalese, and updates.
+ */
+package nz.co.gregs.dbvolution;
+
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import nz.co.gregs.dbvolution.columns.ColumnProvider;
+import nz.co.gregs.dbvolution.databases.DBDatabase;
+import nz.co.gregs.dbvolution.datatypes.QueryableDatatype;
+import nz.co.gregs.dbvolution.exceptions.AccidentalBlankQueryException;
+import nz.co.gregs.dbvolution.exceptions.AccidentalCartesianJoinException;
+import nz.co.gregs.dbvolution.exceptions.DBRuntimeException;
+import nz.co.gregs.dbvolution.internal.database.PrimaryKeyCache;
+import nz.co.gregs.dbvolution.internal.properties.PropertyWrapper;
+import nz.co.gregs.dbvolution.internal.properties.PropertyWrapperDefinition;
+import nz.co.gregs.dbvolution.operators.DBPermittedValuesOperator;
+
+/**
+ * Retrieves the related rows for many rows at once.
+ *
+ * <p>
+ * Following a foreign key for each row of a list in a loop requires one query
+ * per row. DBRelationshipLoader collects the key values of all the rows and
+ * retrieves the related rows with a few IN queries, then sets the related
+ * rows on the fields of each row annotated with
+ * {@link nz.co.gregs.dbvolution.annotations.AutoFillDuringQueryIfPossible},
+ * just as a query including both tables would.
+ *
+ * <p>
+ * The foreign key can be on either side of the relationship. If the rows
+ * contain the foreign key the referenced rows are retrieved, for instance the
+ * CarCompany of each Marque. Otherwise the rows containing the foreign key are
+ * retrieved, for instance all the Marques of each CarCompany. Foreign keys from
+ * a table to itself retrieve the referenced rows.
+ *
+ * <p style="color: #F90;">Support DBvolution at
+ * <a href="http://patreon.com/dbvolution" target=new>Patreon</a></p>
+ *
+ * @author Gregory Graham
+ */
+public class DBRelationshipLoader {
+
+	private final DBDatabase database;
+	private int batchSize = 0;
+
+	/**
+	 * Creates a loader that retrieves rows from the database.
+	 *
+	 * @param database the database to query
+	 */
+	public DBRelationshipLoader(DBDatabase database) {
+		this.database = database;
+	}
+
+	/**
+	 * Sets the maximum number of key values used in each query.
+	 *
+	 * <p>
+	 * By default the database definition's
+	 * {@link nz.co.gregs.dbvolution.databases.definitions.DBDefinition#getMaximumInListSize() maximum IN list size}
+	 * is used.
+	 *
+	 * @param batchSize the number of values in each IN clause
+	 * <p style="color: #F90;">Support DBvolution at
+	 * <a href="http://patreon.com/dbvolution" target=new>Patreon</a></p>
+	 * @return this loader
+	 */
+	public DBRelationshipLoader setBatchSize(int batchSize) {
+		if (batchSize < 1) {
+			throw new DBRuntimeException("Invalid Batch Size: at least 1 value is required in each query");
+		}
+		this.batchSize = batchSize;
+		return this;
+	}
+
+	/**
+	 * Retrieves the rows related to each row by the foreign key and sets them on
+	 * the auto-filling fields of each row.
+	 *
+	 * <p>
+	 * The example provides the type of the related rows and may have conditions
+	 * of its own that the related rows must also match.
+	 *
+	 * <p>
+	 * The rows supplied must have at least one field annotated with
+	 * {@link nz.co.gregs.dbvolution.annotations.AutoFillDuringQueryIfPossible}
+	 * that can hold the related rows. Array and list fields receive all the
+	 * related rows, possibly none, and other fields receive the first related row
+	 * or NULL. Related rows are shared by all the rows they relate to.
+	 *
+	 * @param <P> the type of the rows supplied
+	 * @param <R> the type of the related rows
+	 * @param rows the rows that need their related rows
+	 * @param foreignKey the foreign key column of either table
+	 * @param example an example of the related table
+	 * <p style="color: #F90;">Support DBvolution at
+	 * <a href="http://patreon.com/dbvolution" target=new>Patreon</a></p>
+	 * @return all the related rows retrieved
+	 * @throws SQLException database errors
+	 */
+	public <P extends DBRow, R extends DBRow> List<R> loadRelatedRows(List<P> rows, ColumnProvider foreignKey, R example) throws SQLException, AccidentalCartesianJoinException, AccidentalBlankQueryException {
+		final List<R> allRelatedRows = new ArrayList<>();
+		if (rows.isEmpty()) {
+			return allRelatedRows;
+		}
+		@SuppressWarnings("unchecked")
+		final Class<R> relatedClass = (Class<R>) example.getClass();
+		for (P row : rows) {
+			if (row.getAutoFillingPropertyWrappersFor(relatedClass).isEmpty()) {
+				throw new DBRuntimeException("No Field For Related Rows: " + row.getClass().getSimpleName() + " has no field annotated with @AutoFillDuringQueryIfPossible that can hold " + relatedClass.getSimpleName());
+			}
+		}
+		final Map<P, List<R>> relatedRows = new IdentityHashMap<>();
+		for (P row : rows) {
+			relatedRows.put(row, new ArrayList<R>());
+		}
+		final PropertyWrapperDefinition foreignKeyDefn = foreignKey.getColumn().getPropertyWrapper().getPropertyWrapperDefinition();
+		if (!foreignKeyDefn.isForeignKey()) {
+			throw new DBRuntimeException("Not A Foreign Key: " + foreignKeyDefn.qualifiedJavaName() + " is not a foreign key");
+		}
+		final Class<?> rowClass = rows.get(0).getClass();
+		final String referencedColumnName = foreignKeyDefn.referencedPropertyDefinitionIdentity().getColumnName();
+		final String rowColumnName;
+		final String relatedColumnName;
+		if (foreignKeyDefn.getRowDefinitionClassWrapper().adapteeClass().isAssignableFrom(rowClass)) {
+			rowColumnName = foreignKeyDefn.getColumnName();
+			relatedColumnName = referencedColumnName;
+		} else if (foreignKeyDefn.referencedClass().isAssignableFrom(rowClass)) {
+			rowColumnName = referencedColumnName;
+			relatedColumnName = foreignKeyDefn.getColumnName();
+		} else {
+			throw new DBRuntimeException("Unrelated Foreign Key: " + foreignKeyDefn.qualifiedJavaName() + " does not connect to " + rowClass.getSimpleName());
+		}
+
+		final Map<Object, List<P>> rowsByKey = new LinkedHashMap<>();
+		final List<Object> values = new ArrayList<>();
+		for (P row : rows) {
+			final QueryableDatatype<?> qdt = getColumn(row, rowColumnName);
+			if (!qdt.isNull()) {
+				final Object key = PrimaryKeyCache.getKey(qdt.getValue());
+				List<P> rowsWithKey = rowsByKey.get(key);
+				if (rowsWithKey == null) {
+					rowsWithKey = new ArrayList<>();
+					rowsByKey.put(key, rowsWithKey);
+					values.add(qdt.getValue());
+				}
+				rowsWithKey.add(row);
+			}
+		}
+
+		final int maximumBatch = batchSize > 0 ? batchSize : Math.max(1, database.getDefinition().getMaximumInListSize());
+		int start = 0;
+		while (start < values.size()) {
+			final int end = (int) Math.min((long) start + maximumBatch, values.size());
+			final List<Object> batch = new ArrayList<>(values.subList(start, end));
+			start = end;
+			final R batchExample = DBRow.copyDBRow(example);
+			final ColumnProvider relatedColumn = getColumn(batchExample, relatedColumnName).getColumn(batchExample);
+			final DBQuery query = database.getDBQuery(batchExample);
+			query.addCondition(new DBPermittedValuesOperator<>(batch).generateWhereExpression(database.getDefinition(), relatedColumn));
+			final List<R> batchRows = query.getAllInstancesOf(batchExample);
+			allRelatedRows.addAll(batchRows);
+			for (R relatedRow : batchRows) {
+				final List<P> rowsWithKey = rowsByKey.get(PrimaryKeyCache.getKey(getColumn(relatedRow, relatedColumnName).getValue()));
+				if (rowsWithKey != null) {
+					for (P row : rowsWithKey) {
+						relatedRows.get(row).add(relatedRow);
+					}
+				}
+			}
+		}
+		for (P row : rows) {
+			row.setAutoFilledFields(relatedClass, relatedRows.get(row));
+		}
+		return allRelatedRows;
+	}
+
+	private static QueryableDatatype<?> getColumn(DBRow row, String columnName) {
+		for (PropertyWrapper prop : row.getColumnPropertyWrappers()) {
+			if (prop.columnName().equalsIgnoreCase(columnName)) {
+				return prop.getQueryableDatatype();
+			}
+		}
+		throw new DBRuntimeException("Unknown Column: " + row.getClass().getSimpleName() + " does not have a column called " + columnName);
+	}
+}
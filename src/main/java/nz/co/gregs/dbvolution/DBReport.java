@@ -31,6 +31,7 @@ import nz.co.gregs.dbvolution.exceptions.UnableToSetDBReportFieldException;
 import nz.co.gregs.dbvolution.expressions.BooleanExpression;
 import nz.co.gregs.dbvolution.expressions.DBExpression;
 import nz.co.gregs.dbvolution.expressions.SortProvider;
+import nz.co.gregs.dbvolution.reactive.DBQueryPublisher;
 import nz.co.gregs.dbvolution.query.RowDefinition;
 
 /**
@@ -184,6 +185,35 @@ public class DBReport extends RowDefinition {
 		reportRows = getReportsFromQueryResults(allRows, exampleReport);
 		return reportRows;
 	}
+
+	/**
+	 * Publishes the report rows of the supplied DBReport as subscribers request
+	 * them.
+	 *
+	 * <p>
+	 * Uses the same query as
+	 * {@link #getAllRows(nz.co.gregs.dbvolution.databases.DBDatabase, nz.co.gregs.dbvolution.DBReport, nz.co.gregs.dbvolution.DBRow...)}
+	 * but reads the rows in batches sized to the subscriber's demand.
+	 *
+	 * @param <A> DBReport type
+	 * @param database database
+	 * @param exampleReport exampleReport
+	 * @param extraExamples extra conditions for the report
+	 * <p style="color: #F90;">Support DBvolution at
+	 * <a href="http://patreon.com/dbvolution" target=new>Patreon</a></p>
+	 * @return a publisher of DBReport instances representing the results of the
+	 * report query
+	 */
+	public static <A extends DBReport> DBQueryPublisher<A> publishRows(DBDatabase database, final A exampleReport, DBRow... extraExamples) {
+		DBQuery query = getDBQuery(database, exampleReport, extraExamples);
+		query.setBlankQueryAllowed(true);
+		return new DBQueryPublisher<>(query, new DBQueryPublisher.RowConverter<A>() {
+			@Override
+			public A convert(DBQueryRow row) {
+				return getReportInstance(exampleReport, row);
+			}
+		});
+	}
 	private final List<DBRow> optionalTables = new ArrayList<DBRow>();
 
 	@Override
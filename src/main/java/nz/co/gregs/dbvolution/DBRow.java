@@ -1881,6 +1881,69 @@ abstract public class DBRow extends RowDefinition implements Serializable {
 		}
 	}
 
+	/**
+	 * Finds the auto-filling fields of this row that can hold instances of the
+	 * related class.
+	 *
+	 * @param relatedClass the class of the related rows
+	 * @return the fields that accept the related class, possibly empty
+	 */
+	List<PropertyWrapper> getAutoFillingPropertyWrappersFor(Class<? extends DBRow> relatedClass) {
+		List<PropertyWrapper> found = new ArrayList<>();
+		for (PropertyWrapper field : getAutoFillingPropertyWrappers()) {
+			if (field.isAutoFilling()) {
+				final Class<?> fieldType = field.getRawJavaType();
+				final Class<?> requiredClass;
+				if (fieldType.isArray()) {
+					requiredClass = fieldType.getComponentType();
+				} else if (Collection.class.isAssignableFrom(fieldType)) {
+					requiredClass = field.getAutoFillingClass();
+				} else {
+					requiredClass = fieldType;
+				}
+				if (DBRow.class.isAssignableFrom(requiredClass)
+						&& !requiredClass.equals(DBRow.class)
+						&& requiredClass.isAssignableFrom(relatedClass)) {
+					found.add(field);
+				}
+			}
+		}
+		return found;
+	}
+
+	/**
+	 * Sets the auto-filling fields of this row that hold instances of the
+	 * related class to the related rows supplied.
+	 *
+	 * <p>
+	 * Array and list fields receive all the related rows, other fields receive
+	 * the first related row or NULL.
+	 *
+	 * @param relatedClass the class of the related rows
+	 * @param relatedRows the rows related to this row
+	 * @return TRUE if at least one field was set
+	 */
+	boolean setAutoFilledFields(Class<? extends DBRow> relatedClass, List<? extends DBRow> relatedRows) {
+		final List<PropertyWrapper> fields = getAutoFillingPropertyWrappersFor(relatedClass);
+		for (PropertyWrapper field : fields) {
+			final Class<?> fieldType = field.getRawJavaType();
+			if (fieldType.isArray()) {
+				Object newInstance = Array.newInstance(fieldType.getComponentType(), relatedRows.size());
+				for (int index = 0; index < relatedRows.size(); index++) {
+					Array.set(newInstance, index, relatedRows.get(index));
+				}
+				field.setRawJavaValue(newInstance);
+			} else if (Collection.class.isAssignableFrom(fieldType)) {
+				field.setRawJavaValue(new ArrayList<>(relatedRows));
+			} else if (relatedRows.isEmpty()) {
+				field.setRawJavaValue(null);
+			} else {
+				field.setRawJavaValue(relatedRows.get(0));
+			}
+		}
+		return !fields.isEmpty();
+	}
+
 	@SuppressWarnings("unchecked")
 	void setAutoFilledFields(DBQueryable query) throws SQLException, AccidentalCartesianJoinException, AccidentalBlankQueryException {
 		boolean arrayRequired = false;
@@ -0,0 +1,514 @@
+/*
+ * Copyright 2019 Gregory Graham.
+ *
+ * Commercial licenses are available, please contact info@gregs.co.nz for details.
+ * 
+ * This work is licensed under the Creative Commons Attribution-NonCommercial-ShareAlike 4.0 International License. 
+ * To view a copy of this license, visit http://creativecommons.org/licenses/by-nc-sa/4.0/ 
+ * or send a letter to Creative Commons, PO Box 1866, Mountain View, CA 94042, USA.
+ * 
+ * You are free to:
+ *     Share - copy and redistribute the material in any medium or format
+ *     Adapt - remix, transform, and build upon the material
+ * 
+ *     The licensor cannot revoke these freedoms as long as you follow the license terms.               
+ *     Under the following terms:
+ *                 
+ *         Attribution - 
+ *             You must give appropriate credit, provide a link to the license, and indicate if changes were made. 
+ *             You may do so in any reasonable manner, but not in any way that suggests the licensor endorses you or your use.
+ *         NonCommercial - 
+ *             You may not use the material for commercial purposes.
+ *         ShareAlike - 
+ *             If you remix, transform, or build upon the material, 
+ *             you must distribute your contributions under the same license as the original.
+ *         No additional restrictions - 
+ *             You may not apply legal terms or technological measures that legally restrict others from doing anything the 
+ *             license permits.
+ * 
+ * Check the Creative Commons website for any details, legalese, and updates.
+ */
+package nz.co.gregs.dbvolution;
+
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import nz.co.gregs.dbvolution.actions.DBAction;
+import nz.co.gregs.dbvolution.actions.DBActionList;
+import nz.co.gregs.dbvolution.actions.DBBulkInsert;
+import nz.co.gregs.dbvolution.actions.DBDelete;
+import nz.co.gregs.dbvolution.actions.DBInsert;
+import nz.co.gregs.dbvolution.actions.DBUpdate;
+import nz.co.gregs.dbvolution.actions.DBUpdateBatch;
+import nz.co.gregs.dbvolution.actions.DBUpdateLargeObjects;
+import nz.co.gregs.dbvolution.databases.DBDatabase;
+import nz.co.gregs.dbvolution.datatypes.QueryableDatatype;
+import nz.co.gregs.dbvolution.exceptions.ExceptionThrownDuringTransaction;
+import nz.co.gregs.dbvolution.transactions.DBTransaction;
+
+/**
+ * A unit of work that collects inserts, updates, and deletes and writes them
+ * to the database in one transaction.
+ *
+ * <p>
+ * Rows are registered with the session using {@link #insert(nz.co.gregs.dbvolution.DBRow...)
+ * }, {@link #track(nz.co.gregs.dbvolution.DBRow...) }, and {@link #delete(nz.co.gregs.dbvolution.DBRow...)
+ * } but nothing is sent to the database until {@link #flush() } is called.
+ *
+ * <p>
+ * Tracked rows are only updated if they have changed, as reported by the
+ * {@link QueryableDatatype#hasChanged() } state of their fields, and a row
+ * tracked several times, or changed several times, produces at most one
+ * update.
+ *
+ * <p>
+ * During the flush the tables are ordered using their foreign keys so that
+ * referenced rows are inserted before the rows that reference them, and
+ * deleted after them. Inserts for a table are sent as a bulk insert where
+ * possible and simple updates are sent as a JDBC batch when the database
+ * {@link DBDatabase#batchSQLStatementsWhenPossible() batches SQL statements}.
+ *
+ * <p>
+ * Inserted rows remain tracked after the flush so later changes to them will
+ * be written by the next flush.
+ *
+ * <p style="color: #F90;">Support DBvolution at
+ * <a href="http://patreon.com/dbvolution" target=new>Patreon</a></p>
+ *
+ * @author Gregory Graham
+ */
+public class DBSession {
+
+	private final DBDatabase database;
+	private final Set<DBRow> newRows = Collections.newSetFromMap(new IdentityHashMap<DBRow, Boolean>());
+	private final Set<DBRow> trackedRows = Collections.newSetFromMap(new IdentityHashMap<DBRow, Boolean>());
+	private final Set<DBRow> deletedRows = Collections.newSetFromMap(new IdentityHashMap<DBRow, Boolean>());
+	private final List<DBRow> registrationOrder = new ArrayList<>();
+
+	/**
+	 * Creates a session for the database.
+	 *
+	 * <p>
+	 * Normally created with {@link DBDatabase#getDBSession() }.
+	 *
+	 * @param database the database the changes will be written to
+	 */
+	public DBSession(DBDatabase database) {
+		this.database = database;
+	}
+
+	/**
+	 * Schedules the rows to be inserted during the next flush.
+	 *
+	 * @param rows the new rows
+	 * <p style="color: #F90;">Support DBvolution at
+	 * <a href="http://patreon.com/dbvolution" target=new>Patreon</a></p>
+	 * @return this session
+	 */
+	public synchronized DBSession insert(DBRow... rows) {
+		return insert(Arrays.asList(rows));
+	}
+
+	/**
+	 * Schedules the rows to be inserted during the next flush.
+	 *
+	 * @param rows the new rows
+	 * <p style="color: #F90;">Support DBvolution at
+	 * <a href="http://patreon.com/dbvolution" target=new>Patreon</a></p>
+	 * @return this session
+	 */
+	public synchronized DBSession insert(Collection<? extends DBRow> rows) {
+		for (DBRow row : rows) {
+			if (deletedRows.remove(row)) {
+				trackedRows.add(row);
+			} else if (!trackedRows.contains(row) && newRows.add(row)) {
+				registrationOrder.add(row);
+			}
+		}
+		return this;
+	}
+
+	/**
+	 * Starts tracking rows that already exist in the database.
+	 *
+	 * <p>
+	 * Any changes made to the rows before the next flush will be written as an
+	 * update. Unchanged rows are ignored.
+	 *
+	 * @param rows rows retrieved from the database
+	 * <p style="color: #F90;">Support DBvolution at
+	 * <a href="http://patreon.com/dbvolution" target=new>Patreon</a></p>
+	 * @return this session
+	 */
+	public synchronized DBSession track(DBRow... rows) {
+		return track(Arrays.asList(rows));
+	}
+
+	/**
+	 * Starts tracking rows that already exist in the database.
+	 *
+	 * <p>
+	 * Any changes made to the rows before the next flush will be written as an
+	 * update. Unchanged rows are ignored.
+	 *
+	 * @param rows rows retrieved from the database
+	 * <p style="color: #F90;">Support DBvolution at
+	 * <a href="http://patreon.com/dbvolution" target=new>Patreon</a></p>
+	 * @return this session
+	 */
+	public synchronized DBSession track(Collection<? extends DBRow> rows) {
+		for (DBRow row : rows) {
+			if (row.getDefined()) {
+				if (!newRows.contains(row) && !deletedRows.contains(row) && trackedRows.add(row)) {
+					registrationOrder.add(row);
+				}
+			} else {
+				insert(row);
+			}
+		}
+		return this;
+	}
+
+	/**
+	 * Schedules the rows to be deleted during the next flush.
+	 *
+	 * <p>
+	 * Deleting a row that was inserted into this session, and not yet flushed,
+	 * simply removes it from the session.
+	 *
+	 * @param rows the rows to delete
+	 * <p style="color: #F90;">Support DBvolution at
+	 * <a href="http://patreon.com/dbvolution" target=new>Patreon</a></p>
+	 * @return this session
+	 */
+	public synchronized DBSession delete(DBRow... rows) {
+		return delete(Arrays.asList(rows));
+	}
+
+	/**
+	 * Schedules the rows to be deleted during the next flush.
+	 *
+	 * <p>
+	 * Deleting a row that was inserted into this session, and not yet flushed,
+	 * simply removes it from the session.
+	 *
+	 * @param rows the rows to delete
+	 * <p style="color: #F90;">Support DBvolution at
+	 * <a href="http://patreon.com/dbvolution" target=new>Patreon</a></p>
+	 * @return this session
+	 */
+	public synchronized DBSession delete(Collection<? extends DBRow> rows) {
+		for (DBRow row : rows) {
+			if (newRows.remove(row)) {
+				removeFromRegistrationOrder(row);
+			} else {
+				trackedRows.remove(row);
+				if (deletedRows.add(row) && !containsIdentical(registrationOrder, row)) {
+					registrationOrder.add(row);
+				}
+			}
+		}
+		return this;
+	}
+
+	/**
+	 * Stops tracking the rows without writing any of their changes.
+	 *
+	 * @param rows the rows to forget
+	 * <p style="color: #F90;">Support DBvolution at
+	 * <a href="http://patreon.com/dbvolution" target=new>Patreon</a></p>
+	 * @return this session
+	 */
+	public synchronized DBSession evict(DBRow... rows) {
+		for (DBRow row : rows) {
+			newRows.remove(row);
+			trackedRows.remove(row);
+			deletedRows.remove(row);
+			removeFromRegistrationOrder(row);
+		}
+		return this;
+	}
+
+	/**
+	 * Removes all rows from the session without writing any of their changes.
+	 */
+	public synchronized void clear() {
+		newRows.clear();
+		trackedRows.clear();
+		deletedRows.clear();
+		registrationOrder.clear();
+	}
+
+	/**
+	 * Indicates whether the next flush will change the database.
+	 *
+	 * <p style="color: #F90;">Support DBvolution at
+	 * <a href="http://patreon.com/dbvolution" target=new>Patreon</a></p>
+	 *
+	 * @return TRUE if there are rows to insert, update, or delete, otherwise
+	 * FALSE.
+	 */
+	public synchronized boolean hasPendingChanges() {
+		if (!newRows.isEmpty() || !deletedRows.isEmpty()) {
+			return true;
+		}
+		for (DBRow row : trackedRows) {
+			if (hasChanged(row)) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * Writes all pending inserts, updates, and deletes to the database in a
+	 * single transaction.
+	 *
+	 * <p>
+	 * If any of the changes fail the transaction is rolled back and the session
+	 * is left unchanged so that the flush can be retried.
+	 *
+	 * <p style="color: #F90;">Support DBvolution at
+	 * <a href="http://patreon.com/dbvolution" target=new>Patreon</a></p>
+	 *
+	 * @return the actions performed on the database
+	 * @throws SQLException database exceptions
+	 * @throws nz.co.gregs.dbvolution.exceptions.ExceptionThrownDuringTransaction
+	 */
+	public synchronized DBActionList flush() throws SQLException, ExceptionThrownDuringTransaction {
+		if (!hasPendingChanges()) {
+			return new DBActionList();
+		}
+		final Map<Class<?>, List<DBRow>> inserts = groupByTable(newRows);
+		final Map<Class<?>, List<DBRow>> updates = new LinkedHashMap<>();
+		for (Map.Entry<Class<?>, List<DBRow>> entry : groupByTable(trackedRows).entrySet()) {
+			List<DBRow> changed = new ArrayList<>();
+			for (DBRow row : entry.getValue()) {
+				if (hasChanged(row)) {
+					changed.add(row);
+				}
+			}
+			if (!changed.isEmpty()) {
+				updates.put(entry.getKey(), changed);
+			}
+		}
+		final Map<Class<?>, List<DBRow>> deletes = groupByTable(deletedRows);
+		final List<Class<?>> tableOrder = sortByForeignKeys(registrationOrder);
+
+		DBActionList actions = database.doTransaction(new DBTransaction<DBActionList>() {
+			@Override
+			public DBActionList doTransaction(DBDatabase db) throws ExceptionThrownDuringTransaction {
+				try {
+					DBActionList actions = new DBActionList();
+					for (Class<?> table : tableOrder) {
+						actions.addAll(flushInserts(db, inserts.get(table)));
+					}
+					for (Class<?> table : tableOrder) {
+						actions.addAll(flushUpdates(db, updates.get(table)));
+					}
+					List<Class<?>> reversed = new ArrayList<>(tableOrder);
+					Collections.reverse(reversed);
+					for (Class<?> table : reversed) {
+						actions.addAll(flushDeletes(db, deletes.get(table)));
+					}
+					return actions;
+				} catch (SQLException ex) {
+					throw new ExceptionThrownDuringTransaction(ex);
+				}
+			}
+		});
+
+		for (DBRow row : newRows) {
+			row.setDefined();
+			row.setSimpleTypesToUnchanged();
+		}
+		trackedRows.addAll(newRows);
+		newRows.clear();
+		for (List<DBRow> rows : updates.values()) {
+			for (DBRow row : rows) {
+				row.setSimpleTypesToUnchanged();
+			}
+		}
+		for (DBRow row : deletedRows) {
+			row.setUndefined();
+			removeFromRegistrationOrder(row);
+		}
+		deletedRows.clear();
+		return actions;
+	}
+
+	private DBActionList flushInserts(DBDatabase db, List<DBRow> rows) throws SQLException {
+		DBActionList actions = new DBActionList();
+		if (rows != null && !rows.isEmpty()) {
+			for (DBRow row : rows) {
+				db.getKeyAllocator().allocateKeys(row);
+			}
+			if (rows.size() > 1 && primaryKeysHaveBeenSet(rows)) {
+				DBBulkInsert bulkInsert = new DBBulkInsert(rows.get(0));
+				for (DBRow row : rows) {
+					bulkInsert.addRow(row);
+				}
+				actions.addAll(bulkInsert.insert(db));
+			} else {
+				for (DBRow row : rows) {
+					actions.addAll(DBInsert.save(db, row));
+				}
+			}
+		}
+		return actions;
+	}
+
+	private DBActionList flushUpdates(DBDatabase db, List<DBRow> rows) throws SQLException {
+		DBActionList actions = new DBActionList();
+		if (rows != null && !rows.isEmpty()) {
+			DBActionList updates = DBUpdate.getUpdates(rows.toArray(new DBRow[]{}));
+			if (db.batchSQLStatementsWhenPossible()) {
+				List<DBAction> batch = new ArrayList<>();
+				for (DBAction update : updates) {
+					if (update instanceof DBUpdateLargeObjects) {
+						actions.addAll(db.executeDBAction(update));
+					} else {
+						batch.add(update);
+					}
+				}
+				if (!batch.isEmpty()) {
+					actions.addAll(db.executeDBAction(new DBUpdateBatch(batch)));
+				}
+			} else {
+				for (DBAction update : updates) {
+					actions.addAll(db.executeDBAction(update));
+				}
+			}
+		}
+		return actions;
+	}
+
+	private DBActionList flushDeletes(DBDatabase db, List<DBRow> rows) throws SQLException {
+		DBActionList actions = new DBActionList();
+		if (rows != null && !rows.isEmpty()) {
+			actions.addAll(DBDelete.delete(db, rows));
+		}
+		return actions;
+	}
+
+	private static boolean hasChanged(DBRow row) {
+		if (row.hasChangedSimpleTypes()) {
+			return true;
+		}
+		if (row.hasLargeObjects()) {
+			for (QueryableDatatype<?> qdt : row.getLargeObjects()) {
+				if (qdt.hasChanged()) {
+					return true;
+				}
+			}
+		}
+		return false;
+	}
+
+	private static boolean primaryKeysHaveBeenSet(List<DBRow> rows) {
+		for (DBRow row : rows) {
+			List<QueryableDatatype<?>> primaryKeys = row.getPrimaryKeys();
+			if (primaryKeys == null || primaryKeys.isEmpty()) {
+				return false;
+			}
+			for (QueryableDatatype<?> pk : primaryKeys) {
+				if (!pk.hasBeenSet()) {
+					return false;
+				}
+			}
+		}
+		return true;
+	}
+
+	private Map<Class<?>, List<DBRow>> groupByTable(Collection<DBRow> rows) {
+		Map<Class<?>, List<DBRow>> grouped = new LinkedHashMap<>();
+		for (DBRow row : registrationOrder) {
+			if (rows.contains(row)) {
+				List<DBRow> group = grouped.get(row.getClass());
+				if (group == null) {
+					group = new ArrayList<>();
+					grouped.put(row.getClass(), group);
+				}
+				group.add(row);
+			}
+		}
+		return grouped;
+	}
+
+	/**
+	 * Orders the tables of the rows so that every table appears after the
+	 * tables it references with foreign keys.
+	 *
+	 * <p>
+	 * Tables that take part in a foreign key cycle, including self-referencing
+	 * tables, are placed in the order they were first registered.
+	 *
+	 * @param rows the rows to be written
+	 * @return the DBRow classes in foreign key order
+	 */
+	static List<Class<?>> sortByForeignKeys(List<DBRow> rows) {
+		Map<Class<?>, Set<Class<?>>> dependencies = new LinkedHashMap<>();
+		Map<Class<?>, Set<Class<? extends DBRow>>> referencedTables = new LinkedHashMap<>();
+		for (DBRow row : rows) {
+			if (!referencedTables.containsKey(row.getClass())) {
+				referencedTables.put(row.getClass(), row.getReferencedTables());
+			}
+		}
+		for (Map.Entry<Class<?>, Set<Class<? extends DBRow>>> entry : referencedTables.entrySet()) {
+			Class<?> table = entry.getKey();
+			Set<Class<?>> requires = new HashSet<>();
+			for (Class<? extends DBRow> referenced : entry.getValue()) {
+				for (Class<?> other : referencedTables.keySet()) {
+					if (!other.equals(table)
+							&& (referenced.isAssignableFrom(other) || other.isAssignableFrom(referenced))) {
+						requires.add(other);
+					}
+				}
+			}
+			dependencies.put(table, requires);
+		}
+		List<Class<?>> sorted = new ArrayList<>();
+		while (!dependencies.isEmpty()) {
+			Class<?> next = null;
+			for (Map.Entry<Class<?>, Set<Class<?>>> entry : dependencies.entrySet()) {
+				if (sorted.containsAll(entry.getValue())) {
+					next = entry.getKey();
+					break;
+				}
+			}
+			if (next == null) {
+				// a cycle so fall back to the registration order
+				next = dependencies.keySet().iterator().next();
+			}
+			sorted.add(next);
+			dependencies.remove(next);
+		}
+		return sorted;
+	}
+
+	private void removeFromRegistrationOrder(DBRow row) {
+		for (int i = 0; i < registrationOrder.size(); i++) {
+			if (registrationOrder.get(i) == row) {
+				registrationOrder.remove(i);
+				return;
+			}
+		}
+	}
+
+	private static boolean containsIdentical(List<DBRow> rows, DBRow row) {
+		for (DBRow existing : rows) {
+			if (existing == row) {
+				return true;
+			}
+		}
+		return false;
+	}
+}
@@ -16,6 +16,7 @@
 package nz.co.gregs.dbvolution;
 
 import nz.co.gregs.dbvolution.databases.DBDatabase;
+import nz.co.gregs.dbvolution.databases.DBUnitOfWork;
 import java.io.PrintStream;
 import java.sql.SQLException;
 import java.util.ArrayList;
@@ -24,6 +25,7 @@ import java.util.Collection;
 import java.util.Date;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Set;
 import nz.co.gregs.dbvolution.actions.*;
@@ -31,12 +33,19 @@ import nz.co.gregs.dbvolution.columns.ColumnProvider;
 import nz.co.gregs.dbvolution.datatypes.*;
 import nz.co.gregs.dbvolution.exceptions.AccidentalBlankQueryException;
 import nz.co.gregs.dbvolution.exceptions.AccidentalCartesianJoinException;
+import nz.co.gregs.dbvolution.exceptions.DBRuntimeException;
 import nz.co.gregs.dbvolution.exceptions.IncorrectRowProviderInstanceSuppliedException;
 import nz.co.gregs.dbvolution.exceptions.UnexpectedNumberOfRowsException;
 import nz.co.gregs.dbvolution.expressions.SortProvider;
+import nz.co.gregs.dbvolution.internal.database.PrimaryKeyCache;
 import nz.co.gregs.dbvolution.internal.properties.PropertyWrapper;
 import nz.co.gregs.dbvolution.internal.properties.PropertyWrapperDefinition;
 import nz.co.gregs.dbvolution.internal.query.QueryOptions;
+import nz.co.gregs.dbvolution.operators.DBEqualsOperator;
+import nz.co.gregs.dbvolution.operators.DBOperator;
+import nz.co.gregs.dbvolution.operators.DBPermittedValuesOperator;
+import nz.co.gregs.dbvolution.reactive.DBQueryPublisher;
+import nz.co.gregs.dbvolution.query.LazyLoadingPolicy;
 
 /**
  * DBTable provides features for making simple queries on the database.
@@ -148,6 +157,30 @@ public class DBTable<E extends DBRow> {
 		}
 	}
 
+	/**
+	 * Publishes the rows of this table as subscribers request them.
+	 *
+	 * <p>
+	 * Uses the same conditions and settings as {@link #getAllRows() } but reads
+	 * the rows in batches sized to the subscriber's demand, so very large
+	 * tables can be processed with a fixed amount of memory.
+	 *
+	 * <p style="color: #F90;">Support DBvolution at
+	 * <a href="http://patreon.com/dbvolution" target=new>Patreon</a></p>
+	 *
+	 * @return a publisher of the rows of this table
+	 */
+	public DBQueryPublisher<E> publishRows() {
+		query.refreshQuery();
+		applyConfigs();
+		return new DBQueryPublisher<>(query, new DBQueryPublisher.RowConverter<E>() {
+			@Override
+			public E convert(DBQueryRow row) {
+				return row.get(exemplar);
+			}
+		});
+	}
+
 	/**
 	 * Synonym for {@link #getAllRows()}
 	 *
@@ -272,7 +305,48 @@ public class DBTable<E extends DBRow> {
 	 * @see DBRow
 	 */
 	public E getOnlyRowByExample(E example) throws SQLException, UnexpectedNumberOfRowsException, AccidentalBlankQueryException {
-		return getRowsByExample(example, 1L).get(0);
+		final Object pkValue = getCacheablePrimaryKeyValue(example);
+		if (pkValue != null) {
+			E cachedRow = database.getPrimaryKeyCache().get(example, pkValue);
+			if (cachedRow != null) {
+				this.exemplar = DBRow.copyDBRow(example);
+				this.query = database.getDBQuery(exemplar);
+				return cachedRow;
+			}
+		}
+		final long generation = pkValue == null ? 0L : database.getPrimaryKeyCache().getGeneration(example);
+		final List<E> rows = getRowsByExample(example, 1L);
+		if (pkValue != null) {
+			database.getPrimaryKeyCache().put(rows, generation);
+		}
+		return rows.get(0);
+	}
+
+	/**
+	 * Returns the primary key value if the example can be answered from the
+	 * primary key cache, that is the example only specifies its primary key.
+	 */
+	private Object getCacheablePrimaryKeyValue(E example) {
+		if (isUsingPrimaryKeyCache(example)) {
+			final QueryableDatatype<?> pk = example.getPrimaryKeys().get(0);
+			final DBOperator operator = pk.getOperator();
+			if (pk.hasBeenSet() && !pk.isNull() && operator instanceof DBEqualsOperator && !operator.isInverted() && !operator.isIncludingNulls()) {
+				for (PropertyWrapper prop : example.getColumnPropertyWrappers()) {
+					final QueryableDatatype<?> qdt = prop.getQueryableDatatype();
+					if (qdt != pk && qdt.getOperator() != null) {
+						return null;
+					}
+				}
+				return pk.getValue();
+			}
+		}
+		return null;
+	}
+
+	private boolean isUsingPrimaryKeyCache(DBRow example) {
+		return PrimaryKeyCache.isCacheable(example)
+				&& !database.isInATransaction()
+				&& example.getSelectedProperties().size() == example.getColumnPropertyWrappers().size();
 	}
 
 	/**
@@ -331,7 +405,21 @@ public class DBTable<E extends DBRow> {
 			}
 		}
 		this.query = database.getDBQuery(newInstance);
-		return getAllRows();
+		final boolean useCache = isUsingPrimaryKeyCache(newInstance);
+		if (useCache) {
+			E cachedRow = database.getPrimaryKeyCache().get(exemplar, pkValue);
+			if (cachedRow != null) {
+				List<E> rows = new ArrayList<>();
+				rows.add(cachedRow);
+				return rows;
+			}
+		}
+		final long generation = useCache ? database.getPrimaryKeyCache().getGeneration(newInstance) : 0L;
+		final List<E> rows = getAllRows();
+		if (useCache) {
+			database.getPrimaryKeyCache().put(rows, generation);
+		}
+		return rows;
 	}
 
 	/**
@@ -385,6 +473,44 @@ public class DBTable<E extends DBRow> {
 		return getRowsForPage(pageNumber);
 	}
 
+	/**
+	 * Retrieves the page of DBRows that follows the row supplied.
+	 *
+	 * <p>
+	 * Keyset pagination finds the next page by requiring the rows to sort after
+	 * the last row of the previous page, rather than skipping the earlier rows,
+	 * so deep pages cost the same as the first page.
+	 *
+	 * <p>
+	 * Use {@link #setRowLimit(int) } to set the page size and
+	 * {@link #setSortOrder(nz.co.gregs.dbvolution.columns.ColumnProvider...) }
+	 * to order the rows. The primary key is added to the end of the sort order
+	 * so every row has a unique position.
+	 *
+	 * <p>
+	 * Call with NULL to get the first page, then call with the last row of each
+	 * page to get the following page. An empty list indicates there are no more
+	 * rows.
+	 *
+	 * @param lastRow the last row of the previous page, or NULL for the first
+	 * page
+	 * <p style="color: #F90;">Support DBvolution at
+	 * <a href="http://patreon.com/dbvolution" target=new>Patreon</a></p>
+	 * @return a list of the DBRows that follow the lastRow, in order
+	 * @throws java.sql.SQLException java.sql.SQLException
+	 * @see DBQuery#getPageAfter(nz.co.gregs.dbvolution.DBQueryRow)
+	 */
+	public List<E> getPageAfter(E lastRow) throws SQLException, AccidentalCartesianJoinException, AccidentalBlankQueryException {
+		query.refreshQuery();
+		applyConfigs();
+		List<DBQueryRow> page = query.getPageAfterRow(lastRow);
+		List<E> rows = new ArrayList<>(page.size());
+		for (DBQueryRow row : page) {
+			rows.add(row.get(exemplar));
+		}
+		return rows;
+	}
+
 	/**
 	 * Retrieves the row (or rows in a bad database) that has the specified
 	 * primary key.
@@ -448,6 +574,55 @@ public class DBTable<E extends DBRow> {
 		return getRowsByPrimaryKeyObject(pkValue);
 	}
 
+	/**
+	 * Retrieves the rows that have any of the specified primary keys.
+	 *
+	 * <p>
+	 * For {@link nz.co.gregs.dbvolution.annotations.DBCacheByPrimaryKey cached}
+	 * tables the rows already in the cache are used and only the missing rows
+	 * are retrieved, using a single IN query.
+	 *
+	 * <p>
+	 * Primary keys that are not found are ignored and the rows are not returned
+	 * in any particular order.
+	 *
+	 * @param pkValues the primary key values of the required rows
+	 * <p style="color: #F90;">Support DBvolution at
+	 * <a href="http://patreon.com/dbvolution" target=new>Patreon</a></p>
+	 * @return a List containing the rows for the primary keys
+	 * @throws java.sql.SQLException java.sql.SQLException
+	 */
+	public List<E> getRowsByPrimaryKeys(Collection<?> pkValues) throws SQLException, AccidentalCartesianJoinException, AccidentalBlankQueryException {
+		DBRow newInstance = DBRow.getDBRow(exemplar.getClass());
+		final List<QueryableDatatype<?>> primaryKeys = newInstance.getPrimaryKeys();
+		if (primaryKeys.size() != 1) {
+			throw new DBRuntimeException("Unsupported Primary Key: getRowsByPrimaryKeys requires a table with exactly one primary key column");
+		}
+		final boolean useCache = isUsingPrimaryKeyCache(newInstance);
+		final PrimaryKeyCache cache = database.getPrimaryKeyCache();
+		final List<E> rows = new ArrayList<>();
+		final Set<Object> missingValues = new LinkedHashSet<>();
+		for (Object pkValue : pkValues) {
+			E cachedRow = useCache ? cache.get(exemplar, pkValue) : null;
+			if (cachedRow != null) {
+				rows.add(cachedRow);
+			} else if (pkValue != null) {
+				missingValues.add(pkValue);
+			}
+		}
+		if (!missingValues.isEmpty()) {
+			primaryKeys.get(0).setOperator(new DBPermittedValuesOperator<>(missingValues));
+			this.query = database.getDBQuery(newInstance);
+			final long generation = useCache ? cache.getGeneration(newInstance) : 0L;
+			final List<E> retrievedRows = getAllRows();
+			if (useCache) {
+				cache.put(retrievedRows, generation);
+			}
+			rows.addAll(retrievedRows);
+		}
+		return rows;
+	}
+
 	/**
 	 * Generates and returns the actual SQL that will be used by {@link #getAllRows()
 	 * } now.
@@ -618,8 +793,10 @@ public class DBTable<E extends DBRow> {
 	 */
 	public DBActionList insert(Collection<E> newRows) throws SQLException {
 		DBActionList changes = new DBActionList();
-		for (E row : newRows) {
-			changes.addAll(insert(row));
+		try (DBUnitOfWork unitOfWork = database.startUnitOfWork()) {
+			for (E row : newRows) {
+				changes.addAll(insert(row));
+			}
 		}
 		query.refreshQuery();
 		return changes;
@@ -674,14 +851,16 @@ public class DBTable<E extends DBRow> {
 	 */
 	public DBActionList insertOrUpdate(Collection<E> newRows) throws SQLException {
 		DBActionList changes = new DBActionList();
-		for (E row : newRows) {
-			try {
-				changes.addAll(insert(row));
-			} catch (SQLException exc1) {
+		try (DBUnitOfWork unitOfWork = database.startUnitOfWork()) {
+			for (E row : newRows) {
 				try {
-					changes.addAll(update(row));
-				} catch (SQLException exc2) {
-					throw exc1;
+					changes.addAll(insert(row));
+				} catch (SQLException exc1) {
+					try {
+						changes.addAll(update(row));
+					} catch (SQLException exc2) {
+						throw exc1;
+					}
 				}
 			}
 		}
@@ -874,10 +1053,12 @@ public class DBTable<E extends DBRow> {
 	 */
 	public DBActionList update(Collection<E> oldRows) throws SQLException {
 		DBActionList changes = new DBActionList();
-		for (E row : oldRows) {
-			if (row.hasChangedSimpleTypes()) {
-				changes.addAll(DBUpdate.update(database, row));
-				row.setSimpleTypesToUnchanged();
+		try (DBUnitOfWork unitOfWork = database.startUnitOfWork()) {
+			for (E row : oldRows) {
+				if (row.hasChangedSimpleTypes()) {
+					changes.addAll(DBUpdate.update(database, row));
+					row.setSimpleTypesToUnchanged();
+				}
 			}
 		}
 		query.refreshQuery();
@@ -1141,8 +1322,34 @@ public class DBTable<E extends DBRow> {
 		this.query.setBlankQueryAllowed(options.isBlankQueryAllowed());
 	}
 
+	/**
+	 * Changes which columns are left out of the query and loaded when their
+	 * value is first used.
+	 *
+	 * <p>
+	 * By default only columns annotated with
+	 * {@link nz.co.gregs.dbvolution.annotations.DBLazy} are loaded lazily. Use
+	 * {@link LazyLoadingPolicy#LARGE_OBJECTS_AND_ANNOTATED_COLUMNS} to keep large
+	 * objects out of list screens, or {@link LazyLoadingPolicy#NONE} to retrieve
+	 * everything immediately.
+	 *
+	 * @param policy the policy to use for this table's queries
+	 * <p style="color: #F90;">Support DBvolution at
+	 * <a href="http://patreon.com/dbvolution" target=new>Patreon</a></p>
+	 * @return this DBTable instance
+	 */
+	public DBTable<E> setLazyLoadingPolicy(LazyLoadingPolicy policy) {
+		this.options.setLazyLoadingPolicy(policy);
+		return this;
+	}
+
+	private void applyLazyLoadingPolicy() {
+		this.query.setLazyLoadingPolicy(options.getLazyLoadingPolicy());
+	}
+
 	private void applyConfigs() {
 		applyBlankQueryAllowed();
+		applyLazyLoadingPolicy();
 		applyRowLimit();
 		applySortOrder();
 		applyMatchAny();
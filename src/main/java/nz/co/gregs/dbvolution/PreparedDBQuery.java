@@ -0,0 +1,563 @@
+/*
+ * Copyright 2019 Gregory Graham.
+ *
+ * Commercial licenses are available, please contact info@gregs.co.nz for details.
+ * 
+ * This work is licensed under the Creative Commons Attribution-NonCommercial-ShareAlike 4.0 International License. 
+ * To view a copy of this license, visit http://creativecommons.org/licenses/by-nc-sa/4.0/ 
+ * or send a letter to Creative Commons, PO Box 1866, Mountain View, CA 94042, USA.
+ * 
+ * You are free to:
+ *     Share - copy and redistribute the material in any medium or format
+ *     Adapt - remix, transform, and build upon the material
+ * 
+ *     The licensor cannot revoke these freedoms as long as you follow the license terms.               
+ *     Under the following terms:
+ *                 
+ *         Attribution - 
+ *             You must give appropriate credit, provide a link to the license, and indicate if changes were made. 
+ *             You may do so in any reasonable manner, but not in any way that suggests the licensor endorses you or your use.
+ *         NonCommercial - 
+ *             You may not use the material for commercial purposes.
+ *         ShareAlike - 
+ *             If you remix, transform, or build upon the material, 
+ *             you must distribute your contributions under the same license as the original.
+ *         No additional restrictions - 
+ *             You may not apply legal terms or technological measures that legally restrict others from doing anything the 
+ *             license permits.
+ * 
+ * Check the Creative Commons website for any details, legalese, and updates.
+ */
+package nz.co.gregs.dbvolution;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.regex.Pattern;
+import nz.co.gregs.dbvolution.actions.DBQueryable;
+import nz.co.gregs.dbvolution.databases.DBDatabase;
+import nz.co.gregs.dbvolution.databases.DBDatabaseCluster;
+import nz.co.gregs.dbvolution.databases.DBStatement;
+import nz.co.gregs.dbvolution.databases.definitions.DBDefinition;
+import nz.co.gregs.dbvolution.datatypes.DBParameter;
+import nz.co.gregs.dbvolution.datatypes.DBParameter.Parameter;
+import nz.co.gregs.dbvolution.exceptions.AccidentalBlankQueryException;
+import nz.co.gregs.dbvolution.exceptions.AccidentalCartesianJoinException;
+import nz.co.gregs.dbvolution.exceptions.DBRuntimeException;
+import nz.co.gregs.dbvolution.internal.query.QueryDetails;
+import nz.co.gregs.dbvolution.internal.query.QueryOptions;
+import nz.co.gregs.dbvolution.internal.query.QueryState;
+import nz.co.gregs.dbvolution.internal.query.QueryType;
+
+/**
+ * A DBQuery compiled once so that it can be run many times with different
+ * parameter values.
+ *
+ * <p>
+ * Create a PreparedDBQuery with {@link DBQuery#prepare()} after adding the
+ * tables, conditions, sort order, and row limit to the DBQuery. Conditions
+ * refer to values supplied later by using the parameters created by
+ * {@link DBParameter}.
+ *
+ * <p>
+ * The SQL is generated when the query is prepared, with every parameter
+ * replaced by the definition's bind variable, and each execution only binds
+ * the values to a JDBC PreparedStatement. The PreparedStatement is created
+ * once for each connection and reused by later executions on the same
+ * connection. Changing the original DBQuery after it has been prepared does not
+ * change the PreparedDBQuery.
+ *
+ * <p>
+ * Close the PreparedDBQuery when it is no longer needed to close the
+ * PreparedStatements it is holding. Statements for connections that the
+ * database has discarded are dropped automatically.
+ *
+ * <p>
+ * PreparedDBQuery is immutable and thread-safe: each execution has its own
+ * results so a single instance can be shared by many threads.
+ *
+ * <p style="color: #F90;">Support DBvolution at
+ * <a href="http://patreon.com/dbvolution" target=new>Patreon</a></p>
+ *
+ * @author Gregory Graham
+ */
+public class PreparedDBQuery implements AutoCloseable {
+
+	private static final Pattern PARAMETER_NAME_PATTERN = Pattern.compile("[A-Za-z][A-Za-z0-9]*(?:_[A-Za-z0-9]+)*");
+	private static final ThreadLocal<ParameterCollector> COMPILING = new ThreadLocal<>();
+	private static final int STATEMENTS_CACHED = 32;
+
+	private final DBDatabase database;
+	private final QueryDetails template;
+	private final Map<Class<?>, CompiledSQL> compiledSQL;
+	private final Map<Connection, PreparedStatement> statements = new LinkedHashMap<Connection, PreparedStatement>(16, 0.75f, true) {
+		private static final long serialVersionUID = 1L;
+
+		@Override
+		protected boolean removeEldestEntry(Map.Entry<Connection, PreparedStatement> eldest) {
+			if (size() > STATEMENTS_CACHED) {
+				closeQuietly(eldest.getValue());
+				return true;
+			}
+			return false;
+		}
+	};
+	private boolean closed = false;
+
+	PreparedDBQuery(DBDatabase database, QueryDetails details) throws AccidentalBlankQueryException {
+		this.database = database;
+		final QueryOptions options = details.getOptions();
+		Map<Class<?>, CompiledSQL> compiled = new HashMap<>();
+		List<DBDatabase> databases = new ArrayList<>();
+		if (database instanceof DBDatabaseCluster) {
+			Collections.addAll(databases, ((DBDatabaseCluster) database).getDatabases());
+		} else {
+			databases.add(database);
+		}
+		for (DBDatabase db : databases) {
+			if (!options.isBlankQueryAllowed() && details.willCreateBlankQuery(db) && details.getRawSQLClause().isEmpty()) {
+				throw new AccidentalBlankQueryException(options.isBlankQueryAllowed(), details.willCreateBlankQuery(db), details.getRawSQLClause().isEmpty());
+			}
+			final DBDefinition defn = db.getDefinition();
+			if (!compiled.containsKey(defn.getClass())) {
+				final ParameterCollector collector = new ParameterCollector(defn);
+				final ParameterCollector outerCollector = COMPILING.get();
+				COMPILING.set(collector);
+				try {
+					final String sql = details.getSQLForQuery(db, new QueryState(details), QueryType.SELECT, options);
+					compiled.put(defn.getClass(), collector.compile(sql));
+				} finally {
+					if (outerCollector == null) {
+						COMPILING.remove();
+					} else {
+						COMPILING.set(outerCollector);
+					}
+				}
+			}
+		}
+		this.compiledSQL = Collections.unmodifiableMap(compiled);
+		this.template = details.copyForPreparedQuery();
+	}
+
+	/**
+	 * Checks that the name can be used as a parameter name.
+	 *
+	 * @param name the proposed parameter name
+	 * <p style="color: #F90;">Support DBvolution at
+	 * <a href="http://patreon.com/dbvolution" target=new>Patreon</a></p>
+	 * @return the name
+	 * @throws IllegalArgumentException if the name is not a valid parameter name
+	 */
+	public static String checkParameterName(String name) {
+		if (name == null || !PARAMETER_NAME_PATTERN.matcher(name).matches()) {
+			throw new IllegalArgumentException("Invalid Parameter Name: parameter names must start with a letter and contain only letters, digits, and single underscores: " + name);
+		}
+		return name;
+	}
+
+	/**
+	 * Creates the SQL for the parameter.
+	 *
+	 * <p>
+	 * Outside of preparing a query this is the definition's bind variable for the
+	 * parameter. While a query is being prepared the parameter is also recorded
+	 * so that its value can be bound in the right position.
+	 *
+	 * @param defn the definition of the database the SQL is for
+	 * @param parameter the parameter
+	 * <p style="color: #F90;">Support DBvolution at
+	 * <a href="http://patreon.com/dbvolution" target=new>Patreon</a></p>
+	 * @return the SQL for the parameter
+	 */
+	public static String formatParameter(DBDefinition defn, Parameter parameter) {
+		final ParameterCollector collector = COMPILING.get();
+		if (collector == null) {
+			return defn.formatParameterPlaceholder(parameter.getSQLType());
+		}
+		return collector.add(parameter);
+	}
+
+	/**
+	 * Returns the SQL, with bind variables, used by this query on the database.
+	 *
+	 * <p style="color: #F90;">Support DBvolution at
+	 * <a href="http://patreon.com/dbvolution" target=new>Patreon</a></p>
+	 *
+	 * @return the prepared SQL
+	 */
+	public String getSQLForQuery() {
+		return getCompiledSQL(database.getDefinition()).sql;
+	}
+
+	/**
+	 * Returns the names of the parameters in the order they are bound.
+	 *
+	 * <p>
+	 * A parameter used more than once in the query appears more than once.
+	 *
+	 * <p style="color: #F90;">Support DBvolution at
+	 * <a href="http://patreon.com/dbvolution" target=new>Patreon</a></p>
+	 *
+	 * @return the parameter names
+	 */
+	public List<String> getParameterNames() {
+		return getCompiledSQL(database.getDefinition()).parameterNames;
+	}
+
+	/**
+	 * Starts a set of parameter values for one execution of this query.
+	 *
+	 * @param name the parameter name
+	 * @param value the value to use for the parameter, NULL is allowed
+	 * <p style="color: #F90;">Support DBvolution at
+	 * <a href="http://patreon.com/dbvolution" target=new>Patreon</a></p>
+	 * @return the bindings, add more with {@link Bindings#bind(java.lang.String, java.lang.Object)
+	 * }
+	 */
+	public Bindings bind(String name, Object value) {
+		return new Bindings(this).bind(name, value);
+	}
+
+	/**
+	 * Runs the query with the parameter values supplied.
+	 *
+	 * @param values the value of each parameter keyed by parameter name
+	 * <p style="color: #F90;">Support DBvolution at
+	 * <a href="http://patreon.com/dbvolution" target=new>Patreon</a></p>
+	 * @return the rows returned by the query
+	 * @throws SQLException database errors
+	 */
+	public List<DBQueryRow> getAllRows(Map<String, ?> values) throws SQLException {
+		final Execution execution = new Execution(this, values);
+		database.executeDBQuery(execution);
+		final List<DBQueryRow> results = execution.details.getResults();
+		final QueryOptions options = execution.details.getOptions();
+		if (options.getRowLimit() > 0 && results.size() > options.getRowLimit()) {
+			final int firstItemOfPage = options.getPageIndex() * options.getRowLimit();
+			final int firstItemOfNextPage = Math.min(results.size(), (options.getPageIndex() + 1) * options.getRowLimit());
+			return results.subList(firstItemOfPage, firstItemOfNextPage);
+		} else {
+			return results;
+		}
+	}
+
+	/**
+	 * Runs the query with the parameter values supplied and returns the
+	 * instances of the exemplar's table.
+	 *
+	 * @param <R> the table type
+	 * @param exemplar an instance of the table required
+	 * @param values the value of each parameter keyed by parameter name
+	 * <p style="color: #F90;">Support DBvolution at
+	 * <a href="http://patreon.com/dbvolution" target=new>Patreon</a></p>
+	 * @return the distinct instances of the table in the results
+	 * @throws SQLException database errors
+	 */
+	public <R extends DBRow> List<R> getAllInstancesOf(R exemplar, Map<String, ?> values) throws SQLException {
+		List<R> instances = new ArrayList<>();
+		for (DBQueryRow row : getAllRows(values)) {
+			final R found = row.get(exemplar);
+			if (found != null && !instances.contains(found)) {
+				instances.add(found);
+			}
+		}
+		return instances;
+	}
+
+	/**
+	 * Closes the PreparedStatements held by this query.
+	 *
+	 * <p>
+	 * The query can still be run after it has been closed but each execution
+	 * will prepare, and close, its own statement.
+	 */
+	@Override
+	public void close() {
+		final List<PreparedStatement> toClose;
+		synchronized (statements) {
+			closed = true;
+			toClose = new ArrayList<>(statements.values());
+			statements.clear();
+		}
+		for (PreparedStatement prepared : toClose) {
+			closeQuietly(prepared);
+		}
+	}
+
+	/**
+	 * The number of PreparedStatements currently held by this query.
+	 *
+	 * @return the number of statements waiting to be reused
+	 */
+	int getCachedStatementCount() {
+		synchronized (statements) {
+			return statements.size();
+		}
+	}
+
+	private CompiledSQL getCompiledSQL(DBDefinition defn) {
+		final CompiledSQL compiled = compiledSQL.get(defn.getClass());
+		if (compiled == null) {
+			throw new DBRuntimeException("Query Not Prepared For Database: this query was prepared before a database using " + defn.getClass().getSimpleName() + " was available, please prepare the query again.");
+		}
+		return compiled;
+	}
+
+	private PreparedStatement getPreparedStatement(DBStatement statement, CompiledSQL compiled) throws SQLException {
+		final Connection connection = statement.getConnection();
+		synchronized (statements) {
+			final PreparedStatement cached = statements.remove(connection);
+			if (cached != null) {
+				if (!cached.isClosed()) {
+					return cached;
+				}
+				closeQuietly(cached);
+			}
+		}
+		return connection.prepareStatement(compiled.sql);
+	}
+
+	private void returnPreparedStatement(DBStatement statement, PreparedStatement prepared) throws SQLException {
+		final Connection connection = statement.getConnection();
+		final List<PreparedStatement> toClose = new ArrayList<>();
+		synchronized (statements) {
+			if (closed) {
+				toClose.add(prepared);
+			} else {
+				final PreparedStatement replaced = statements.put(connection, prepared);
+				if (replaced != null && replaced != prepared) {
+					toClose.add(replaced);
+				}
+				removeDiscardedConnections(toClose);
+			}
+		}
+		for (PreparedStatement discarded : toClose) {
+			closeQuietly(discarded);
+		}
+	}
+
+	/**
+	 * Removes the statements of connections that have been closed, usually
+	 * because the database discarded them, so the cache does not keep dead
+	 * connections alive.
+	 */
+	private void removeDiscardedConnections(List<PreparedStatement> toClose) {
+		final Iterator<Map.Entry<Connection, PreparedStatement>> entries = statements.entrySet().iterator();
+		while (entries.hasNext()) {
+			final Map.Entry<Connection, PreparedStatement> entry = entries.next();
+			if (isClosed(entry.getKey())) {
+				toClose.add(entry.getValue());
+				entries.remove();
+			}
+		}
+	}
+
+	private static boolean isClosed(Connection connection) {
+		try {
+			return connection != null && connection.isClosed();
+		} catch (SQLException ex) {
+			return true;
+		}
+	}
+
+	private static void closeQuietly(PreparedStatement prepared) {
+		try {
+			prepared.close();
+		} catch (SQLException ex) {
+			// the statement is being discarded anyway
+		}
+	}
+
+	/**
+	 * Records the parameters used while the SQL for a prepared query is being
+	 * generated.
+	 *
+	 * <p>
+	 * The SQL is not generated in the order it is assembled, so each parameter
+	 * is rendered as a token unique to this preparation, and the tokens are then
+	 * replaced by the definition's bind variables in the order they appear.
+	 */
+	private static class ParameterCollector {
+
+		private final DBDefinition defn;
+		private final String token = "DBV" + UUID.randomUUID().toString().replace("-", "") + "_";
+		private final List<Parameter> parameters = new ArrayList<>();
+
+		ParameterCollector(DBDefinition defn) {
+			this.defn = defn;
+		}
+
+		String add(Parameter parameter) {
+			parameters.add(parameter);
+			return token + (parameters.size() - 1) + "_";
+		}
+
+		CompiledSQL compile(String generatedSQL) {
+			List<String> names = new ArrayList<>();
+			List<Integer> types = new ArrayList<>();
+			StringBuilder sqlWithBinds = new StringBuilder();
+			int from = 0;
+			int found = generatedSQL.indexOf(token);
+			while (found >= 0) {
+				final int indexStart = found + token.length();
+				final int indexEnd = generatedSQL.indexOf('_', indexStart);
+				final Parameter parameter = parameters.get(Integer.parseInt(generatedSQL.substring(indexStart, indexEnd)));
+				names.add(parameter.getParameterName());
+				types.add(parameter.getSQLType());
+				sqlWithBinds.append(generatedSQL, from, found).append(defn.formatParameterPlaceholder(parameter.getSQLType()));
+				from = indexEnd + 1;
+				found = generatedSQL.indexOf(token, from);
+			}
+			sqlWithBinds.append(generatedSQL, from, generatedSQL.length());
+			return new CompiledSQL(sqlWithBinds.toString(), names, types);
+		}
+	}
+
+	private static class CompiledSQL {
+
+		private final String sql;
+		private final List<String> parameterNames;
+		private final List<Integer> parameterTypes;
+
+		CompiledSQL(String sql, List<String> parameterNames, List<Integer> parameterTypes) {
+			this.sql = sql;
+			this.parameterNames = Collections.unmodifiableList(parameterNames);
+			this.parameterTypes = Collections.unmodifiableList(parameterTypes);
+		}
+
+		void bind(PreparedStatement statement, Map<String, ?> values) throws SQLException {
+			for (int i = 0; i < parameterNames.size(); i++) {
+				final String name = parameterNames.get(i);
+				if (!values.containsKey(name)) {
+					throw new DBRuntimeException("Parameter Not Bound: no value was supplied for parameter " + name);
+				}
+				Object value = values.get(name);
+				if (value == null) {
+					statement.setNull(i + 1, parameterTypes.get(i));
+				} else {
+					if (value instanceof Date && !(value instanceof java.sql.Date) && !(value instanceof Timestamp)) {
+						value = new Timestamp(((Date) value).getTime());
+					}
+					statement.setObject(i + 1, value);
+				}
+			}
+		}
+	}
+
+	/**
+	 * The parameter values for one execution of a PreparedDBQuery.
+	 *
+	 * <p>
+	 * Bindings are not thread-safe, create a new set of bindings for each
+	 * execution.
+	 *
+	 * <p style="color: #F90;">Support DBvolution at
+	 * <a href="http://patreon.com/dbvolution" target=new>Patreon</a></p>
+	 */
+	public static class Bindings {
+
+		private final PreparedDBQuery query;
+		private final Map<String, Object> values = new HashMap<>();
+
+		private Bindings(PreparedDBQuery query) {
+			this.query = query;
+		}
+
+		/**
+		 * Sets the value to use for the parameter.
+		 *
+		 * @param name the parameter name
+		 * @param value the value to use for the parameter, NULL is allowed
+		 * <p style="color: #F90;">Support DBvolution at
+		 * <a href="http://patreon.com/dbvolution" target=new>Patreon</a></p>
+		 * @return these bindings
+		 */
+		public Bindings bind(String name, Object value) {
+			values.put(checkParameterName(name), value);
+			return this;
+		}
+
+		/**
+		 * Runs the query with these parameter values.
+		 *
+		 * <p style="color: #F90;">Support DBvolution at
+		 * <a href="http://patreon.com/dbvolution" target=new>Patreon</a></p>
+		 *
+		 * @return the rows returned by the query
+		 * @throws SQLException database errors
+		 */
+		public List<DBQueryRow> getAllRows() throws SQLException {
+			return query.getAllRows(values);
+		}
+
+		/**
+		 * Runs the query with these parameter values and returns the instances of
+		 * the exemplar's table.
+		 *
+		 * @param <R> the table type
+		 * @param exemplar an instance of the table required
+		 * <p style="color: #F90;">Support DBvolution at
+		 * <a href="http://patreon.com/dbvolution" target=new>Patreon</a></p>
+		 * @return the distinct instances of the table in the results
+		 * @throws SQLException database errors
+		 */
+		public <R extends DBRow> List<R> getAllInstancesOf(R exemplar) throws SQLException {
+			return query.getAllInstancesOf(exemplar, values);
+		}
+	}
+
+	private static class Execution implements DBQueryable {
+
+		private final PreparedDBQuery query;
+		private final Map<String, ?> values;
+		private final QueryDetails details;
+
+		Execution(PreparedDBQuery query, Map<String, ?> values) {
+			this.query = query;
+			this.values = new HashMap<>(values);
+			this.details = query.template.copyForPreparedQueryExecution();
+		}
+
+		@Override
+		public DBQueryable query(DBDatabase db) throws SQLException, AccidentalCartesianJoinException, AccidentalBlankQueryException {
+			final CompiledSQL compiled = query.getCompiledSQL(db.getDefinition());
+			try (DBStatement statement = db.getDBStatement()) {
+				final PreparedStatement prepared = query.getPreparedStatement(statement, compiled);
+				boolean succeeded = false;
+				try {
+					prepared.clearParameters();
+					compiled.bind(prepared, values);
+					details.fillResultSetFromPreparedStatement(db, statement, compiled.sql, prepared, compiled.parameterNames.size());
+					succeeded = true;
+				} finally {
+					if (succeeded) {
+						query.returnPreparedStatement(statement, prepared);
+					} else {
+						closeQuietly(prepared);
+					}
+				}
+			}
+			return this;
+		}
+
+		@Override
+		public List<DBQueryRow> getAllRows() {
+			return details.getResults();
+		}
+
+		@Override
+		public String toSQLString(DBDatabase db) {
+			return query.getCompiledSQL(db.getDefinition()).sql;
+		}
+	}
+}
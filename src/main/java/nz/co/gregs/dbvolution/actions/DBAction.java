@@ -17,7 +17,9 @@ package nz.co.gregs.dbvolution.actions;
 
 import java.io.Serializable;
 import java.sql.SQLException;
+import java.util.Collections;
 import java.util.List;
+import java.util.Set;
 import nz.co.gregs.dbvolution.DBRow;
 import nz.co.gregs.dbvolution.databases.DBDatabase;
 import nz.co.gregs.dbvolution.databases.definitions.DBDefinition;
@@ -99,6 +101,35 @@ public abstract class DBAction implements Serializable{
 		return DBRow.copyDBRow(row);
 	}
 
+	/**
+	 * Returns the name of the table changed by this action.
+	 *
+	 * <p style="color: #F90;">Support DBvolution at
+	 * <a href="http://patreon.com/dbvolution" target=new>Patreon</a></p>
+	 *
+	 * @return the table name
+	 */
+	public String getTableName() {
+		return row.getTableName();
+	}
+
+	/**
+	 * Returns the names of all the tables changed by this action.
+	 *
+	 * <p>
+	 * The database invalidates the cached rows of each table after the action
+	 * has executed. Usually this is just the table from {@link #getTableName()
+	 * }.
+	 *
+	 * <p style="color: #F90;">Support DBvolution at
+	 * <a href="http://patreon.com/dbvolution" target=new>Patreon</a></p>
+	 *
+	 * @return the table names
+	 */
+	public Set<String> getTableNames() {
+		return Collections.singleton(getTableName());
+	}
+
 	/**
 	 * Returns a string that can be used in the WHERE clause to identify the
 	 * rows affected by this DBAction.
@@ -33,7 +33,9 @@ package nz.co.gregs.dbvolution.actions;
 import java.sql.SQLException;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
 import nz.co.gregs.dbvolution.DBRow;
 import nz.co.gregs.dbvolution.databases.DBDatabase;
 import nz.co.gregs.dbvolution.databases.DBStatement;
@@ -51,6 +53,7 @@ public class DBBulkInsert extends DBAction {
 	public static final long serialVersionUID = 1l;
 	
 	List<DBRow> rows = new ArrayList<>();
+	private transient Boolean runIndividuallyBeforeCluster = null;
 
 	public <R extends DBRow> DBBulkInsert(R row) {
 		super(row);
@@ -58,6 +61,7 @@ public class DBBulkInsert extends DBAction {
 
 	public void addRow(DBRow row) {
 		rows.add(row);
+		runIndividuallyBeforeCluster = null;
 	}
 
 	public synchronized DBActionList insert(DBDatabase database) throws SQLException {
@@ -66,8 +70,16 @@ public class DBBulkInsert extends DBAction {
 
 	public DBActionList save(DBDatabase database) throws SQLException {
 		DBActionList changes = new DBActionList();
+		for (DBRow row : rows) {
+			database.getKeyAllocator().allocateKeys(row);
+		}
+		// decide before executing, the first database sets the keys of the rows
+		runIndividuallyBeforeCluster = !allRowsCanBeBulkInserted();
 		if (database.getDefinition().supportsBulkInserts()) {
-			return database.executeDBAction(this);
+			changes.addAll(database.executeDBAction(this));
+			for (DBRow row : rows) {
+				row.setSimpleTypesToUnchanged();
+			}
 		} else {
 			for (DBRow row : rows) {
 				changes.addAll(database.getDBTable(row).insert(row));
@@ -91,12 +103,12 @@ public class DBBulkInsert extends DBAction {
 		ArrayList<String> sqlStatements = new ArrayList<String>();
 		List<DBRow> accumulated = new ArrayList<>();
 		for (DBRow currentRow : rows) {
-			QueryableDatatype<?>[] pks = currentRow.getPrimaryKeysAsArray();
-			boolean pksAreSet = true;
-			for (QueryableDatatype<?> pk : pks) {
-				pksAreSet = pksAreSet && pk.hasBeenSet();
-			}
-			if (pksAreSet) {
+			if (canBeBulkInserted(currentRow)) {
+				if (!accumulated.isEmpty() && !accumulated.get(0).getClass().equals(currentRow.getClass())) {
+					// a multi-row insert can only insert into one table
+					sqlStatements.addAll(generateSQLForAccumulatedRows(db, accumulated));
+					accumulated.clear();
+				}
 				accumulated.add(currentRow);
 			} else {
 				sqlStatements.addAll(generateSQLForAccumulatedRows(db, accumulated));
@@ -179,11 +191,7 @@ public class DBBulkInsert extends DBAction {
 	@Override
 	public DBActionList execute(DBDatabase db) throws SQLException {
 		DBActionList actions = new DBActionList();
-		boolean allRowsCanBeBulkInserted = true;
-		for (DBRow current : rows) {
-			allRowsCanBeBulkInserted = allRowsCanBeBulkInserted && canBeBulkInserted(current);
-		}
-		if (allRowsCanBeBulkInserted) {
+		if (allRowsCanBeBulkInserted()) {
 			try (DBStatement statement = db.getDBStatement()) {
 				for (String sql : getSQLStatements(db)) {
 					statement.execute(sql);
@@ -191,6 +199,10 @@ public class DBBulkInsert extends DBAction {
 			}
 			for (DBRow current : rows) {
 				actions.add(new DBInsert(current));
+				if (current.hasLargeObjects()) {
+					actions.addAll(db.executeDBAction(new DBInsertLargeObjects(current)));
+				}
+				current.setDefined();
 			}
 		} else {
 			for (DBRow current : rows) {
@@ -217,7 +229,7 @@ public class DBBulkInsert extends DBAction {
 					.append(fields.getAllColumns())
 					.append(defn.endInsertColumnList());
 			boolean isFirstRow = true;
-			for (DBRow currentRow : rows) {
+			for (DBRow currentRow : accumulated) {
 				fields = processAllFieldsForInsert(database, currentRow, isFirstRow);
 				inserts.append(fields.getAllValues().toString());
 				isFirstRow = false;
@@ -231,10 +243,53 @@ public class DBBulkInsert extends DBAction {
 
 	public void addAll(DBRow[] listOfRowsToInsert) {
 		rows.addAll(Arrays.asList(listOfRowsToInsert));
+		runIndividuallyBeforeCluster = null;
 	}
 
 	private boolean canBeBulkInserted(DBRow row) {
-		return row.getDefined();
+		for (QueryableDatatype<?> pk : row.getPrimaryKeysAsArray()) {
+			if (!pk.hasBeenSet()) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	private boolean allRowsCanBeBulkInserted() {
+		for (DBRow current : rows) {
+			if (!canBeBulkInserted(current)) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	@Override
+	public Set<String> getTableNames() {
+		Set<String> tableNames = new HashSet<>();
+		tableNames.add(getTableName());
+		for (DBRow row : rows) {
+			tableNames.add(row.getTableName());
+		}
+		return tableNames;
+	}
+
+	@Override
+	public boolean requiresRunOnIndividualDatabaseBeforeCluster() {
+		return getRunIndividuallyBeforeCluster();
+	}
+
+	@Override
+	public boolean runOnDatabaseDuringCluster(DBDatabase initialDatabase, DBDatabase next) {
+		return !getRunIndividuallyBeforeCluster() || initialDatabase != next;
+	}
+
+	private synchronized boolean getRunIndividuallyBeforeCluster() {
+		if (runIndividuallyBeforeCluster == null) {
+			// rows without primary keys need the keys generated by the first database
+			runIndividuallyBeforeCluster = !allRowsCanBeBulkInserted();
+		}
+		return runIndividuallyBeforeCluster;
 	}
 
 }
@@ -93,6 +93,13 @@ public class DBInsert extends DBAction {
 	 * used in all databases.
 	 * </p>
 	 *
+	 * <p>
+	 * Primary keys marked with
+	 * {@link nz.co.gregs.dbvolution.annotations.DBKeyAllocation} are set from
+	 * the database's pre-allocated keys before the insert so no generated key
+	 * retrieval is required.
+	 * </p>
+	 *
 	 * @param database the target database
 	 * @param row the row to be inserted
 	 * @throws SQLException Database actions can throw SQLException
@@ -101,6 +108,7 @@ public class DBInsert extends DBAction {
 	 * @return a DBActionList of the actions performed on the database.
 	 */
 	public static DBActionList save(DBDatabase database, DBRow row) throws SQLException {
+		database.getKeyAllocator().allocateKeys(row);
 		DBInsert dbInsert = new DBInsert(row);
 		final DBActionList executedActions = database.executeDBAction(dbInsert);
 		final List<QueryableDatatype<?>> primaryKeys = row.getPrimaryKeys();
@@ -0,0 +1,112 @@
+/*
+ * Copyright 2019 Gregory Graham.
+ *
+ * Commercial licenses are available, please contact info@gregs.co.nz for details.
+ * 
+ * This work is licensed under the Creative Commons Attribution-NonCommercial-ShareAlike 4.0 International License. 
+ * To view a copy of this license, visit http://creativecommons.org/licenses/by-nc-sa/4.0/ 
+ * or send a letter to Creative Commons, PO Box 1866, Mountain View, CA 94042, USA.
+ * 
+ * You are free to:
+ *     Share - copy and redistribute the material in any medium or format
+ *     Adapt - remix, transform, and build upon the material
+ * 
+ *     The licensor cannot revoke these freedoms as long as you follow the license terms.               
+ *     Under the following terms:
+ *                 
+ *         Attribution - 
+ *             You must give appropriate credit, provide a link to the license, and indicate if changes were made. 
+ *             You may do so in any reasonable manner, but not in any way that suggests the licensor endorses you or your use.
+ *         NonCommercial - 
+ *             You may not use the material for commercial purposes.
+ *         ShareAlike - 
+ *             If you remix, transform, or build upon the material, 
+ *             you must distribute your contributions under the same license as the original.
+ *         No additional restrictions - 
+ *             You may not apply legal terms or technological measures that legally restrict others from doing anything the 
+ *             license permits.
+ * 
+ * Check the Creative Commons website for any details, legalese, and updates.
+ */
+package nz.co.gregs.dbvolution.actions;
+
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import nz.co.gregs.dbvolution.databases.DBDatabase;
+import nz.co.gregs.dbvolution.databases.DBStatement;
+
+/**
+ * Executes several update actions as a single JDBC batch.
+ *
+ * <p>
+ * Used by {@link nz.co.gregs.dbvolution.DBSession} to send the SQL of many
+ * updates to the database at once while still executing as a DBAction, so the
+ * caches of every table updated are invalidated.
+ *
+ * <p style="color: #F90;">Support DBvolution at
+ * <a href="http://patreon.com/dbvolution" target=new>Patreon</a></p>
+ *
+ * @author Gregory Graham
+ */
+public class DBUpdateBatch extends DBAction {
+
+	private static final long serialVersionUID = 1L;
+
+	private final List<DBAction> updates;
+
+	/**
+	 * Creates a batch of the updates supplied.
+	 *
+	 * @param updates the updates to batch, at least one is required
+	 */
+	public DBUpdateBatch(List<? extends DBAction> updates) {
+		super(updates.get(0).getRow());
+		this.updates = new ArrayList<>(updates);
+	}
+
+	@Override
+	public List<String> getSQLStatements(DBDatabase db) {
+		List<String> statements = new ArrayList<>();
+		for (DBAction update : updates) {
+			statements.addAll(update.getSQLStatements(db));
+		}
+		return statements;
+	}
+
+	@Override
+	public DBActionList execute(DBDatabase db) throws SQLException {
+		DBActionList actions = new DBActionList();
+		try (DBStatement statement = db.getDBStatement()) {
+			for (DBAction update : updates) {
+				for (String sql : update.getSQLStatements(db)) {
+					db.printSQLIfRequested(sql);
+					statement.addBatch(sql);
+				}
+				actions.add(update);
+			}
+			statement.executeBatch();
+		}
+		return actions;
+	}
+
+	@Override
+	protected DBActionList getRevertDBActionList() {
+		DBActionList revert = new DBActionList();
+		for (DBAction update : updates) {
+			revert.addAll(update.getRevertDBActionList());
+		}
+		return revert;
+	}
+
+	@Override
+	public Set<String> getTableNames() {
+		Set<String> tableNames = new HashSet<>();
+		for (DBAction update : updates) {
+			tableNames.addAll(update.getTableNames());
+		}
+		return tableNames;
+	}
+}
@@ -15,17 +15,17 @@
  */
 package nz.co.gregs.dbvolution.actions;
 
-import java.io.BufferedInputStream;
 import java.io.BufferedReader;
-import java.io.CharArrayReader;
-import java.io.IOError;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.InputStreamReader;
-import java.nio.charset.Charset;
+import java.io.Reader;
+import static java.nio.charset.StandardCharsets.US_ASCII;
+import static java.nio.charset.StandardCharsets.UTF_8;
 import java.sql.PreparedStatement;
 import java.sql.SQLException;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 import java.util.logging.Level;
 import java.util.logging.Logger;
@@ -39,7 +39,7 @@ import nz.co.gregs.dbvolution.datatypes.DBLargeObject;
 import nz.co.gregs.dbvolution.datatypes.QueryableDatatype;
 import nz.co.gregs.dbvolution.exceptions.DBRuntimeException;
 import nz.co.gregs.dbvolution.internal.properties.PropertyWrapper;
-import org.apache.commons.codec.binary.Base64;
+import org.apache.commons.codec.binary.Base64InputStream;
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
 
@@ -157,7 +157,7 @@ public class DBUpdateLargeObjects extends DBUpdate {
 		statement.execute(sqlString);
 	}
 
-	private void setUsingBinaryStream(DBDefinition defn, DBRow row, final String col, final DBLargeObject<?> largeObject, DBDatabase db, DBStatement statement) throws SQLException {
+	private void setUsingBinaryStream(DBDefinition defn, DBRow row, final String col, final DBLargeObject<?> largeObject, DBDatabase db, DBStatement statement) throws SQLException, IOException {
 		String sqlString = defn.beginUpdateLine()
 				+ defn.formatTableName(row)
 				+ defn.beginSetClause()
@@ -170,16 +170,23 @@ public class DBUpdateLargeObjects extends DBUpdate {
 		db.printSQLIfRequested(sqlString);
 		LOG.debug(sqlString);
 		try (PreparedStatement prep = statement.getConnection().prepareStatement(sqlString)) {
+			InputStream input = largeObject.getInputStream();
 			try {
-				prep.setBinaryStream(1, largeObject.getInputStream());
-			} catch (SQLException exp) {
 				try {
-					prep.setBinaryStream(1, largeObject.getInputStream(), largeObject.getSize());
-				} catch (Exception exp2) {
-					throw new DBRuntimeException(exp);
+					prep.setBinaryStream(1, input, largeObject.getSize());
+				} catch (SQLException | AbstractMethodError exp) {
+					input.close();
+					input = largeObject.getInputStream();
+					try {
+						prep.setBinaryStream(1, input);
+					} catch (Exception exp2) {
+						throw new DBRuntimeException(exp);
+					}
 				}
+				prep.execute();
+			} finally {
+				input.close();
 			}
-			prep.execute();
 		}
 	}
 
@@ -194,8 +201,9 @@ public class DBUpdateLargeObjects extends DBUpdate {
 				+ getPrimaryKeySQL(db, row)
 				+ defn.endSQLStatement();
 		LOG.debug(sqlString);
-		try (PreparedStatement prep = statement.getConnection().prepareStatement(sqlString)) {
-			prep.setBlob(1, largeObject.getInputStream(), largeObject.getSize());
+		try (PreparedStatement prep = statement.getConnection().prepareStatement(sqlString);
+				InputStream input = largeObject.getInputStream()) {
+			prep.setBlob(1, input, largeObject.getSize());
 			prep.execute();
 		}
 	}
@@ -211,12 +219,21 @@ public class DBUpdateLargeObjects extends DBUpdate {
 				+ getPrimaryKeySQL(db, row)
 				+ defn.endSQLStatement();
 		LOG.debug(sqlString);
-		try (PreparedStatement prep = statement.getConnection().prepareStatement(sqlString)) {
-			prep.setClob(1, new InputStreamReader(largeObject.getInputStream(), Charset.forName("UTF-8")), largeObject.getSize());
+		final long characterCount = countCharacters(largeObject);
+		try (PreparedStatement prep = statement.getConnection().prepareStatement(sqlString);
+				Reader input = new InputStreamReader(largeObject.getInputStream(), UTF_8)) {
+			prep.setClob(1, input, characterCount);
 			prep.execute();
 		}
 	}
 
+	/**
+	 * Writes the large object as Base64 encoded text.
+	 *
+	 * <p>
+	 * The encoding is streamed to the driver as a character stream of known
+	 * length, so only a small buffer is held in memory.
+	 */
 	private void setUsingBase64String(DBDefinition defn, DBRow row, final String col, final DBLargeObject<?> largeObject, DBDatabase db, DBStatement statement) throws SQLException, IOException {
 		String sqlString = defn.beginUpdateLine()
 				+ defn.formatTableName(row)
@@ -228,36 +245,18 @@ public class DBUpdateLargeObjects extends DBUpdate {
 				+ getPrimaryKeySQL(db, row)
 				+ defn.endSQLStatement();
 		LOG.debug(sqlString);
-		try (PreparedStatement prep = statement.getConnection().prepareStatement(sqlString)) {
-			InputStream inputStream = largeObject.getInputStream();
-
-			try (InputStream input = new BufferedInputStream(inputStream)) {
-				List<byte[]> byteArrays = new ArrayList<>();
-
-				int totalBytesRead = 0;
-				byte[] resultSetBytes;
-				resultSetBytes = new byte[100000];
-				int bytesRead = input.read(resultSetBytes);
-				while (bytesRead > 0) {
-					totalBytesRead += bytesRead;
-					byteArrays.add(resultSetBytes);
-					resultSetBytes = new byte[100000];
-					bytesRead = input.read(resultSetBytes);
-				}
-				byte[] bytes = new byte[totalBytesRead];
-				int bytesAdded = 0;
-				for (byte[] someBytes : byteArrays) {
-					System.arraycopy(someBytes, 0, bytes, bytesAdded, Math.min(someBytes.length, bytes.length - bytesAdded));
-					bytesAdded += someBytes.length;
-				}
-				String b64encoded = Base64.encodeBase64String(bytes);
-				prep.setString(1, b64encoded);
-				prep.execute();
-			}
+		final long encodedLength = 4L * ((largeObject.getSize() + 2L) / 3L);
+		if (encodedLength > Integer.MAX_VALUE) {
+			throw new DBRuntimeException("Large Object Too Large For Base64: " + largeObject.getSize() + " bytes cannot be encoded as a single value");
+		}
+		try (PreparedStatement prep = statement.getConnection().prepareStatement(sqlString);
+				Reader input = new InputStreamReader(new Base64InputStream(largeObject.getInputStream(), true, 0, null), US_ASCII)) {
+			prep.setCharacterStream(1, input, (int) encodedLength);
+			prep.execute();
 		}
 	}
 
-	private void setUsingCharacterStream(DBDefinition defn, DBRow row, final String col, final DBLargeObject<?> largeObject, DBDatabase db, DBStatement statement) throws SQLException, IOError, IOException {
+	private void setUsingCharacterStream(DBDefinition defn, DBRow row, final String col, final DBLargeObject<?> largeObject, DBDatabase db, DBStatement statement) throws SQLException, IOException {
 		String sqlString = defn.beginUpdateLine()
 				+ defn.formatTableName(row)
 				+ defn.beginSetClause()
@@ -269,32 +268,51 @@ public class DBUpdateLargeObjects extends DBUpdate {
 				+ defn.endSQLStatement();
 		db.printSQLIfRequested(sqlString);
 		LOG.debug(sqlString);
-		try (PreparedStatement prep = statement.getConnection().prepareStatement(sqlString)) {
-			InputStream inputStream = largeObject.getInputStream();
+		final long characterCount = countCharacters(largeObject);
+		try (PreparedStatement prep = statement.getConnection().prepareStatement(sqlString);
+				Reader input = new BufferedReader(new InputStreamReader(largeObject.getInputStream(), UTF_8))) {
+			prep.setCharacterStream(1, input, characterCount);
+			prep.execute();
+		}
+	}
 
-			try (InputStreamReader input = new InputStreamReader(inputStream, "UTF-8")) {
-				List<char[]> byteArrays = new ArrayList<>();
+	/**
+	 * Counts the characters in the UTF-8 encoded large object without holding
+	 * the whole object in memory.
+	 *
+	 * <p>
+	 * Character streams and CLOBs need their length in characters rather than
+	 * bytes.
+	 */
+	private static long countCharacters(DBLargeObject<?> largeObject) throws IOException {
+		long count = 0;
+		try (Reader input = new InputStreamReader(largeObject.getInputStream(), UTF_8)) {
+			char[] buffer = new char[8192];
+			int charsRead = input.read(buffer);
+			while (charsRead >= 0) {
+				count += charsRead;
+				charsRead = input.read(buffer);
+			}
+		}
+		return count;
+	}
 
-				int totalBytesRead = 0;
-				char[] resultSetBytes;
-				resultSetBytes = new char[100000];
-				int bytesRead = input.read(resultSetBytes);
-				while (bytesRead > 0) {
-					totalBytesRead += bytesRead;
-					byteArrays.add(resultSetBytes);
-					resultSetBytes = new char[100000];
-					bytesRead = input.read(resultSetBytes);
-				}
-				char[] bytes = new char[totalBytesRead];
-				int bytesAdded = 0;
-				for (char[] someBytes : byteArrays) {
-					System.arraycopy(someBytes, 0, bytes, bytesAdded, Math.min(someBytes.length, bytes.length - bytesAdded));
-					bytesAdded += someBytes.length;
-				}
-				prep.setCharacterStream(1, new BufferedReader(new CharArrayReader(bytes)), bytes.length);
-				prep.execute();
+	/**
+	 * Fills the chunk from the stream, stopping early only at the end of the
+	 * stream.
+	 *
+	 * @return the number of bytes read, 0 at the end of the stream
+	 */
+	private static int readChunk(InputStream input, byte[] chunk) throws IOException {
+		int totalBytesRead = 0;
+		while (totalBytesRead < chunk.length) {
+			int bytesRead = input.read(chunk, totalBytesRead, chunk.length - totalBytesRead);
+			if (bytesRead < 0) {
+				break;
 			}
+			totalBytesRead += bytesRead;
 		}
+		return totalBytesRead;
 	}
 
 	@Override
@@ -369,31 +387,15 @@ public class DBUpdateLargeObjects extends DBUpdate {
 				+ getPrimaryKeySQL(db, row)
 				+ defn.endSQLStatement();
 		LOG.debug(sqlString);
-		try (PreparedStatement prep = statement.getConnection().prepareStatement(sqlString)) {
-			InputStream inputStream = largeObject.getInputStream();
-
-			try (InputStream input = new BufferedInputStream(inputStream)) {
-				List<byte[]> byteArrays = new ArrayList<>();
-
-				int totalBytesRead = 0;
-				byte[] resultSetBytes;
-				resultSetBytes = new byte[100000];
-				int bytesRead = input.read(resultSetBytes);
-				while (bytesRead > 0) {
-					totalBytesRead += bytesRead;
-					byteArrays.add(resultSetBytes);
-					resultSetBytes = new byte[100000];
-					bytesRead = input.read(resultSetBytes);
-				}
-				byte[] bytes = new byte[totalBytesRead];
-				int bytesAdded = 0;
-				for (byte[] someBytes : byteArrays) {
-					System.arraycopy(someBytes, 0, bytes, bytesAdded, Math.min(someBytes.length, bytes.length - bytesAdded));
-					bytesAdded += someBytes.length;
-				}
-				prep.setBytes(1, bytes);
-				prep.execute();
+		try (PreparedStatement prep = statement.getConnection().prepareStatement(sqlString);
+				InputStream input = largeObject.getInputStream()) {
+			byte[] bytes = new byte[largeObject.getSize()];
+			final int bytesRead = readChunk(input, bytes);
+			if (bytesRead < bytes.length) {
+				bytes = Arrays.copyOf(bytes, bytesRead);
 			}
+			prep.setBytes(1, bytes);
+			prep.execute();
 		}
 	}
 }
@@ -0,0 +1,92 @@
+/*
+ * Copyright 2019 Gregory Graham.
+ *
+ * Commercial licenses are available, please contact info@gregs.co.nz for details.
+ * 
+ * This work is licensed under the Creative Commons Attribution-NonCommercial-ShareAlike 4.0 International License. 
+ * To view a copy of this license, visit http://creativecommons.org/licenses/by-nc-sa/4.0/ 
+ * or send a letter to Creative Commons, PO Box 1866, Mountain View, CA 94042, USA.
+ * 
+ * You are free to:
+ *     Share - copy and redistribute the material in any medium or format
+ *     Adapt - remix, transform, and build upon the material
+ * 
+ *     The licensor cannot revoke these freedoms as long as you follow the license terms.               
+ *     Under the following terms:
+ *                 
+ *         Attribution - 
+ *             You must give appropriate credit, provide a link to the license, and indicate if changes were made. 
+ *             You may do so in any reasonable manner, but not in any way that suggests the licensor endorses you or your use.
+ *         NonCommercial - 
+ *             You may not use the material for commercial purposes.
+ *         ShareAlike - 
+ *             If you remix, transform, or build upon the material, 
+ *             you must distribute your contributions under the same license as the original.
+ *         No additional restrictions - 
+ *             You may not apply legal terms or technological measures that legally restrict others from doing anything the 
+ *             license permits.
+ * 
+ * Check the Creative Commons website for any details, legalese, and updates.
+ */
+package nz.co.gregs.dbvolution.annotations;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Used to indicate that rows of this table should be kept in memory and
+ * reused by primary key lookups.
+ *
+ * <p>
+ * {@link nz.co.gregs.dbvolution.DBTable#getRowsByPrimaryKey(java.lang.Number) DBTable's primary key methods},
+ * {@link nz.co.gregs.dbvolution.DBTable#getRowsByPrimaryKeys(java.util.Collection) getRowsByPrimaryKeys},
+ * and {@link nz.co.gregs.dbvolution.DBTable#getOnlyRowByExample(nz.co.gregs.dbvolution.DBRow) getOnlyRowByExample}
+ * with only the primary key set, will return copies of the cached rows instead
+ * of querying the database. The cached rows for the table are discarded
+ * whenever an action changes the table through the same DBDatabase.</p>
+ *
+ * <p>
+ * Changes made by other programs, or with raw SQL, are not detected so this is
+ * best suited to reference data that rarely changes. Only tables with a single
+ * primary key column are cached.</p>
+ *
+ * <p>
+ * Example of use:</p>
+ * <code>
+ * <br>
+ * <span style="font-weight: bold">&#64;DBCacheByPrimaryKey(maximumSize = 500)</span><br>
+ * public class Country extends DBRow{<br>
+ * <br>
+ * &#64;DBColumn("code")<br>
+ * &#64;DBPrimaryKey<br>
+ * public DBString code = new DBString();<br>
+ * <br>
+ * }<br>
+ * <br>
+ * </code>
+ *
+ * <p style="color: #F90;">Support DBvolution at
+ * <a href="http://patreon.com/dbvolution" target=new>Patreon</a></p>
+ *
+ * @author Gregory Graham
+ * @see DBPrimaryKey
+ */
+@Target(ElementType.TYPE)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface DBCacheByPrimaryKey {
+
+	/**
+	 * The maximum number of rows kept for the table.
+	 *
+	 * <p>
+	 * The least recently used rows are discarded when the limit is reached.
+	 *
+	 * <p style="color: #F90;">Support DBvolution at
+	 * <a href="http://patreon.com/dbvolution" target=new>Patreon</a></p>
+	 *
+	 * @return the maximum number of cached rows, 1000 by default
+	 */
+	int maximumSize() default 1000;
+}
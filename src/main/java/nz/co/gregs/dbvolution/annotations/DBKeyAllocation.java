@@ -0,0 +1,96 @@
+/*
+ * Copyright 2019 Gregory Graham.
+ *
+ * Commercial licenses are available, please contact info@gregs.co.nz for details.
+ * 
+ * This work is licensed under the Creative Commons Attribution-NonCommercial-ShareAlike 4.0 International License. 
+ * To view a copy of this license, visit http://creativecommons.org/licenses/by-nc-sa/4.0/ 
+ * or send a letter to Creative Commons, PO Box 1866, Mountain View, CA 94042, USA.
+ * 
+ * You are free to:
+ *     Share - copy and redistribute the material in any medium or format
+ *     Adapt - remix, transform, and build upon the material
+ * 
+ *     The licensor cannot revoke these freedoms as long as you follow the license terms.               
+ *     Under the following terms:
+ *                 
+ *         Attribution - 
+ *             You must give appropriate credit, provide a link to the license, and indicate if changes were made. 
+ *             You may do so in any reasonable manner, but not in any way that suggests the licensor endorses you or your use.
+ *         NonCommercial - 
+ *             You may not use the material for commercial purposes.
+ *         ShareAlike - 
+ *             If you remix, transform, or build upon the material, 
+ *             you must distribute your contributions under the same license as the original.
+ *         No additional restrictions - 
+ *             You may not apply legal terms or technological measures that legally restrict others from doing anything the 
+ *             license permits.
+ * 
+ * Check the Creative Commons website for any details, legalese, and updates.
+ */
+package nz.co.gregs.dbvolution.annotations;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Used to indicate that the values of a {@link DBAutoIncrement} primary key
+ * should be allocated by DBvolution in blocks rather than generated by the
+ * database for each insert.
+ *
+ * <p>
+ * DBvolution reserves a block of keys at a time, from a sequence when the
+ * database supports them or from a DBvolution-managed allocation table
+ * otherwise, and hands them out from memory. Rows inserted this way have their
+ * primary key set before the INSERT is sent so no generated key retrieval is
+ * needed and the inserts can be bulk inserted or batched.</p>
+ *
+ * <p>
+ * Reservations are made in their own transaction and are safe across
+ * JVMs and {@link nz.co.gregs.dbvolution.databases.DBDatabaseCluster cluster}
+ * members. Keys from a block that is not completely used are lost, so the
+ * primary key values will have gaps.</p>
+ *
+ * <p>
+ * Example of use:</p>
+ * <code>
+ * <br>
+ * public class MyRow extends DBRow{<br>
+ * <br>
+ * &#64;DBColumn("primary_key_col")<br>
+ * &#64;DBPrimaryKey<br>
+ * &#64;DBAutoIncrement<br>
+ * <span style="font-weight: bold">&#64;DBKeyAllocation(blockSize = 100)</span><br>
+ * public DBInteger pkColumn = new DBInteger();<br>
+ * <br>
+ * }<br>
+ * <br>
+ * </code>
+ *
+ * <p>
+ * DBKeyAllocation has no effect unless the field is also a DBAutoIncrement
+ * DBPrimaryKey DBInteger.</p>
+ *
+ * <p style="color: #F90;">Support DBvolution at
+ * <a href="http://patreon.com/dbvolution" target=new>Patreon</a></p>
+ *
+ * @author Gregory Graham
+ * @see DBAutoIncrement
+ * @see DBPrimaryKey
+ */
+@Target({ElementType.FIELD, ElementType.METHOD})
+@Retention(RetentionPolicy.RUNTIME)
+public @interface DBKeyAllocation {
+
+	/**
+	 * The number of keys reserved by each trip to the database.
+	 *
+	 * <p style="color: #F90;">Support DBvolution at
+	 * <a href="http://patreon.com/dbvolution" target=new>Patreon</a></p>
+	 *
+	 * @return the block size, 100 by default
+	 */
+	int blockSize() default 100;
+}
@@ -0,0 +1,85 @@
+/*
+ * Copyright 2019 Gregory Graham.
+ *
+ * Commercial licenses are available, please contact info@gregs.co.nz for details.
+ * 
+ * This work is licensed under the Creative Commons Attribution-NonCommercial-ShareAlike 4.0 International License. 
+ * To view a copy of this license, visit http://creativecommons.org/licenses/by-nc-sa/4.0/ 
+ * or send a letter to Creative Commons, PO Box 1866, Mountain View, CA 94042, USA.
+ * 
+ * You are free to:
+ *     Share - copy and redistribute the material in any medium or format
+ *     Adapt - remix, transform, and build upon the material
+ * 
+ *     The licensor cannot revoke these freedoms as long as you follow the license terms.               
+ *     Under the following terms:
+ *                 
+ *         Attribution - 
+ *             You must give appropriate credit, provide a link to the license, and indicate if changes were made. 
+ *             You may do so in any reasonable manner, but not in any way that suggests the licensor endorses you or your use.
+ *         NonCommercial - 
+ *             You may not use the material for commercial purposes.
+ *         ShareAlike - 
+ *             If you remix, transform, or build upon the material, 
+ *             you must distribute your contributions under the same license as the original.
+ *         No additional restrictions - 
+ *             You may not apply legal terms or technological measures that legally restrict others from doing anything the 
+ *             license permits.
+ * 
+ * Check the Creative Commons website for any details, legalese, and updates.
+ */
+package nz.co.gregs.dbvolution.annotations;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Used to indicate that a column should not be retrieved by queries until its
+ * value is used.
+ *
+ * <p>
+ * Lazy columns are left out of the SELECT clause. The first time the value of
+ * a lazy column is used, DBvolution retrieves the lazy columns for all the rows
+ * of the same table in the same query result using their primary keys.</p>
+ *
+ * <p>
+ * This is useful for large objects, and long strings, that are rarely needed
+ * when listing rows.</p>
+ *
+ * <p>
+ * Example of use:</p>
+ * <code>
+ * <br>
+ * public class MyRow extends DBRow{<br>
+ * <br>
+ * &#64;DBColumn("primary_key_col")<br>
+ * &#64;DBPrimaryKey<br>
+ * public DBInteger pkColumn = new DBInteger();<br>
+ * <br>
+ * &#64;DBColumn<br>
+ * <span style="font-weight: bold">&#64;DBLazy</span><br>
+ * public DBLargeText description = new DBLargeText();<br>
+ * }<br>
+ * <br>
+ * </code>
+ *
+ * <p>
+ * DBLazy has no effect on tables without a primary key, on primary keys, on
+ * type adapted fields, or on queries that
+ * {@link nz.co.gregs.dbvolution.DBRow#setReturnFields(java.lang.Object...) limit the returned fields}.
+ * Use {@link nz.co.gregs.dbvolution.query.LazyLoadingPolicy} to change the
+ * behaviour for a particular query.</p>
+ *
+ * <p style="color: #F90;">Support DBvolution at
+ * <a href="http://patreon.com/dbvolution" target=new>Patreon</a></p>
+ *
+ * @author Gregory Graham
+ * @see DBColumn
+ * @see nz.co.gregs.dbvolution.query.LazyLoadingPolicy
+ */
+@Target({ElementType.FIELD, ElementType.METHOD})
+@Retention(RetentionPolicy.RUNTIME)
+public @interface DBLazy {
+}
@@ -0,0 +1,494 @@
+/*
+ * Copyright 2019 Gregory Graham.
+ *
+ * Commercial licenses are available, please contact info@gregs.co.nz for details.
+ * 
+ * This work is licensed under the Creative Commons Attribution-NonCommercial-ShareAlike 4.0 International License. 
+ * To view a copy of this license, visit http://creativecommons.org/licenses/by-nc-sa/4.0/ 
+ * or send a letter to Creative Commons, PO Box 1866, Mountain View, CA 94042, USA.
+ * 
+ * You are free to:
+ *     Share - copy and redistribute the material in any medium or format
+ *     Adapt - remix, transform, and build upon the material
+ * 
+ *     The licensor cannot revoke these freedoms as long as you follow the license terms.               
+ *     Under the following terms:
+ *                 
+ *         Attribution - 
+ *             You must give appropriate credit, provide a link to the license, and indicate if changes were made. 
+ *             You may do so in any reasonable manner, but not in any way that suggests the licensor endorses you or your use.
+ *         NonCommercial - 
+ *             You may not use the material for commercial purposes.
+ *         ShareAlike - 
+ *             If you remix, transform, or build upon the material, 
+ *             you must distribute your contributions under the same license as the original.
+ *         No additional restrictions - 
+ *             You may not apply legal terms or technological measures that legally restrict others from doing anything the 
+ *             license permits.
+ * 
+ * Check the Creative Commons website for any details, legalese, and updates.
+ */
+package nz.co.gregs.dbvolution.databases;
+
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import nz.co.gregs.dbvolution.DBQuery;
+import nz.co.gregs.dbvolution.DBQueryRow;
+import nz.co.gregs.dbvolution.DBRow;
+import nz.co.gregs.dbvolution.DBTable;
+import nz.co.gregs.dbvolution.actions.DBActionList;
+import nz.co.gregs.dbvolution.exceptions.DBRuntimeException;
+import nz.co.gregs.dbvolution.transactions.DBTransaction;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+/**
+ * Runs queries, actions, and transactions on a background thread pool and
+ * returns a Future for the result.
+ *
+ * <p>
+ * Use {@link DBDatabase#async() } to get the shared instance for a database.
+ *
+ * <p>
+ * The pool has a fixed number of threads, each of which will use at most one
+ * connection at a time, and a limited number of waiting tasks. When the
+ * threads are busy and the queue is full, submitting another task blocks the
+ * caller until a task finishes, so a burst of requests cannot open an
+ * unlimited number of connections. Use {@link #trySubmit(java.util.concurrent.Callable)
+ * } to be refused instead of waiting.
+ *
+ * <p>
+ * A {@link CompletionListener} can be supplied with the work to be told when
+ * it has finished, rather than waiting on the Future.
+ *
+ * <p>
+ * Cancelling a Future with {@code cancel(true)} also cancels the statements
+ * the task is running, so long queries stop on the database as well.
+ * Statements that the task has already closed are not cancelled.
+ *
+ * <p style="color: #F90;">Support DBvolution at
+ * <a href="http://patreon.com/dbvolution" target=new>Patreon</a></p>
+ *
+ * @author Gregory Graham
+ */
+public class DBAsyncDatabase {
+
+	private static final Log LOG = LogFactory.getLog(DBAsyncDatabase.class);
+
+	private static final ThreadLocal<AsyncTask<?>> CURRENT_TASK = new ThreadLocal<>();
+	private static final AtomicInteger THREAD_COUNT = new AtomicInteger(0);
+
+	private final DBDatabase database;
+	private final ThreadPoolExecutor executor;
+	private final Semaphore capacity;
+
+	/**
+	 * Creates an asynchronous facade for the database.
+	 *
+	 * @param database the database to use
+	 * @param threads the number of tasks that can run at once
+	 * @param queuedTasks the number of tasks that can wait before submission
+	 * blocks
+	 */
+	public DBAsyncDatabase(DBDatabase database, int threads, int queuedTasks) {
+		if (threads < 1 || queuedTasks < 0) {
+			throw new DBRuntimeException("Invalid Async Pool Size: threads must be at least 1 and queued tasks at least 0, but found " + threads + " and " + queuedTasks);
+		}
+		this.database = database;
+		this.capacity = new Semaphore(threads + queuedTasks);
+		this.executor = new ThreadPoolExecutor(threads, threads, 60L, TimeUnit.SECONDS,
+				new LinkedBlockingQueue<Runnable>(),
+				new ThreadFactory() {
+			@Override
+			public Thread newThread(Runnable r) {
+				final Thread thread = new Thread(r, "DBAsyncDatabase-" + THREAD_COUNT.incrementAndGet());
+				thread.setDaemon(true);
+				return thread;
+			}
+		});
+		this.executor.allowCoreThreadTimeOut(true);
+	}
+
+	/**
+	 * Runs the work on the pool.
+	 *
+	 * <p>
+	 * Blocks until there is room in the pool for the task.
+	 *
+	 * @param <V> the type of the result
+	 * @param work the task to run
+	 * @return a Future for the result of the work
+	 */
+	public <V> Future<V> submit(Callable<V> work) {
+		return submit(work, null);
+	}
+
+	/**
+	 * Runs the work on the pool and informs the listener when it has finished.
+	 *
+	 * <p>
+	 * Blocks until there is room in the pool for the task.
+	 *
+	 * @param <V> the type of the result
+	 * @param work the task to run
+	 * @param listener called when the work succeeds, fails, or is cancelled, may
+	 * be null
+	 * @return a Future for the result of the work
+	 */
+	public <V> Future<V> submit(Callable<V> work, CompletionListener<V> listener) {
+		capacity.acquireUninterruptibly();
+		return execute(new AsyncTask<>(work, true, listener));
+	}
+
+	/**
+	 * Runs the work on the pool if there is room for it.
+	 *
+	 * <p>
+	 * Unlike {@link #submit(java.util.concurrent.Callable) } this method never
+	 * blocks.
+	 *
+	 * @param <V> the type of the result
+	 * @param work the task to run
+	 * @return a Future for the result of the work, or null if the pool is full
+	 */
+	public <V> Future<V> trySubmit(Callable<V> work) {
+		return trySubmit(work, null);
+	}
+
+	/**
+	 * Runs the work on the pool if there is room for it and informs the listener
+	 * when it has finished.
+	 *
+	 * <p>
+	 * Unlike {@link #submit(java.util.concurrent.Callable, nz.co.gregs.dbvolution.databases.DBAsyncDatabase.CompletionListener)
+	 * } this method never blocks. The listener is not called if the work is
+	 * refused.
+	 *
+	 * @param <V> the type of the result
+	 * @param work the task to run
+	 * @param listener called when the work succeeds, fails, or is cancelled, may
+	 * be null
+	 * @return a Future for the result of the work, or null if the pool is full
+	 */
+	public <V> Future<V> trySubmit(Callable<V> work, CompletionListener<V> listener) {
+		if (!capacity.tryAcquire()) {
+			return null;
+		}
+		return execute(new AsyncTask<>(work, true, listener));
+	}
+
+	private <V> Future<V> execute(AsyncTask<V> task) {
+		try {
+			executor.execute(task);
+		} catch (RejectedExecutionException ex) {
+			capacity.release();
+			throw ex;
+		}
+		return task;
+	}
+
+	/**
+	 * Runs all the work concurrently and waits for it to finish.
+	 *
+	 * <p>
+	 * As much of the work as the pool has capacity for is run on the pool and
+	 * the rest is run by the calling thread, so calling this method from a task
+	 * already running on the pool will not deadlock.
+	 *
+	 * @param <V> the type returned by the work
+	 * @param work the work to run
+	 * @return a completed Future for each piece of work, in the same order as
+	 * the work
+	 */
+	<V> List<Future<V>> invokeAll(List<? extends Callable<V>> work) {
+		final List<AsyncTask<V>> tasks = new ArrayList<>(work.size());
+		for (Callable<V> callable : work) {
+			AsyncTask<V> task;
+			if (tasks.isEmpty() || !capacity.tryAcquire()) {
+				task = new AsyncTask<>(callable, false, null);
+			} else {
+				task = new AsyncTask<>(callable, true, null);
+				try {
+					executor.execute(task);
+				} catch (RejectedExecutionException ex) {
+					// the pool is shutting down so the calling thread will run it
+				}
+			}
+			tasks.add(task);
+		}
+		boolean interrupted = false;
+		final List<Future<V>> futures = new ArrayList<>(tasks.size());
+		for (AsyncTask<V> task : tasks) {
+			task.run();
+			while (!task.isDone()) {
+				try {
+					task.get();
+				} catch (InterruptedException ex) {
+					interrupted = true;
+				} catch (ExecutionException | CancellationException ex) {
+					// reported by the Future
+				}
+			}
+			futures.add(task);
+		}
+		if (interrupted) {
+			Thread.currentThread().interrupt();
+		}
+		return futures;
+	}
+
+	/**
+	 * Retrieves all the rows of the query on the pool.
+	 *
+	 * @param query the query to run
+	 * @return a Future for the rows of the query
+	 */
+	public Future<List<DBQueryRow>> getAllRows(final DBQuery query) {
+		return submit(new Callable<List<DBQueryRow>>() {
+			@Override
+			public List<DBQueryRow> call() throws SQLException {
+				return query.getAllRows();
+			}
+		});
+	}
+
+	/**
+	 * Retrieves all the rows of the table on the pool.
+	 *
+	 * @param <R> the table type
+	 * @param table the table to query
+	 * @return a Future for the rows of the table
+	 */
+	public <R extends DBRow> Future<List<R>> getAllRows(final DBTable<R> table) {
+		return submit(new Callable<List<R>>() {
+			@Override
+			public List<R> call() throws SQLException {
+				return table.getAllRows();
+			}
+		});
+	}
+
+	/**
+	 * Retrieves the rows matching the example on the pool.
+	 *
+	 * @param <R> the table type
+	 * @param example the example of the rows required
+	 * @return a Future for the matching rows
+	 */
+	public <R extends DBRow> Future<List<R>> get(final R example) {
+		return submit(new Callable<List<R>>() {
+			@Override
+			public List<R> call() throws SQLException {
+				return database.get(example);
+			}
+		});
+	}
+
+	/**
+	 * Inserts the rows on the pool.
+	 *
+	 * @param rows the rows to insert
+	 * @return a Future for the actions performed
+	 */
+	public Future<DBActionList> insert(final DBRow... rows) {
+		return submit(new Callable<DBActionList>() {
+			@Override
+			public DBActionList call() throws SQLException {
+				return database.insert(rows);
+			}
+		});
+	}
+
+	/**
+	 * Updates the rows on the pool.
+	 *
+	 * @param rows the rows to update
+	 * @return a Future for the actions performed
+	 */
+	public Future<DBActionList> update(final DBRow... rows) {
+		return submit(new Callable<DBActionList>() {
+			@Override
+			public DBActionList call() throws SQLException {
+				return database.update(rows);
+			}
+		});
+	}
+
+	/**
+	 * Deletes the rows on the pool.
+	 *
+	 * @param rows the rows to delete
+	 * @return a Future for the actions performed
+	 */
+	public Future<DBActionList> delete(final DBRow... rows) {
+		return submit(new Callable<DBActionList>() {
+			@Override
+			public DBActionList call() throws SQLException {
+				return database.delete(rows);
+			}
+		});
+	}
+
+	/**
+	 * Performs the transaction on the pool and commits it.
+	 *
+	 * @param <V> the type of the transaction's result
+	 * @param transaction the transaction to perform
+	 * @return a Future for the result of the transaction
+	 */
+	public <V> Future<V> doTransaction(final DBTransaction<V> transaction) {
+		return submit(new Callable<V>() {
+			@Override
+			public V call() throws Exception {
+				return database.doTransaction(transaction);
+			}
+		});
+	}
+
+	/**
+	 * Stops the pool, tasks that have already been submitted are still run.
+	 */
+	public void shutdown() {
+		executor.shutdown();
+	}
+
+	/**
+	 * Records that the current thread is using the statement so that cancelling
+	 * the current task can cancel the statement.
+	 *
+	 * @param statement the statement created for the current thread
+	 */
+	static void registerStatement(DBStatement statement) {
+		final AsyncTask<?> task = CURRENT_TASK.get();
+		if (task != null && statement != null) {
+			task.register(statement);
+		}
+	}
+
+	/**
+	 * Records that the current thread has finished with the statement so that
+	 * cancelling the current task will not cancel it.
+	 *
+	 * @param statement the statement closed or returned by the current thread
+	 */
+	static void unregisterStatement(DBStatement statement) {
+		final AsyncTask<?> task = CURRENT_TASK.get();
+		if (task != null && statement != null) {
+			task.unregister(statement);
+		}
+	}
+
+	/**
+	 * Informed when work submitted to a {@link DBAsyncDatabase} has finished.
+	 *
+	 * <p>
+	 * The listener is called on the thread that completed the work, or on the
+	 * thread that cancelled it, so it should be quick and thread-safe. Exceptions
+	 * thrown by the listener are logged and otherwise ignored.
+	 *
+	 * @param <V> the type of the result
+	 */
+	public static interface CompletionListener<V> {
+
+		/**
+		 * Called once the work has succeeded, failed, or been cancelled.
+		 *
+		 * @param result the finished work, {@link Future#get() } will not block
+		 */
+		void completed(Future<V> result);
+	}
+
+	private class AsyncTask<V> extends FutureTask<V> {
+
+		private final List<DBStatement> statements = new ArrayList<>();
+		private final AtomicBoolean started = new AtomicBoolean(false);
+		private final boolean holdsCapacity;
+		private final CompletionListener<V> listener;
+
+		AsyncTask(Callable<V> work, boolean holdsCapacity, CompletionListener<V> listener) {
+			super(work);
+			this.holdsCapacity = holdsCapacity;
+			this.listener = listener;
+		}
+
+		synchronized void register(DBStatement statement) {
+			statements.add(statement);
+		}
+
+		synchronized void unregister(DBStatement statement) {
+			for (int i = statements.size() - 1; i >= 0; i--) {
+				if (statements.get(i) == statement) {
+					statements.remove(i);
+				}
+			}
+		}
+
+		@Override
+		protected void done() {
+			if (listener != null) {
+				try {
+					listener.completed(this);
+				} catch (RuntimeException ex) {
+					LOG.warn("Exception Thrown By Completion Listener: " + ex.getMessage(), ex);
+				}
+			}
+		}
+
+		@Override
+		public void run() {
+			if (!started.compareAndSet(false, true)) {
+				return;
+			}
+			final AsyncTask<?> outerTask = CURRENT_TASK.get();
+			CURRENT_TASK.set(this);
+			try {
+				super.run();
+			} finally {
+				if (outerTask == null) {
+					CURRENT_TASK.remove();
+				} else {
+					CURRENT_TASK.set(outerTask);
+				}
+				synchronized (this) {
+					statements.clear();
+				}
+				if (holdsCapacity) {
+					capacity.release();
+				}
+			}
+		}
+
+		@Override
+		public boolean cancel(boolean mayInterruptIfRunning) {
+			final boolean cancelled = super.cancel(mayInterruptIfRunning);
+			if (cancelled && mayInterruptIfRunning) {
+				final List<DBStatement> running;
+				synchronized (this) {
+					running = new ArrayList<>(statements);
+				}
+				for (DBStatement statement : running) {
+					try {
+						statement.cancel();
+					} catch (SQLException ex) {
+						LOG.warn("Unable To Cancel Statement: " + ex.getMessage(), ex);
+					}
+				}
+			}
+			return cancelled;
+		}
+	}
+}
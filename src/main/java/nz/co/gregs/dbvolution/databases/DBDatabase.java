@@ -24,7 +24,11 @@ import java.math.BigInteger;
 import java.security.SecureRandom;
 import java.sql.*;
 import java.util.*;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
 import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.TimeUnit;
 import java.util.logging.Level;
@@ -35,20 +39,31 @@ import nz.co.gregs.dbvolution.DBQuery;
 import nz.co.gregs.dbvolution.DBQueryInsert;
 import nz.co.gregs.dbvolution.DBQueryRow;
 import nz.co.gregs.dbvolution.DBRecursiveQuery;
+import nz.co.gregs.dbvolution.DBRelationshipLoader;
 import nz.co.gregs.dbvolution.DBReport;
 import nz.co.gregs.dbvolution.DBRow;
 import nz.co.gregs.dbvolution.DBScript;
+import nz.co.gregs.dbvolution.DBSession;
 import nz.co.gregs.dbvolution.DBTable;
 import nz.co.gregs.dbvolution.actions.DBAction;
 import nz.co.gregs.dbvolution.actions.DBActionList;
 import nz.co.gregs.dbvolution.actions.DBQueryable;
 import nz.co.gregs.dbvolution.columns.ColumnProvider;
 import nz.co.gregs.dbvolution.databases.definitions.DBDefinition;
+import nz.co.gregs.dbvolution.databases.listeners.ExecutionEvent;
+import nz.co.gregs.dbvolution.databases.listeners.ExecutionListener;
 import nz.co.gregs.dbvolution.datatypes.DBLargeObject;
 import nz.co.gregs.dbvolution.datatypes.QueryableDatatype;
 import nz.co.gregs.dbvolution.exceptions.*;
 import nz.co.gregs.dbvolution.transactions.*;
+import nz.co.gregs.dbvolution.internal.database.KeyAllocator;
+import nz.co.gregs.dbvolution.internal.database.PrimaryKeyCache;
+import nz.co.gregs.dbvolution.internal.database.TableGenerations;
 import nz.co.gregs.dbvolution.internal.properties.PropertyWrapper;
+import nz.co.gregs.dbvolution.internal.query.InFlightQueries;
+import nz.co.gregs.dbvolution.internal.query.QueryDetails;
+import nz.co.gregs.dbvolution.internal.query.QueryType;
+import nz.co.gregs.dbvolution.internal.query.QueryResultCache;
 import nz.co.gregs.dbvolution.reflection.DataModel;
 import nz.co.gregs.dbvolution.utility.RegularProcess;
 import org.apache.commons.logging.Log;
@@ -85,7 +100,7 @@ public abstract class DBDatabase implements Serializable, Cloneable {
 	static final Log LOG = LogFactory.getLog(DBDatabase.class);
 
 	private String driverName = "";
-	private boolean printSQLBeforeExecuting = false;
+	private volatile boolean printSQLBeforeExecuting = false;
 	boolean isInATransaction = false;
 	DBTransactionStatement transactionStatement;
 	private DBDefinition definition = null;
@@ -103,6 +118,14 @@ public abstract class DBDatabase implements Serializable, Cloneable {
 	private final List<RegularProcess> REGULAR_PROCESSORS = new ArrayList<>();
 	private static final ScheduledExecutorService REGULAR_THREAD_POOL = Executors.newSingleThreadScheduledExecutor();
 	private Exception exception = null;
+	private transient volatile KeyAllocator keyAllocator = new KeyAllocator(this);
+	private transient volatile QueryResultCache queryResultCache = null;
+	private transient volatile PrimaryKeyCache primaryKeyCache = new PrimaryKeyCache();
+	private transient volatile TableGenerations tableGenerations = new TableGenerations();
+	private transient volatile InFlightQueries inFlightQueries = new InFlightQueries();
+	private transient volatile ExecutionListener[] executionListeners = null;
+	private transient volatile DBAsyncDatabase asyncDatabase = null;
+	private transient volatile ThreadLocal<DBUnitOfWork> unitsOfWork = null;
 
 	{
 		Runtime.getRuntime().addShutdownHook(new StopDatabase(this));
@@ -387,21 +410,86 @@ public abstract class DBDatabase implements Serializable, Cloneable {
 					this.transactionStatement = new DBTransactionStatement(this, getLowLevelStatement());
 				}
 			} else {
-				statement = getLowLevelStatement();
+				final DBUnitOfWork unitOfWork = getCurrentUnitOfWork();
+				statement = unitOfWork == null ? null : unitOfWork.borrowStatement();
+				if (statement == null) {
+					statement = getLowLevelStatement();
+				}
 			}
 		}
 		return statement;
 	}
 
+	/**
+	 * Starts a unit of work that shares one connection and statement between
+	 * all the operations this thread performs until the unit of work is closed.
+	 *
+	 * <p>
+	 * Use try-with-resources to ensure the unit of work is closed and the
+	 * connection returned to the pool:
+	 * <pre>
+	 * try (DBUnitOfWork work = database.startUnitOfWork()) {
+	 *     for (DBRow row : rows) {
+	 *         database.insert(row);
+	 *     }
+	 * }
+	 * </pre>
+	 *
+	 * <p>
+	 * Within a transaction, or a unit of work already started by this thread,
+	 * the operations already share a statement and the unit of work returned
+	 * does nothing.
+	 *
+	 * <p style="color: #F90;">Support DBvolution at
+	 * <a href="http://patreon.com/dbvolution" target=new>Patreon</a></p>
+	 *
+	 * @return the unit of work, to be closed when the operations are complete
+	 */
+	public DBUnitOfWork startUnitOfWork() {
+		if (isInATransaction || getDefinition().willCloseConnectionOnStatementCancel()) {
+			return new DBUnitOfWork(this, null);
+		}
+		ThreadLocal<DBUnitOfWork> local = unitsOfWork;
+		if (local == null) {
+			synchronized (this) {
+				local = unitsOfWork;
+				if (local == null) {
+					local = new ThreadLocal<>();
+					unitsOfWork = local;
+				}
+			}
+		}
+		if (local.get() != null) {
+			return new DBUnitOfWork(this, null);
+		}
+		final DBUnitOfWork unitOfWork = new DBUnitOfWork(this, local);
+		local.set(unitOfWork);
+		return unitOfWork;
+	}
+
+	private DBUnitOfWork getCurrentUnitOfWork() {
+		final ThreadLocal<DBUnitOfWork> local = unitsOfWork;
+		return local == null ? null : local.get();
+	}
+
 	protected DBStatement getLowLevelStatement() throws UnableToCreateDatabaseConnectionException, UnableToFindJDBCDriver, SQLException {
 		if (!terminated) {
+			final boolean timed = hasExecutionListeners();
+			final long start = timed ? System.nanoTime() : 0L;
 			Connection connection = getConnection();
 			try {
 				while (connection.isClosed()) {
 					discardConnection(connection);
 					connection = getConnection();
 				}
-				return new DBStatement(this, connection);
+				final DBStatement statement = new DBStatement(this, connection);
+				DBAsyncDatabase.registerStatement(statement);
+				if (timed) {
+					final long waited = System.nanoTime() - start;
+					statement.setQueueNanos(waited);
+					fireExecutionEvent(new ExecutionEvent(this, ExecutionEvent.Type.CONNECTION, "", 0, System.identityHashCode(connection), waited, 0L, 0L, -1L, null));
+				}
+				return statement;
 			} catch (SQLException cantCreateStatement) {
 				discardConnection(connection);
 				throw new UnableToCreateDatabaseConnectionException(getJdbcURL(), getUsername(), cantCreateStatement);
@@ -643,8 +731,10 @@ public abstract class DBDatabase implements Serializable, Cloneable {
 	public final DBActionList insert(Collection<? extends DBRow> listOfRowsToInsert) throws SQLException {
 		DBActionList changes = new DBActionList();
 		if (listOfRowsToInsert.size() > 0) {
-			for (DBRow row : listOfRowsToInsert) {
-				changes.addAll(this.getDBTable(row).insert(row));
+			try (DBUnitOfWork unitOfWork = startUnitOfWork()) {
+				for (DBRow row : listOfRowsToInsert) {
+					changes.addAll(this.getDBTable(row).insert(row));
+				}
 			}
 		}
 		return changes;
@@ -663,8 +753,10 @@ public abstract class DBDatabase implements Serializable, Cloneable {
 	public final DBActionList insertOrUpdate(Collection<? extends DBRow> listOfRowsToInsert) throws SQLException {
 		DBActionList changes = new DBActionList();
 		if (listOfRowsToInsert.size() > 0) {
-			for (DBRow row : listOfRowsToInsert) {
-				changes.addAll(this.getDBTable(row).insertOrUpdate(row));
+			try (DBUnitOfWork unitOfWork = startUnitOfWork()) {
+				for (DBRow row : listOfRowsToInsert) {
+					changes.addAll(this.getDBTable(row).insertOrUpdate(row));
+				}
 			}
 		}
 		return changes;
@@ -690,8 +782,10 @@ public abstract class DBDatabase implements Serializable, Cloneable {
 	 */
 	public final DBActionList delete(DBRow... rows) throws SQLException {
 		DBActionList changes = new DBActionList();
-		for (DBRow row : rows) {
-			changes.addAll(this.getDBTable(row).delete(row));
+		try (DBUnitOfWork unitOfWork = startUnitOfWork()) {
+			for (DBRow row : rows) {
+				changes.addAll(this.getDBTable(row).delete(row));
+			}
 		}
 		return changes;
 	}
@@ -727,8 +821,10 @@ public abstract class DBDatabase implements Serializable, Cloneable {
 	public final DBActionList delete(Collection<? extends DBRow> list) throws SQLException {
 		DBActionList changes = new DBActionList();
 		if (list.size() > 0) {
-			for (DBRow row : list) {
-				changes.addAll(this.getDBTable(row).delete(row));
+			try (DBUnitOfWork unitOfWork = startUnitOfWork()) {
+				for (DBRow row : list) {
+					changes.addAll(this.getDBTable(row).delete(row));
+				}
 			}
 		}
 		return changes;
@@ -749,8 +845,10 @@ public abstract class DBDatabase implements Serializable, Cloneable {
 	 */
 	public final DBActionList update(DBRow... rows) throws SQLException {
 		DBActionList actions = new DBActionList();
-		for (DBRow row : rows) {
-			actions.addAll(this.getDBTable(row).update(row));
+		try (DBUnitOfWork unitOfWork = startUnitOfWork()) {
+			for (DBRow row : rows) {
+				actions.addAll(this.getDBTable(row).update(row));
+			}
 		}
 		return actions;
 	}
@@ -771,8 +869,10 @@ public abstract class DBDatabase implements Serializable, Cloneable {
 	public final DBActionList update(Collection<? extends DBRow> listOfRowsToUpdate) throws SQLException {
 		DBActionList actions = new DBActionList();
 		if (listOfRowsToUpdate.size() > 0) {
-			for (DBRow row : listOfRowsToUpdate) {
-				actions.addAll(this.getDBTable(row).update(row));
+			try (DBUnitOfWork unitOfWork = startUnitOfWork()) {
+				for (DBRow row : listOfRowsToUpdate) {
+					actions.addAll(this.getDBTable(row).update(row));
+				}
 			}
 		}
 		return actions;
@@ -1017,6 +1117,8 @@ public abstract class DBDatabase implements Serializable, Cloneable {
 			throw new UnsupportedOperationException("Unable to drop database due to incorrecte DBDatabase implementation: correct the implementation of clone()", ex);
 		}
 		V returnValues = null;
+		final long start = hasExecutionListeners() ? System.nanoTime() : 0L;
+		Exception failure = null;
 		db.transactionStatement = db.getDBTransactionStatement();
 		try {
 			db.isInATransaction = true;
@@ -1026,6 +1128,9 @@ public abstract class DBDatabase implements Serializable, Cloneable {
 				returnValues = dbTransaction.doTransaction(db);
 				if (commit) {
 					db.transactionConnection.commit();
+					clearQueryResultCache();
+					getPrimaryKeyCache().clear();
+					getTableGenerations().incrementAll();
 				} else {
 					try {
 						db.transactionConnection.rollback();
@@ -1041,12 +1146,20 @@ public abstract class DBDatabase implements Serializable, Cloneable {
 				}
 				throw ex;
 			}
+		} catch (SQLException | ExceptionThrownDuringTransaction | RuntimeException ex) {
+			failure = ex;
+			throw ex;
 		} finally {
+			final int connectionID = System.identityHashCode(db.transactionConnection);
 			db.isInATransaction = false;
 			db.transactionStatement.transactionFinished();
 			discardConnection(db.transactionConnection);
 			db.transactionConnection = null;
 			db.transactionStatement = null;
+			if (hasExecutionListeners() && start != 0L) {
+				final String description = dbTransaction.getClass().getSimpleName() + (commit && failure == null ? " COMMIT" : " ROLLBACK");
+				fireExecutionEvent(new ExecutionEvent(this, ExecutionEvent.Type.TRANSACTION, description, 0, connectionID, 0L, System.nanoTime() - start, 0L, -1L, failure));
+			}
 		}
 		return returnValues;
 	}
@@ -1209,6 +1322,119 @@ public abstract class DBDatabase implements Serializable, Cloneable {
 		return DBTable.getInstance(this, example);
 	}
 
+	/**
+	 * Creates a new unit of work for this database.
+	 *
+	 * <p>
+	 * Rows added to the session are not written to the database until
+	 * {@link DBSession#flush() } is called, at which point all the inserts,
+	 * updates, and deletes are performed in one transaction.
+	 *
+	 * <p style="color: #F90;">Support DBvolution at
+	 * <a href="http://patreon.com/dbvolution" target=new>Patreon</a></p>
+	 *
+	 * @return a new DBSession for this database
+	 */
+	public DBSession getDBSession() {
+		return new DBSession(this);
+	}
+
+	/**
+	 * Returns the allocator that provides primary keys for
+	 * {@link nz.co.gregs.dbvolution.annotations.DBKeyAllocation} columns.
+	 *
+	 * <p>
+	 * Inserts call the allocator automatically, it is only required when the
+	 * primary key is needed before the row is inserted.
+	 *
+	 * <p style="color: #F90;">Support DBvolution at
+	 * <a href="http://patreon.com/dbvolution" target=new>Patreon</a></p>
+	 *
+	 * @return the key allocator for this database
+	 */
+	public KeyAllocator getKeyAllocator() {
+		if (keyAllocator == null) {
+			synchronized (this) {
+				if (keyAllocator == null) {
+					keyAllocator = new KeyAllocator(this);
+				}
+			}
+		}
+		return keyAllocator;
+	}
+
+	/**
+	 * Returns the cache of rows for
+	 * {@link nz.co.gregs.dbvolution.annotations.DBCacheByPrimaryKey} tables.
+	 *
+	 * <p>
+	 * DBTable uses the cache automatically and actions executed on this
+	 * database discard the cached rows of the tables they change. Clear the
+	 * cache after changing the database outside of DBvolution.
+	 *
+	 * <p style="color: #F90;">Support DBvolution at
+	 * <a href="http://patreon.com/dbvolution" target=new>Patreon</a></p>
+	 *
+	 * @return the primary key cache for this database
+	 */
+	public PrimaryKeyCache getPrimaryKeyCache() {
+		if (primaryKeyCache == null) {
+			synchronized (this) {
+				if (primaryKeyCache == null) {
+					primaryKeyCache = new PrimaryKeyCache();
+				}
+			}
+		}
+		return primaryKeyCache;
+	}
+
+	/**
+	 * Returns the change counters for the tables of this database.
+	 *
+	 * <p>
+	 * Queries record the generation of their tables before they run and only
+	 * share or cache their rows if no action has changed the tables since.
+	 *
+	 * <p style="color: #F90;">Support DBvolution at
+	 * <a href="http://patreon.com/dbvolution" target=new>Patreon</a></p>
+	 *
+	 * @return the table generations for this database
+	 */
+	public TableGenerations getTableGenerations() {
+		if (tableGenerations == null) {
+			synchronized (this) {
+				if (tableGenerations == null) {
+					tableGenerations = new TableGenerations();
+				}
+			}
+		}
+		return tableGenerations;
+	}
+
+	/**
+	 * Returns the registry of queries currently running on this database.
+	 *
+	 * <p>
+	 * Queries use the registry automatically so that identical queries started
+	 * at the same time, outside of transactions, only run once and each caller
+	 * receives its own copy of the rows.
+	 *
+	 * <p style="color: #F90;">Support DBvolution at
+	 * <a href="http://patreon.com/dbvolution" target=new>Patreon</a></p>
+	 *
+	 * @return the in-flight queries for this database
+	 */
+	public InFlightQueries getInFlightQueries() {
+		if (inFlightQueries == null) {
+			synchronized (this) {
+				if (inFlightQueries == null) {
+					inFlightQueries = new InFlightQueries();
+				}
+			}
+		}
+		return inFlightQueries;
+	}
+
 	/**
 	 * Creates a new DBQuery object with the examples added as
 	 * {@link DBQuery#add(nz.co.gregs.dbvolution.DBRow[]) required} tables.
@@ -1272,12 +1498,89 @@ public abstract class DBDatabase implements Serializable, Cloneable {
 		printSQLIfRequested(sqlString, System.out);
 	}
 
-	synchronized void printSQLIfRequested(String sqlString, PrintStream out) {
+	void printSQLIfRequested(String sqlString, PrintStream out) {
 		if (printSQLBeforeExecuting) {
 			out.println(sqlString);
 		}
 	}
 
+	/**
+	 * Adds a listener that will be informed of every statement and action
+	 * executed by this database.
+	 *
+	 * <p>
+	 * See {@link nz.co.gregs.dbvolution.databases.listeners.SlowQueryListener}
+	 * and
+	 * {@link nz.co.gregs.dbvolution.databases.listeners.LatencyHistogramListener}
+	 * for the standard listeners.
+	 *
+	 * <p style="color: #F90;">Support DBvolution at
+	 * <a href="http://patreon.com/dbvolution" target=new>Patreon</a></p>
+	 *
+	 * @param listener the listener to add
+	 */
+	public synchronized void addExecutionListener(ExecutionListener listener) {
+		final ExecutionListener[] current = executionListeners == null ? new ExecutionListener[0] : executionListeners;
+		final ExecutionListener[] updated = Arrays.copyOf(current, current.length + 1);
+		updated[current.length] = listener;
+		executionListeners = updated;
+	}
+
+	/**
+	 * Removes a listener previously added with {@link #addExecutionListener(nz.co.gregs.dbvolution.databases.listeners.ExecutionListener)
+	 * }.
+	 *
+	 * @param listener the listener to remove
+	 */
+	public synchronized void removeExecutionListener(ExecutionListener listener) {
+		if (executionListeners != null) {
+			List<ExecutionListener> remaining = new ArrayList<>(Arrays.asList(executionListeners));
+			remaining.remove(listener);
+			executionListeners = remaining.isEmpty() ? null : remaining.toArray(new ExecutionListener[remaining.size()]);
+		}
+	}
+
+	/**
+	 * The execution listeners currently registered.
+	 *
+	 * @return the listeners, which may be empty
+	 */
+	List<ExecutionListener> getExecutionListeners() {
+		final ExecutionListener[] listeners = executionListeners;
+		return listeners == null ? new ArrayList<ExecutionListener>() : Arrays.asList(listeners);
+	}
+
+	/**
+	 * Indicates whether any execution listeners are registered.
+	 *
+	 * @return TRUE if executions need to be reported, otherwise FALSE
+	 */
+	public boolean hasExecutionListeners() {
+		return executionListeners != null;
+	}
+
+	/**
+	 * Sends the event to every registered execution listener.
+	 *
+	 * <p>
+	 * Exceptions thrown by listeners are logged and do not stop the remaining
+	 * listeners.
+	 *
+	 * @param event the execution to report
+	 */
+	public void fireExecutionEvent(ExecutionEvent event) {
+		final ExecutionListener[] listeners = executionListeners;
+		if (listeners != null) {
+			for (ExecutionListener listener : listeners) {
+				try {
+					listener.executed(event);
+				} catch (RuntimeException ex) {
+					LOG.warn("Execution Listener Failed: " + ex.getMessage(), ex);
+				}
+			}
+		}
+	}
+
 	/**
 	 * Creates tables on the database based on the DBRows.
 	 *
@@ -2202,6 +2505,22 @@ public abstract class DBDatabase implements Serializable, Cloneable {
 		return true;
 	}
 
+	/**
+	 * Used to indicate that this DBDatabase can send several queries as one
+	 * statement when the database driver supports it.
+	 *
+	 * <p>
+	 * The default implementation returns TRUE.
+	 *
+	 * <p style="color: #F90;">Support DBvolution at
+	 * <a href="http://patreon.com/dbvolution" target=new>Patreon</a></p>
+	 *
+	 * @return TRUE if the DBDatabase can pipeline queries, FALSE otherwise.
+	 */
+	protected boolean supportsPipelinedQueries() {
+		return true;
+	}
+
 	private synchronized void usedConnection(Connection connection) {
 		if (supportsPooledConnections()) {
 			getConnectionList(FREE_CONNECTIONS).remove(connection);
@@ -2256,6 +2575,37 @@ public abstract class DBDatabase implements Serializable, Cloneable {
 	@SuppressWarnings("empty-statement")
 	abstract protected void addDatabaseSpecificFeatures(Statement statement) throws SQLException;
 
+	/**
+	 * Installs the functions, datatypes, and other features DBvolution requires
+	 * on this database.
+	 *
+	 * <p>
+	 * Features are installed automatically when the first connection is created
+	 * but this method allows them to be installed at a predictable time, for
+	 * instance during application startup, or reinstalled after the database
+	 * has been recreated. Installing the features is safe to repeat.
+	 *
+	 * <p>
+	 * DBvolution does not install features while executing queries, so an
+	 * exception caused by a missing feature is reported rather than fixed and
+	 * retried.
+	 *
+	 * <p style="color: #F90;">Support DBvolution at
+	 * <a href="http://patreon.com/dbvolution" target=new>Patreon</a></p>
+	 *
+	 * @throws SQLException database exceptions may occur
+	 */
+	public void installFeatures() throws SQLException {
+		try (DBStatement dbStatement = getDBStatement()) {
+			try (Statement statement = dbStatement.getConnection().createStatement()) {
+				synchronized (this) {
+					addDatabaseSpecificFeatures(statement);
+					needToAddDatabaseSpecificFeatures = false;
+				}
+			}
+		}
+	}
+
 	/**
 	 * Used to add features in a just-in-time manner.
 	 *
@@ -2265,7 +2615,12 @@ public abstract class DBDatabase implements Serializable, Cloneable {
 	 * the required feature.
 	 *
 	 * <p>
-	 * The statement will be automatically run after this method exits.
+	 * Features should be installed by {@link #addDatabaseSpecificFeatures(java.sql.Statement)
+	 * } so this method is only needed for exceptions that can be safely ignored or
+	 * fixed by changing the connection. The statement is never run again: the
+	 * exception is ignored if this method returns
+	 * {@link ResponseToException#SKIPQUERY} and thrown otherwise. Classify the exception using its SQLState or vendor code
+	 * where possible as parsing messages is slow and fragile.
 	 *
 	 * @param exp the exception throw by the database that may need fixing
 	 * @return the preferred response to the exception
@@ -2335,6 +2690,12 @@ public abstract class DBDatabase implements Serializable, Cloneable {
 
 	public static enum ResponseToException {
 		REPLACECONNECTION(),
+		/**
+		 * Statements are never executed again, so the exception is thrown.
+		 *
+		 * @deprecated use {@link #REPLACECONNECTION} or {@link #SKIPQUERY}
+		 */
+		@Deprecated
 		REQUERY(),
 		SKIPQUERY();
 
@@ -2370,14 +2731,342 @@ public abstract class DBDatabase implements Serializable, Cloneable {
 		return new DBMigration<>(this, mapper);
 	}
 
+	/**
+	 * Creates a DBRelationshipLoader that retrieves the related rows of many
+	 * rows with a few queries.
+	 *
+	 * <p style="color: #F90;">Support DBvolution at
+	 * <a href="http://patreon.com/dbvolution" target=new>Patreon</a></p>
+	 *
+	 * @return a DBRelationshipLoader for this database
+	 */
+	public DBRelationshipLoader getDBRelationshipLoader() {
+		return new DBRelationshipLoader(this);
+	}
+
+	/**
+	 * Returns the asynchronous version of this database.
+	 *
+	 * <p>
+	 * The asynchronous database runs queries, actions, and transactions on a
+	 * bounded thread pool and returns Futures. The pool has 1 thread per
+	 * available processor and is shut down when this database is stopped.
+	 *
+	 * <p style="color: #F90;">Support DBvolution at
+	 * <a href="http://patreon.com/dbvolution" target=new>Patreon</a></p>
+	 *
+	 * @return the asynchronous database for this database
+	 */
+	public DBAsyncDatabase async() {
+		if (asyncDatabase == null) {
+			synchronized (this) {
+				if (asyncDatabase == null) {
+					final int threads = Math.max(2, Runtime.getRuntime().availableProcessors());
+					asyncDatabase = new DBAsyncDatabase(this, threads, threads * 4);
+				}
+			}
+		}
+		return asyncDatabase;
+	}
+
 	public DBActionList executeDBAction(DBAction action) throws SQLException, NoAvailableDatabaseException {
-		return action.execute(this);
+		if (hasExecutionListeners()) {
+			return executeObservedDBAction(action);
+		}
+		try {
+			return action.execute(this);
+		} finally {
+			tablesChanged(action);
+		}
+	}
+
+	private DBActionList executeObservedDBAction(DBAction action) throws SQLException {
+		final long start = System.nanoTime();
+		try {
+			final DBActionList actions = action.execute(this);
+			fireActionEvent(action, start, actions, null);
+			return actions;
+		} catch (SQLException | RuntimeException ex) {
+			fireActionEvent(action, start, null, ex);
+			throw ex;
+		} finally {
+			tablesChanged(action);
+		}
+	}
+
+	/**
+	 * Reports the execution of an action to the execution listeners.
+	 *
+	 * @param action the action that was executed
+	 * @param start the System.nanoTime() when the action started
+	 * @param actions the actions performed, or NULL if the action failed
+	 * @param exception the exception thrown by the action, or NULL
+	 */
+	protected void fireActionEvent(DBAction action, long start, DBActionList actions, Exception exception) {
+		final String description = action.getClass().getSimpleName() + " " + action.getTableName();
+		final long rows = actions == null ? -1L : actions.size();
+		fireExecutionEvent(new ExecutionEvent(this, ExecutionEvent.Type.ACTION, description, 0, 0, 0L, System.nanoTime() - start, 0L, rows, exception));
+	}
+
+	/**
+	 * Invalidates the cached rows of every table changed by the action.
+	 *
+	 * @param action the action that has been executed
+	 */
+	protected void tablesChanged(DBAction action) {
+		for (String tableName : action.getTableNames()) {
+			getTableGenerations().increment(tableName);
+			invalidateQueryResultCache(tableName);
+			getPrimaryKeyCache().invalidate(tableName);
+		}
+	}
+
+	/**
+	 * Shares the results of queries between all the queries on this database.
+	 *
+	 * <p>
+	 * Queries that generate the same SQL for the same tables will use the
+	 * results of the earlier query until the results expire, are pushed out by
+	 * newer results, or a table they read is changed by an action on this
+	 * database. Queries within transactions and queries using raw SQL are never
+	 * cached.
+	 *
+	 * <p>
+	 * Changes made by other programs, or with raw SQL, are not detected so only
+	 * use the cache for tables that are changed through DBvolution or that can
+	 * be a little out of date, such as reference data.
+	 *
+	 * @param maximumNumberOfResults the number of query results to keep
+	 * @param timeToLiveInMilliseconds how long results may be used for, zero or
+	 * less to keep them until a table changes
+	 */
+	public synchronized void setQueryResultCache(int maximumNumberOfResults, long timeToLiveInMilliseconds) {
+		queryResultCache = new QueryResultCache(maximumNumberOfResults, timeToLiveInMilliseconds);
+	}
+
+	/**
+	 * Stops sharing query results and removes the existing cache.
+	 */
+	public synchronized void removeQueryResultCache() {
+		queryResultCache = null;
+	}
+
+	/**
+	 * Returns the query result cache used by this database.
+	 *
+	 * <p style="color: #F90;">Support DBvolution at
+	 * <a href="http://patreon.com/dbvolution" target=new>Patreon</a></p>
+	 *
+	 * @return the cache or NULL if query results are not being shared
+	 */
+	public QueryResultCache getQueryResultCache() {
+		return queryResultCache;
+	}
+
+	/**
+	 * Removes all the cached query results, if there are any.
+	 *
+	 * <p>
+	 * Use this after changing the database outside of DBvolution.
+	 */
+	public void clearQueryResultCache() {
+		final QueryResultCache cache = queryResultCache;
+		if (cache != null) {
+			cache.clear();
+		}
+	}
+
+	/**
+	 * Removes the cached query results that read the table, if there are any.
+	 *
+	 * @param tableName the table that has changed
+	 */
+	public void invalidateQueryResultCache(String tableName) {
+		final QueryResultCache cache = queryResultCache;
+		if (cache != null) {
+			cache.invalidate(tableName);
+		}
+	}
+
+	/**
+	 * Indicates whether this database is currently being used within a
+	 * transaction.
+	 *
+	 * <p style="color: #F90;">Support DBvolution at
+	 * <a href="http://patreon.com/dbvolution" target=new>Patreon</a></p>
+	 *
+	 * @return TRUE if this instance is executing a transaction
+	 */
+	public boolean isInATransaction() {
+		return isInATransaction;
 	}
 
 	public DBQueryable executeDBQuery(DBQueryable query) throws SQLException, AccidentalCartesianJoinException, AccidentalBlankQueryException, NoAvailableDatabaseException {
 		return query.query(this);
 	}
 
+	/**
+	 * Executes all the queries at the same time and waits for them to finish.
+	 *
+	 * <p>
+	 * Independent queries, like those used to fill a dashboard, are run on
+	 * separate connections using the {@link #async() asynchronous pool} so the
+	 * total time is close to that of the slowest query rather than the sum of
+	 * all the queries.
+	 *
+	 * <p>
+	 * Where the database driver supports several result sets per statement,
+	 * the DBQuery instances that select rows are sent together as one statement
+	 * to save round trips. Queries that already have current results, or whose
+	 * rows are in the query result cache or being retrieved by an identical
+	 * query, are not sent. Within a transaction the queries are run one after
+	 * another on the transaction's connection.
+	 *
+	 * <p>
+	 * The results are retrieved from each query as usual, for instance with
+	 * {@link DBQuery#getAllRows() }.
+	 *
+	 * <p style="color: #F90;">Support DBvolution at
+	 * <a href="http://patreon.com/dbvolution" target=new>Patreon</a></p>
+	 *
+	 * @param queries the queries to execute
+	 * @return the executed queries in the same order as they were supplied
+	 * @throws SQLException database errors
+	 * @throws AccidentalCartesianJoinException a query has unconnected tables
+	 * @throws AccidentalBlankQueryException a query has no conditions
+	 * @throws NoAvailableDatabaseException the database is unavailable
+	 */
+	public List<DBQueryable> executeAll(DBQueryable... queries) throws SQLException, AccidentalCartesianJoinException, AccidentalBlankQueryException, NoAvailableDatabaseException {
+		final DBQueryable[] executed = Arrays.copyOf(queries, queries.length);
+		final List<DBQuery> pipelined = new ArrayList<>();
+		if (supportsPipelinedQueries() && getDefinition().supportsMultipleResultSetsPerStatement()) {
+			for (DBQueryable query : queries) {
+				if (query instanceof DBQuery
+						&& ((DBQuery) query).getQueryDetails().getOptions().getQueryType() == QueryType.SELECT) {
+					pipelined.add((DBQuery) query);
+				}
+			}
+			if (pipelined.size() < 2) {
+				pipelined.clear();
+			}
+		}
+		final List<Callable<Void>> work = new ArrayList<>();
+		if (!pipelined.isEmpty()) {
+			work.add(new Callable<Void>() {
+				@Override
+				public Void call() throws SQLException {
+					executePipelined(pipelined);
+					return null;
+				}
+			});
+		}
+		for (int i = 0; i < queries.length; i++) {
+			final int index = i;
+			final DBQueryable query = queries[i];
+			if (!pipelined.contains(query)) {
+				work.add(new Callable<Void>() {
+					@Override
+					public Void call() throws SQLException {
+						executed[index] = executeDBQuery(query);
+						return null;
+					}
+				});
+			}
+		}
+		final List<Future<Void>> results;
+		if (isInATransaction() || work.size() < 2) {
+			results = new ArrayList<>(work.size());
+			for (Callable<Void> callable : work) {
+				final FutureTask<Void> task = new FutureTask<>(callable);
+				task.run();
+				results.add(task);
+			}
+		} else {
+			results = async().invokeAll(work);
+		}
+		for (Future<Void> result : results) {
+			try {
+				result.get();
+			} catch (InterruptedException ex) {
+				Thread.currentThread().interrupt();
+				throw new DBRuntimeException("Interrupted While Executing Queries", ex);
+			} catch (ExecutionException ex) {
+				final Throwable cause = ex.getCause();
+				if (cause instanceof SQLException) {
+					throw (SQLException) cause;
+				} else if (cause instanceof RuntimeException) {
+					throw (RuntimeException) cause;
+				} else if (cause instanceof Error) {
+					throw (Error) cause;
+				} else {
+					throw new DBRuntimeException("Unable To Execute Queries: " + cause.getMessage(), cause);
+				}
+			}
+		}
+		return Arrays.asList(executed);
+	}
+
+	private void executePipelined(List<DBQuery> queries) throws SQLException {
+		final String endStatement = getDefinition().endSQLStatement();
+		final List<QueryDetails.SharedResults> sent = new ArrayList<>(queries.size());
+		final List<DBQuery> followers = new ArrayList<>();
+		final List<QueryDetails.SharedResults> followerResults = new ArrayList<>();
+		final StringBuilder sql = new StringBuilder();
+		boolean succeeded = false;
+		try {
+			for (DBQuery query : queries) {
+				final QueryDetails details = query.getQueryDetails();
+				details.getOptions().setQueryDatabase(this);
+				final QueryDetails.ResultsCheck check = details.checkResults(details.getOptions());
+				if (check.isResultsNeeded()) {
+					final String querySQL = details.prepareForStreaming(this, check);
+					final QueryDetails.SharedResults shared = details.startSharedResults(this, querySQL);
+					if (shared.isCached()) {
+						shared.fillFromSharedRows();
+					} else if (shared.isFollowingAnotherQuery()) {
+						// wait until this statement's own queries have finished so they can't wait for each other
+						followers.add(query);
+						followerResults.add(shared);
+					} else {
+						sent.add(shared);
+						String statementSQL = querySQL.trim();
+						if (!statementSQL.endsWith(endStatement)) {
+							statementSQL += endStatement;
+						}
+						sql.append(statementSQL).append(System.lineSeparator());
+					}
+				}
+			}
+			if (!sent.isEmpty()) {
+				try (DBStatement statement = getDBStatement()) {
+					boolean isResultSet = statement.execute(sql.toString());
+					for (QueryDetails.SharedResults shared : sent) {
+						while (!isResultSet && statement.getUpdateCount() != -1) {
+							isResultSet = statement.getMoreResults();
+						}
+						if (!isResultSet) {
+							throw new DBRuntimeException("Missing Query Results: expected " + sent.size() + " result sets from " + sql);
+						}
+						try (ResultSet resultSet = statement.getResultSet()) {
+							shared.fillFromResultSet(resultSet);
+						}
+						isResultSet = statement.getMoreResults();
+					}
+				}
+			}
+			succeeded = true;
+		} finally {
+			for (QueryDetails.SharedResults shared : sent) {
+				shared.finish(succeeded);
+			}
+		}
+		for (int i = 0; i < followers.size(); i++) {
+			if (!followerResults.get(i).fillFromSharedRows()) {
+				executeDBQuery(followers.get(i));
+			}
+		}
+	}
+
 	public String getSQLForDBQuery(DBQueryable query) throws NoAvailableDatabaseException {
 		return query.toSQLString(this);
 	}
@@ -2578,6 +3267,9 @@ public abstract class DBDatabase implements Serializable, Cloneable {
 	 */
 	public synchronized void stop() {
 		terminated = true;
+		if (asyncDatabase != null) {
+			asyncDatabase.shutdown();
+		}
 		for (RegularProcess regularProcessor : getRegularProcessors()) {
 			regularProcessor.stop();
 		}
@@ -56,6 +56,8 @@ import nz.co.gregs.dbvolution.actions.DBActionList;
 import nz.co.gregs.dbvolution.actions.DBQueryable;
 import nz.co.gregs.dbvolution.databases.definitions.ClusterDatabaseDefinition;
 import nz.co.gregs.dbvolution.databases.definitions.DBDefinition;
+import nz.co.gregs.dbvolution.databases.listeners.ExecutionEvent;
+import nz.co.gregs.dbvolution.databases.listeners.ExecutionListener;
 import nz.co.gregs.dbvolution.exceptions.AccidentalBlankQueryException;
 import nz.co.gregs.dbvolution.exceptions.AccidentalCartesianJoinException;
 import nz.co.gregs.dbvolution.exceptions.AccidentalDroppingOfDatabaseException;
@@ -284,6 +286,14 @@ public class DBDatabaseCluster extends DBDatabase {
 
 	private boolean addDatabaseWithWaiting(DBDatabase database, boolean wait) throws SQLException {
 		boolean add = details.add(database);
+		if (add) {
+			final List<ExecutionListener> existing = database.getExecutionListeners();
+			for (ExecutionListener listener : getExecutionListeners()) {
+				if (!existing.contains(listener)) {
+					database.addExecutionListener(listener);
+				}
+			}
+		}
 		synchronizeAddedDatabases(wait);
 		return add;
 	}
@@ -435,6 +445,13 @@ public class DBDatabaseCluster extends DBDatabase {
 		throw new UnsupportedOperationException("DBDatabase.addFeatureToFixException(Exception) should not be called");
 	}
 
+	@Override
+	public void installFeatures() throws SQLException {
+		for (DBDatabase db : details.getAllDatabases()) {
+			db.installFeatures();
+		}
+	}
+
 	@Override
 	protected void addDatabaseSpecificFeatures(Statement statement) throws SQLException {
 		throw new UnsupportedOperationException("DBDatabase.addDatabaseSpecificFeatures(Statement) should not be called");
@@ -1079,6 +1096,21 @@ public class DBDatabaseCluster extends DBDatabase {
 
 	@Override
 	public synchronized DBActionList executeDBAction(DBAction action) throws SQLException, NoAvailableDatabaseException {
+		if (!hasExecutionListeners()) {
+			return executeDBActionOnCluster(action);
+		}
+		final long start = System.nanoTime();
+		try {
+			final DBActionList actions = executeDBActionOnCluster(action);
+			fireActionEvent(action, start, actions, null);
+			return actions;
+		} catch (SQLException | RuntimeException ex) {
+			fireActionEvent(action, start, null, ex);
+			throw ex;
+		}
+	}
+
+	private DBActionList executeDBActionOnCluster(DBAction action) throws SQLException, NoAvailableDatabaseException {
 		addActionToQueue(action);
 		List<ActionTask> tasks = new ArrayList<ActionTask>();
 		DBActionList actionsPerformed = new DBActionList();
@@ -1118,9 +1150,58 @@ public class DBDatabaseCluster extends DBDatabase {
 		if (actionsPerformed.isEmpty()) {
 			actionsPerformed = tasks.get(0).getActionList();
 		}
+		tablesChanged(action);
 		return actionsPerformed;
 	}
 
+	@Override
+	public synchronized void setQueryResultCache(int maximumNumberOfResults, long timeToLiveInMilliseconds) {
+		super.setQueryResultCache(maximumNumberOfResults, timeToLiveInMilliseconds);
+		for (DBDatabase next : details.getAllDatabases()) {
+			next.setQueryResultCache(maximumNumberOfResults, timeToLiveInMilliseconds);
+		}
+	}
+
+	@Override
+	public synchronized void removeQueryResultCache() {
+		super.removeQueryResultCache();
+		for (DBDatabase next : details.getAllDatabases()) {
+			next.removeQueryResultCache();
+		}
+	}
+
+	@Override
+	public void clearQueryResultCache() {
+		super.clearQueryResultCache();
+		for (DBDatabase next : details.getAllDatabases()) {
+			next.clearQueryResultCache();
+		}
+	}
+
+	@Override
+	public synchronized void addExecutionListener(ExecutionListener listener) {
+		super.addExecutionListener(listener);
+		for (DBDatabase next : details.getAllDatabases()) {
+			next.addExecutionListener(listener);
+		}
+	}
+
+	@Override
+	public synchronized void removeExecutionListener(ExecutionListener listener) {
+		super.removeExecutionListener(listener);
+		for (DBDatabase next : details.getAllDatabases()) {
+			next.removeExecutionListener(listener);
+		}
+	}
+
+	@Override
+	public void invalidateQueryResultCache(String tableName) {
+		super.invalidateQueryResultCache(tableName);
+		for (DBDatabase next : details.getAllDatabases()) {
+			next.invalidateQueryResultCache(tableName);
+		}
+	}
+
 	@Override
 	public DBQueryable executeDBQuery(DBQueryable query) throws SQLException, UnableToRemoveLastDatabaseFromClusterException, AccidentalCartesianJoinException, AccidentalBlankQueryException, NoAvailableDatabaseException {
 		DBQueryable actionsPerformed = query;
@@ -1182,6 +1263,17 @@ public class DBDatabaseCluster extends DBDatabase {
 		}
 	}
 
+	@Override
+	protected boolean supportsPipelinedQueries() {
+		return false;
+	}
+
+	@Override
+	public DBUnitOfWork startUnitOfWork() {
+		// actions are performed by each member database so there is no single statement to share
+		return new DBUnitOfWork(this, null);
+	}
+
 	@Override
 	public String getSQLForDBQuery(DBQueryable query) throws NoAvailableDatabaseException {
 		final DBDatabase readyDatabase = this.getReadyDatabase();
@@ -1235,6 +1327,7 @@ public class DBDatabaseCluster extends DBDatabase {
 	}
 
 	private void synchronizeSecondaryDatabase(DBDatabase secondary) throws SQLException, AccidentalCartesianJoinException, AccidentalBlankQueryException {
+		final long synchronisationStart = hasExecutionListeners() ? System.nanoTime() : 0L;
 		try {
 			DBDatabase template = null;
 			try {
@@ -1251,6 +1344,9 @@ public class DBDatabaseCluster extends DBDatabase {
 						for (DBRow table : requiredTables) {
 							if (true) {
 								if (template.tableExists(table)) {
+									final long phaseStart = hasExecutionListeners() ? System.nanoTime() : 0L;
+									String phase = "CHECK";
+									long rowsCopied = 0;
 									// Make sure it exists in the new database
 									if (secondary.tableExists(table) == false) {
 										secondary.createTable(table);
@@ -1267,22 +1363,31 @@ public class DBDatabaseCluster extends DBDatabase {
 											LOG.info("CLUSTER FILLING NEW DATABASE TABLE " + table.getTableName());
 											List<DBRow> allRows = primaryData.getAllRows();
 											secondaryTable.insert(allRows);
+											phase = "FILL";
+											rowsCopied = allRows.size();
 										} else if (!secondaryTableCount.equals(primaryTableCount)) {
 											// Something is different in the data so correct it
 											LOG.info("CLUSTER REBUILDING NEW DATABASE TABLE " + table.getTableName());
 											secondary.deleteAll(table);
 											List<DBRow> allRows = primaryData.getAllRows();
 											secondary.insert(allRows);
+											phase = "REBUILD";
+											rowsCopied = allRows.size();
 										} else {
 											//ensure the rows are the same with a forced update
 											LOG.info("CLUSTER UPDATING NEW DATABASE TABLE " + table.getTableName());
 											List<DBRow> allRows = primaryData.getAllRows();
 											secondary.updateAnyway(allRows);
+											phase = "UPDATE";
+											rowsCopied = allRows.size();
 										}
 									} else if (secondaryTableCount > 0) {
 										LOG.info("CLUSTER EMPTYING NEW DATABASE TABLE " + table.getTableName());
 										secondary.deleteAll(table);
+										phase = "EMPTY";
+										rowsCopied = secondaryTableCount;
 									}
+									fireSynchronisationEvent(secondary, phase + " " + table.getTableName(), phaseStart, rowsCopied, null);
 								}
 							}
 						}
@@ -1294,13 +1399,23 @@ public class DBDatabaseCluster extends DBDatabase {
 //			} catch (NoAvailableDatabaseException except) {
 //				// must be the first database
 //			}
+			final long actionsStart = hasExecutionListeners() ? System.nanoTime() : 0L;
 			synchronizeActions(secondary);
+			fireSynchronisationEvent(secondary, "REPLAY ACTIONS", actionsStart, -1L, null);
+			fireSynchronisationEvent(secondary, "SYNCHRONISED", synchronisationStart, -1L, null);
 		} catch (SQLException | AccidentalBlankQueryException | AccidentalCartesianJoinException | AutoCommitActionDuringTransactionException ex) {
+			fireSynchronisationEvent(secondary, "SYNCHRONISED", synchronisationStart, -1L, ex);
 			quarantineDatabase(secondary, ex);
 			throw ex;
 		}
 	}
 
+	private void fireSynchronisationEvent(DBDatabase secondary, String phase, long start, long rows, Exception exception) {
+		if (hasExecutionListeners() && start != 0L) {
+			fireExecutionEvent(new ExecutionEvent(secondary, ExecutionEvent.Type.CLUSTER_SYNC, phase, 0, 0, 0L, System.nanoTime() - start, 0L, rows, exception));
+		}
+	}
+
 	private synchronized void synchronizeActions(DBDatabase db) throws SQLException, NoAvailableDatabaseException, NoAvailableDatabaseException {
 		if (db != null) {
 			Queue<DBAction> queue = details.getActionQueue(db);
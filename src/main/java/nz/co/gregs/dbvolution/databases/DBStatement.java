@@ -17,11 +17,14 @@
 package nz.co.gregs.dbvolution.databases;
 
 import java.sql.Connection;
+import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.sql.SQLWarning;
 import java.sql.Statement;
+import java.util.regex.Pattern;
 import nz.co.gregs.dbvolution.databases.definitions.DBDefinition;
+import nz.co.gregs.dbvolution.databases.listeners.ExecutionEvent;
 import nz.co.gregs.dbvolution.exceptions.UnableToCreateDatabaseConnectionException;
 import nz.co.gregs.dbvolution.exceptions.UnableToFindJDBCDriver;
 import org.apache.commons.logging.Log;
@@ -52,11 +55,18 @@ public class DBStatement implements Statement {
 
 	static final private Log LOG = LogFactory.getLog(DBStatement.class);
 
+	private static final String CONNECTION_EXCEPTION_SQLSTATE_CLASS = "08";
+	private static final Pattern BROKEN_CONNECTION_PATTERN = Pattern.compile(".*(connection|statement).*(broken|closed).*", Pattern.CASE_INSENSITIVE);
+
 	private Statement internalStatement;
 	private boolean batchHasEntries;
 	final DBDatabase database;
 	private Connection connection;
 	private boolean isClosed = false;
+	private long queueNanos = 0;
+	private ObservedResultSet observedResultSet = null;
+	private StringBuilder batchSQL = null;
+	private boolean settingsChanged = false;
 
 	/**
 	 * Creates a statement object for the given DBDatabase and Connection.
@@ -82,45 +92,65 @@ public class DBStatement implements Statement {
 	public ResultSet executeQuery(String sql) throws SQLException {
 		final String logSQL = "EXECUTING QUERY: " + sql;
 		database.printSQLIfRequested(logSQL);
-		ResultSet executeQuery = null;
-		try {
-			executeQuery = getInternalStatement().executeQuery(sql);
-		} catch (SQLException exp) {
+		if (database.hasExecutionListeners()) {
+			finishObservedResultSet();
+			final long start = System.nanoTime();
 			try {
-				executeQuery = addFeatureAndAttemptQueryAgain(exp, sql);
-			} catch (SQLException ex) {
+				final ResultSet resultSet = executeQueryAndFixFeatures(sql);
+				observedResultSet = ObservedResultSet.observe(this, resultSet, sql, 0, System.nanoTime() - start);
+				return observedResultSet.getProxy();
+			} catch (SQLException | RuntimeException ex) {
+				fireExecutionEvent(ExecutionEvent.Type.QUERY, sql, System.nanoTime() - start, 0L, -1L, ex);
 				throw ex;
-			} catch (Exception ex) {
-				throw new SQLException(ex);
 			}
 		}
-		return executeQuery;
+		return executeQueryAndFixFeatures(sql);
 	}
 
-	private ResultSet addFeatureAndAttemptQueryAgain(Exception exp, String sql) throws Exception {
-		ResultSet executeQuery;
-		checkForBrokenConnection(exp, sql);
-		try {
-			handleResponseFromFixingException(exp);
-//			database.addFeatureToFixException(exp);
-		} catch (Exception ex) {
-			Exception ex1 = exp;
-			while (!ex1.getMessage().equals(ex.getMessage())) {
-				handleResponseFromFixingException(exp);
-//				database.addFeatureToFixException(ex);
+	/**
+	 * Executes a PreparedStatement created from this statement's connection and
+	 * returns its ResultSet.
+	 *
+	 * <p>
+	 * The execution is reported to the database's execution listeners like any
+	 * other query, including the number of parameters bound to the statement.
+	 *
+	 * <p style="color: #F90;">Support DBvolution at
+	 * <a href="http://patreon.com/dbvolution" target=new>Patreon</a></p>
+	 *
+	 * @param prepared a PreparedStatement with all its parameters bound
+	 * @param sql the SQL used to prepare the statement
+	 * @param bindCount the number of parameters bound to the statement
+	 * @return a ResultSet
+	 * @throws SQLException database exceptions
+	 */
+	public ResultSet executeQuery(PreparedStatement prepared, String sql, int bindCount) throws SQLException {
+		final String logSQL = "EXECUTING PREPARED QUERY: " + sql;
+		database.printSQLIfRequested(logSQL);
+		if (database.hasExecutionListeners()) {
+			finishObservedResultSet();
+			final long start = System.nanoTime();
+			try {
+				final ResultSet resultSet = prepared.executeQuery();
+				observedResultSet = ObservedResultSet.observe(this, resultSet, sql, bindCount, System.nanoTime() - start);
+				return observedResultSet.getProxy();
+			} catch (SQLException | RuntimeException ex) {
+				fireExecutionEvent(ExecutionEvent.Type.QUERY, sql, bindCount, System.nanoTime() - start, 0L, -1L, ex);
+				throw ex;
 			}
-			throw new SQLException(ex);
 		}
+		return prepared.executeQuery();
+	}
+
+	private ResultSet executeQueryAndFixFeatures(String sql) throws SQLException {
 		try {
-			executeQuery = getInternalStatement().executeQuery(sql);
-			return executeQuery;
-		} catch (SQLException exp2) {
-			if (exp.getMessage().equals(exp2.getMessage())) {
-				throw exp;
-			} else {
-				executeQuery = addFeatureAndAttemptQueryAgain(exp2, sql);
-				return executeQuery;
+			return getInternalStatement().executeQuery(sql);
+		} catch (SQLException exp) {
+			if (getResponseToException(exp) == null) {
+				throw new SQLException(exp);
 			}
+			// a query can't be skipped as the caller needs the results, and it is never executed again
+			throw exp;
 		}
 	}
 
@@ -139,6 +169,17 @@ public class DBStatement implements Statement {
 	 */
 	@Override
 	public int executeUpdate(String string) throws SQLException {
+		if (database.hasExecutionListeners()) {
+			final long start = System.nanoTime();
+			try {
+				int executeUpdate = getInternalStatement().executeUpdate(string);
+				fireExecutionEvent(ExecutionEvent.Type.UPDATE, string, System.nanoTime() - start, 0L, executeUpdate, null);
+				return executeUpdate;
+			} catch (SQLException | RuntimeException ex) {
+				fireExecutionEvent(ExecutionEvent.Type.UPDATE, string, System.nanoTime() - start, 0L, -1L, ex);
+				throw ex;
+			}
+		}
 		int executeUpdate = getInternalStatement().executeUpdate(string);
 
 		return executeUpdate;
@@ -158,6 +199,8 @@ public class DBStatement implements Statement {
 	@Override
 	public void close() throws SQLException {
 		isClosed = true;
+		DBAsyncDatabase.unregisterStatement(this);
+		finishObservedResultSet();
 		try {
 			database.unusedConnection(getConnection());
 		} catch (SQLException e) {
@@ -165,18 +208,47 @@ public class DBStatement implements Statement {
 			// with an exception during the close method????????
 			LOG.warn("Exception occurred during close(): " + e.getMessage(), e);
 		}
-		try {
-			Statement statement = getInternalStatement();
-			statement.close();
-		} catch (SQLException e) {
-			// Someone please tell me how you are supposed to cope 
-			// with an exception during the close method????????
-			LOG.warn("Exception occurred during close(): " + e.getMessage(), e);
-		} finally {
-			setInternalStatement(null);
+		final Statement statement = takeInternalStatement();
+		if (statement != null) {
+			try {
+				statement.close();
+			} catch (SQLException e) {
+				// Someone please tell me how you are supposed to cope 
+				// with an exception during the close method????????
+				LOG.warn("Exception occurred during close(): " + e.getMessage(), e);
+			}
 		}
 	}
 
+	/**
+	 * Prepares this statement to be used again on the same connection.
+	 *
+	 * <p>
+	 * The JDBC statement is kept open for the next user unless its settings
+	 * were changed or it has un-executed batch entries, in which case it is
+	 * closed and a new one will be created when next required.
+	 */
+	synchronized void recycle() {
+		finishObservedResultSet();
+		if (internalStatement != null && (settingsChanged || batchHasEntries)) {
+			try {
+				internalStatement.close();
+			} catch (SQLException e) {
+				LOG.debug(this, e);
+			}
+			internalStatement = null;
+		}
+		settingsChanged = false;
+		setBatchHasEntries(false);
+		batchSQL = null;
+	}
+
+	private synchronized Statement takeInternalStatement() {
+		final Statement statement = internalStatement;
+		internalStatement = null;
+		return statement;
+	}
+
 	/**
 	 * Retrieves the maximum number of bytes that can be returned for character
 	 * and binary column values in a ResultSet object produced by this Statement
@@ -214,6 +286,7 @@ public class DBStatement implements Statement {
 	@Override
 	public void setMaxFieldSize(int i) throws SQLException {
 		getInternalStatement().setMaxFieldSize(i);
+		settingsChanged = true;
 	}
 
 	/**
@@ -248,6 +321,7 @@ public class DBStatement implements Statement {
 	@Override
 	public void setMaxRows(int i) throws SQLException {
 		getInternalStatement().setMaxRows(i);
+		settingsChanged = true;
 	}
 
 	/**
@@ -266,6 +340,7 @@ public class DBStatement implements Statement {
 	@Override
 	public void setEscapeProcessing(boolean bln) throws SQLException {
 		getInternalStatement().setEscapeProcessing(bln);
+		settingsChanged = true;
 	}
 
 	/**
@@ -300,6 +375,7 @@ public class DBStatement implements Statement {
 	@Override
 	public void setQueryTimeout(int i) throws SQLException {
 		getInternalStatement().setQueryTimeout(i);
+		settingsChanged = true;
 	}
 
 	/**
@@ -409,6 +485,7 @@ public class DBStatement implements Statement {
 	@Override
 	public void setCursorName(String string) throws SQLException {
 		getInternalStatement().setCursorName(string);
+		settingsChanged = true;
 	}
 
 	/**
@@ -439,36 +516,65 @@ public class DBStatement implements Statement {
 		final String logSQL = "EXECUTING: " + sql;
 		database.printSQLIfRequested(logSQL);
 		LOG.debug(logSQL);
-		final boolean execute;
-		try {
-			execute = getInternalStatement().execute(sql);
-		} catch (SQLException exp) {
-			return addFeatureAndAttemptExecuteAgain(exp, sql);
+		if (database.hasExecutionListeners()) {
+			final long start = System.nanoTime();
+			try {
+				final boolean execute = executeAndFixFeatures(sql);
+				fireExecutionEvent(ExecutionEvent.Type.EXECUTE, sql, System.nanoTime() - start, 0L, -1L, null);
+				return execute;
+			} catch (SQLException | RuntimeException ex) {
+				fireExecutionEvent(ExecutionEvent.Type.EXECUTE, sql, System.nanoTime() - start, 0L, -1L, ex);
+				throw ex;
+			}
 		}
-		return execute;
+		return executeAndFixFeatures(sql);
 	}
 
-	private boolean addFeatureAndAttemptExecuteAgain(Exception exp, String sql) throws SQLException {
-		boolean executeQuery;
-		checkForBrokenConnection(exp, sql);
+	private boolean executeAndFixFeatures(String sql) throws SQLException {
 		try {
-			if (handleResponseFromFixingException(exp)) {
+			return getInternalStatement().execute(sql);
+		} catch (SQLException exp) {
+			if (canIgnoreException(exp, sql)) {
 				return true;
 			}
-		} catch (Exception ex) {
-			throw new SQLException("Failed To Add Support For SQL: " + exp.getMessage() + " : Original Query: " + sql, ex);
+			throw exp;
+		}
+	}
+
+	/**
+	 * Classifies the exception thrown by executing the SQL and decides whether
+	 * it can be ignored.
+	 *
+	 * <p>
+	 * The SQL is never executed again. The exception is ignored when the
+	 * database reports that the SQL did not need to be executed, otherwise it is
+	 * thrown.
+	 *
+	 * @param exp the exception thrown while executing the SQL
+	 * @param sql the SQL that was executed
+	 * @return TRUE if the exception can be ignored, FALSE if it should be thrown
+	 * @throws SQLException the exception could not be classified
+	 */
+	private boolean canIgnoreException(SQLException exp, String sql) throws SQLException {
+		final DBDatabase.ResponseToException response = getResponseToException(exp);
+		if (response == null) {
+			throw new SQLException("Failed To Add Support For SQL: " + exp.getMessage() + " : Original Query: " + sql, exp);
 		}
+		return response.equals(DBDatabase.ResponseToException.SKIPQUERY);
+	}
+
+	private DBDatabase.ResponseToException getResponseToException(SQLException exp) throws SQLException {
+		checkForBrokenConnection(exp);
+		final DBDatabase.ResponseToException response;
 		try {
-			executeQuery = getInternalStatement().execute(sql);
-			return executeQuery;
-		} catch (SQLException exp2) {
-			if (!exp.getMessage().equals(exp2.getMessage())) {
-				executeQuery = addFeatureAndAttemptExecuteAgain(exp2, sql);
-				return executeQuery;
-			} else {
-				throw new SQLException(exp);
-			}
+			response = database.addFeatureToFixException(exp);
+		} catch (Exception ex) {
+			return null;
 		}
+		if (response.equals(DBDatabase.ResponseToException.REPLACECONNECTION)) {
+			replaceBrokenConnection();
+		}
+		return response;
 	}
 
 	public boolean handleResponseFromFixingException(Exception exp) throws Exception {
@@ -482,28 +588,6 @@ public class DBStatement implements Statement {
 		return false;
 	}
 
-	private boolean addFeatureAndAttemptExecuteAgain(Exception exp, String string, String[] strings) throws SQLException {
-		boolean executeQuery;
-		try {
-			if (handleResponseFromFixingException(exp)) {
-				return true;
-			}
-		} catch (Exception ex) {
-			throw new SQLException("Failed To Add Support For SQL: " + exp.getMessage() + " : Original Query: " + string, ex);
-		}
-		try {
-			executeQuery = getInternalStatement().execute(string, strings);
-			return executeQuery;
-		} catch (SQLException exp2) {
-			if (!exp.getMessage().equals(exp2.getMessage())) {
-				executeQuery = addFeatureAndAttemptExecuteAgain(exp2, string, strings);
-				return executeQuery;
-			} else {
-				throw new SQLException(exp);
-			}
-		}
-	}
-
 	/**
 	 * Retrieves the current result as a ResultSet object.
 	 *
@@ -582,6 +666,7 @@ public class DBStatement implements Statement {
 	@Override
 	public void setFetchDirection(int i) throws SQLException {
 		getInternalStatement().setFetchDirection(i);
+		settingsChanged = true;
 	}
 
 	/**
@@ -620,6 +705,7 @@ public class DBStatement implements Statement {
 	@Override
 	public void setFetchSize(int i) throws SQLException {
 		getInternalStatement().setFetchSize(i);
+		settingsChanged = true;
 	}
 
 	/**
@@ -691,6 +777,13 @@ public class DBStatement implements Statement {
 	public void addBatch(String string) throws SQLException {
 		getInternalStatement().addBatch(string);
 		setBatchHasEntries(true);
+		if (database.hasExecutionListeners()) {
+			if (batchSQL == null) {
+				batchSQL = new StringBuilder(string);
+			} else {
+				batchSQL.append("; ").append(string);
+			}
+		}
 	}
 
 	/**
@@ -704,6 +797,7 @@ public class DBStatement implements Statement {
 	public void clearBatch() throws SQLException {
 		getInternalStatement().clearBatch();
 		setBatchHasEntries(false);
+		batchSQL = null;
 	}
 
 	/**
@@ -748,6 +842,23 @@ public class DBStatement implements Statement {
 	 */
 	@Override
 	public int[] executeBatch() throws SQLException {
+		if (database.hasExecutionListeners()) {
+			final String sql = batchSQL == null ? "" : batchSQL.toString();
+			batchSQL = null;
+			final long start = System.nanoTime();
+			try {
+				final int[] updateCounts = getInternalStatement().executeBatch();
+				long rows = 0;
+				for (int updateCount : updateCounts) {
+					rows += Math.max(0, updateCount);
+				}
+				fireExecutionEvent(ExecutionEvent.Type.BATCH, sql, System.nanoTime() - start, 0L, rows, null);
+				return updateCounts;
+			} catch (SQLException | RuntimeException ex) {
+				fireExecutionEvent(ExecutionEvent.Type.BATCH, sql, System.nanoTime() - start, 0L, -1L, ex);
+				throw ex;
+			}
+		}
 		return getInternalStatement().executeBatch();
 	}
 
@@ -993,7 +1104,10 @@ public class DBStatement implements Statement {
 		try {
 			return getInternalStatement().execute(string, strings);
 		} catch (SQLException exp) {
-			return addFeatureAndAttemptExecuteAgain(exp, string, strings);
+			if (canIgnoreException(exp, string)) {
+				return true;
+			}
+			throw exp;
 		}
 	}
 
@@ -1027,10 +1141,17 @@ public class DBStatement implements Statement {
 	 */
 	@Override
 	public boolean isClosed() throws SQLException {
-		if (database.getDefinition().supportsStatementIsClosed()) {
-			return getInternalStatement().isClosed();
+		if (isClosed) {
+			return true;
+		} else if (database.getDefinition().supportsStatementIsClosed()) {
+			final Statement statement;
+			synchronized (this) {
+				statement = internalStatement;
+			}
+			// a statement that hasn't been created yet is still open
+			return statement != null && statement.isClosed();
 		} else {
-			return isClosed;
+			return false;
 		}
 	}
 
@@ -1056,6 +1177,7 @@ public class DBStatement implements Statement {
 	@Override
 	public void setPoolable(boolean bln) throws SQLException {
 		getInternalStatement().setPoolable(bln);
+		settingsChanged = true;
 	}
 
 	/**
@@ -1189,12 +1311,41 @@ public class DBStatement implements Statement {
 		this.internalStatement = realStatement;
 	}
 
-	private void checkForBrokenConnection(Exception exp, String sql) throws SQLException {
-		final String message = exp.getMessage().toLowerCase();
-		if (message.matches(".*connection.*broken.*")
-				|| message.matches(".*connection.*closed.*")
-				|| message.matches(".*statement.*broken.*")
-				|| message.matches(".*statement.*closed.*")) {
+	/**
+	 * Records how long it took to obtain the connection for this statement.
+	 *
+	 * <p>
+	 * The time is reported to the execution listeners with the first execution
+	 * on this statement.
+	 *
+	 * @param queueNanos the time spent obtaining the connection
+	 */
+	void setQueueNanos(long queueNanos) {
+		this.queueNanos = queueNanos;
+	}
+
+	void fireExecutionEvent(ExecutionEvent.Type type, String sql, long executeNanos, long fetchNanos, long rowCount, Exception exception) {
+		fireExecutionEvent(type, sql, 0, executeNanos, fetchNanos, rowCount, exception);
+	}
+
+	void fireExecutionEvent(ExecutionEvent.Type type, String sql, int bindCount, long executeNanos, long fetchNanos, long rowCount, Exception exception) {
+		final long queued = queueNanos;
+		queueNanos = 0;
+		database.fireExecutionEvent(new ExecutionEvent(database, type, sql, bindCount, System.identityHashCode(connection), queued, executeNanos, fetchNanos, rowCount, exception));
+	}
+
+	private void finishObservedResultSet() {
+		if (observedResultSet != null) {
+			observedResultSet.finish();
+			observedResultSet = null;
+		}
+	}
+
+	private void checkForBrokenConnection(SQLException exp) throws SQLException {
+		final String sqlState = exp.getSQLState();
+		final String message = exp.getMessage();
+		if ((sqlState != null && sqlState.startsWith(CONNECTION_EXCEPTION_SQLSTATE_CLASS))
+				|| (message != null && BROKEN_CONNECTION_PATTERN.matcher(message).matches())) {
 			replaceBrokenConnection();
 		}
 	}
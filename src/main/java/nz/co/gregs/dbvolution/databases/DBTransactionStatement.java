@@ -65,8 +65,12 @@ public class DBTransactionStatement extends DBStatement {
 	}
 
 	/**
-	 * Closes the internal statement and creates a new statement for the next
-	 * operation.
+	 * Readies the internal statement for the next operation.
+	 *
+	 * <p>
+	 * The internal statement is kept open and reused by the next operation in
+	 * the transaction unless its settings have been changed. Databases that close
+	 * the connection with the statement have the connection replaced instead.
 	 *
 	 * <p>
 	 * To close a transaction call the {@link #transactionFinished() } method.
@@ -78,27 +82,19 @@ public class DBTransactionStatement extends DBStatement {
 			justification = "We try twice, is there a better way to do this?")
 	@Override
 	public void close() throws SQLException {
-		try {
-			getInternalStatement().close();
-		} catch (SQLException ex) {
-			try {
-				getInternalStatement().close();
-			} catch (SQLException ex1) {
-				LOG.info("Exception while closing transaction, continuing regardless.");
-			}
-		}
 		if (database.getDefinition().willCloseConnectionOnStatementCancel()) {
-			this.replaceBrokenConnection();
-		} else {
 			try {
-				setInternalStatement(getConnection().createStatement());
-			} catch (Exception ex) {
+				getInternalStatement().close();
+			} catch (SQLException ex) {
 				try {
-					setInternalStatement(getConnection().createStatement());
-				} catch (Exception ex1) {
-					throw new SQLException(ex);
+					getInternalStatement().close();
+				} catch (SQLException ex1) {
+					LOG.info("Exception while closing transaction, continuing regardless.");
 				}
 			}
+			this.replaceBrokenConnection();
+		} else {
+			recycle();
 		}
 	}
 
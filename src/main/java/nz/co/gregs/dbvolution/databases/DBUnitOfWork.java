@@ -0,0 +1,153 @@
+/*
+ * Copyright 2019 Gregory Graham.
+ *
+ * Commercial licenses are available, please contact info@gregs.co.nz for details.
+ * 
+ * This work is licensed under the Creative Commons Attribution-NonCommercial-ShareAlike 4.0 International License. 
+ * To view a copy of this license, visit http://creativecommons.org/licenses/by-nc-sa/4.0/ 
+ * or send a letter to Creative Commons, PO Box 1866, Mountain View, CA 94042, USA.
+ * 
+ * You are free to:
+ *     Share - copy and redistribute the material in any medium or format
+ *     Adapt - remix, transform, and build upon the material
+ * 
+ *     The licensor cannot revoke these freedoms as long as you follow the license terms.               
+ *     Under the following terms:
+ *                 
+ *         Attribution - 
+ *             You must give appropriate credit, provide a link to the license, and indicate if changes were made. 
+ *             You may do so in any reasonable manner, but not in any way that suggests the licensor endorses you or your use.
+ *         NonCommercial - 
+ *             You may not use the material for commercial purposes.
+ *         ShareAlike - 
+ *             If you remix, transform, or build upon the material, 
+ *             you must distribute your contributions under the same license as the original.
+ *         No additional restrictions - 
+ *             You may not apply legal terms or technological measures that legally restrict others from doing anything the 
+ *             license permits.
+ * 
+ * Check the Creative Commons website for any details, legalese, and updates.
+ */
+package nz.co.gregs.dbvolution.databases;
+
+import java.sql.SQLException;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+/**
+ * A unit of work shares one connection and statement between all the
+ * operations performed by a thread until it is closed.
+ *
+ * <p>
+ * Create a unit of work with {@link DBDatabase#startUnitOfWork() } and close
+ * it, preferably with try-with-resources, when the operations are complete.
+ * While the unit of work is open {@link DBDatabase#getDBStatement() } returns
+ * the same statement to the thread each time, closing the statement only
+ * readies it for the next operation, and the connection is returned to the
+ * pool once when the unit of work closes.
+ *
+ * <p>
+ * Operations that need a second statement while the shared statement is in use
+ * receive a new statement as usual. Units of work started while another is
+ * open on the same thread do nothing.
+ *
+ * <p style="color: #F90;">Support DBvolution at
+ * <a href="http://patreon.com/dbvolution" target=new>Patreon</a></p>
+ *
+ * @author Gregory Graham
+ */
+public class DBUnitOfWork implements AutoCloseable {
+
+	private static final Log LOG = LogFactory.getLog(DBUnitOfWork.class);
+
+	private final DBDatabase database;
+	private final ThreadLocal<DBUnitOfWork> owner;
+	private SharedStatement statement = null;
+	private boolean statementInUse = false;
+
+	/**
+	 * Creates a unit of work for the database.
+	 *
+	 * @param database the database to work on
+	 * @param owner the thread local holding the current unit of work, or null if
+	 * this unit of work does nothing
+	 */
+	DBUnitOfWork(DBDatabase database, ThreadLocal<DBUnitOfWork> owner) {
+		this.database = database;
+		this.owner = owner;
+	}
+
+	/**
+	 * Indicates whether this unit of work is sharing a statement or doing
+	 * nothing because another unit of work or a transaction is already in
+	 * progress.
+	 *
+	 * <p style="color: #F90;">Support DBvolution at
+	 * <a href="http://patreon.com/dbvolution" target=new>Patreon</a></p>
+	 *
+	 * @return TRUE if this unit of work shares its statement, otherwise FALSE
+	 */
+	public boolean isActive() {
+		return owner != null;
+	}
+
+	/**
+	 * Provides the shared statement if it is not already in use.
+	 *
+	 * @return the shared statement, or null if it is in use or this unit of work
+	 * has closed
+	 * @throws SQLException database errors
+	 */
+	DBStatement borrowStatement() throws SQLException {
+		if (statementInUse || owner == null) {
+			return null;
+		}
+		if (statement == null || statement.isClosed()) {
+			final DBStatement lowLevelStatement = database.getLowLevelStatement();
+			if (lowLevelStatement == null) {
+				return null;
+			}
+			DBAsyncDatabase.unregisterStatement(lowLevelStatement);
+			statement = new SharedStatement(database, lowLevelStatement);
+		}
+		DBAsyncDatabase.registerStatement(statement);
+		statementInUse = true;
+		return statement;
+	}
+
+	/**
+	 * Closes the shared statement and returns its connection to the pool.
+	 */
+	@Override
+	public void close() {
+		if (owner != null) {
+			owner.remove();
+			if (statement != null) {
+				try {
+					statement.unitOfWorkFinished();
+				} catch (SQLException ex) {
+					LOG.warn("Exception occurred while finishing unit of work: " + ex.getMessage(), ex);
+				}
+				statement = null;
+			}
+		}
+	}
+
+	private class SharedStatement extends DBStatement {
+
+		SharedStatement(DBDatabase database, DBStatement statement) throws SQLException {
+			super(database, statement.getConnection());
+		}
+
+		@Override
+		public void close() throws SQLException {
+			DBAsyncDatabase.unregisterStatement(this);
+			recycle();
+			statementInUse = false;
+		}
+
+		void unitOfWorkFinished() throws SQLException {
+			super.close();
+		}
+	}
+}
@@ -17,6 +17,7 @@ package nz.co.gregs.dbvolution.databases;
 
 import java.io.File;
 import java.io.IOException;
+import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.sql.Statement;
 import java.util.*;
@@ -26,7 +27,7 @@ import java.util.regex.Pattern;
 import javax.sql.DataSource;
 import nz.co.gregs.dbvolution.databases.definitions.H2DBDefinition;
 import nz.co.gregs.dbvolution.internal.h2.*;
-import org.h2.jdbc.JdbcException;
+import org.h2.api.ErrorCode;
 
 /**
  * Stores all the required functionality to use an H2 database.
@@ -41,6 +42,7 @@ public class H2DB extends DBDatabase {
 	private static final long serialVersionUID = 1l;
 	public static final String DRIVER_NAME = "org.h2.Driver";
 	private final static Map<String, DBVFeature> FEATURE_MAP = new HashMap<>();
+	private final static Map<String, DBVFeature> SOURCE_FEATURE_MAP = new HashMap<>();
 	private static boolean dataTypesNotProcessed = true;
 
 	static {
@@ -70,6 +72,24 @@ public class H2DB extends DBDatabase {
 		for (DataTypes datatype : DataTypes.values()) {
 			FEATURE_MAP.put(datatype.alias(), datatype);
 		}
+		for (DBVFeature function : nz.co.gregs.dbvolution.internal.h2.source.DateRepeatFunctions.values()) {
+			SOURCE_FEATURE_MAP.put(function.alias(), function);
+		}
+		for (DBVFeature function : nz.co.gregs.dbvolution.internal.h2.source.Point2DFunctions.values()) {
+			SOURCE_FEATURE_MAP.put(function.alias(), function);
+		}
+		for (DBVFeature function : nz.co.gregs.dbvolution.internal.h2.source.LineSegment2DFunctions.values()) {
+			SOURCE_FEATURE_MAP.put(function.alias(), function);
+		}
+		for (DBVFeature function : nz.co.gregs.dbvolution.internal.h2.source.Line2DFunctions.values()) {
+			SOURCE_FEATURE_MAP.put(function.alias(), function);
+		}
+		for (DBVFeature function : nz.co.gregs.dbvolution.internal.h2.source.Polygon2DFunctions.values()) {
+			SOURCE_FEATURE_MAP.put(function.alias(), function);
+		}
+		for (DBVFeature function : nz.co.gregs.dbvolution.internal.h2.source.MultiPoint2DFunctions.values()) {
+			SOURCE_FEATURE_MAP.put(function.alias(), function);
+		}
 	}
 
 	/**
@@ -172,6 +192,72 @@ public class H2DB extends DBDatabase {
 			}
 			dataTypesNotProcessed = false;
 		}
+		final boolean precompiled = usesPrecompiledFunctions();
+		if (precompiled) {
+			try {
+				dropSourceCodeFunctions(stmt);
+			} catch (SQLException ex) {
+				// the old functions still work, they are just slower to load
+				Logger.getLogger(H2DB.class.getName()).log(Level.WARNING, "Unable To Replace Source Code Functions: " + ex.getMessage(), ex);
+			}
+		}
+		for (DBVFeature feature : (precompiled ? FEATURE_MAP : SOURCE_FEATURE_MAP).values()) {
+			if (!(feature instanceof DataTypes)) {
+				try {
+					feature.add(stmt);
+				} catch (SQLException ex) {
+					// only queries using this function will be affected so continue with the rest
+					Logger.getLogger(H2DB.class.getName()).log(Level.WARNING, "Unable To Install Function " + feature.alias() + ": " + ex.getMessage(), ex);
+				}
+			}
+		}
+	}
+
+	/**
+	 * Indicates whether the DBV functions are registered as aliases for
+	 * DBvolution's own classes.
+	 *
+	 * <p>
+	 * H2 loads the classes of precompiled functions from the classpath of the
+	 * JVM running the database. A database reached through a TCP or SSL server
+	 * may be running in a JVM without DBvolution, so those databases use
+	 * functions compiled from Java source code by the server instead. The
+	 * source code functions are slower to load but work on any H2 server.
+	 *
+	 * <p style="color: #F90;">Support DBvolution at
+	 * <a href="http://patreon.com/dbvolution" target=new>Patreon</a></p>
+	 *
+	 * @return TRUE if the database runs within this JVM, FALSE if it is reached
+	 * through a server
+	 */
+	protected boolean usesPrecompiledFunctions() {
+		final String jdbcURL = getJdbcURL();
+		return jdbcURL == null
+				|| !(jdbcURL.startsWith("jdbc:h2:tcp:") || jdbcURL.startsWith("jdbc:h2:ssl:"));
+	}
+
+	/**
+	 * Removes the DBV functions that earlier versions of DBvolution created from
+	 * Java source code.
+	 *
+	 * <p>
+	 * H2 compiles source code functions every time the database is opened, so
+	 * they are dropped and replaced by the precompiled functions that call
+	 * DBvolution's classes directly.
+	 *
+	 * @param stmt the statement to use
+	 * @throws SQLException database errors
+	 */
+	private void dropSourceCodeFunctions(Statement stmt) throws SQLException {
+		List<String> aliases = new ArrayList<>();
+		try (ResultSet resultSet = stmt.executeQuery("SELECT ALIAS_NAME FROM INFORMATION_SCHEMA.FUNCTION_ALIASES WHERE ALIAS_NAME LIKE 'DBV\\_%' AND SOURCE IS NOT NULL AND SOURCE <> ''")) {
+			while (resultSet.next()) {
+				aliases.add(resultSet.getString(1));
+			}
+		}
+		for (String alias : aliases) {
+			stmt.execute("DROP ALIAS IF EXISTS " + alias + ";");
+		}
 	}
 
 	/**
@@ -190,72 +276,28 @@ public class H2DB extends DBDatabase {
 		return (H2DB) super.clone();
 	}
 
-	private final static Pattern BROKEN_CONNECTION_PATTERN = Pattern.compile("Connection is broken: \"session closed\"");
-	private final static Pattern ALREADY_CLOSED_PATTERN = Pattern.compile("The object is already closed");
 	private final static Pattern DROPPING_NONEXISTENT_TABLE_PATTERN = Pattern.compile("Table \"([^\"]*)\" not found; SQL statement:.*DROP TABLE \\1");
-	private final static Pattern CREATING_EXISTING_TABLE_PATTERN = Pattern.compile("Table \"[^\"]*\" already exists; SQL statement:");
 
 	@Override
 	public ResponseToException addFeatureToFixException(Exception exp) throws Exception {
-		boolean handledException = false;
-		if ((exp instanceof JdbcException)) {
-			String message = exp.getMessage();
-			if (message != null) {
-				if (BROKEN_CONNECTION_PATTERN.matcher(message).lookingAt()
-						||ALREADY_CLOSED_PATTERN.matcher(message).lookingAt()) {
+		if (exp instanceof SQLException) {
+			switch (((SQLException) exp).getErrorCode()) {
+				case ErrorCode.CONNECTION_BROKEN_1:
+				case ErrorCode.OBJECT_CLOSED:
 					return ResponseToException.REPLACECONNECTION;
-				} else if (DROPPING_NONEXISTENT_TABLE_PATTERN.matcher(message).lookingAt()) {
-					return ResponseToException.SKIPQUERY;
-				} else if (CREATING_EXISTING_TABLE_PATTERN.matcher(message).lookingAt()) {
-					return ResponseToException.SKIPQUERY;
-				} else {
-					try (Statement statement = getConnection().createStatement()) {
-						if ((message.startsWith("Function \"DBV_") && message.contains("\" not found"))
-								|| (message.startsWith("Method \"DBV_") && message.contains("\" not found"))) {
-							String[] split = message.split("[\" ]+");
-							String functionName = split[1];
-							DBVFeature functions = FEATURE_MAP.get(functionName);
-							if (functions != null) {
-								functions.add(statement);
-								handledException = true;
-							}
-						} else if (message.startsWith("Unknown data type: \"DBV_")) {
-							String[] split = message.split("\"");
-							String functionName = split[1];
-							DBVFeature datatype = FEATURE_MAP.get(functionName);
-							if (datatype != null) {
-								datatype.add(statement);
-								handledException = true;
-							}
-						} else if (message.matches(": +method \"DBV_[A-Z_0-9]+")) {
-							String[] split = message.split("method \"");
-							split = split[1].split("\\(");
-							String functionName = split[0];
-
-							DBVFeature functions = FEATURE_MAP.get(functionName);
-							if (functions != null) {
-								functions.add(statement);
-								handledException = true;
-							}
-						} else {
-							for (Map.Entry<String, DBVFeature> entrySet : FEATURE_MAP.entrySet()) {
-								String key = entrySet.getKey();
-								DBVFeature value = entrySet.getValue();
-								if (message.contains(key)) {
-									value.add(statement);
-									handledException = true;
-								}
-							}
-						}
+				case ErrorCode.TABLE_OR_VIEW_NOT_FOUND_1:
+					final String message = exp.getMessage();
+					if (message != null && DROPPING_NONEXISTENT_TABLE_PATTERN.matcher(message).lookingAt()) {
+						return ResponseToException.SKIPQUERY;
 					}
-				}
+					break;
+				case ErrorCode.TABLE_OR_VIEW_ALREADY_EXISTS_1:
+					return ResponseToException.SKIPQUERY;
+				default:
+					break;
 			}
 		}
-		if (!handledException) {
-			throw exp;
-		} else {
-			return ResponseToException.REQUERY;
-		}
+		throw exp;
 	}
 
 	@Override
@@ -75,6 +75,17 @@ public class H2SharedDB extends H2DB {
 		super.addDatabaseSpecificFeatures(stmt);
 	}
 
+	/**
+	 * Always uses the source code functions because the shared server may be
+	 * started by another JVM without DBvolution on its classpath.
+	 *
+	 * @return FALSE
+	 */
+	@Override
+	protected boolean usesPrecompiledFunctions() {
+		return false;
+	}
+
 	@Override
 	protected String getUrlFromSettings(DatabaseConnectionSettings settings) {
 		String hostname = settings.getHost() == null || settings.getHost().isEmpty() ? "localhost" : settings.getHost();
@@ -17,6 +17,7 @@ package nz.co.gregs.dbvolution.databases;
 
 import java.sql.SQLException;
 import java.sql.Statement;
+import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 import javax.sql.DataSource;
 import nz.co.gregs.dbvolution.databases.definitions.MSSQLServerDBDefinition;
@@ -235,16 +236,20 @@ public class MSSQLServerDB extends DBDatabase implements SupportsPolygonDatatype
 	private final static Pattern CREATING_EXISTING_TABLE_PATTERN = Pattern.compile("There is already an object named '[^\"]*\' in the database.");
 	//Cannot find the object "TableThatDoesntExistOnTheCluster" because it does not exist or you do not have permissions.
 	private final static Pattern UNABLE_TO_FIND_DATABASE_OBJECT_PATTERN = Pattern.compile("Cannot find the object \"[^\"]*\" because it does not exist or you do not have permissions.");
+	//IDENTITY_INSERT is already ON for table 'TableWithIdentity'. Cannot perform SET operation for table 'OtherTable'.
+	private final static Pattern IDENTITY_INSERT_ALREADY_ON_PATTERN = Pattern.compile("IDENTITY_INSERT is already ON for table '([^']*)'. Cannot perform SET operation for table");
 
 	@Override
 	public ResponseToException addFeatureToFixException(Exception exp) throws Exception {
 		final String message = exp.getMessage();
 //		System.out.println("nz.co.gregs.dbvolution.databases.MSSQLServerDB.addFeatureToFixException() " + message);
-		if (message.matches("IDENTITY_INSERT is already ON for table '[^']*'. Cannot perform SET operation for table.*")) {
-			String table = message.split("'")[1];
-			Statement stmt = getConnection().createStatement();
-			stmt.execute("SET IDENTITY_INSERT " + table + " ON;");
-			return ResponseToException.REQUERY;
+		if (message == null) {
+			return super.addFeatureToFixException(exp);
+		}
+		final Matcher identityInsert = IDENTITY_INSERT_ALREADY_ON_PATTERN.matcher(message);
+		if (identityInsert.lookingAt()) {
+			// the connection was left with IDENTITY_INSERT on for another table so it must not be reused
+			return ResponseToException.REPLACECONNECTION;
 		} else if (CREATING_EXISTING_TABLE_PATTERN.matcher(message).lookingAt()) {
 //					System.out.println("nz.co.gregs.dbvolution.databases.H2DB.addFeatureToFixException()" + "TABLE EXISTS WHILE CREATING TABLE: OK.");
 			return ResponseToException.SKIPQUERY;
@@ -0,0 +1,108 @@
+/*
+ * Copyright 2019 Gregory Graham.
+ *
+ * Commercial licenses are available, please contact info@gregs.co.nz for details.
+ * 
+ * This work is licensed under the Creative Commons Attribution-NonCommercial-ShareAlike 4.0 International License. 
+ * To view a copy of this license, visit http://creativecommons.org/licenses/by-nc-sa/4.0/ 
+ * or send a letter to Creative Commons, PO Box 1866, Mountain View, CA 94042, USA.
+ * 
+ * You are free to:
+ *     Share - copy and redistribute the material in any medium or format
+ *     Adapt - remix, transform, and build upon the material
+ * 
+ *     The licensor cannot revoke these freedoms as long as you follow the license terms.               
+ *     Under the following terms:
+ *                 
+ *         Attribution - 
+ *             You must give appropriate credit, provide a link to the license, and indicate if changes were made. 
+ *             You may do so in any reasonable manner, but not in any way that suggests the licensor endorses you or your use.
+ *         NonCommercial - 
+ *             You may not use the material for commercial purposes.
+ *         ShareAlike - 
+ *             If you remix, transform, or build upon the material, 
+ *             you must distribute your contributions under the same license as the original.
+ *         No additional restrictions - 
+ *             You may not apply legal terms or technological measures that legally restrict others from doing anything the 
+ *             license permits.
+ * 
+ * Check the Creative Commons website for any details, legalese, and updates.
+ */
+package nz.co.gregs.dbvolution.databases;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.ResultSet;
+import nz.co.gregs.dbvolution.databases.listeners.ExecutionEvent;
+
+/**
+ * Counts the rows read from a ResultSet and reports the query to the
+ * statement's execution listeners when the ResultSet is closed.
+ *
+ * <p>
+ * Only used when the database has execution listeners.
+ *
+ * <p style="color: #F90;">Support DBvolution at
+ * <a href="http://patreon.com/dbvolution" target=new>Patreon</a></p>
+ *
+ * @author Gregory Graham
+ */
+class ObservedResultSet implements InvocationHandler {
+
+	private final DBStatement statement;
+	private final ResultSet resultSet;
+	private final String sql;
+	private final int bindCount;
+	private final long executeNanos;
+	private final long executedAt = System.nanoTime();
+	private long rows = 0;
+	private boolean finished = false;
+
+	private ObservedResultSet(DBStatement statement, ResultSet resultSet, String sql, int bindCount, long executeNanos) {
+		this.statement = statement;
+		this.resultSet = resultSet;
+		this.sql = sql;
+		this.bindCount = bindCount;
+		this.executeNanos = executeNanos;
+	}
+
+	static ObservedResultSet observe(DBStatement statement, ResultSet resultSet, String sql, int bindCount, long executeNanos) {
+		return new ObservedResultSet(statement, resultSet, sql, bindCount, executeNanos);
+	}
+
+	ResultSet getProxy() {
+		return (ResultSet) Proxy.newProxyInstance(ResultSet.class.getClassLoader(), new Class<?>[]{ResultSet.class}, this);
+	}
+
+	@Override
+	public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+		final Object result;
+		try {
+			result = method.invoke(resultSet, args);
+		} catch (InvocationTargetException ex) {
+			throw ex.getCause();
+		}
+		switch (method.getName()) {
+			case "next":
+				if (Boolean.TRUE.equals(result)) {
+					rows++;
+				}
+				break;
+			case "close":
+				finish();
+				break;
+			default:
+				break;
+		}
+		return result;
+	}
+
+	synchronized void finish() {
+		if (!finished) {
+			finished = true;
+			statement.fireExecutionEvent(ExecutionEvent.Type.QUERY, sql, bindCount, executeNanos, System.nanoTime() - executedAt, rows, null);
+		}
+	}
+}
@@ -48,6 +48,7 @@ public class PostgresDB extends DBDatabase implements SupportsPolygonDatatype {
 
 	private static final Log LOG = LogFactory.getLog(PostgresDB.class);
 	private static final String POSTGRES_DRIVER_NAME = "org.postgresql.Driver";
+	private static final String DUPLICATE_TABLE_SQLSTATE = "42P07";
 
 	/**
 	 * The default port number used by PostgreSQL.
@@ -341,7 +342,8 @@ public class PostgresDB extends DBDatabase implements SupportsPolygonDatatype {
 	 * the required feature.
 	 *
 	 * <p>
-	 * The statement will be automatically run after this method exits.
+	 * The statement is never run again, the exception is ignored if this method
+	 * returns {@link ResponseToException#SKIPQUERY}.
 	 *
 	 * @param exp the exception throw by the database that may need fixing
 	 * @return
@@ -350,8 +352,7 @@ public class PostgresDB extends DBDatabase implements SupportsPolygonDatatype {
 	@Override
 	public ResponseToException addFeatureToFixException(Exception exp) throws Exception {
 		if ((exp instanceof org.postgresql.util.PSQLException)) {
-			String message = exp.getMessage();
-			if (message.matches("ERROR: relation \"[^\"]*\" already exists.*")) {
+			if (DUPLICATE_TABLE_SQLSTATE.equals(((SQLException) exp).getSQLState())) {
 				return ResponseToException.SKIPQUERY;
 			} else {
 				throw exp;
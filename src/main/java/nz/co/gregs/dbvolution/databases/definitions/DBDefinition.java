@@ -24,7 +24,9 @@ import java.text.SimpleDateFormat;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Date;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Set;
 import java.util.TimeZone;
 import nz.co.gregs.dbvolution.databases.DBDatabase;
 import nz.co.gregs.dbvolution.DBRecursiveQuery;
@@ -714,6 +716,19 @@ public abstract class DBDefinition implements Serializable {
 		return " = ";
 	}
 
+	/**
+	 * The bind variable used for a parameter of a prepared query.
+	 *
+	 * <p style="color: #F90;">Support DBvolution at
+	 * <a href="http://patreon.com/dbvolution" target=new>Patreon</a></p>
+	 *
+	 * @param sqlType the {@link java.sql.Types} value of the parameter
+	 * @return "?" or equivalent
+	 */
+	public String formatParameterPlaceholder(int sqlType) {
+		return "?";
+	}
+
 	/**
 	 * The NOT EQUALS operator for this database.
 	 *
@@ -3123,10 +3138,32 @@ public abstract class DBDefinition implements Serializable {
 		return doStringIfNullTransform(possiblyNullValue, alternativeIfNull);
 	}
 
+	/**
+	 * The largest number of values this database accepts, or handles well, in a
+	 * single IN list.
+	 *
+	 * <p>
+	 * IN comparisons with more values than this are split into several IN lists
+	 * of at most this size.
+	 *
+	 * <p style="color: #F90;">Support DBvolution at
+	 * <a href="http://patreon.com/dbvolution" target=new>Patreon</a></p>
+	 *
+	 * @return the maximum number of values in one IN list
+	 */
+	public int getMaximumInListSize() {
+		return Integer.MAX_VALUE;
+	}
+
 	/**
 	 * Produce SQL that will compare the first value to all the other values using
 	 * the IN operator.
 	 *
+	 * <p>
+	 * Duplicate values are removed and, if there are more values than
+	 * {@link #getMaximumInListSize() } allows, the values are split into several
+	 * IN lists connected with OR.
+	 *
 	 * @param comparableValue comparableValue
 	 * @param values values
 	 * <p style="color: #F90;">Support DBvolution at
@@ -3134,15 +3171,74 @@ public abstract class DBDefinition implements Serializable {
 	 * @return SQL similar to "comparableValue IN (value, value, value)"
 	 */
 	public String doInTransform(String comparableValue, List<String> values) {
+		final List<String> distinctValues = getDistinctInListValues(values);
+		final int maximumSize = getMaximumInListSize();
+		if (distinctValues.size() <= maximumSize) {
+			return doInListTransform(comparableValue, distinctValues);
+		}
+		StringBuilder builder = new StringBuilder("(");
+		String separator = "";
+		for (int start = 0; start < distinctValues.size(); start += maximumSize) {
+			final List<String> chunk = distinctValues.subList(start, Math.min(start + maximumSize, distinctValues.size()));
+			builder.append(separator).append(doInListTransform(comparableValue, chunk));
+			separator = beginOrLine();
+		}
+		builder.append(")");
+		return builder.toString();
+	}
+
+	/**
+	 * Produce SQL that will compare the first value to all the other values using
+	 * the NOT IN operator.
+	 *
+	 * <p>
+	 * Duplicate values are removed and, if there are more values than
+	 * {@link #getMaximumInListSize() } allows, the values are split into several
+	 * NOT IN lists connected with AND.
+	 *
+	 * @param comparableValue comparableValue
+	 * @param values values
+	 * <p style="color: #F90;">Support DBvolution at
+	 * <a href="http://patreon.com/dbvolution" target=new>Patreon</a></p>
+	 * @return SQL similar to "comparableValue NOT IN (value, value, value)"
+	 */
+	public String doNotInTransform(String comparableValue, List<String> values) {
+		final List<String> distinctValues = getDistinctInListValues(values);
+		final int maximumSize = getMaximumInListSize();
+		if (distinctValues.size() <= maximumSize) {
+			return doNotInListTransform(comparableValue, distinctValues);
+		}
+		StringBuilder builder = new StringBuilder("(");
+		String separator = "";
+		for (int start = 0; start < distinctValues.size(); start += maximumSize) {
+			final List<String> chunk = distinctValues.subList(start, Math.min(start + maximumSize, distinctValues.size()));
+			builder.append(separator).append(doNotInListTransform(comparableValue, chunk));
+			separator = beginAndLine();
+		}
+		builder.append(")");
+		return builder.toString();
+	}
+
+	/**
+	 * Produce SQL for a single IN list.
+	 *
+	 * <p>
+	 * The list will never have more values than {@link #getMaximumInListSize() }.
+	 *
+	 * @param comparableValue comparableValue
+	 * @param values the values, without nulls or duplicates
+	 * <p style="color: #F90;">Support DBvolution at
+	 * <a href="http://patreon.com/dbvolution" target=new>Patreon</a></p>
+	 * @return SQL similar to "comparableValue IN (value, value, value)"
+	 */
+	protected String doInListTransform(String comparableValue, List<String> values) {
 		StringBuilder builder = new StringBuilder();
 		builder
 				.append(comparableValue)
 				.append(" IN ( ");
 		String separator = "";
 		for (String val : values) {
-			if (val != null) {
-				builder.append(separator).append(val);
-			}
+			builder.append(separator).append(val);
 			separator = ", ";
 		}
 		builder.append(")");
@@ -3150,31 +3246,41 @@ public abstract class DBDefinition implements Serializable {
 	}
 
 	/**
-	 * Produce SQL that will compare the first value to all the other values using
-	 * the NOT IN operator.
+	 * Produce SQL for a single NOT IN list.
+	 *
+	 * <p>
+	 * The list will never have more values than {@link #getMaximumInListSize() }.
 	 *
 	 * @param comparableValue comparableValue
-	 * @param values values
+	 * @param values the values, without nulls or duplicates
 	 * <p style="color: #F90;">Support DBvolution at
 	 * <a href="http://patreon.com/dbvolution" target=new>Patreon</a></p>
-	 * @return SQL similar to "comparableValue IN (value, value, value)"
+	 * @return SQL similar to "comparableValue NOT IN (value, value, value)"
 	 */
-	public String doNotInTransform(String comparableValue, List<String> values) {
+	protected String doNotInListTransform(String comparableValue, List<String> values) {
 		StringBuilder builder = new StringBuilder();
 		builder
 				.append(comparableValue)
 				.append(" NOT IN ( ");
 		String separator = "";
 		for (String val : values) {
-			if (val != null) {
-				builder.append(separator).append(val);
-			}
+			builder.append(separator).append(val);
 			separator = ", ";
 		}
 		builder.append(")");
 		return builder.toString();
 	}
 
+	private static List<String> getDistinctInListValues(List<String> values) {
+		Set<String> distinctValues = new LinkedHashSet<>(values.size());
+		for (String val : values) {
+			if (val != null) {
+				distinctValues.add(val);
+			}
+		}
+		return new ArrayList<>(distinctValues);
+	}
+
 	/**
 	 * Returns FROM clause to be used for this table.
 	 *
@@ -4725,6 +4831,23 @@ public abstract class DBDefinition implements Serializable {
 		return true;
 	}
 
+	/**
+	 * Indicates that the database driver can execute several SELECT statements
+	 * sent as one string and return each result with Statement.getMoreResults().
+	 *
+	 * <p>
+	 * Used by {@link nz.co.gregs.dbvolution.databases.DBDatabase#executeAll(nz.co.gregs.dbvolution.actions.DBQueryable...)
+	 * } to send several queries in a single round trip.
+	 *
+	 * <p style="color: #F90;">Support DBvolution at
+	 * <a href="http://patreon.com/dbvolution" target=new>Patreon</a></p>
+	 *
+	 * @return FALSE by default.
+	 */
+	public boolean supportsMultipleResultSetsPerStatement() {
+		return false;
+	}
+
 	/**
 	 * Generates the SQL to determine whether the first (polygon) argument
 	 * contains the second point argument.
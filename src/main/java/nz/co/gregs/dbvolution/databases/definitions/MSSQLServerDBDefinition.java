@@ -217,6 +217,17 @@ public class MSSQLServerDBDefinition extends DBDefinition {
 		return super.doStringEqualsTransform(firstSQLExpression + "+'@'", secondSQLExpression + "+'@'");
 	}
 
+	/**
+	 * SQL Server runs out of stack space processing IN lists with many
+	 * thousands of values, so large lists are split into lists of 2000 values.
+	 *
+	 * @return 2000
+	 */
+	@Override
+	public int getMaximumInListSize() {
+		return 2000;
+	}
+
 	@Override
 	public String doTrimFunction(String enclosedValue) {
 		return " LTRIM(RTRIM(" + enclosedValue + ")) "; //To change body of generated methods, choose Tools | Templates.
@@ -274,6 +285,11 @@ public class MSSQLServerDBDefinition extends DBDefinition {
 		return false;
 	}
 
+	@Override
+	public boolean supportsMultipleResultSetsPerStatement() {
+		return true;
+	}
+
 	@Override
 	public String getColumnAutoIncrementSuffix() {
 		return " IDENTITY ";
@@ -216,6 +216,17 @@ public class MSSQLServerDBDefinition2016 extends DBDefinition {
 		return super.doStringEqualsTransform(firstSQLExpression + "+'@'", secondSQLExpression + "+'@'");
 	}
 
+	/**
+	 * SQL Server runs out of stack space processing IN lists with many
+	 * thousands of values, so large lists are split into lists of 2000 values.
+	 *
+	 * @return 2000
+	 */
+	@Override
+	public int getMaximumInListSize() {
+		return 2000;
+	}
+
 	@Override
 	public String doTrimFunction(String enclosedValue) {
 		return " LTRIM(RTRIM(" + enclosedValue + ")) "; //To change body of generated methods, choose Tools | Templates.
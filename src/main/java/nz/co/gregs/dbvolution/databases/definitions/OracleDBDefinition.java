@@ -297,8 +297,18 @@ public class OracleDBDefinition extends DBDefinition {
 		return doSecondTransform(dateExpression) + "-" + doRoundTransform(doSecondTransform(dateExpression));
 	}
 
+	/**
+	 * Oracle only accepts 1000 values in an IN list.
+	 *
+	 * @return 1000
+	 */
+	@Override
+	public int getMaximumInListSize() {
+		return 1000;
+	}
+
 	@Override
-	public String doInTransform(String column, List<String> values) {
+	protected String doInListTransform(String column, List<String> values) {
 		StringBuilder builder = new StringBuilder();
 		builder.append("(")
 				.append(column)
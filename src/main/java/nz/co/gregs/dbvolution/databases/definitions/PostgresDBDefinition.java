@@ -183,6 +183,11 @@ public class PostgresDBDefinition extends DBDefinition {
 		return false;
 	}
 
+	@Override
+	public boolean supportsMultipleResultSetsPerStatement() {
+		return true;
+	}
+
 	@Override
 	public String doSubsecondTransform(String dateExpression) {
 		return "((EXTRACT(MILLISECOND FROM " + dateExpression + ")/1000.0000) - (" + doTruncTransform(doSecondTransform(dateExpression), "0") + "))";
@@ -0,0 +1,261 @@
+/*
+ * Copyright 2019 Gregory Graham.
+ *
+ * Commercial licenses are available, please contact info@gregs.co.nz for details.
+ * 
+ * This work is licensed under the Creative Commons Attribution-NonCommercial-ShareAlike 4.0 International License. 
+ * To view a copy of this license, visit http://creativecommons.org/licenses/by-nc-sa/4.0/ 
+ * or send a letter to Creative Commons, PO Box 1866, Mountain View, CA 94042, USA.
+ * 
+ * You are free to:
+ *     Share - copy and redistribute the material in any medium or format
+ *     Adapt - remix, transform, and build upon the material
+ * 
+ *     The licensor cannot revoke these freedoms as long as you follow the license terms.               
+ *     Under the following terms:
+ *                 
+ *         Attribution - 
+ *             You must give appropriate credit, provide a link to the license, and indicate if changes were made. 
+ *             You may do so in any reasonable manner, but not in any way that suggests the licensor endorses you or your use.
+ *         NonCommercial - 
+ *             You may not use the material for commercial purposes.
+ *         ShareAlike - 
+ *             If you remix, transform, or build upon the material, 
+ *             you must distribute your contributions under the same license as the original.
+ *         No additional restrictions - 
+ *             You may not apply legal terms or technological measures that legally restrict others from doing anything the 
+ *             license permits.
+ * 
+ * Check the Creative Commons website for any details, legalese, and updates.
+ */
+package nz.co.gregs.dbvolution.databases.listeners;
+
+import java.util.concurrent.TimeUnit;
+import nz.co.gregs.dbvolution.databases.DBDatabase;
+
+/**
+ * The details of a single statement or action execution, as supplied to an
+ * {@link ExecutionListener}.
+ *
+ * <p>
+ * Timings are split into 3 phases:
+ * <ul>
+ * <li>queue: waiting to obtain the connection, only reported for the first
+ * execution on a statement,</li>
+ * <li>execute: the time taken by the driver to execute the statement, and</li>
+ * <li>fetch: for queries, the time between the query returning and the result
+ * set being closed.</li>
+ * </ul>
+ *
+ * <p style="color: #F90;">Support DBvolution at
+ * <a href="http://patreon.com/dbvolution" target=new>Patreon</a></p>
+ *
+ * @author Gregory Graham
+ */
+public class ExecutionEvent {
+
+	/**
+	 * The kind of execution that produced the event.
+	 */
+	public static enum Type {
+
+		/**
+		 * A query executed by a DBStatement.
+		 */
+		QUERY,
+		/**
+		 * An update executed by a DBStatement.
+		 */
+		UPDATE,
+		/**
+		 * A statement executed by a DBStatement.
+		 */
+		EXECUTE,
+		/**
+		 * A batch executed by a DBStatement.
+		 */
+		BATCH,
+		/**
+		 * A DBAction executed by the database.
+		 */
+		ACTION,
+		/**
+		 * Turning a query's ResultSet into DBQueryRows, the fetch time is the time
+		 * spent materialising the rows.
+		 */
+		MATERIALISE,
+		/**
+		 * Waiting for a connection, the queue time is the time spent waiting.
+		 */
+		CONNECTION,
+		/**
+		 * A complete transaction, including the commit or rollback.
+		 */
+		TRANSACTION,
+		/**
+		 * A phase of synchronising a database added to a cluster.
+		 */
+		CLUSTER_SYNC
+	}
+
+	private final DBDatabase database;
+	private final Type type;
+	private final String sql;
+	private final int bindCount;
+	private final int connectionID;
+	private final long queueNanos;
+	private final long executeNanos;
+	private final long fetchNanos;
+	private final long rowCount;
+	private final Exception exception;
+
+	/**
+	 * Creates a new event.
+	 *
+	 * @param database the database that executed the statement
+	 * @param type the kind of execution
+	 * @param sql the SQL, or a description for actions
+	 * @param bindCount the number of bound parameters
+	 * @param connectionID an identifier for the connection used, or 0 if unknown
+	 * @param queueNanos time spent obtaining the connection
+	 * @param executeNanos time spent executing
+	 * @param fetchNanos time spent reading the results
+	 * @param rowCount the rows returned or affected, or -1 if unknown
+	 * @param exception the exception thrown, or null if the execution succeeded
+	 */
+	public ExecutionEvent(DBDatabase database, Type type, String sql, int bindCount, int connectionID, long queueNanos, long executeNanos, long fetchNanos, long rowCount, Exception exception) {
+		this.database = database;
+		this.type = type;
+		this.sql = sql;
+		this.bindCount = bindCount;
+		this.connectionID = connectionID;
+		this.queueNanos = queueNanos;
+		this.executeNanos = executeNanos;
+		this.fetchNanos = fetchNanos;
+		this.rowCount = rowCount;
+		this.exception = exception;
+	}
+
+	/**
+	 * @return the database that executed the statement
+	 */
+	public DBDatabase getDatabase() {
+		return database;
+	}
+
+	/**
+	 * @return the kind of execution
+	 */
+	public Type getType() {
+		return type;
+	}
+
+	/**
+	 * The SQL executed.
+	 *
+	 * <p>
+	 * Batches supply all their statements separated by semicolons and actions
+	 * supply the action and table name, the action's SQL is reported by its own
+	 * events.
+	 *
+	 * @return the SQL, or a description for actions
+	 */
+	public String getSQL() {
+		return sql;
+	}
+
+	/**
+	 * A hash of the SQL, suitable for grouping events for the same statement
+	 * without keeping the SQL.
+	 *
+	 * @return the hash code of the SQL
+	 */
+	public int getSQLHash() {
+		return sql == null ? 0 : sql.hashCode();
+	}
+
+	/**
+	 * The number of parameters bound to the statement.
+	 *
+	 * <p>
+	 * DBvolution usually includes values directly in the SQL so this is often
+	 * 0.
+	 *
+	 * @return the number of bound parameters
+	 */
+	public int getBindCount() {
+		return bindCount;
+	}
+
+	/**
+	 * An identifier for the connection used, suitable for grouping events by
+	 * connection.
+	 *
+	 * @return the connection identifier, or 0 if unknown
+	 */
+	public int getConnectionID() {
+		return connectionID;
+	}
+
+	/**
+	 * @return the nanoseconds spent obtaining the connection
+	 */
+	public long getQueueNanos() {
+		return queueNanos;
+	}
+
+	/**
+	 * @return the nanoseconds spent executing
+	 */
+	public long getExecuteNanos() {
+		return executeNanos;
+	}
+
+	/**
+	 * @return the nanoseconds spent reading the results
+	 */
+	public long getFetchNanos() {
+		return fetchNanos;
+	}
+
+	/**
+	 * @return the total nanoseconds spent queuing, executing, and fetching
+	 */
+	public long getTotalNanos() {
+		return queueNanos + executeNanos + fetchNanos;
+	}
+
+	/**
+	 * @return the rows returned or affected, or -1 if unknown
+	 */
+	public long getRowCount() {
+		return rowCount;
+	}
+
+	/**
+	 * @return the exception thrown, or null if the execution succeeded
+	 */
+	public Exception getException() {
+		return exception;
+	}
+
+	/**
+	 * @return TRUE if no exception was thrown, otherwise FALSE
+	 */
+	public boolean wasSuccessful() {
+		return exception == null;
+	}
+
+	@Override
+	public String toString() {
+		return type
+				+ " " + TimeUnit.NANOSECONDS.toMillis(getTotalNanos()) + "ms"
+				+ " (queue " + TimeUnit.NANOSECONDS.toMicros(queueNanos) + "us"
+				+ ", execute " + TimeUnit.NANOSECONDS.toMicros(executeNanos) + "us"
+				+ ", fetch " + TimeUnit.NANOSECONDS.toMicros(fetchNanos) + "us)"
+				+ " rows=" + rowCount
+				+ " connection=" + connectionID
+				+ (exception == null ? "" : " FAILED: " + exception.getMessage())
+				+ " : " + sql;
+	}
+}
@@ -0,0 +1,151 @@
+/*
+ * Copyright 2019 Gregory Graham.
+ *
+ * Commercial licenses are available, please contact info@gregs.co.nz for details.
+ * 
+ * This work is licensed under the Creative Commons Attribution-NonCommercial-ShareAlike 4.0 International License. 
+ * To view a copy of this license, visit http://creativecommons.org/licenses/by-nc-sa/4.0/ 
+ * or send a letter to Creative Commons, PO Box 1866, Mountain View, CA 94042, USA.
+ * 
+ * You are free to:
+ *     Share - copy and redistribute the material in any medium or format
+ *     Adapt - remix, transform, and build upon the material
+ * 
+ *     The licensor cannot revoke these freedoms as long as you follow the license terms.               
+ *     Under the following terms:
+ *                 
+ *         Attribution - 
+ *             You must give appropriate credit, provide a link to the license, and indicate if changes were made. 
+ *             You may do so in any reasonable manner, but not in any way that suggests the licensor endorses you or your use.
+ *         NonCommercial - 
+ *             You may not use the material for commercial purposes.
+ *         ShareAlike - 
+ *             If you remix, transform, or build upon the material, 
+ *             you must distribute your contributions under the same license as the original.
+ *         No additional restrictions - 
+ *             You may not apply legal terms or technological measures that legally restrict others from doing anything the 
+ *             license permits.
+ * 
+ * Check the Creative Commons website for any details, legalese, and updates.
+ */
+package nz.co.gregs.dbvolution.databases.listeners;
+
+import java.util.EnumSet;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Records the total time of executions in a histogram so that percentiles can
+ * be reported.
+ *
+ * <p>
+ * The histogram uses buckets that double in size from 1 microsecond, so
+ * percentiles are accurate to within a factor of 2. Recording is lock-free
+ * and does not allocate, making it suitable for leaving on in production.
+ *
+ * <p style="color: #F90;">Support DBvolution at
+ * <a href="http://patreon.com/dbvolution" target=new>Patreon</a></p>
+ *
+ * @author Gregory Graham
+ */
+public class LatencyHistogramListener implements ExecutionListener {
+
+	private static final int BUCKETS = 48;
+
+	private final EnumSet<ExecutionEvent.Type> types;
+	private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+	private final AtomicLong maximumMicros = new AtomicLong(0);
+
+	/**
+	 * Creates a histogram of the types of execution specified.
+	 *
+	 * @param types the types to record, or none to record all types
+	 */
+	public LatencyHistogramListener(ExecutionEvent.Type... types) {
+		this.types = types.length == 0 ? EnumSet.allOf(ExecutionEvent.Type.class) : EnumSet.noneOf(ExecutionEvent.Type.class);
+		for (ExecutionEvent.Type type : types) {
+			this.types.add(type);
+		}
+	}
+
+	@Override
+	public void executed(ExecutionEvent event) {
+		if (types.contains(event.getType())) {
+			record(TimeUnit.NANOSECONDS.toMicros(event.getTotalNanos()));
+		}
+	}
+
+	private void record(long micros) {
+		counts.incrementAndGet(bucketFor(micros));
+		long max = maximumMicros.get();
+		while (micros > max && !maximumMicros.compareAndSet(max, micros)) {
+			max = maximumMicros.get();
+		}
+	}
+
+	private static int bucketFor(long micros) {
+		final int bucket = 64 - Long.numberOfLeadingZeros(micros);
+		return Math.min(bucket, BUCKETS - 1);
+	}
+
+	/**
+	 * @return the number of executions recorded
+	 */
+	public long getCount() {
+		long count = 0;
+		for (int i = 0; i < BUCKETS; i++) {
+			count += counts.get(i);
+		}
+		return count;
+	}
+
+	/**
+	 * @return the longest execution recorded in microseconds
+	 */
+	public long getMaximumMicros() {
+		return maximumMicros.get();
+	}
+
+	/**
+	 * Returns the upper bound of the bucket containing the percentile.
+	 *
+	 * @param percentile the percentile required, between 0 and 100
+	 * @return the upper bound of the percentile in microseconds, or 0 if nothing
+	 * has been recorded
+	 */
+	public long getPercentileMicros(double percentile) {
+		final long count = getCount();
+		if (count == 0) {
+			return 0;
+		}
+		final long target = Math.max(1, (long) Math.ceil(count * percentile / 100.0));
+		long seen = 0;
+		for (int i = 0; i < BUCKETS; i++) {
+			seen += counts.get(i);
+			if (seen >= target) {
+				return Math.min(i == 0 ? 0 : (1L << i) - 1, getMaximumMicros());
+			}
+		}
+		return getMaximumMicros();
+	}
+
+	/**
+	 * Removes all recorded executions.
+	 */
+	public void reset() {
+		for (int i = 0; i < BUCKETS; i++) {
+			counts.set(i, 0);
+		}
+		maximumMicros.set(0);
+	}
+
+	@Override
+	public String toString() {
+		return "count=" + getCount()
+				+ " p50=" + getPercentileMicros(50) + "us"
+				+ " p90=" + getPercentileMicros(90) + "us"
+				+ " p99=" + getPercentileMicros(99) + "us"
+				+ " max=" + getMaximumMicros() + "us";
+	}
+}
@@ -0,0 +1,81 @@
+/*
+ * Copyright 2019 Gregory Graham.
+ *
+ * Commercial licenses are available, please contact info@gregs.co.nz for details.
+ * 
+ * This work is licensed under the Creative Commons Attribution-NonCommercial-ShareAlike 4.0 International License. 
+ * To view a copy of this license, visit http://creativecommons.org/licenses/by-nc-sa/4.0/ 
+ * or send a letter to Creative Commons, PO Box 1866, Mountain View, CA 94042, USA.
+ * 
+ * You are free to:
+ *     Share - copy and redistribute the material in any medium or format
+ *     Adapt - remix, transform, and build upon the material
+ * 
+ *     The licensor cannot revoke these freedoms as long as you follow the license terms.               
+ *     Under the following terms:
+ *                 
+ *         Attribution - 
+ *             You must give appropriate credit, provide a link to the license, and indicate if changes were made. 
+ *             You may do so in any reasonable manner, but not in any way that suggests the licensor endorses you or your use.
+ *         NonCommercial - 
+ *             You may not use the material for commercial purposes.
+ *         ShareAlike - 
+ *             If you remix, transform, or build upon the material, 
+ *             you must distribute your contributions under the same license as the original.
+ *         No additional restrictions - 
+ *             You may not apply legal terms or technological measures that legally restrict others from doing anything the 
+ *             license permits.
+ * 
+ * Check the Creative Commons website for any details, legalese, and updates.
+ */
+package nz.co.gregs.dbvolution.databases.listeners;
+
+import java.util.concurrent.TimeUnit;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+/**
+ * Logs every statement and action that takes longer than a threshold.
+ *
+ * <p>
+ * Slow executions are logged as warnings. Subclass and override
+ * {@link #slowExecution(nz.co.gregs.dbvolution.databases.listeners.ExecutionEvent)
+ * } to send them somewhere else.
+ *
+ * <p style="color: #F90;">Support DBvolution at
+ * <a href="http://patreon.com/dbvolution" target=new>Patreon</a></p>
+ *
+ * @author Gregory Graham
+ */
+public class SlowQueryListener implements ExecutionListener {
+
+	private static final Log LOG = LogFactory.getLog(SlowQueryListener.class);
+
+	private final long thresholdNanos;
+
+	/**
+	 * Creates a listener that reports executions taking at least the threshold.
+	 *
+	 * @param threshold the shortest duration to report
+	 * @param unit the unit of the threshold
+	 */
+	public SlowQueryListener(long threshold, TimeUnit unit) {
+		this.thresholdNanos = unit.toNanos(threshold);
+	}
+
+	@Override
+	public void executed(ExecutionEvent event) {
+		if (event.getTotalNanos() >= thresholdNanos) {
+			slowExecution(event);
+		}
+	}
+
+	/**
+	 * Called for each execution that took at least the threshold.
+	 *
+	 * @param event the slow execution
+	 */
+	protected void slowExecution(ExecutionEvent event) {
+		LOG.warn("SLOW " + event);
+	}
+}
@@ -17,6 +17,7 @@ package nz.co.gregs.dbvolution.datatypes;
 
 import java.io.*;
 import static java.nio.charset.StandardCharsets.UTF_8;
+import java.nio.file.Path;
 import java.sql.*;
 import java.util.*;
 import java.util.logging.*;
@@ -27,6 +28,7 @@ import nz.co.gregs.dbvolution.internal.query.LargeObjectHandlerType;
 import nz.co.gregs.dbvolution.exceptions.DBRuntimeException;
 import nz.co.gregs.dbvolution.exceptions.IncorrectRowProviderInstanceSuppliedException;
 import nz.co.gregs.dbvolution.expressions.LargeObjectExpression;
+import nz.co.gregs.dbvolution.internal.datatypes.LargeObjectBuffer;
 import nz.co.gregs.dbvolution.query.RowDefinition;
 import org.apache.commons.codec.binary.Base64;
 
@@ -106,6 +108,7 @@ public class DBLargeBinary extends DBLargeObject<byte[]> {
 	}
 
 	private void setByteArray(byte[] byteArray) {
+		setLargeObjectBuffer(null);
 		super.setLiteralValue(byteArray);
 	}
 
@@ -113,22 +116,56 @@ public class DBLargeBinary extends DBLargeObject<byte[]> {
 	 * Sets the value of this DBLargeBinary to the InputStream supplied.
 	 *
 	 * <p>
-	 * The input stream will not be read until the containing DBRow is
-	 * saved/inserted.
+	 * The input stream is read immediately and closed. Values larger than the
+	 * {@link #getSpillToDiskThreshold() spill threshold} are held in a temporary
+	 * file and streamed to the database when the containing DBRow is
+	 * saved/inserted. The stream is copied because it can only be read once,
+	 * while the value may be written more than once, for instance to every
+	 * database in a cluster. Use {@link #setValue(java.nio.file.Path) } to avoid
+	 * the copy for files.
 	 *
 	 * @param inputViaStream	inputViaStream
 	 */
 	public void setValue(InputStream inputViaStream) {
-		setValue(getBytesFromInputStream(inputViaStream));
+		try (InputStream input = inputViaStream) {
+			setValue(LargeObjectBuffer.read(input, getSpillToDiskThreshold()));
+		} catch (IOException ex) {
+			Logger.getLogger(DBLargeBinary.class.getName()).log(Level.SEVERE, null, ex);
+			throw new DBRuntimeException(ex);
+		}
+	}
+
+	/**
+	 * Sets the value of this DBLargeBinary to the contents of the file supplied.
+	 *
+	 * <p>
+	 * The file is not read into memory or copied. It is streamed to the
+	 * database, using its size as the length, when the containing DBRow is
+	 * saved/inserted, so it must not change until then.
+	 *
+	 * @param path the file to read
+	 * @throws java.io.IOException the size of the file could not be read
+	 */
+	public void setValue(Path path) throws IOException {
+		setValue(LargeObjectBuffer.forFile(path));
+	}
+
+	private void setValue(LargeObjectBuffer buffer) throws IOException {
+		if (buffer.isSpilled()) {
+			setByteArray(new byte[]{});
+			setLargeObjectBuffer(buffer);
+		} else {
+			setByteArray(buffer.getBytes());
+		}
 	}
 
 	/**
 	 * Sets the value of this DBLargeBinary to the file supplied.
 	 *
 	 * <p>
-	 * Unlike {@link #setValue(java.io.InputStream) setting an InputStream}, the
-	 * file is read immediately and stored internally. If you would prefer to
-	 * delay the reading of the file, wrap the file in a {@link FileInputStream}.
+	 * The file is read immediately and stored internally, large files are copied
+	 * to a temporary file as described in
+	 * {@link #setValue(java.io.InputStream) setting an InputStream}.
 	 *
 	 * @param fileToRead fileToRead
 	 * @throws java.io.IOException java.io.IOException
@@ -156,10 +193,11 @@ public class DBLargeBinary extends DBLargeObject<byte[]> {
 			if (inputStream == null) {
 				this.setToNull();
 			} else {
-				bytes = getBytesFromInputStream(inputStream);
+				bytes = readWithSpillToDisk(inputStream);
 			}
 		} catch (IOException ex) {
 			Logger.getLogger(DBLargeBinary.class.getName()).log(Level.SEVERE, null, ex);
+			throw new DBRuntimeException(ex);
 		}
 		return bytes;
 	}
@@ -173,48 +211,14 @@ public class DBLargeBinary extends DBLargeObject<byte[]> {
 		if (blob == null) {
 			this.setToNull();
 		} else {
-			InputStream inputStream = blob.getBinaryStream();
-			bytes = getBytesFromInputStream(inputStream);
-			try {
-				inputStream.close();
-			} catch (IOException ex) {
-				Logger.getLogger(DBLargeBinary.class.getName()).log(Level.SEVERE, null, ex);
-			}
-		}
-		return bytes;
-	}
-
-	private byte[] getBytesFromInputStream(InputStream inputStream) {
-		InputStream input = new BufferedInputStream(inputStream);
-		List<byte[]> byteArrays = new ArrayList<>();
-		try {
-			byte[] resultSetBytes;
-			final int byteArrayDefaultSize = 100000;
-			resultSetBytes = new byte[byteArrayDefaultSize];
-			int bytesRead = input.read(resultSetBytes);
-			while (bytesRead > 0) {
-				if (bytesRead == byteArrayDefaultSize) {
-					byteArrays.add(resultSetBytes);
-				} else {
-					byte[] shortBytes = new byte[bytesRead];
-					System.arraycopy(resultSetBytes, 0, shortBytes, 0, bytesRead);
-					byteArrays.add(shortBytes);
-				}
-				resultSetBytes = new byte[byteArrayDefaultSize];
-				bytesRead = input.read(resultSetBytes);
-			}
-		} catch (IOException ex) {
-			Logger.getLogger(DBLargeBinary.class.getName()).log(Level.SEVERE, null, ex);
-			throw new DBRuntimeException(ex);
-		} finally {
-			try {
-				input.close();
+			try (InputStream inputStream = blob.getBinaryStream()) {
+				bytes = readWithSpillToDisk(inputStream);
 			} catch (IOException ex) {
 				Logger.getLogger(DBLargeBinary.class.getName()).log(Level.SEVERE, null, ex);
 				throw new DBRuntimeException(ex);
 			}
 		}
-		return concatAllByteArrays(byteArrays);
+		return bytes;
 	}
 
 	public static byte[] concatAllByteArrays(List<byte[]> bytes) {
@@ -298,45 +302,11 @@ public class DBLargeBinary extends DBLargeObject<byte[]> {
 		if (resultSet.wasNull() || clob == null) {
 			this.setToNull();
 		} else {
-			final Reader characterStream = clob.getCharacterStream();
-			try {
-				BufferedReader input = new BufferedReader(characterStream);
-				List<byte[]> byteArrays = new ArrayList<>();
-
-				try {
-					char[] resultSetBytes;
-					final int byteArrayDefaultSize = 100000;
-					resultSetBytes = new char[byteArrayDefaultSize];
-					int bytesRead = input.read(resultSetBytes);
-					while (bytesRead > 0) {
-						if (bytesRead == byteArrayDefaultSize) {
-							byteArrays.add(String.valueOf(resultSetBytes).getBytes(UTF_8));
-						} else {
-							char[] shortBytes = new char[bytesRead];
-							System.arraycopy(resultSetBytes, 0, shortBytes, 0, bytesRead);
-							byteArrays.add(String.valueOf(shortBytes).getBytes(UTF_8));
-						}
-						resultSetBytes = new char[byteArrayDefaultSize];
-						bytesRead = input.read(resultSetBytes);
-					}
-				} catch (IOException ex) {
-					Logger.getLogger(DBLargeBinary.class.getName()).log(Level.SEVERE, null, ex);
-					throw new DBRuntimeException(ex);
-				} finally {
-					try {
-						input.close();
-					} catch (IOException ex) {
-						Logger.getLogger(DBLargeBinary.class.getName()).log(Level.SEVERE, null, ex);
-					}
-				}
-				bytes = concatAllByteArrays(byteArrays);
-			} finally {
-				try {
-					characterStream.close();
-				} catch (IOException ex) {
-					Logger.getLogger(DBLargeBinary.class.getName()).log(Level.SEVERE, null, ex);
-					throw new DBRuntimeException(ex);
-				}
+			try (Reader characterStream = clob.getCharacterStream()) {
+				bytes = readWithSpillToDisk(characterStream);
+			} catch (IOException ex) {
+				Logger.getLogger(DBLargeBinary.class.getName()).log(Level.SEVERE, null, ex);
+				throw new DBRuntimeException(ex);
 			}
 		}
 		return bytes;
@@ -397,29 +367,10 @@ public class DBLargeBinary extends DBLargeObject<byte[]> {
 	 *
 	 */
 	private void setFromFileSystem(File originalFile) throws FileNotFoundException, IOException {
-		byte[] bytes = new byte[(int) originalFile.length()];
-		InputStream input = null;
-		try {
-			int totalBytesRead = 0;
-			input = new BufferedInputStream(new FileInputStream(originalFile));
-			while (totalBytesRead < bytes.length) {
-				int bytesRemaining = bytes.length - totalBytesRead;
-				int bytesRead = input.read(bytes, totalBytesRead, bytesRemaining);
-				if (bytesRead > 0) {
-					totalBytesRead += bytesRead;
-				}
-			}
-			/*
-			 the above style is a bit tricky: it places bytes into the 'result' array;
-			 'result' is an output parameter;
-			 the while loop usually has a single iteration only.
-			 */
-		} finally {
-			if (input != null) {
-				input.close();
-			}
+		if (!originalFile.isFile()) {
+			throw new FileNotFoundException(originalFile.getAbsolutePath());
 		}
-		setValue(bytes);
+		setValue(originalFile.toPath());
 	}
 
 	/**
@@ -477,8 +428,14 @@ public class DBLargeBinary extends DBLargeObject<byte[]> {
 				}
 			}
 			if (originalFile.exists()) {
-				try (BufferedOutputStream output = new BufferedOutputStream(new FileOutputStream(originalFile))) {
-					output.write(getBytes());
+				try (InputStream input = getInputStream();
+						BufferedOutputStream output = new BufferedOutputStream(new FileOutputStream(originalFile))) {
+					byte[] buffer = new byte[64 * 1024];
+					int bytesRead = input.read(buffer);
+					while (bytesRead >= 0) {
+						output.write(buffer, 0, bytesRead);
+						bytesRead = input.read(buffer);
+					}
 					output.flush();
 				}
 			} else {
@@ -493,6 +450,9 @@ public class DBLargeBinary extends DBLargeObject<byte[]> {
 	 * <p>
 	 * Remember to close the InputStream.
 	 *
+	 * <p>
+	 * Values that have been spilled to disk are read from the temporary file.
+	 *
 	 * <p style="color: #F90;">Support DBvolution at
 	 * <a href="http://patreon.com/dbvolution" target=new>Patreon</a></p>
 	 *
@@ -500,6 +460,15 @@ public class DBLargeBinary extends DBLargeObject<byte[]> {
 	 */
 	@Override
 	public InputStream getInputStream() {
+		final LargeObjectBuffer buffer = getLargeObjectBuffer();
+		if (buffer != null) {
+			try {
+				return buffer.getInputStream();
+			} catch (IOException ex) {
+				Logger.getLogger(DBLargeBinary.class.getName()).log(Level.SEVERE, null, ex);
+				throw new DBRuntimeException(ex);
+			}
+		}
 		return new BufferedInputStream(new ByteArrayInputStream(getBytes()));
 	}
 
@@ -507,12 +476,26 @@ public class DBLargeBinary extends DBLargeObject<byte[]> {
 	 * Returns the byte[] used internally to store the value of this
 	 * DBLargeBinary.
 	 *
+	 * <p>
+	 * Values that have been spilled to disk are read into memory, use
+	 * {@link #getInputStream() } or {@link #getReadableByteChannel() } to avoid
+	 * that.
+	 *
 	 * <p style="color: #F90;">Support DBvolution at
 	 * <a href="http://patreon.com/dbvolution" target=new>Patreon</a></p>
 	 *
 	 * @return the byte[] value of this DBLargeBinary.
 	 */
 	public byte[] getBytes() {
+		final LargeObjectBuffer buffer = getLargeObjectBuffer();
+		if (buffer != null) {
+			try {
+				return buffer.getBytes();
+			} catch (IOException ex) {
+				Logger.getLogger(DBLargeBinary.class.getName()).log(Level.SEVERE, null, ex);
+				throw new DBRuntimeException(ex);
+			}
+		}
 		final byte[] litVal = this.getLiteralValue();
 		if (litVal != null) {
 			return litVal;
@@ -532,6 +515,10 @@ public class DBLargeBinary extends DBLargeObject<byte[]> {
 
 	@Override
 	public int getSize() throws IOException {
+		final LargeObjectBuffer buffer = getLargeObjectBuffer();
+		if (buffer != null) {
+			return (int) buffer.length();
+		}
 		final byte[] bytes = getBytes();
 		if (bytes != null) {
 			return bytes.length;
@@ -562,6 +549,7 @@ public class DBLargeBinary extends DBLargeObject<byte[]> {
 
 	@Override
 	protected byte[] getFromResultSet(DBDefinition defn, ResultSet resultSet, String fullColumnName) throws SQLException {
+		setLargeObjectBuffer(null);
 		byte[] bytes = new byte[]{};
 		LargeObjectHandlerType handler = defn.preferredLargeObjectReader(this);
 		switch (handler) {
@@ -643,7 +631,7 @@ public class DBLargeBinary extends DBLargeObject<byte[]> {
 	}
 
 	@Override
-	public synchronized DBLargeBinary copy() {
+	public DBLargeBinary copy() {
 		DBLargeBinary result = (DBLargeBinary) super.copy();
 		return result;
 	}
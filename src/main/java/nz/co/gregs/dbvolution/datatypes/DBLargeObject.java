@@ -17,7 +17,11 @@ package nz.co.gregs.dbvolution.datatypes;
 
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.Reader;
+import java.nio.channels.Channels;
+import java.nio.channels.ReadableByteChannel;
 import nz.co.gregs.dbvolution.expressions.LargeObjectExpression;
+import nz.co.gregs.dbvolution.internal.datatypes.LargeObjectBuffer;
 import nz.co.gregs.dbvolution.results.LargeObjectResult;
 
 /**
@@ -42,6 +46,10 @@ public abstract class DBLargeObject<T> extends QueryableDatatype<T> implements L
 
 	private static final long serialVersionUID = 1L;
 
+	private static volatile int spillToDiskThreshold = 10 * 1024 * 1024;
+
+	private LargeObjectBuffer largeObjectBuffer = null;
+
 	/**
 	 * The default constructor for DBLargeObject.
 	 *
@@ -85,6 +93,149 @@ public abstract class DBLargeObject<T> extends QueryableDatatype<T> implements L
 	 */
 	public abstract int getSize() throws IOException;
 
+	/**
+	 * Returns a channel over the value of this large object.
+	 *
+	 * <p>
+	 * Values that have been spilled to disk are read directly from the temporary
+	 * file without loading them into memory.
+	 *
+	 * <p>
+	 * Remember to close the channel.
+	 *
+	 * <p style="color: #F90;">Support DBvolution at
+	 * <a href="http://patreon.com/dbvolution" target=new>Patreon</a></p>
+	 *
+	 * @return a channel to read the bytes.
+	 * @throws java.io.IOException the spilled value could not be opened
+	 */
+	public ReadableByteChannel getReadableByteChannel() throws IOException {
+		final LargeObjectBuffer buffer = getLargeObjectBuffer();
+		if (buffer != null) {
+			return buffer.getChannel();
+		} else {
+			return Channels.newChannel(getInputStream());
+		}
+	}
+
+	/**
+	 * Indicates whether the value retrieved from the database was too large to
+	 * keep in memory and has been written to a temporary file.
+	 *
+	 * <p style="color: #F90;">Support DBvolution at
+	 * <a href="http://patreon.com/dbvolution" target=new>Patreon</a></p>
+	 *
+	 * @return TRUE if the value is stored on disk, otherwise FALSE
+	 * @see #setSpillToDiskThreshold(int)
+	 */
+	public boolean isSpilledToDisk() {
+		final LargeObjectBuffer buffer = getLargeObjectBuffer();
+		return buffer != null && buffer.isSpilled();
+	}
+
+	/**
+	 * The number of bytes a large object may use in memory before it is written
+	 * to a temporary file while being retrieved from the database.
+	 *
+	 * <p>
+	 * Defaults to 10MB.
+	 *
+	 * <p style="color: #F90;">Support DBvolution at
+	 * <a href="http://patreon.com/dbvolution" target=new>Patreon</a></p>
+	 *
+	 * @return the spill threshold in bytes
+	 */
+	public static int getSpillToDiskThreshold() {
+		return spillToDiskThreshold;
+	}
+
+	/**
+	 * Sets the number of bytes a large object may use in memory before it is
+	 * written to a temporary file while being retrieved from the database.
+	 *
+	 * @param threshold the spill threshold in bytes
+	 */
+	public static void setSpillToDiskThreshold(int threshold) {
+		if (threshold < 0) {
+			throw new IllegalArgumentException("Spill To Disk Threshold Must Not Be Negative: " + threshold);
+		}
+		spillToDiskThreshold = threshold;
+	}
+
+	/**
+	 * Reads the stream into memory, or into a temporary file if it is larger
+	 * than the {@link #getSpillToDiskThreshold() spill threshold}.
+	 *
+	 * <p>
+	 * If the stream was spilled to disk an empty array is returned and the value
+	 * is available from {@link #getLargeObjectBuffer() }.
+	 *
+	 * @param input the stream to read
+	 * @return the bytes read, or an empty array if the value was spilled to disk
+	 * @throws IOException the stream could not be read
+	 */
+	protected byte[] readWithSpillToDisk(InputStream input) throws IOException {
+		return useBuffer(LargeObjectBuffer.read(input, getSpillToDiskThreshold()));
+	}
+
+	/**
+	 * Reads the characters into memory as UTF-8, or into a temporary file if
+	 * they are larger than the {@link #getSpillToDiskThreshold() spill threshold}.
+	 *
+	 * <p>
+	 * If the characters were spilled to disk an empty array is returned and the
+	 * value is available from {@link #getLargeObjectBuffer() }.
+	 *
+	 * @param input the characters to read
+	 * @return the bytes read, or an empty array if the value was spilled to disk
+	 * @throws IOException the characters could not be read
+	 */
+	protected byte[] readWithSpillToDisk(Reader input) throws IOException {
+		return useBuffer(LargeObjectBuffer.read(input, getSpillToDiskThreshold()));
+	}
+
+	private byte[] useBuffer(LargeObjectBuffer buffer) throws IOException {
+		if (buffer.isSpilled()) {
+			setLargeObjectBuffer(buffer);
+			return new byte[]{};
+		} else {
+			setLargeObjectBuffer(null);
+			return buffer.getBytes();
+		}
+	}
+
+	/**
+	 * Returns the spilled value of this large object, if any.
+	 *
+	 * @return the buffer holding the value or NULL if the value is held in
+	 * memory
+	 */
+	protected LargeObjectBuffer getLargeObjectBuffer() {
+		loadLazyValue();
+		return largeObjectBuffer;
+	}
+
+	/**
+	 * Sets or clears the spilled value of this large object.
+	 *
+	 * <p>
+	 * The previous buffer is released, deleting its temporary file if no copies
+	 * of this large object are using it. This large object takes over the
+	 * caller's use of the new buffer.
+	 *
+	 * @param buffer the buffer holding the value, or NULL
+	 */
+	protected void setLargeObjectBuffer(LargeObjectBuffer buffer) {
+		final LargeObjectBuffer previous;
+		synchronized (this) {
+			previous = this.largeObjectBuffer;
+			this.largeObjectBuffer = buffer;
+		}
+		if (previous != null) {
+			previous.release();
+		}
+	}
+
 	@Override
 	public String toString() {
 		return "/*BINARY DATA*/";
@@ -92,6 +243,22 @@ public abstract class DBLargeObject<T> extends QueryableDatatype<T> implements L
 
 	@Override
 	public DBLargeObject<T> copy() {
-		return (DBLargeObject<T>) super.copy();
+		final DBLargeObject<T> copy = (DBLargeObject<T>) super.copy();
+		synchronized (this) {
+			copy.largeObjectBuffer = this.largeObjectBuffer == null ? null : this.largeObjectBuffer.retain();
+		}
+		return copy;
+	}
+
+	@Override
+	protected void copyLoadedValueFrom(QueryableDatatype<T> source) {
+		super.copyLoadedValueFrom(source);
+		if (source instanceof DBLargeObject) {
+			final LargeObjectBuffer buffer;
+			synchronized (source) {
+				buffer = ((DBLargeObject<T>) source).largeObjectBuffer;
+			}
+			setLargeObjectBuffer(buffer == null ? null : buffer.retain());
+		}
 	}
 }
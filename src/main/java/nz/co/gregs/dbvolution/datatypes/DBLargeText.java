@@ -17,6 +17,8 @@ package nz.co.gregs.dbvolution.datatypes;
 
 import java.io.*;
 import static java.nio.charset.StandardCharsets.UTF_8;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.sql.*;
 import java.util.*;
 import java.util.logging.*;
@@ -27,6 +29,7 @@ import nz.co.gregs.dbvolution.internal.query.LargeObjectHandlerType;
 import nz.co.gregs.dbvolution.exceptions.DBRuntimeException;
 import nz.co.gregs.dbvolution.exceptions.IncorrectRowProviderInstanceSuppliedException;
 import nz.co.gregs.dbvolution.expressions.LargeObjectExpression;
+import nz.co.gregs.dbvolution.internal.datatypes.LargeObjectBuffer;
 import nz.co.gregs.dbvolution.query.RowDefinition;
 import org.apache.commons.codec.binary.Base64;
 
@@ -99,6 +102,7 @@ public class DBLargeText extends DBLargeObject<byte[]> {
 	 */
 	@Override
 	public void setValue(byte[] byteArray) {
+		setLargeObjectBuffer(null);
 		super.setLiteralValue(byteArray);
 //		if (byteArray == null) {
 //			byteStream = new BufferedInputStream(new ByteArrayInputStream(new byte[]{}));
@@ -111,29 +115,55 @@ public class DBLargeText extends DBLargeObject<byte[]> {
 	 * Sets the value of this DBByteObject to the InputStream supplied.
 	 *
 	 * <p>
-	 * The input stream will not be read until the containing DBRow is
+	 * The input stream is read immediately and closed. Values larger than the
+	 * {@link #getSpillToDiskThreshold() spill threshold} are held in a temporary
+	 * file and streamed to the database when the containing DBRow is
 	 * saved/inserted.
 	 *
 	 * @param inputViaStream	inputViaStream
 	 */
 	public void setValue(InputStream inputViaStream) {
-		super.setLiteralValue(null);
+		try (InputStream input = inputViaStream) {
+			LargeObjectBuffer buffer = LargeObjectBuffer.read(input, getSpillToDiskThreshold());
+			if (buffer.isSpilled()) {
+				setValue(new byte[]{});
+				setLargeObjectBuffer(buffer);
+			} else {
+				setValue(buffer.getBytes());
+			}
+		} catch (IOException ex) {
+			Logger.getLogger(DBLargeText.class.getName()).log(Level.SEVERE, null, ex);
+			throw new DBRuntimeException(ex);
+		}
 //		byteStream = new BufferedInputStream(inputViaStream);
 	}
 
+	/**
+	 * Sets the value of this DBByteObject to the contents of the file supplied.
+	 *
+	 * <p>
+	 * The file is read immediately, see {@link #setValue(java.io.InputStream) }.
+	 *
+	 * @param path the file to read
+	 * @throws java.io.IOException java.io.IOException
+	 */
+	public void setValue(Path path) throws IOException {
+		setValue(Files.newInputStream(path));
+	}
+
 	/**
 	 * Sets the value of this DBByteObject to the file supplied.
 	 *
 	 * <p>
-	 * Unlike {@link #setValue(java.io.InputStream) setting an InputStream}, the
-	 * file is read immediately and stored internally. If you would prefer to
-	 * delay the reading of the file, wrap the file in a {@link FileInputStream}.
+	 * The file is read immediately and stored internally, large files are copied
+	 * to a temporary file as described in
+	 * {@link #setValue(java.io.InputStream) setting an InputStream}.
 	 *
 	 * @param fileToRead fileToRead
 	 * @throws java.io.IOException java.io.IOException
 	 */
 	public void setValue(File fileToRead) throws IOException {
-		setValue(setFromFileSystem(fileToRead));
+		setValue(new FileInputStream(fileToRead));
 	}
 
 	/**
@@ -156,10 +186,11 @@ public class DBLargeText extends DBLargeObject<byte[]> {
 				this.setToNull();
 				return bytes;
 			} else {
-				bytes = getBytesFromInputStream(inputStream);
+				bytes = readWithSpillToDisk(inputStream);
 			}
 		} catch (IOException ex) {
 			Logger.getLogger(DBLargeText.class.getName()).log(Level.SEVERE, null, ex);
+			throw new DBRuntimeException(ex);
 		}
 		return bytes;
 	}
@@ -174,9 +205,10 @@ public class DBLargeText extends DBLargeObject<byte[]> {
 			this.setToNull();
 		} else {
 			try (InputStream inputStream = blob.getBinaryStream()) {
-				bytes = getBytesFromInputStream(inputStream);
+				bytes = readWithSpillToDisk(inputStream);
 			} catch (IOException ex) {
 				Logger.getLogger(DBLargeText.class.getName()).log(Level.SEVERE, null, ex);
+				throw new DBRuntimeException(ex);
 			}
 		}
 		return bytes;
@@ -203,36 +235,6 @@ public class DBLargeText extends DBLargeObject<byte[]> {
 		}
 	}
 
-	private byte[] getBytesFromInputStream(InputStream inputStream) throws IOException {
-		byte[] bytes;
-		List<byte[]> byteArrays = new ArrayList<>();
-		try (InputStream input = new BufferedInputStream(inputStream)) {
-
-			try {
-				byte[] resultSetBytes;
-				final int byteArrayDefaultSize = 100000;
-				resultSetBytes = new byte[byteArrayDefaultSize];
-				int bytesRead = input.read(resultSetBytes);
-				while (bytesRead > 0) {
-					if (bytesRead == byteArrayDefaultSize) {
-						byteArrays.add(resultSetBytes);
-					} else {
-						byte[] shortBytes = new byte[bytesRead];
-						System.arraycopy(resultSetBytes, 0, shortBytes, 0, bytesRead);
-						byteArrays.add(shortBytes);
-					}
-					resultSetBytes = new byte[byteArrayDefaultSize];
-					bytesRead = input.read(resultSetBytes);
-				}
-			} catch (IOException ex) {
-				Logger.getLogger(DBLargeBinary.class.getName()).log(Level.SEVERE, null, ex);
-				throw new DBRuntimeException(ex);
-			}
-		}
-		bytes = concatAllByteArrays(byteArrays);
-		return bytes;
-	}
-
 	private byte[] getFromString(ResultSet resultSet, String fullColumnName) throws SQLException {
 		String gotString = resultSet.getString(fullColumnName);
 		if (gotString != null) {
@@ -297,38 +299,12 @@ public class DBLargeText extends DBLargeObject<byte[]> {
 		if (resultSet.wasNull() || clob == null) {
 			this.setToNull();
 		} else {
-			final Reader characterStream = clob.getCharacterStream();
-			BufferedReader input = new BufferedReader(characterStream);
-			List<byte[]> byteArrays = new ArrayList<>();
-			try {
-
-				char[] resultSetBytes;
-				final int byteArrayDefaultSize = 100000;
-				resultSetBytes = new char[byteArrayDefaultSize];
-				int bytesRead = input.read(resultSetBytes);
-				while (bytesRead > 0) {
-					if (bytesRead == byteArrayDefaultSize) {
-						byteArrays.add(String.valueOf(resultSetBytes).getBytes(UTF_8));
-					} else {
-						char[] shortBytes = new char[bytesRead];
-						System.arraycopy(resultSetBytes, 0, shortBytes, 0, bytesRead);
-						byteArrays.add(String.valueOf(shortBytes).getBytes(UTF_8));
-					}
-					resultSetBytes = new char[byteArrayDefaultSize];
-					bytesRead = input.read(resultSetBytes);
-				}
+			try (Reader characterStream = clob.getCharacterStream()) {
+				bytes = readWithSpillToDisk(characterStream);
 			} catch (IOException ex) {
-				Logger.getLogger(DBLargeBinary.class.getName()).log(Level.SEVERE, null, ex);
+				Logger.getLogger(DBLargeText.class.getName()).log(Level.SEVERE, null, ex);
 				throw new DBRuntimeException(ex);
-			} finally {
-				try {
-					input.close();
-				} catch (IOException ex) {
-					Logger.getLogger(DBLargeBinary.class.getName()).log(Level.SEVERE, null, ex);
-					throw new DBRuntimeException(ex);
-				}
 			}
-			bytes = concatAllByteArrays(byteArrays);
 		}
 		return bytes;
 	}
@@ -462,17 +438,15 @@ public class DBLargeText extends DBLargeObject<byte[]> {
 				}
 			}
 			if (originalFile.exists()) {
-				OutputStream output = null;
-				try {
-					output = new BufferedOutputStream(new FileOutputStream(originalFile));
-					output.write(getBytes());
-					output.flush();
-					output.close();
-					output = null;
-				} finally {
-					if (output != null) {
-						output.close();
+				try (InputStream input = getInputStream();
+						OutputStream output = new BufferedOutputStream(new FileOutputStream(originalFile))) {
+					byte[] buffer = new byte[64 * 1024];
+					int bytesRead = input.read(buffer);
+					while (bytesRead >= 0) {
+						output.write(buffer, 0, bytesRead);
+						bytesRead = input.read(buffer);
 					}
+					output.flush();
 				}
 			} else {
 				throw new FileNotFoundException("Unable Create File: the file \"" + originalFile.getAbsolutePath() + " could not be found or created.");
@@ -483,6 +457,9 @@ public class DBLargeText extends DBLargeObject<byte[]> {
 	/**
 	 * Returns the internal InputStream.
 	 *
+	 * <p>
+	 * Values that have been spilled to disk are read from the temporary file.
+	 *
 	 * <p style="color: #F90;">Support DBvolution at
 	 * <a href="http://patreon.com/dbvolution" target=new>Patreon</a></p>
 	 *
@@ -490,7 +467,17 @@ public class DBLargeText extends DBLargeObject<byte[]> {
 	 */
 	@Override
 	public InputStream getInputStream() {
-		return new BufferedInputStream(new ByteArrayInputStream(getBytes()));
+		final LargeObjectBuffer buffer = getLargeObjectBuffer();
+		if (buffer != null) {
+			try {
+				return buffer.getInputStream();
+			} catch (IOException ex) {
+				Logger.getLogger(DBLargeText.class.getName()).log(Level.SEVERE, null, ex);
+				throw new DBRuntimeException(ex);
+			}
+		}
+		final byte[] bytes = getBytes();
+		return new BufferedInputStream(new ByteArrayInputStream(bytes == null ? new byte[]{} : bytes));
 //		if (byteStream == null) {
 //			this.setValue(getBytes());
 //		}
@@ -500,12 +487,26 @@ public class DBLargeText extends DBLargeObject<byte[]> {
 	/**
 	 * Returns the byte[] used internally to store the value of this DBByteObject.
 	 *
+	 * <p>
+	 * Values that have been spilled to disk are read into memory, use
+	 * {@link #getInputStream() } or {@link #getReadableByteChannel() } to avoid
+	 * that.
+	 *
 	 * <p style="color: #F90;">Support DBvolution at
 	 * <a href="http://patreon.com/dbvolution" target=new>Patreon</a></p>
 	 *
 	 * @return the byte[] value of this DBByteObject.
 	 */
 	public byte[] getBytes() {
+		final LargeObjectBuffer buffer = getLargeObjectBuffer();
+		if (buffer != null) {
+			try {
+				return buffer.getBytes();
+			} catch (IOException ex) {
+				Logger.getLogger(DBLargeText.class.getName()).log(Level.SEVERE, null, ex);
+				throw new DBRuntimeException(ex);
+			}
+		}
 		return this.getLiteralValue();
 	}
 
@@ -526,6 +527,10 @@ public class DBLargeText extends DBLargeObject<byte[]> {
 
 	@Override
 	public int getSize() {
+		final LargeObjectBuffer buffer = getLargeObjectBuffer();
+		if (buffer != null) {
+			return (int) buffer.length();
+		}
 		final byte[] bytes = getBytes();
 		if (bytes != null) {
 			return bytes.length;
@@ -556,6 +561,7 @@ public class DBLargeText extends DBLargeObject<byte[]> {
 
 	@Override
 	protected byte[] getFromResultSet(DBDefinition defn, ResultSet resultSet, String fullColumnName) throws SQLException {
+		setLargeObjectBuffer(null);
 		byte[] bytes = new byte[]{};
 		LargeObjectHandlerType handler = defn.preferredLargeObjectReader(this);
 		switch (handler) {
@@ -625,10 +631,11 @@ public class DBLargeText extends DBLargeObject<byte[]> {
 	}
 
 	@Override
-	protected synchronized void setLiteralValue(byte[] newLiteralValue) {
+	protected void setLiteralValue(byte[] newLiteralValue) {
+		final byte[] literalValue = getLiteralValue();
 		if ((!hasBeenSet() && newLiteralValue != null)
-				|| (hasBeenSet() && getLiteralValue() != null && !(new String(getLiteralValue())).equals(new String(newLiteralValue)))
-				|| (hasBeenSet() && getLiteralValue() == null && newLiteralValue != null && newLiteralValue.length > 0)) {
+				|| (hasBeenSet() && literalValue != null && !(new String(literalValue)).equals(new String(newLiteralValue)))
+				|| (hasBeenSet() && literalValue == null && newLiteralValue != null && newLiteralValue.length > 0)) {
 			super.setLiteralValue(newLiteralValue);
 		}
 	}
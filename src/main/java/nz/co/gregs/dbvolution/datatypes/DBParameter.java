@@ -0,0 +1,368 @@
+/*
+ * Copyright 2019 Gregory Graham.
+ *
+ * Commercial licenses are available, please contact info@gregs.co.nz for details.
+ * 
+ * This work is licensed under the Creative Commons Attribution-NonCommercial-ShareAlike 4.0 International License. 
+ * To view a copy of this license, visit http://creativecommons.org/licenses/by-nc-sa/4.0/ 
+ * or send a letter to Creative Commons, PO Box 1866, Mountain View, CA 94042, USA.
+ * 
+ * You are free to:
+ *     Share - copy and redistribute the material in any medium or format
+ *     Adapt - remix, transform, and build upon the material
+ * 
+ *     The licensor cannot revoke these freedoms as long as you follow the license terms.               
+ *     Under the following terms:
+ *                 
+ *         Attribution - 
+ *             You must give appropriate credit, provide a link to the license, and indicate if changes were made. 
+ *             You may do so in any reasonable manner, but not in any way that suggests the licensor endorses you or your use.
+ *         NonCommercial - 
+ *             You may not use the material for commercial purposes.
+ *         ShareAlike - 
+ *             If you remix, transform, or build upon the material, 
+ *             you must distribute your contributions under the same license as the original.
+ *         No additional restrictions - 
+ *             You may not apply legal terms or technological measures that legally restrict others from doing anything the 
+ *             license permits.
+ * 
+ * Check the Creative Commons website for any details, legalese, and updates.
+ */
+package nz.co.gregs.dbvolution.datatypes;
+
+import java.sql.Types;
+import java.util.Date;
+import nz.co.gregs.dbvolution.PreparedDBQuery;
+import nz.co.gregs.dbvolution.databases.definitions.DBDefinition;
+
+/**
+ * Named parameters for use in the conditions of a {@link PreparedDBQuery}.
+ *
+ * <p>
+ * Each parameter is a normal datatype, so it can be used anywhere a value of
+ * that type can be used in an expression:
+ *
+ * <pre>
+ * DBQuery query = database.getDBQuery(marque);
+ * query.addCondition(marque.column(marque.name).is(DBParameter.stringParameter("name")));
+ * PreparedDBQuery prepared = query.prepare();
+ * List&lt;DBQueryRow&gt; rows = prepared.bind("name", "TOYOTA").getAllRows();
+ * </pre>
+ *
+ * <p>
+ * Parameters are replaced by bind variables when the query is prepared and
+ * the value is supplied each time the prepared query is run. Parameter names
+ * start with a letter and contain letters, digits, and single underscores.
+ *
+ * <p style="color: #F90;">Support DBvolution at
+ * <a href="http://patreon.com/dbvolution" target=new>Patreon</a></p>
+ *
+ * @author Gregory Graham
+ */
+public class DBParameter {
+
+	private DBParameter() {
+	}
+
+	/**
+	 * Creates a string parameter with the name supplied.
+	 *
+	 * @param name the name used to bind the parameter
+	 * <p style="color: #F90;">Support DBvolution at
+	 * <a href="http://patreon.com/dbvolution" target=new>Patreon</a></p>
+	 * @return a DBString that will be bound to the named value
+	 */
+	public static StringParameter stringParameter(String name) {
+		return new StringParameter(name);
+	}
+
+	/**
+	 * Creates an integer parameter with the name supplied.
+	 *
+	 * @param name the name used to bind the parameter
+	 * <p style="color: #F90;">Support DBvolution at
+	 * <a href="http://patreon.com/dbvolution" target=new>Patreon</a></p>
+	 * @return a DBInteger that will be bound to the named value
+	 */
+	public static IntegerParameter integerParameter(String name) {
+		return new IntegerParameter(name);
+	}
+
+	/**
+	 * Creates a number parameter with the name supplied.
+	 *
+	 * @param name the name used to bind the parameter
+	 * <p style="color: #F90;">Support DBvolution at
+	 * <a href="http://patreon.com/dbvolution" target=new>Patreon</a></p>
+	 * @return a DBNumber that will be bound to the named value
+	 */
+	public static NumberParameter numberParameter(String name) {
+		return new NumberParameter(name);
+	}
+
+	/**
+	 * Creates a date parameter with the name supplied.
+	 *
+	 * @param name the name used to bind the parameter
+	 * <p style="color: #F90;">Support DBvolution at
+	 * <a href="http://patreon.com/dbvolution" target=new>Patreon</a></p>
+	 * @return a DBDate that will be bound to the named value
+	 */
+	public static DateParameter dateParameter(String name) {
+		return new DateParameter(name);
+	}
+
+	/**
+	 * Creates a boolean parameter with the name supplied.
+	 *
+	 * @param name the name used to bind the parameter
+	 * <p style="color: #F90;">Support DBvolution at
+	 * <a href="http://patreon.com/dbvolution" target=new>Patreon</a></p>
+	 * @return a DBBoolean that will be bound to the named value
+	 */
+	public static BooleanParameter booleanParameter(String name) {
+		return new BooleanParameter(name);
+	}
+
+	/**
+	 * Implemented by all parameters.
+	 */
+	public static interface Parameter {
+
+		/**
+		 * The name used to bind a value to this parameter.
+		 *
+		 * <p style="color: #F90;">Support DBvolution at
+		 * <a href="http://patreon.com/dbvolution" target=new>Patreon</a></p>
+		 *
+		 * @return the parameter name
+		 */
+		public String getParameterName();
+
+		/**
+		 * The {@link Types java.sql.Types} value used to bind a NULL to this
+		 * parameter.
+		 *
+		 * <p style="color: #F90;">Support DBvolution at
+		 * <a href="http://patreon.com/dbvolution" target=new>Patreon</a></p>
+		 *
+		 * @return the SQL type of the parameter
+		 */
+		public int getSQLType();
+	}
+
+	/**
+	 * A string parameter.
+	 */
+	public static class StringParameter extends DBString implements Parameter {
+
+		private static final long serialVersionUID = 1L;
+		private String parameterName;
+
+		/**
+		 * Required for copying, use {@link DBParameter#stringParameter(java.lang.String)
+		 * } instead.
+		 */
+		public StringParameter() {
+		}
+
+		StringParameter(String name) {
+			super(name);
+			parameterName = PreparedDBQuery.checkParameterName(name);
+		}
+
+		@Override
+		public String getParameterName() {
+			return parameterName;
+		}
+
+		@Override
+		public int getSQLType() {
+			return Types.VARCHAR;
+		}
+
+		@Override
+		public String formatValueForSQLStatement(DBDefinition defn) {
+			return PreparedDBQuery.formatParameter(defn, this);
+		}
+
+		@Override
+		public StringParameter copy() {
+			StringParameter copy = (StringParameter) super.copy();
+			copy.parameterName = parameterName;
+			return copy;
+		}
+	}
+
+	/**
+	 * An integer parameter.
+	 */
+	public static class IntegerParameter extends DBInteger implements Parameter {
+
+		private static final long serialVersionUID = 1L;
+		private String parameterName;
+
+		/**
+		 * Required for copying, use {@link DBParameter#integerParameter(java.lang.String)
+		 * } instead.
+		 */
+		public IntegerParameter() {
+		}
+
+		IntegerParameter(String name) {
+			super(0L);
+			parameterName = PreparedDBQuery.checkParameterName(name);
+		}
+
+		@Override
+		public String getParameterName() {
+			return parameterName;
+		}
+
+		@Override
+		public int getSQLType() {
+			return Types.BIGINT;
+		}
+
+		@Override
+		public String formatValueForSQLStatement(DBDefinition defn) {
+			return PreparedDBQuery.formatParameter(defn, this);
+		}
+
+		@Override
+		public IntegerParameter copy() {
+			IntegerParameter copy = (IntegerParameter) super.copy();
+			copy.parameterName = parameterName;
+			return copy;
+		}
+	}
+
+	/**
+	 * A number parameter.
+	 */
+	public static class NumberParameter extends DBNumber implements Parameter {
+
+		private static final long serialVersionUID = 1L;
+		private String parameterName;
+
+		/**
+		 * Required for copying, use {@link DBParameter#numberParameter(java.lang.String)
+		 * } instead.
+		 */
+		public NumberParameter() {
+		}
+
+		NumberParameter(String name) {
+			super(0.0);
+			parameterName = PreparedDBQuery.checkParameterName(name);
+		}
+
+		@Override
+		public String getParameterName() {
+			return parameterName;
+		}
+
+		@Override
+		public int getSQLType() {
+			return Types.DOUBLE;
+		}
+
+		@Override
+		public String formatValueForSQLStatement(DBDefinition defn) {
+			return PreparedDBQuery.formatParameter(defn, this);
+		}
+
+		@Override
+		public NumberParameter copy() {
+			NumberParameter copy = (NumberParameter) super.copy();
+			copy.parameterName = parameterName;
+			return copy;
+		}
+	}
+
+	/**
+	 * A date parameter.
+	 */
+	public static class DateParameter extends DBDate implements Parameter {
+
+		private static final long serialVersionUID = 1L;
+		private String parameterName;
+
+		/**
+		 * Required for copying, use {@link DBParameter#dateParameter(java.lang.String)
+		 * } instead.
+		 */
+		public DateParameter() {
+		}
+
+		DateParameter(String name) {
+			super(new Date(0));
+			parameterName = PreparedDBQuery.checkParameterName(name);
+		}
+
+		@Override
+		public String getParameterName() {
+			return parameterName;
+		}
+
+		@Override
+		public int getSQLType() {
+			return Types.TIMESTAMP;
+		}
+
+		@Override
+		public String formatValueForSQLStatement(DBDefinition defn) {
+			return PreparedDBQuery.formatParameter(defn, this);
+		}
+
+		@Override
+		public DateParameter copy() {
+			DateParameter copy = (DateParameter) super.copy();
+			copy.parameterName = parameterName;
+			return copy;
+		}
+	}
+
+	/**
+	 * A boolean parameter.
+	 */
+	public static class BooleanParameter extends DBBoolean implements Parameter {
+
+		private static final long serialVersionUID = 1L;
+		private String parameterName;
+
+		/**
+		 * Required for copying, use {@link DBParameter#booleanParameter(java.lang.String)
+		 * } instead.
+		 */
+		public BooleanParameter() {
+		}
+
+		BooleanParameter(String name) {
+			super(Boolean.TRUE);
+			parameterName = PreparedDBQuery.checkParameterName(name);
+		}
+
+		@Override
+		public String getParameterName() {
+			return parameterName;
+		}
+
+		@Override
+		public int getSQLType() {
+			return Types.BOOLEAN;
+		}
+
+		@Override
+		public String formatValueForSQLStatement(DBDefinition defn) {
+			return PreparedDBQuery.formatParameter(defn, this);
+		}
+
+		@Override
+		public BooleanParameter copy() {
+			BooleanParameter copy = (BooleanParameter) super.copy();
+			copy.parameterName = parameterName;
+			return copy;
+		}
+	}
+}
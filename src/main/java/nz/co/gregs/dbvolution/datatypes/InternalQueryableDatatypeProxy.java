@@ -6,6 +6,7 @@ import java.util.logging.Level;
 import java.util.logging.Logger;
 import nz.co.gregs.dbvolution.exceptions.DBRuntimeException;
 import nz.co.gregs.dbvolution.internal.properties.PropertyWrapperDefinition;
+import nz.co.gregs.dbvolution.internal.query.LazyColumnLoader;
 
 /**
  * Internal class. Do not use.
@@ -47,6 +48,29 @@ public class InternalQueryableDatatypeProxy {
 		qdt.setPropertyWrapper(propertyWrapperDefn);
 	}
 
+	/**
+	 * Internal class, do not use.
+	 * <p>
+	 * Sets, or removes, the loader that retrieves the value of a lazy column
+	 * when it is first used.
+	 *
+	 * @param loader	loader
+	 */
+	public void setLazyColumnLoader(LazyColumnLoader loader) {
+		qdt.setLazyColumnLoader(loader);
+	}
+
+	/**
+	 * Internal class, do not use.
+	 * <p>
+	 * Indicates whether the QDT is a lazy column that has not been loaded yet.
+	 *
+	 * @return TRUE if the value will be loaded when first used
+	 */
+	public boolean hasLazyValue() {
+		return qdt.hasLazyValue();
+	}
+
 	/**
 	 * Internal class, do not use.
 	 * <p>
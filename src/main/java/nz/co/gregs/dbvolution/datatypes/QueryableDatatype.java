@@ -40,6 +40,7 @@ import nz.co.gregs.dbvolution.results.LargeObjectResult;
 import nz.co.gregs.dbvolution.results.NumberResult;
 import nz.co.gregs.dbvolution.results.StringResult;
 import nz.co.gregs.dbvolution.internal.properties.PropertyWrapperDefinition;
+import nz.co.gregs.dbvolution.internal.query.LazyColumnLoader;
 import nz.co.gregs.dbvolution.operators.DBEqualsOperator;
 import nz.co.gregs.dbvolution.operators.DBIsNullOperator;
 import nz.co.gregs.dbvolution.operators.DBOperator;
@@ -95,6 +96,8 @@ public abstract class QueryableDatatype<T> extends Object implements Serializabl
 	private AnyResult<T> defaultInsertExpression;
 	private AnyResult<T> defaultUpdateExpression;
 	private T defaultUpdateValue;
+	private transient volatile LazyColumnLoader lazyColumnLoader = null;
+	private transient volatile QueryableDatatype<T> lazySource = null;
 
 	/**
 	 * Default Constructor
@@ -246,6 +249,10 @@ public abstract class QueryableDatatype<T> extends Object implements Serializabl
 	 *
 	 * Always use the super.copy() method first when overriding this method.
 	 *
+	 * <p>
+	 * Copying a lazy column that has not been loaded yet does not load it, the
+	 * copy will load the value when it is first used.
+	 *
 	 * <p style="color: #F90;">Support DBvolution at
 	 * <a href="http://patreon.com/dbvolution" target=new>Patreon</a></p>
 	 *
@@ -253,13 +260,17 @@ public abstract class QueryableDatatype<T> extends Object implements Serializabl
 	 */
 	@Override
 	@SuppressWarnings("unchecked")
-	public synchronized QueryableDatatype<T> copy() {
-		QueryableDatatype<T> newQDT = this;
+	public QueryableDatatype<T> copy() {
+		QueryableDatatype<T> newQDT;
 		try {
-			synchronized (newQDT) {
-				newQDT = this.getClass().newInstance();
-
-				newQDT.literalValue = this.getLiteralValue();
+			newQDT = this.getClass().newInstance();
+			synchronized (this) {
+				final LazyColumnLoader loader = this.lazyColumnLoader;
+				if (loader != null) {
+					newQDT.lazyColumnLoader = loader;
+					newQDT.lazySource = this.lazySource == null ? this : this.lazySource;
+				}
+				newQDT.literalValue = this.literalValue;
 				newQDT.isDBNull = this.isDBNull;
 				newQDT.operator = this.operator;
 				newQDT.undefined = this.undefined;
@@ -371,6 +382,7 @@ public abstract class QueryableDatatype<T> extends Object implements Serializabl
 	 * @return the literal value, if defined, which may be null
 	 */
 	public T getValue() {
+		loadLazyValue();
 		if (undefined || isNull()) {
 			return null;
 		} else {
@@ -401,6 +413,7 @@ public abstract class QueryableDatatype<T> extends Object implements Serializabl
 	 * @return the literal value, if defined, which may be null
 	 */
 	public T getValue(T defaultValue) {
+		loadLazyValue();
 		if (undefined || isNull()) {
 			return defaultValue;
 		} else {
@@ -516,12 +529,15 @@ public abstract class QueryableDatatype<T> extends Object implements Serializabl
 	 *
 	 * @param newLiteralValue the literalValue to set
 	 */
-	protected synchronized void setLiteralValue(T newLiteralValue) {
-		if ((!hasBeenSet() && newLiteralValue != null)
-				|| (hasBeenSet() && newLiteralValue != null && !newLiteralValue.equals(getLiteralValue()))
-				|| (hasBeenSet() && newLiteralValue == null && getLiteralValue() != null)) {
-			setLiteralValueInternal(newLiteralValue);
-			this.setHasBeenSet(true);
+	protected void setLiteralValue(T newLiteralValue) {
+		loadLazyValue();
+		synchronized (this) {
+			if ((!hasBeenSet() && newLiteralValue != null)
+					|| (hasBeenSet() && newLiteralValue != null && !newLiteralValue.equals(literalValue))
+					|| (hasBeenSet() && newLiteralValue == null && literalValue != null)) {
+				setLiteralValueInternal(newLiteralValue);
+				this.setHasBeenSet(true);
+			}
 		}
 	}
 
@@ -569,11 +585,14 @@ public abstract class QueryableDatatype<T> extends Object implements Serializabl
 	 *
 	 * @return the DBOperator that will be used with this QDT
 	 */
-	protected synchronized DBOperator setToNull() {
-		this.literalValue = null;
-		this.isDBNull = true;
-		this.setOperator(new DBIsNullOperator());
-		return getOperator();
+	protected DBOperator setToNull() {
+		loadLazyValue();
+		synchronized (this) {
+			this.literalValue = null;
+			this.isDBNull = true;
+			this.setOperator(new DBIsNullOperator());
+			return getOperator();
+		}
 	}
 
 	/**
@@ -721,6 +740,8 @@ public abstract class QueryableDatatype<T> extends Object implements Serializabl
 	 * @throws java.sql.SQLException Database exceptions may be thrown
 	 */
 	public void setFromResultSet(DBDefinition defn, ResultSet resultSet, String resultSetColumnName) throws SQLException {
+		lazySource = null;
+		lazyColumnLoader = null;
 		removeConstraints();
 		if (resultSet == null || resultSetColumnName == null) {
 			this.setToNull(defn);
@@ -770,7 +791,7 @@ public abstract class QueryableDatatype<T> extends Object implements Serializabl
 			if (this.isDBNull) {
 				copyOfOldValues.setToNull();
 			} else {
-				copyOfOldValues.setLiteralValue(this.getLiteralValue());
+				copyOfOldValues.setLiteralValue(this.literalValue);
 			}
 			setPreviousValue(copyOfOldValues);
 		}
@@ -798,6 +819,7 @@ public abstract class QueryableDatatype<T> extends Object implements Serializabl
 	 * FALSE
 	 */
 	public boolean isNull() {
+		loadLazyValue();
 		return isDBNull || getLiteralValue() == null;
 	}
 
@@ -966,6 +988,7 @@ public abstract class QueryableDatatype<T> extends Object implements Serializabl
 	 * @return true if the value was retrieved from the database
 	 */
 	public boolean isDefined() {
+		loadLazyValue();
 		return !undefined;
 	}
 
@@ -999,6 +1022,90 @@ public abstract class QueryableDatatype<T> extends Object implements Serializabl
 		this.propertyWrapperDefn = propertyWrapper;
 	}
 
+	/**
+	 * Sets the loader that will retrieve the value of this QDT when it is first
+	 * used, or removes it when the value has been loaded.
+	 *
+	 * <p>
+	 * Can't be called directly, must be called via
+	 * {@link InternalQueryableDatatypeProxy}.
+	 *
+	 * @param loader the loader for this lazy column, or NULL
+	 */
+	void setLazyColumnLoader(LazyColumnLoader loader) {
+		this.lazyColumnLoader = loader;
+		this.lazySource = null;
+	}
+
+	/**
+	 * Indicates whether this QDT is a lazy column that has not been loaded yet.
+	 *
+	 * @return TRUE if the value will be loaded when first used, otherwise FALSE
+	 */
+	boolean hasLazyValue() {
+		return lazyColumnLoader != null;
+	}
+
+	/**
+	 * Retrieves the value of this QDT from the database if it is a lazy column
+	 * that has not been loaded yet.
+	 *
+	 * <p>
+	 * Subclasses that hold their value outside of the literal value should call
+	 * this before using it.
+	 *
+	 * <p>
+	 * The loader sets the values of many QDTs so this method must never be
+	 * called while holding the lock on a QDT.
+	 */
+	protected final void loadLazyValue() {
+		final LazyColumnLoader loader = lazyColumnLoader;
+		if (loader != null) {
+			loader.load();
+			final QueryableDatatype<T> source = lazySource;
+			if (source != null && lazyColumnLoader == loader) {
+				copyLoadedValueFrom(source);
+			}
+		}
+	}
+
+	/**
+	 * Copies the value loaded into the original lazy column into this copy of
+	 * it.
+	 *
+	 * <p>
+	 * Subclasses that hold their value outside of the literal value should
+	 * extend this method to copy it as well.
+	 *
+	 * @param source the QDT that the lazy column loader set the value of
+	 */
+	protected void copyLoadedValueFrom(QueryableDatatype<T> source) {
+		final T sourceLiteralValue;
+		final boolean sourceIsDBNull;
+		final boolean sourceUndefined;
+		final DBOperator sourceOperator;
+		final boolean sourceChanged;
+		final boolean sourceHasBeenSet;
+		synchronized (source) {
+			sourceLiteralValue = source.literalValue;
+			sourceIsDBNull = source.isDBNull;
+			sourceUndefined = source.undefined;
+			sourceOperator = source.operator;
+			sourceChanged = source.changed;
+			sourceHasBeenSet = source.setValueHasBeenCalled;
+		}
+		synchronized (this) {
+			this.literalValue = sourceLiteralValue;
+			this.isDBNull = sourceIsDBNull;
+			this.undefined = sourceUndefined;
+			this.operator = sourceOperator;
+			this.changed = sourceChanged;
+			this.setValueHasBeenCalled = sourceHasBeenSet;
+			this.lazySource = null;
+			this.lazyColumnLoader = null;
+		}
+	}
+
 	@Override
 	@SuppressWarnings("unchecked")
 	public QueryableDatatype<T> getQueryableDatatypeForExpressionValue() {
@@ -1082,8 +1189,11 @@ public abstract class QueryableDatatype<T> extends Object implements Serializabl
 	 *
 	 * @return the literalValue
 	 */
-	protected synchronized T getLiteralValue() {
-		return literalValue;
+	protected T getLiteralValue() {
+		loadLazyValue();
+		synchronized (this) {
+			return literalValue;
+		}
 	}
 
 	/**
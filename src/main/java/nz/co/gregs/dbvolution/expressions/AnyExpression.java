@@ -59,6 +59,28 @@ public abstract class AnyExpression<B extends Object, R extends AnyResult<B>, D
 
 	private final static long serialVersionUID = 1l;
 
+	/**
+	 * TRUE for classes that produce their SQL with
+	 * {@link #appendSQLString(nz.co.gregs.dbvolution.databases.definitions.DBDefinition, java.lang.StringBuilder) appendSQLString}.
+	 *
+	 * <p>
+	 * Subclasses that only override toSQLString must be rendered using
+	 * toSQLString, so the class declaring appendSQLString needs to be the same
+	 * as, or a subclass of, the class declaring toSQLString.
+	 */
+	private static final ClassValue<Boolean> RENDERS_BY_APPENDING = new ClassValue<Boolean>() {
+		@Override
+		protected Boolean computeValue(Class<?> type) {
+			try {
+				final Class<?> toSQLStringClass = type.getMethod("toSQLString", DBDefinition.class).getDeclaringClass();
+				final Class<?> appendClass = type.getMethod("appendSQLString", DBDefinition.class, StringBuilder.class).getDeclaringClass();
+				return toSQLStringClass.isAssignableFrom(appendClass);
+			} catch (NoSuchMethodException | SecurityException ex) {
+				return false;
+			}
+		}
+	};
+
 	private final AnyResult<?> innerResult;
 	private final boolean nullProtectionRequired;
 
@@ -114,7 +136,55 @@ public abstract class AnyExpression<B extends Object, R extends AnyResult<B>, D
 
 	@Override
 	public String toSQLString(DBDefinition db) {
-		return (getInnerResult() == null) ? db.getNull() : getInnerResult().toSQLString(db);
+		StringBuilder sql = new StringBuilder();
+		appendSQLString(db, sql);
+		return sql.toString();
+	}
+
+	/**
+	 * Adds the SQL for this expression to the end of the StringBuilder.
+	 *
+	 * <p>
+	 * The whole expression tree is rendered into the same StringBuilder so deep
+	 * expressions don't create and copy a new String for every level of the
+	 * tree.
+	 *
+	 * <p>
+	 * If you are extending DBvolution and adding a new function, override this
+	 * method instead of {@link #toSQLString(nz.co.gregs.dbvolution.databases.definitions.DBDefinition)
+	 * } and use
+	 * {@link #appendSQLStringOf(nz.co.gregs.dbvolution.expressions.HasSQLString, nz.co.gregs.dbvolution.databases.definitions.DBDefinition, java.lang.StringBuilder) appendSQLStringOf}
+	 * to add the SQL of any sub-expressions.
+	 *
+	 * @param db the target database
+	 * @param sql the StringBuilder the SQL is added to
+	 */
+	public void appendSQLString(DBDefinition db, StringBuilder sql) {
+		final AnyResult<?> inner = getInnerResult();
+		if (inner == null) {
+			sql.append(db.getNull());
+		} else {
+			appendSQLStringOf(inner, db, sql);
+		}
+	}
+
+	/**
+	 * Adds the SQL for the expression to the end of the StringBuilder.
+	 *
+	 * <p>
+	 * Expressions that support appending are added directly, everything else is
+	 * added using toSQLString.
+	 *
+	 * @param expression the expression to add
+	 * @param db the target database
+	 * @param sql the StringBuilder the SQL is added to
+	 */
+	public static void appendSQLStringOf(HasSQLString expression, DBDefinition db, StringBuilder sql) {
+		if (expression instanceof AnyExpression && RENDERS_BY_APPENDING.get(expression.getClass())) {
+			((AnyExpression<?, ?, ?>) expression).appendSQLString(db, sql);
+		} else {
+			sql.append(expression.toSQLString(db));
+		}
 	}
 
 	/**
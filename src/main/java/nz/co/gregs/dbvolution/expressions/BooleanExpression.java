@@ -1383,10 +1383,9 @@ public class BooleanExpression extends EqualExpression<Boolean, BooleanResult, D
 		}
 
 		@Override
-		public String toSQLString(DBDefinition db) {
-			String op = this.getEquationOperator(db);
-			String returnStr = onlyBool.toSQLString(db) + " " + op;
-			return returnStr;
+		public void appendSQLString(DBDefinition db, StringBuilder sql) {
+			appendSQLStringOf(onlyBool, db, sql);
+			sql.append(" ").append(this.getEquationOperator(db));
 		}
 
 		@Override
@@ -1427,15 +1426,16 @@ public class BooleanExpression extends EqualExpression<Boolean, BooleanResult, D
 		}
 
 		@Override
-		public String toSQLString(DBDefinition db) {
-			StringBuilder returnStr = new StringBuilder();
+		public void appendSQLString(DBDefinition db, StringBuilder sql) {
 			String separator = "";
 			String op = this.getEquationOperator(db);
+			sql.append("(");
 			for (BooleanResult boo : bools) {
-				returnStr.append(separator).append(boo.toSQLString(db));
+				sql.append(separator);
+				appendSQLStringOf(boo, db, sql);
 				separator = op;
 			}
-			return "(" + returnStr + ")";
+			sql.append(")");
 		}
 
 		@Override
@@ -1489,29 +1489,32 @@ public class BooleanExpression extends EqualExpression<Boolean, BooleanResult, D
 		}
 
 		@Override
-		public String toSQLString(DBDefinition db) {
+		public void appendSQLString(DBDefinition db, StringBuilder sql) {
 			if (db.supportsComparingBooleanResults()) {
-				return simpleToSQLString(db);
+				appendSimpleSQLString(db, sql);
 			} else {
 				BooleanExpression firstParameter = this.getFirst();
 				BooleanExpression secondParameter = this.getSecond();
-				String returnString
-						= firstParameter.getComparableBooleanSQL(db)
-						+ getEquationOperator(db)
-						+ secondParameter.getComparableBooleanSQL(db);
-				return returnString;
+				sql.append(firstParameter.getComparableBooleanSQL(db))
+						.append(getEquationOperator(db))
+						.append(secondParameter.getComparableBooleanSQL(db));
 			}
 		}
 
-		private String simpleToSQLString(DBDefinition db) {
-			String sqlString = getFirst().toSQLString(db) + this.getEquationOperator(db) + getSecond().toSQLString(db);
-			if (getFirst().getIncludesNull()) {
-				sqlString = getSecond().toSQLString(db) + " IS " + db.getNull() + db.beginOrLine() + sqlString;
-			}
+		private void appendSimpleSQLString(DBDefinition db, StringBuilder sql) {
+			sql.append("(");
 			if (getSecond().getIncludesNull()) {
-				sqlString = getFirst().toSQLString(db) + " IS " + db.getNull() + db.beginOrLine() + sqlString;
+				appendSQLStringOf(getFirst(), db, sql);
+				sql.append(" IS ").append(db.getNull()).append(db.beginOrLine());
+			}
+			if (getFirst().getIncludesNull()) {
+				appendSQLStringOf(getSecond(), db, sql);
+				sql.append(" IS ").append(db.getNull()).append(db.beginOrLine());
 			}
-			return "(" + sqlString + ")";
+			appendSQLStringOf(getFirst(), db, sql);
+			sql.append(this.getEquationOperator(db));
+			appendSQLStringOf(getSecond(), db, sql);
+			sql.append(")");
 		}
 
 		protected abstract String getEquationOperator(DBDefinition db);
@@ -2001,6 +2004,15 @@ public class BooleanExpression extends EqualExpression<Boolean, BooleanResult, D
 			return new AllOfExpression(newValues);
 		}
 
+		/**
+		 * The expressions that are combined by this expression.
+		 *
+		 * @return the combined expressions
+		 */
+		BooleanResult[] getBooleanResults() {
+			return bools;
+		}
+
 	}
 
 	protected static class AnyOfExpression extends DBNnaryBooleanArithmetic {
@@ -2023,6 +2035,15 @@ public class BooleanExpression extends EqualExpression<Boolean, BooleanResult, D
 			}
 			return new AnyOfExpression(newValues);
 		}
+
+		/**
+		 * The expressions that are combined by this expression.
+		 *
+		 * @return the combined expressions
+		 */
+		BooleanResult[] getBooleanResults() {
+			return bools;
+		}
 	}
 
 	protected class NegateExpression extends BooleanExpression {
@@ -2244,7 +2265,7 @@ public class BooleanExpression extends EqualExpression<Boolean, BooleanResult, D
 		}
 	}
 
-	private static class FalseExpression extends BooleanExpression {
+	protected static class FalseExpression extends BooleanExpression {
 
 		public FalseExpression() {
 		}
@@ -2266,7 +2287,7 @@ public class BooleanExpression extends EqualExpression<Boolean, BooleanResult, D
 		}
 	}
 
-	private static class TrueExpression extends BooleanExpression {
+	protected static class TrueExpression extends BooleanExpression {
 
 		public TrueExpression() {
 		}
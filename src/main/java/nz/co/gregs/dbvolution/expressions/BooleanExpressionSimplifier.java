@@ -0,0 +1,342 @@
+/*
+ * Copyright 2019 Gregory Graham.
+ *
+ * Commercial licenses are available, please contact info@gregs.co.nz for details.
+ * 
+ * This work is licensed under the Creative Commons Attribution-NonCommercial-ShareAlike 4.0 International License. 
+ * To view a copy of this license, visit http://creativecommons.org/licenses/by-nc-sa/4.0/ 
+ * or send a letter to Creative Commons, PO Box 1866, Mountain View, CA 94042, USA.
+ * 
+ * You are free to:
+ *     Share - copy and redistribute the material in any medium or format
+ *     Adapt - remix, transform, and build upon the material
+ * 
+ *     The licensor cannot revoke these freedoms as long as you follow the license terms.               
+ *     Under the following terms:
+ *                 
+ *         Attribution - 
+ *             You must give appropriate credit, provide a link to the license, and indicate if changes were made. 
+ *             You may do so in any reasonable manner, but not in any way that suggests the licensor endorses you or your use.
+ *         NonCommercial - 
+ *             You may not use the material for commercial purposes.
+ *         ShareAlike - 
+ *             If you remix, transform, or build upon the material, 
+ *             you must distribute your contributions under the same license as the original.
+ *         No additional restrictions - 
+ *             You may not apply legal terms or technological measures that legally restrict others from doing anything the 
+ *             license permits.
+ * 
+ * Check the Creative Commons website for any details, legalese, and updates.
+ */
+package nz.co.gregs.dbvolution.expressions;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import nz.co.gregs.dbvolution.databases.definitions.DBDefinition;
+import nz.co.gregs.dbvolution.datatypes.DBParameter;
+import nz.co.gregs.dbvolution.datatypes.QueryableDatatype;
+import nz.co.gregs.dbvolution.results.AnyResult;
+import nz.co.gregs.dbvolution.results.BooleanResult;
+
+/**
+ * Rewrites the conditions of a query into simpler, equivalent conditions
+ * before the SQL is generated.
+ *
+ * <p>
+ * The simplifier:
+ * <ul>
+ * <li>folds constants, so TRUE AND X becomes X, FALSE AND X becomes FALSE,
+ * TRUE OR X becomes TRUE, NOT TRUE becomes FALSE, and comparisons of
+ * identical literals become TRUE,</li>
+ * <li>removes double negation,</li>
+ * <li>flattens nested ANDs and ORs, and removes single element ANDs and
+ * ORs,</li>
+ * <li>removes duplicated conditions, and</li>
+ * <li>combines ORed equality comparisons of the same integer or number
+ * expression into one IN comparison.</li>
+ * </ul>
+ *
+ * <p>
+ * Conditions are compared by their structure, so two conditions are the same
+ * if they are built from the same expressions on the same columns and the same
+ * literal values. Parameters only match themselves. Aggregators, windowing
+ * functions, and relationships are never rewritten.
+ *
+ * <p>
+ * Simplification is enabled by default and can be turned off for a query using
+ * {@link nz.co.gregs.dbvolution.DBQuery#setSimplifyConditions(boolean)}.
+ *
+ * <p style="color: #F90;">Support DBvolution at
+ * <a href="http://patreon.com/dbvolution" target=new>Patreon</a></p>
+ *
+ * @author Gregory Graham
+ */
+public class BooleanExpressionSimplifier {
+
+	private final DBDefinition definition;
+
+	/**
+	 * Creates a simplifier for conditions that will be rendered for the
+	 * database.
+	 *
+	 * @param definition the database the SQL will be generated for
+	 */
+	public BooleanExpressionSimplifier(DBDefinition definition) {
+		this.definition = definition;
+	}
+
+	/**
+	 * Simplifies the conditions of a query.
+	 *
+	 * <p>
+	 * Each condition is simplified, duplicated conditions are removed, and
+	 * conditions that cannot change the result of the query are dropped.
+	 *
+	 * <p>
+	 * If every condition is dropped, a single TRUE or FALSE condition is
+	 * returned instead so the query still has the same result: TRUE when the
+	 * conditions are connected with AND, FALSE when they are connected with OR.
+	 *
+	 * @param conditions the conditions to simplify
+	 * @param matchAll TRUE if the conditions are connected with AND, FALSE if
+	 * they are connected with OR
+	 * <p style="color: #F90;">Support DBvolution at
+	 * <a href="http://patreon.com/dbvolution" target=new>Patreon</a></p>
+	 * @return the simplified conditions
+	 */
+	public List<BooleanExpression> simplifyConditions(List<BooleanExpression> conditions, boolean matchAll) {
+		List<BooleanExpression> simplified = new ArrayList<>(conditions.size());
+		Set<StructuralKey> conditionsFound = new HashSet<>();
+		for (BooleanExpression condition : conditions) {
+			BooleanExpression simple = simplify(condition);
+			if ((matchAll && isTrue(simple)) || (!matchAll && isFalse(simple))) {
+				continue;
+			}
+			if (conditionsFound.add(new StructuralKey(simple))) {
+				simplified.add(simple);
+			}
+		}
+		if (simplified.isEmpty() && !conditions.isEmpty()) {
+			simplified.add(matchAll ? BooleanExpression.trueExpression() : BooleanExpression.falseExpression());
+		}
+		return simplified;
+	}
+
+	/**
+	 * Removes any of the new conditions that are already included in the
+	 * existing conditions, or are repeated within the new conditions.
+	 *
+	 * @param existingConditions the conditions already in use
+	 * @param newConditions the conditions to check
+	 * <p style="color: #F90;">Support DBvolution at
+	 * <a href="http://patreon.com/dbvolution" target=new>Patreon</a></p>
+	 * @return the new conditions that are not duplicates
+	 */
+	public List<BooleanExpression> removeDuplicates(List<BooleanExpression> existingConditions, List<BooleanExpression> newConditions) {
+		Set<StructuralKey> conditionsFound = new HashSet<>();
+		for (BooleanExpression condition : existingConditions) {
+			conditionsFound.add(new StructuralKey(condition));
+		}
+		List<BooleanExpression> result = new ArrayList<>(newConditions.size());
+		for (BooleanExpression condition : newConditions) {
+			if (conditionsFound.add(new StructuralKey(condition))) {
+				result.add(condition);
+			}
+		}
+		return result;
+	}
+
+	/**
+	 * Simplifies the expression.
+	 *
+	 * <p>
+	 * If nothing can be simplified the expression itself is returned.
+	 *
+	 * @param expression the expression to simplify
+	 * <p style="color: #F90;">Support DBvolution at
+	 * <a href="http://patreon.com/dbvolution" target=new>Patreon</a></p>
+	 * @return an equivalent, and hopefully simpler, expression
+	 */
+	public BooleanExpression simplify(BooleanExpression expression) {
+		if (expression == null
+				|| expression.isAggregator()
+				|| expression.isWindowingFunction()
+				|| expression.isRelationship()) {
+			return expression;
+		}
+		final BooleanExpression unwrapped = unwrap(expression);
+		if (unwrapped instanceof BooleanExpression.AllOfExpression) {
+			return simplifyJunction(expression, ((BooleanExpression.AllOfExpression) unwrapped).getBooleanResults(), true);
+		} else if (unwrapped instanceof BooleanExpression.AnyOfExpression) {
+			return simplifyJunction(expression, ((BooleanExpression.AnyOfExpression) unwrapped).getBooleanResults(), false);
+		} else if (unwrapped instanceof BooleanExpression.NegateExpression) {
+			return simplifyNegation(expression, unwrapped.getInnerResult());
+		} else if (unwrapped instanceof EqualityComparison && isLiteralComparison((EqualityComparison) unwrapped)) {
+			return BooleanExpression.trueExpression();
+		}
+		return expression;
+	}
+
+	private BooleanExpression simplifyJunction(BooleanExpression original, BooleanResult[] parts, boolean isAnd) {
+		for (BooleanResult part : parts) {
+			if (part == null) {
+				return original;
+			}
+		}
+		List<BooleanResult> simplifiedParts = new ArrayList<>(parts.length);
+		Set<StructuralKey> partsFound = new HashSet<>();
+		boolean changed = false;
+		for (BooleanResult part : parts) {
+			BooleanResult simplePart = part instanceof BooleanExpression ? simplify((BooleanExpression) part) : part;
+			changed = changed || simplePart != part;
+			BooleanResult unwrapped = unwrap(simplePart);
+			BooleanResult[] innerParts = null;
+			if (isAnd && unwrapped instanceof BooleanExpression.AllOfExpression) {
+				innerParts = ((BooleanExpression.AllOfExpression) unwrapped).getBooleanResults();
+			} else if (!isAnd && unwrapped instanceof BooleanExpression.AnyOfExpression) {
+				innerParts = ((BooleanExpression.AnyOfExpression) unwrapped).getBooleanResults();
+			}
+			if (innerParts == null) {
+				innerParts = new BooleanResult[]{simplePart};
+			} else {
+				changed = true;
+			}
+			for (BooleanResult innerPart : innerParts) {
+				if (isAnd ? isTrue(innerPart) : isFalse(innerPart)) {
+					changed = true;
+				} else if (isAnd ? isFalse(innerPart) : isTrue(innerPart)) {
+					return isAnd ? BooleanExpression.falseExpression() : BooleanExpression.trueExpression();
+				} else if (partsFound.add(new StructuralKey(innerPart))) {
+					simplifiedParts.add(innerPart);
+				} else {
+					changed = true;
+				}
+			}
+		}
+		if (!isAnd) {
+			List<BooleanResult> combined = combineEqualityComparisons(simplifiedParts);
+			changed = changed || combined.size() != simplifiedParts.size();
+			simplifiedParts = combined;
+		}
+		if (!changed && simplifiedParts.size() > 1) {
+			return original;
+		} else if (simplifiedParts.isEmpty()) {
+			return isAnd ? BooleanExpression.trueExpression() : BooleanExpression.falseExpression();
+		} else if (simplifiedParts.size() == 1) {
+			final BooleanResult onlyPart = simplifiedParts.get(0);
+			return onlyPart instanceof BooleanExpression ? (BooleanExpression) onlyPart : new BooleanExpression(onlyPart);
+		} else {
+			final BooleanResult[] newParts = simplifiedParts.toArray(new BooleanResult[]{});
+			return isAnd ? BooleanExpression.allOf(toExpressions(newParts)) : BooleanExpression.anyOf(toExpressions(newParts));
+		}
+	}
+
+	private BooleanExpression simplifyNegation(BooleanExpression original, AnyResult<?> negated) {
+		if (!(negated instanceof BooleanExpression)) {
+			return original;
+		}
+		final BooleanExpression simpleNegated = simplify((BooleanExpression) negated);
+		final BooleanExpression unwrapped = unwrap(simpleNegated);
+		if (isTrue(unwrapped)) {
+			return BooleanExpression.falseExpression();
+		} else if (isFalse(unwrapped)) {
+			return BooleanExpression.trueExpression();
+		} else if (unwrapped instanceof BooleanExpression.NegateExpression
+				&& unwrapped.getInnerResult() instanceof BooleanExpression) {
+			return (BooleanExpression) unwrapped.getInnerResult();
+		} else if (simpleNegated != negated) {
+			return simpleNegated.not();
+		} else {
+			return original;
+		}
+	}
+
+	private List<BooleanResult> combineEqualityComparisons(List<BooleanResult> parts) {
+		Map<StructuralKey, List<EqualityComparison>> comparisonsByExpression = new LinkedHashMap<>();
+		Map<BooleanResult, StructuralKey> keys = new IdentityHashMap<>();
+		for (BooleanResult part : parts) {
+			final BooleanResult unwrapped = unwrap(part);
+			if (unwrapped instanceof EqualityComparison) {
+				final EqualityComparison comparison = (EqualityComparison) unwrapped;
+				final DBExpression comparedExpression = comparison.getComparedExpression();
+				if (comparison.isSimpleEqualityFor(definition)
+						&& comparedExpression != null
+						&& !comparedExpression.getTablesInvolved().isEmpty()) {
+					final StructuralKey key = new StructuralKey(new Object[]{comparison.getClass(), comparedExpression});
+					List<EqualityComparison> comparisons = comparisonsByExpression.get(key);
+					if (comparisons == null) {
+						comparisons = new ArrayList<>();
+						comparisonsByExpression.put(key, comparisons);
+					}
+					comparisons.add(comparison);
+					keys.put(part, key);
+				}
+			}
+		}
+		List<BooleanResult> result = new ArrayList<>(parts.size());
+		for (BooleanResult part : parts) {
+			final StructuralKey key = keys.get(part);
+			final List<EqualityComparison> comparisons = key == null ? null : comparisonsByExpression.get(key);
+			if (comparisons == null || comparisons.size() < 2) {
+				result.add(part);
+			} else if (comparisons.get(0) == unwrap(part)) {
+				result.add(comparisons.get(0).isInAllValuesOf(comparisons));
+			}
+		}
+		return result;
+	}
+
+	private boolean isLiteralComparison(EqualityComparison comparison) {
+		final DBExpression first = comparison.getComparedExpression();
+		final DBExpression second = comparison.getComparedValue();
+		return isLiteral(first) && isLiteral(second)
+				&& new StructuralKey(first).equals(new StructuralKey(second));
+	}
+
+	private static boolean isLiteral(DBExpression expression) {
+		DBExpression literal = expression;
+		while (literal instanceof AnyExpression) {
+			literal = ((AnyExpression<?, ?, ?>) literal).getInnerResult();
+		}
+		if (literal instanceof QueryableDatatype && !(literal instanceof DBParameter.Parameter)) {
+			final QueryableDatatype<?> qdt = (QueryableDatatype<?>) literal;
+			return !qdt.isNull() && qdt.getColumnExpression().length == 0;
+		}
+		return false;
+	}
+
+	private static BooleanExpression[] toExpressions(BooleanResult[] results) {
+		BooleanExpression[] expressions = new BooleanExpression[results.length];
+		for (int i = 0; i < results.length; i++) {
+			expressions[i] = results[i] instanceof BooleanExpression ? (BooleanExpression) results[i] : new BooleanExpression(results[i]);
+		}
+		return expressions;
+	}
+
+	private static BooleanExpression unwrap(BooleanExpression expression) {
+		BooleanExpression unwrapped = expression;
+		while (unwrapped != null
+				&& unwrapped.getClass().equals(BooleanExpression.class)
+				&& unwrapped.getInnerResult() instanceof BooleanExpression) {
+			unwrapped = (BooleanExpression) unwrapped.getInnerResult();
+		}
+		return unwrapped;
+	}
+
+	private static BooleanResult unwrap(BooleanResult result) {
+		return result instanceof BooleanExpression ? unwrap((BooleanExpression) result) : result;
+	}
+
+	private static boolean isTrue(BooleanResult result) {
+		return unwrap(result) instanceof BooleanExpression.TrueExpression;
+	}
+
+	private static boolean isFalse(BooleanResult result) {
+		return unwrap(result) instanceof BooleanExpression.FalseExpression;
+	}
+}
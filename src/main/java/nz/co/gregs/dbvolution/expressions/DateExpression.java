@@ -146,8 +146,8 @@ public class DateExpression extends RangeExpression<Date, DateResult, DBDate> im
 	}
 
 	@Override
-	public String toSQLString(DBDefinition db) {
-		return getInnerResult().toSQLString(db);
+	public void appendSQLString(DBDefinition db, StringBuilder sql) {
+		appendSQLStringOf(getInnerResult(), db, sql);
 	}
 
 	@Override
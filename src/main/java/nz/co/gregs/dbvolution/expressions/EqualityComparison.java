@@ -0,0 +1,80 @@
+/*
+ * Copyright 2019 Gregory Graham.
+ *
+ * Commercial licenses are available, please contact info@gregs.co.nz for details.
+ * 
+ * This work is licensed under the Creative Commons Attribution-NonCommercial-ShareAlike 4.0 International License. 
+ * To view a copy of this license, visit http://creativecommons.org/licenses/by-nc-sa/4.0/ 
+ * or send a letter to Creative Commons, PO Box 1866, Mountain View, CA 94042, USA.
+ * 
+ * You are free to:
+ *     Share - copy and redistribute the material in any medium or format
+ *     Adapt - remix, transform, and build upon the material
+ * 
+ *     The licensor cannot revoke these freedoms as long as you follow the license terms.               
+ *     Under the following terms:
+ *                 
+ *         Attribution - 
+ *             You must give appropriate credit, provide a link to the license, and indicate if changes were made. 
+ *             You may do so in any reasonable manner, but not in any way that suggests the licensor endorses you or your use.
+ *         NonCommercial - 
+ *             You may not use the material for commercial purposes.
+ *         ShareAlike - 
+ *             If you remix, transform, or build upon the material, 
+ *             you must distribute your contributions under the same license as the original.
+ *         No additional restrictions - 
+ *             You may not apply legal terms or technological measures that legally restrict others from doing anything the 
+ *             license permits.
+ * 
+ * Check the Creative Commons website for any details, legalese, and updates.
+ */
+package nz.co.gregs.dbvolution.expressions;
+
+import java.util.List;
+import nz.co.gregs.dbvolution.databases.definitions.DBDefinition;
+
+/**
+ * A boolean expression that compares an expression to a value using simple
+ * equality.
+ *
+ * <p>
+ * Used by {@link BooleanExpressionSimplifier} to combine several equality
+ * comparisons on the same expression into one IN comparison.
+ *
+ * @author Gregory Graham
+ */
+interface EqualityComparison {
+
+	/**
+	 * The expression being compared, usually a column.
+	 *
+	 * @return the left hand side of the comparison
+	 */
+	DBExpression getComparedExpression();
+
+	/**
+	 * The value the expression is compared to.
+	 *
+	 * @return the right hand side of the comparison
+	 */
+	DBExpression getComparedValue();
+
+	/**
+	 * Indicates that this comparison produces "expression = value" for the
+	 * database and does not need to handle NULLs, so it can be safely replaced
+	 * by an IN comparison.
+	 *
+	 * @param db the database the SQL will be generated for
+	 * @return TRUE if the comparison can be combined into an IN comparison
+	 */
+	boolean isSimpleEqualityFor(DBDefinition db);
+
+	/**
+	 * Creates an IN comparison of this comparison's expression and the values
+	 * of all the comparisons supplied.
+	 *
+	 * @param comparisons comparisons of the same expression, including this one
+	 * @return a BooleanExpression equivalent to ORing all the comparisons
+	 */
+	BooleanExpression isInAllValuesOf(List<EqualityComparison> comparisons);
+}
@@ -187,12 +187,10 @@ public class IntegerExpression extends SimpleNumericExpression<Long, IntegerResu
 	}
 
 	@Override
-	public String toSQLString(DBDefinition db) {
+	public void appendSQLString(DBDefinition db, StringBuilder sql) {
 		final AnyResult<?> inner = getInnerResult();
 		if (inner != null) {
-			return inner.toSQLString(db);
-		} else {
-			return "";
+			appendSQLStringOf(inner, db, sql);
 		}
 	}
 
@@ -3156,8 +3154,10 @@ public class IntegerExpression extends SimpleNumericExpression<Long, IntegerResu
 		}
 
 		@Override
-		public String toSQLString(DBDefinition db) {
-			return first.toSQLString(db) + this.getEquationOperator(db) + second.toSQLString(db);
+		public void appendSQLString(DBDefinition db, StringBuilder sql) {
+			appendSQLStringOf(first, db, sql);
+			sql.append(this.getEquationOperator(db));
+			appendSQLStringOf(second, db, sql);
 		}
 
 		@Override
@@ -3420,11 +3420,13 @@ public class IntegerExpression extends SimpleNumericExpression<Long, IntegerResu
 		}
 
 		@Override
-		public String toSQLString(DBDefinition db) {
+		public void appendSQLString(DBDefinition db, StringBuilder sql) {
 			if (this.getIncludesNull()) {
-				return BooleanExpression.isNull(first).toSQLString(db);
+				appendSQLStringOf(BooleanExpression.isNull(first), db, sql);
 			} else {
-				return first.toSQLString(db) + this.getEquationOperator(db) + second.toSQLString(db);
+				appendSQLStringOf(first, db, sql);
+				sql.append(this.getEquationOperator(db));
+				appendSQLStringOf(second, db, sql);
 			}
 		}
 
@@ -3499,21 +3501,19 @@ public class IntegerExpression extends SimpleNumericExpression<Long, IntegerResu
 		}
 
 		@Override
-		public String toSQLString(DBDefinition db) {
-			StringBuilder builder = new StringBuilder();
-			builder
-					.append(getColumn().toSQLString(db))
-					.append(this.getFunctionName(db))
+		public void appendSQLString(DBDefinition db, StringBuilder sql) {
+			appendSQLStringOf(getColumn(), db, sql);
+			sql.append(this.getFunctionName(db))
 					.append(this.beforeValue(db));
 			String separator = "";
 			for (IntegerResult val : getValues()) {
 				if (val != null) {
-					builder.append(separator).append(val.toSQLString(db));
+					sql.append(separator);
+					appendSQLStringOf(val, db, sql);
 				}
 				separator = ", ";
 			}
-			builder.append(this.afterValue(db));
-			return builder.toString();
+			sql.append(this.afterValue(db));
 		}
 
 		@Override
@@ -3984,7 +3984,7 @@ public class IntegerExpression extends SimpleNumericExpression<Long, IntegerResu
 		}
 	}
 
-	private class IsFunction extends DBBinaryBooleanArithmetic {
+	private class IsFunction extends DBBinaryBooleanArithmetic implements EqualityComparison {
 
 		private final static long serialVersionUID = 1l;
 
@@ -3992,6 +3992,30 @@ public class IntegerExpression extends SimpleNumericExpression<Long, IntegerResu
 			super(first, second);
 		}
 
+		@Override
+		public DBExpression getComparedExpression() {
+			return getFirst();
+		}
+
+		@Override
+		public DBExpression getComparedValue() {
+			return getSecond();
+		}
+
+		@Override
+		public boolean isSimpleEqualityFor(DBDefinition db) {
+			return !super.getIncludesNull() && db.doIntegerEqualsTransform("A", "B").equals("A = B");
+		}
+
+		@Override
+		public BooleanExpression isInAllValuesOf(List<EqualityComparison> comparisons) {
+			IntegerResult[] values = new IntegerResult[comparisons.size()];
+			for (int i = 0; i < values.length; i++) {
+				values[i] = (IntegerResult) comparisons.get(i).getComparedValue();
+			}
+			return new BooleanExpression(new IsInFunction(getFirst(), values));
+		}
+
 		@Override
 		public String toSQLString(DBDefinition db) {
 			if (super.getIncludesNull()) {
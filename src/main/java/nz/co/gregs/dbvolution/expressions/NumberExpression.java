@@ -3027,8 +3027,10 @@ public class NumberExpression extends SimpleNumericExpression<Number, NumberResu
 		}
 
 		@Override
-		public String toSQLString(DBDefinition db) {
-			return first.toSQLString(db) + this.getEquationOperator(db) + second.toSQLString(db);
+		public void appendSQLString(DBDefinition db, StringBuilder sql) {
+			appendSQLStringOf(first, db, sql);
+			sql.append(this.getEquationOperator(db));
+			appendSQLStringOf(second, db, sql);
 		}
 
 		@Override
@@ -3408,11 +3410,13 @@ public class NumberExpression extends SimpleNumericExpression<Number, NumberResu
 		}
 
 		@Override
-		public String toSQLString(DBDefinition db) {
+		public void appendSQLString(DBDefinition db, StringBuilder sql) {
 			if (this.getIncludesNull()) {
-				return BooleanExpression.isNull(first).toSQLString(db);
+				appendSQLStringOf(BooleanExpression.isNull(first), db, sql);
 			} else {
-				return first.toSQLString(db) + this.getEquationOperator(db) + second.toSQLString(db);
+				appendSQLStringOf(first, db, sql);
+				sql.append(this.getEquationOperator(db));
+				appendSQLStringOf(second, db, sql);
 			}
 		}
 
@@ -3500,21 +3504,19 @@ public class NumberExpression extends SimpleNumericExpression<Number, NumberResu
 		}
 
 		@Override
-		public String toSQLString(DBDefinition db) {
-			StringBuilder builder = new StringBuilder();
-			builder
-					.append(getColumn().toSQLString(db))
-					.append(this.getFunctionName(db))
+		public void appendSQLString(DBDefinition db, StringBuilder sql) {
+			appendSQLStringOf(getColumn(), db, sql);
+			sql.append(this.getFunctionName(db))
 					.append(this.beforeValue(db));
 			String separator = "";
 			for (NumberResult val : getValues()) {
 				if (val != null) {
-					builder.append(separator).append(val.toSQLString(db));
+					sql.append(separator);
+					appendSQLStringOf(val, db, sql);
 				}
 				separator = ", ";
 			}
-			builder.append(this.afterValue(db));
-			return builder.toString();
+			sql.append(this.afterValue(db));
 		}
 
 		@Override
@@ -4090,7 +4092,7 @@ public class NumberExpression extends SimpleNumericExpression<Number, NumberResu
 		}
 	}
 
-	private class IsFunction extends DBBinaryBooleanArithmetic {
+	private class IsFunction extends DBBinaryBooleanArithmetic implements EqualityComparison {
 
 		private final static long serialVersionUID = 1l;
 
@@ -4098,6 +4100,30 @@ public class NumberExpression extends SimpleNumericExpression<Number, NumberResu
 			super(first, second);
 		}
 
+		@Override
+		public DBExpression getComparedExpression() {
+			return getFirst();
+		}
+
+		@Override
+		public DBExpression getComparedValue() {
+			return getSecond();
+		}
+
+		@Override
+		public boolean isSimpleEqualityFor(DBDefinition db) {
+			return !super.getIncludesNull() && db.doNumberEqualsTransform("A", "B").equals("A = B");
+		}
+
+		@Override
+		public BooleanExpression isInAllValuesOf(List<EqualityComparison> comparisons) {
+			NumberResult[] values = new NumberResult[comparisons.size()];
+			for (int i = 0; i < values.length; i++) {
+				values[i] = (NumberResult) comparisons.get(i).getComparedValue();
+			}
+			return new BooleanExpression(new IsInFunction(getFirst(), values));
+		}
+
 		@Override
 		public String toSQLString(DBDefinition db) {
 			if (super.getIncludesNull()) {
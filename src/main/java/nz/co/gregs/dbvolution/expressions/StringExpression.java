@@ -245,7 +245,7 @@ public class StringExpression extends RangeExpression<String, StringResult, DBSt
 	}
 
 	@Override
-	public String toSQLString(DBDefinition db) {
+	public void appendSQLString(DBDefinition db, StringBuilder sql) {
 		AnyResult<?> stringInput = getInnerResult();
 		if (stringInput == null) {
 			stringInput = StringExpression.value("<NULL>");
@@ -253,7 +253,7 @@ public class StringExpression extends RangeExpression<String, StringResult, DBSt
 				&& (stringInput instanceof ExpressionHasStandardStringResult)) {
 			stringInput = ((ExpressionHasStandardStringResult) stringInput).stringResult();
 		}
-		return stringInput.toSQLString(db);
+		appendSQLStringOf(stringInput, db, sql);
 	}
 
 	@Override
@@ -2884,8 +2884,10 @@ public class StringExpression extends RangeExpression<String, StringResult, DBSt
 		}
 
 		@Override
-		public String toSQLString(DBDefinition db) {
-			return first.toSQLString(db) + this.getEquationOperator(db) + second.toSQLString(db);
+		public void appendSQLString(DBDefinition db, StringBuilder sql) {
+			appendSQLStringOf(first, db, sql);
+			sql.append(this.getEquationOperator(db));
+			appendSQLStringOf(second, db, sql);
 		}
 
 		protected abstract String getEquationOperator(DBDefinition db);
@@ -3282,8 +3284,10 @@ public class StringExpression extends RangeExpression<String, StringResult, DBSt
 		}
 
 		@Override
-		public String toSQLString(DBDefinition db) {
-			return first.toSQLString(db) + this.getEquationOperator(db) + second.toSQLString(db);
+		public void appendSQLString(DBDefinition db, StringBuilder sql) {
+			appendSQLStringOf(first, db, sql);
+			sql.append(this.getEquationOperator(db));
+			appendSQLStringOf(second, db, sql);
 		}
 
 		protected abstract String getEquationOperator(DBDefinition db);
@@ -3345,21 +3349,19 @@ public class StringExpression extends RangeExpression<String, StringResult, DBSt
 		}
 
 		@Override
-		public String toSQLString(DBDefinition db) {
-			StringBuilder builder = new StringBuilder();
-			builder
-					.append(column.toSQLString(db))
-					.append(this.getFunctionName(db))
+		public void appendSQLString(DBDefinition db, StringBuilder sql) {
+			appendSQLStringOf(column, db, sql);
+			sql.append(this.getFunctionName(db))
 					.append(this.beforeValue(db));
 			String separator = "";
 			for (StringResult val : values) {
 				if (val != null) {
-					builder.append(separator).append(val.toSQLString(db));
+					sql.append(separator);
+					appendSQLStringOf(val, db, sql);
 				}
 				separator = ", ";
 			}
-			builder.append(this.afterValue(db));
-			return builder.toString();
+			sql.append(this.afterValue(db));
 		}
 
 		@Override
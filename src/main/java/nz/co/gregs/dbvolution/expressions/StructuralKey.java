@@ -0,0 +1,223 @@
+/*
+ * Copyright 2019 Gregory Graham.
+ *
+ * Commercial licenses are available, please contact info@gregs.co.nz for details.
+ * 
+ * This work is licensed under the Creative Commons Attribution-NonCommercial-ShareAlike 4.0 International License. 
+ * To view a copy of this license, visit http://creativecommons.org/licenses/by-nc-sa/4.0/ 
+ * or send a letter to Creative Commons, PO Box 1866, Mountain View, CA 94042, USA.
+ * 
+ * You are free to:
+ *     Share - copy and redistribute the material in any medium or format
+ *     Adapt - remix, transform, and build upon the material
+ * 
+ *     The licensor cannot revoke these freedoms as long as you follow the license terms.               
+ *     Under the following terms:
+ *                 
+ *         Attribution - 
+ *             You must give appropriate credit, provide a link to the license, and indicate if changes were made. 
+ *             You may do so in any reasonable manner, but not in any way that suggests the licensor endorses you or your use.
+ *         NonCommercial - 
+ *             You may not use the material for commercial purposes.
+ *         ShareAlike - 
+ *             If you remix, transform, or build upon the material, 
+ *             you must distribute your contributions under the same license as the original.
+ *         No additional restrictions - 
+ *             You may not apply legal terms or technological measures that legally restrict others from doing anything the 
+ *             license permits.
+ * 
+ * Check the Creative Commons website for any details, legalese, and updates.
+ */
+package nz.co.gregs.dbvolution.expressions;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import nz.co.gregs.dbvolution.datatypes.DBParameter;
+import nz.co.gregs.dbvolution.datatypes.QueryableDatatype;
+import nz.co.gregs.dbvolution.exceptions.DBRuntimeException;
+
+/**
+ * Compares expressions by their structure rather than by reference.
+ *
+ * <p>
+ * Two expressions have the same structure if they are the same class and all
+ * their fields have the same structure. Expressions, columns, and results are
+ * compared field by field, literal values are compared by value, and
+ * everything else, including rows, parameters, and column values, is compared
+ * using its own equals method.
+ *
+ * <p>
+ * Expressions with the same structure always produce the same SQL, so the
+ * {@link BooleanExpressionSimplifier} can find duplicated conditions without
+ * rendering them. Expressions with different structures may still produce
+ * the same SQL; they are just not recognised as duplicates.
+ *
+ * <p style="color: #F90;">Support DBvolution at
+ * <a href="http://patreon.com/dbvolution" target=new>Patreon</a></p>
+ *
+ * @author Gregory Graham
+ */
+final class StructuralKey {
+
+	private static final int MAXIMUM_DEPTH = 64;
+	private static final String[] STRUCTURAL_PACKAGES = new String[]{
+		"nz.co.gregs.dbvolution.expressions.",
+		"nz.co.gregs.dbvolution.columns.",
+		"nz.co.gregs.dbvolution.results."
+	};
+	private static final ConcurrentMap<Class<?>, Field[]> FIELDS = new ConcurrentHashMap<>();
+
+	private final Object expression;
+	private final int hash;
+
+	/**
+	 * Creates a key for the expression.
+	 *
+	 * @param expression the expression to compare
+	 */
+	StructuralKey(Object expression) {
+		this.expression = expression;
+		this.hash = hashOf(expression, 0);
+	}
+
+	@Override
+	public int hashCode() {
+		return hash;
+	}
+
+	@Override
+	public boolean equals(Object obj) {
+		if (this == obj) {
+			return true;
+		} else if (obj instanceof StructuralKey) {
+			final StructuralKey other = (StructuralKey) obj;
+			return hash == other.hash && sameStructure(expression, other.expression, 0);
+		} else {
+			return false;
+		}
+	}
+
+	private static boolean sameStructure(Object first, Object second, int depth) {
+		if (first == second) {
+			return true;
+		} else if (first == null || second == null || !first.getClass().equals(second.getClass())) {
+			return false;
+		} else if (depth > MAXIMUM_DEPTH) {
+			return false;
+		} else if (first instanceof QueryableDatatype) {
+			return isLiteral(first) && isLiteral(second)
+					&& ((QueryableDatatype<?>) first).getValue().equals(((QueryableDatatype<?>) second).getValue());
+		} else if (first instanceof Object[]) {
+			final Object[] firstArray = (Object[]) first;
+			final Object[] secondArray = (Object[]) second;
+			if (firstArray.length != secondArray.length) {
+				return false;
+			}
+			for (int i = 0; i < firstArray.length; i++) {
+				if (!sameStructure(firstArray[i], secondArray[i], depth + 1)) {
+					return false;
+				}
+			}
+			return true;
+		} else if (first instanceof List) {
+			return sameStructure(((List<?>) first).toArray(), ((List<?>) second).toArray(), depth);
+		} else if (isStructural(first.getClass())) {
+			try {
+				for (Field field : getFields(first.getClass())) {
+					if (!sameStructure(field.get(first), field.get(second), depth + 1)) {
+						return false;
+					}
+				}
+				return true;
+			} catch (IllegalAccessException ex) {
+				throw new DBRuntimeException("Unable To Compare Expressions: " + ex.getMessage(), ex);
+			}
+		} else if (first.getClass().isArray()) {
+			return Arrays.deepEquals(new Object[]{first}, new Object[]{second});
+		} else {
+			return first.equals(second);
+		}
+	}
+
+	private static int hashOf(Object object, int depth) {
+		if (object == null) {
+			return 0;
+		} else if (depth > MAXIMUM_DEPTH) {
+			return object.getClass().hashCode();
+		} else if (object instanceof QueryableDatatype) {
+			return isLiteral(object)
+					? 31 * object.getClass().hashCode() + ((QueryableDatatype<?>) object).getValue().hashCode()
+					: System.identityHashCode(object);
+		} else if (object instanceof Object[]) {
+			int result = 1;
+			for (Object element : (Object[]) object) {
+				result = 31 * result + hashOf(element, depth + 1);
+			}
+			return result;
+		} else if (object instanceof List) {
+			return hashOf(((List<?>) object).toArray(), depth);
+		} else if (isStructural(object.getClass())) {
+			int result = object.getClass().hashCode();
+			try {
+				for (Field field : getFields(object.getClass())) {
+					result = 31 * result + hashOf(field.get(object), depth + 1);
+				}
+			} catch (IllegalAccessException ex) {
+				throw new DBRuntimeException("Unable To Compare Expressions: " + ex.getMessage(), ex);
+			}
+			return result;
+		} else if (object.getClass().isArray()) {
+			return Arrays.deepHashCode(new Object[]{object});
+		} else {
+			return object.hashCode();
+		}
+	}
+
+	/**
+	 * Literal values are compared by value, but parameters and column values
+	 * only match themselves because their values can change after the query is
+	 * simplified.
+	 */
+	private static boolean isLiteral(Object object) {
+		if (object instanceof DBParameter.Parameter) {
+			return false;
+		}
+		final QueryableDatatype<?> qdt = (QueryableDatatype<?>) object;
+		return qdt.getOperator() == null
+				&& qdt.getColumnExpression().length == 0
+				&& qdt.getValue() != null;
+	}
+
+	private static boolean isStructural(Class<?> clazz) {
+		final String name = clazz.getName();
+		for (String structuralPackage : STRUCTURAL_PACKAGES) {
+			if (name.startsWith(structuralPackage)) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	private static Field[] getFields(Class<?> clazz) {
+		Field[] fields = FIELDS.get(clazz);
+		if (fields == null) {
+			List<Field> found = new ArrayList<>();
+			for (Class<?> current = clazz; current != null && !current.equals(Object.class); current = current.getSuperclass()) {
+				for (Field field : current.getDeclaredFields()) {
+					if (!Modifier.isStatic(field.getModifiers())) {
+						field.setAccessible(true);
+						found.add(field);
+					}
+				}
+			}
+			fields = found.toArray(new Field[]{});
+			FIELDS.putIfAbsent(clazz, fields);
+		}
+		return fields;
+	}
+}
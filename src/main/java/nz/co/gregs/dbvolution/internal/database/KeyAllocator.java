@@ -0,0 +1,278 @@
+/*
+ * Copyright 2019 Gregory Graham.
+ *
+ * Commercial licenses are available, please contact info@gregs.co.nz for details.
+ * 
+ * This work is licensed under the Creative Commons Attribution-NonCommercial-ShareAlike 4.0 International License. 
+ * To view a copy of this license, visit http://creativecommons.org/licenses/by-nc-sa/4.0/ 
+ * or send a letter to Creative Commons, PO Box 1866, Mountain View, CA 94042, USA.
+ * 
+ * You are free to:
+ *     Share - copy and redistribute the material in any medium or format
+ *     Adapt - remix, transform, and build upon the material
+ * 
+ *     The licensor cannot revoke these freedoms as long as you follow the license terms.               
+ *     Under the following terms:
+ *                 
+ *         Attribution - 
+ *             You must give appropriate credit, provide a link to the license, and indicate if changes were made. 
+ *             You may do so in any reasonable manner, but not in any way that suggests the licensor endorses you or your use.
+ *         NonCommercial - 
+ *             You may not use the material for commercial purposes.
+ *         ShareAlike - 
+ *             If you remix, transform, or build upon the material, 
+ *             you must distribute your contributions under the same license as the original.
+ *         No additional restrictions - 
+ *             You may not apply legal terms or technological measures that legally restrict others from doing anything the 
+ *             license permits.
+ * 
+ * Check the Creative Commons website for any details, legalese, and updates.
+ */
+package nz.co.gregs.dbvolution.internal.database;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import nz.co.gregs.dbvolution.DBRow;
+import nz.co.gregs.dbvolution.databases.DBDatabase;
+import nz.co.gregs.dbvolution.databases.DBDatabaseCluster;
+import nz.co.gregs.dbvolution.databases.DBStatement;
+import nz.co.gregs.dbvolution.databases.definitions.DBDefinition;
+import nz.co.gregs.dbvolution.datatypes.DBInteger;
+import nz.co.gregs.dbvolution.datatypes.DBNumber;
+import nz.co.gregs.dbvolution.datatypes.DBString;
+import nz.co.gregs.dbvolution.datatypes.QueryableDatatype;
+import nz.co.gregs.dbvolution.exceptions.ExceptionThrownDuringTransaction;
+import nz.co.gregs.dbvolution.internal.properties.PropertyWrapper;
+import nz.co.gregs.dbvolution.transactions.DBTransaction;
+
+/**
+ * Hands out primary keys for
+ * {@link nz.co.gregs.dbvolution.annotations.DBKeyAllocation} columns from
+ * blocks reserved in the {@link KeyAllocation} table.
+ *
+ * <p>
+ * Each block is reserved by incrementing the table's row for the column in its
+ * own transaction. The database's row lock serialises reservations from
+ * different JVMs so every reservation receives a distinct block. For a
+ * {@link DBDatabaseCluster} the reservation is made on every ready member,
+ * holding each member's lock until all members have been updated, so that the
+ * allocation survives the loss of any member.
+ *
+ * <p>
+ * Keys are handed out from memory until the block is used, so only one insert
+ * in every block needs to visit the allocation table.
+ *
+ * <p style="color: #F90;">Support DBvolution at
+ * <a href="http://patreon.com/dbvolution" target=new>Patreon</a></p>
+ *
+ * @author Gregory Graham
+ */
+public class KeyAllocator {
+
+	private final DBDatabase database;
+	private final ConcurrentMap<String, KeyBlock> blocks = new ConcurrentHashMap<>();
+	private volatile boolean allocationTableChecked = false;
+
+	/**
+	 * Creates an allocator that reserves its blocks from the database.
+	 *
+	 * @param database the database, or cluster, that holds the allocation table
+	 */
+	public KeyAllocator(DBDatabase database) {
+		this.database = database;
+	}
+
+	/**
+	 * Sets the unset {@link nz.co.gregs.dbvolution.annotations.DBKeyAllocation}
+	 * primary keys of the row to the next allocated key.
+	 *
+	 * <p>
+	 * Rows without allocated keys, and keys that have already been set, are
+	 * not changed.
+	 *
+	 * @param row the row about to be inserted
+	 * @throws SQLException database exceptions
+	 */
+	public void allocateKeys(DBRow row) throws SQLException {
+		for (PropertyWrapper pk : row.getPrimaryKeyPropertyWrappers()) {
+			if (pk.isKeyAllocated()) {
+				QueryableDatatype<?> qdt = pk.getQueryableDatatype();
+				if (qdt != null && !qdt.hasBeenSet()) {
+					if (qdt instanceof DBInteger) {
+						((DBInteger) qdt).setValue(nextKey(row, pk));
+					} else if (qdt instanceof DBNumber) {
+						((DBNumber) qdt).setValue(nextKey(row, pk));
+					}
+					// ensure field set when using type adaptors
+					pk.setQueryableDatatype(qdt);
+				}
+			}
+		}
+	}
+
+	private long nextKey(DBRow row, PropertyWrapper pk) throws SQLException {
+		final String allocationKey = row.getTableName() + "." + pk.columnName();
+		KeyBlock block = blocks.get(allocationKey);
+		if (block == null) {
+			blocks.putIfAbsent(allocationKey, new KeyBlock());
+			block = blocks.get(allocationKey);
+		}
+		synchronized (block) {
+			if (!block.hasNext()) {
+				final int blockSize = Math.max(1, pk.getKeyAllocationBlockSize());
+				block.reset(reserveBlock(allocationKey, row, pk, blockSize), blockSize);
+			}
+			return block.next();
+		}
+	}
+
+	private long reserveBlock(String allocationKey, DBRow row, PropertyWrapper pk, int blockSize) throws SQLException {
+		createAllocationTableIfNecessary();
+		DBDatabase[] members;
+		if (database instanceof DBDatabaseCluster) {
+			members = ((DBDatabaseCluster) database).getClusterDetails().getReadyDatabases();
+		} else {
+			members = new DBDatabase[]{database};
+		}
+		if (members.length == 0) {
+			throw new SQLException("Unable To Reserve Keys For " + allocationKey + ": No Database Available");
+		}
+		SQLException failure = null;
+		// a second attempt covers two JVMs creating the allocation row at the same time
+		for (int attempt = 0; attempt < 2; attempt++) {
+			try {
+				return members[0].doTransaction(new ReserveBlockTransaction(members, 0, allocationKey, row, pk, blockSize));
+			} catch (ExceptionThrownDuringTransaction ex) {
+				failure = new SQLException("Unable To Reserve Keys For " + allocationKey, ex.getCause() == null ? ex : ex.getCause());
+			} catch (SQLException ex) {
+				failure = ex;
+			}
+		}
+		throw failure;
+	}
+
+	private void createAllocationTableIfNecessary() throws SQLException {
+		if (!allocationTableChecked) {
+			synchronized (this) {
+				if (!allocationTableChecked) {
+					final KeyAllocation allocationTable = new KeyAllocation();
+					if (!database.tableExists(allocationTable)) {
+						database.createTableNoExceptions(allocationTable);
+					}
+					allocationTableChecked = true;
+				}
+			}
+		}
+	}
+
+	/**
+	 * Reserves the block on one member and, while holding that member's row
+	 * lock, on all the following members.
+	 */
+	private static class ReserveBlockTransaction implements DBTransaction<Long> {
+
+		private final DBDatabase[] members;
+		private final int index;
+		private final String allocationKey;
+		private final DBRow row;
+		private final PropertyWrapper pk;
+		private final int blockSize;
+
+		ReserveBlockTransaction(DBDatabase[] members, int index, String allocationKey, DBRow row, PropertyWrapper pk, int blockSize) {
+			this.members = members;
+			this.index = index;
+			this.allocationKey = allocationKey;
+			this.row = row;
+			this.pk = pk;
+			this.blockSize = blockSize;
+		}
+
+		@Override
+		public Long doTransaction(DBDatabase db) throws ExceptionThrownDuringTransaction {
+			try {
+				long firstKey = reserve(db);
+				if (index + 1 < members.length) {
+					final Long otherKey = members[index + 1].doTransaction(new ReserveBlockTransaction(members, index + 1, allocationKey, row, pk, blockSize));
+					if (otherKey == null) {
+						throw new SQLException("Unable To Reserve Keys For " + allocationKey + " On " + members[index + 1]);
+					}
+					firstKey = Math.max(firstKey, otherKey);
+				}
+				return firstKey;
+			} catch (SQLException ex) {
+				throw new ExceptionThrownDuringTransaction(ex);
+			}
+		}
+
+		private long reserve(DBDatabase db) throws SQLException {
+			final DBDefinition defn = db.getDefinition();
+			final String tableName = defn.formatTableName(new KeyAllocation());
+			final String keyColumn = defn.formatColumnName(KeyAllocation.ALLOCATION_KEY_COLUMN);
+			final String nextColumn = defn.formatColumnName(KeyAllocation.NEXT_KEY_COLUMN);
+			final String keyValue = new DBString(allocationKey).toSQLString(defn);
+			final String whereClause = defn.beginWhereClause() + keyColumn + defn.getEqualsComparator() + keyValue;
+			try (DBStatement statement = db.getDBStatement()) {
+				final String updateSQL = defn.beginUpdateLine() + tableName
+						+ defn.beginSetClause() + nextColumn + defn.getEqualsComparator() + nextColumn + " + " + blockSize
+						+ whereClause
+						+ defn.endSQLStatement();
+				db.printSQLIfRequested(updateSQL);
+				if (statement.executeUpdate(updateSQL) > 0) {
+					final String selectSQL = defn.beginSelectStatement() + nextColumn
+							+ defn.beginFromClause() + tableName
+							+ whereClause
+							+ defn.endSQLStatement();
+					try (ResultSet resultSet = statement.executeQuery(selectSQL)) {
+						if (resultSet.next()) {
+							return resultSet.getLong(1) - blockSize;
+						}
+					}
+					throw new SQLException("Unable To Read Reserved Keys For " + allocationKey);
+				} else {
+					// first reservation so start after any keys already in the table
+					long firstKey = 1;
+					final String maxSQL = defn.beginSelectStatement()
+							+ defn.getMaxFunctionName() + "(" + defn.formatColumnName(pk.columnName()) + ")"
+							+ defn.beginFromClause() + defn.formatTableName(row)
+							+ defn.endSQLStatement();
+					try (ResultSet resultSet = statement.executeQuery(maxSQL)) {
+						if (resultSet.next()) {
+							firstKey = resultSet.getLong(1) + 1;
+						}
+					}
+					final String insertSQL = defn.beginInsertLine() + tableName
+							+ defn.beginInsertColumnList() + keyColumn + defn.getValuesClauseColumnSeparator() + nextColumn + defn.endInsertColumnList()
+							+ defn.beginValueClause() + keyValue + defn.getValuesClauseValueSeparator() + new DBInteger(firstKey + blockSize).toSQLString(defn) + defn.endValueClause()
+							+ defn.endInsertLine();
+					db.printSQLIfRequested(insertSQL);
+					statement.executeUpdate(insertSQL);
+					return firstKey;
+				}
+			}
+		}
+	}
+
+	/**
+	 * The keys remaining in the current block for one column.
+	 */
+	private static class KeyBlock {
+
+		private long next = 0;
+		private long limit = 0;
+
+		boolean hasNext() {
+			return next < limit;
+		}
+
+		long next() {
+			return next++;
+		}
+
+		void reset(long firstKey, int blockSize) {
+			next = firstKey;
+			limit = firstKey + blockSize;
+		}
+	}
+}
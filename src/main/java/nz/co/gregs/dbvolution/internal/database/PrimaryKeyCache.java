@@ -0,0 +1,229 @@
+/*
+ * Copyright 2019 Gregory Graham.
+ *
+ * Commercial licenses are available, please contact info@gregs.co.nz for details.
+ * 
+ * This work is licensed under the Creative Commons Attribution-NonCommercial-ShareAlike 4.0 International License. 
+ * To view a copy of this license, visit http://creativecommons.org/licenses/by-nc-sa/4.0/ 
+ * or send a letter to Creative Commons, PO Box 1866, Mountain View, CA 94042, USA.
+ * 
+ * You are free to:
+ *     Share - copy and redistribute the material in any medium or format
+ *     Adapt - remix, transform, and build upon the material
+ * 
+ *     The licensor cannot revoke these freedoms as long as you follow the license terms.               
+ *     Under the following terms:
+ *                 
+ *         Attribution - 
+ *             You must give appropriate credit, provide a link to the license, and indicate if changes were made. 
+ *             You may do so in any reasonable manner, but not in any way that suggests the licensor endorses you or your use.
+ *         NonCommercial - 
+ *             You may not use the material for commercial purposes.
+ *         ShareAlike - 
+ *             If you remix, transform, or build upon the material, 
+ *             you must distribute your contributions under the same license as the original.
+ *         No additional restrictions - 
+ *             You may not apply legal terms or technological measures that legally restrict others from doing anything the 
+ *             license permits.
+ * 
+ * Check the Creative Commons website for any details, legalese, and updates.
+ */
+package nz.co.gregs.dbvolution.internal.database;
+
+import java.util.Date;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import nz.co.gregs.dbvolution.DBRow;
+import nz.co.gregs.dbvolution.annotations.DBCacheByPrimaryKey;
+import nz.co.gregs.dbvolution.datatypes.QueryableDatatype;
+
+/**
+ * Keeps copies of the rows of {@link DBCacheByPrimaryKey} tables so that
+ * primary key lookups can avoid the database.
+ *
+ * <p>
+ * Each table has its own least recently used cache bounded by
+ * {@link DBCacheByPrimaryKey#maximumSize()}. The cache only stores and returns
+ * copies of rows so changes to the rows returned do not affect the cache.
+ *
+ * <p style="color: #F90;">Support DBvolution at
+ * <a href="http://patreon.com/dbvolution" target=new>Patreon</a></p>
+ *
+ * @author Gregory Graham
+ */
+public class PrimaryKeyCache {
+
+	private static final ClassValue<DBCacheByPrimaryKey> ANNOTATIONS = new ClassValue<DBCacheByPrimaryKey>() {
+		@Override
+		protected DBCacheByPrimaryKey computeValue(Class<?> type) {
+			return type.getAnnotation(DBCacheByPrimaryKey.class);
+		}
+	};
+
+	private final Map<Class<?>, TableCache> tables = new HashMap<>();
+	private final Map<String, Long> invalidations = new HashMap<>();
+	private long changes = 0;
+	private long lastCleared = 0;
+
+	/**
+	 * Indicates whether rows like the example can be cached.
+	 *
+	 * <p>
+	 * Only {@link DBCacheByPrimaryKey} tables with a single primary key column
+	 * are cached.
+	 *
+	 * <p style="color: #F90;">Support DBvolution at
+	 * <a href="http://patreon.com/dbvolution" target=new>Patreon</a></p>
+	 *
+	 * @param row an example of the table
+	 * @return TRUE if the rows can be cached, otherwise FALSE
+	 */
+	public static boolean isCacheable(DBRow row) {
+		return ANNOTATIONS.get(row.getClass()) != null && row.getPrimaryKeys().size() == 1;
+	}
+
+	/**
+	 * Returns a copy of the cached row for the primary key value.
+	 *
+	 * @param <R> the table
+	 * @param exemplar an example of the table
+	 * @param primaryKeyValue the value of the primary key
+	 * <p style="color: #F90;">Support DBvolution at
+	 * <a href="http://patreon.com/dbvolution" target=new>Patreon</a></p>
+	 * @return a copy of the row or NULL if it has not been cached
+	 */
+	public synchronized <R extends DBRow> R get(R exemplar, Object primaryKeyValue) {
+		TableCache cache = tables.get(exemplar.getClass());
+		if (cache != null) {
+			DBRow row = cache.get(getKey(primaryKeyValue));
+			if (row != null) {
+				@SuppressWarnings("unchecked")
+				R copy = (R) DBRow.copyDBRow(row);
+				return copy;
+			}
+		}
+		return null;
+	}
+
+	/**
+	 * Returns the current generation of the table's cache.
+	 *
+	 * <p>
+	 * Get the generation before querying the database and supply it to
+	 * {@link #put(java.util.List, long) put} so that rows read before the table
+	 * was changed are not cached after the change.
+	 *
+	 * <p style="color: #F90;">Support DBvolution at
+	 * <a href="http://patreon.com/dbvolution" target=new>Patreon</a></p>
+	 *
+	 * @param exemplar an example of the table
+	 * @return the generation of the table
+	 */
+	public synchronized long getGeneration(DBRow exemplar) {
+		return getGeneration(exemplar.getTableName());
+	}
+
+	private long getGeneration(String tableName) {
+		final Long invalidated = invalidations.get(tableName);
+		return invalidated == null ? lastCleared : Math.max(invalidated, lastCleared);
+	}
+
+	/**
+	 * Stores a copy of the rows if their table is cached.
+	 *
+	 * <p>
+	 * Rows without a primary key value, or that were only partially retrieved,
+	 * are ignored, as are rows of tables that have been invalidated since the
+	 * generation supplied.
+	 *
+	 * @param rows the rows retrieved from the database
+	 * @param generation the {@link #getGeneration(nz.co.gregs.dbvolution.DBRow) generation}
+	 * of the table before the rows were retrieved
+	 */
+	public synchronized void put(List<? extends DBRow> rows, long generation) {
+		for (DBRow row : rows) {
+			if (row != null && isCacheable(row)
+					&& row.getSelectedProperties().size() == row.getColumnPropertyWrappers().size()
+					&& getGeneration(row.getTableName()) == generation) {
+				final QueryableDatatype<?> pk = row.getPrimaryKeys().get(0);
+				if (pk.hasBeenSet() && !pk.isNull()) {
+					TableCache cache = tables.get(row.getClass());
+					if (cache == null) {
+						cache = new TableCache(row.getTableName(), ANNOTATIONS.get(row.getClass()).maximumSize());
+						tables.put(row.getClass(), cache);
+					}
+					cache.put(getKey(pk.getValue()), DBRow.copyDBRow(row));
+				}
+			}
+		}
+	}
+
+	/**
+	 * Discards all the cached rows for the table.
+	 *
+	 * @param tableName the table that has changed
+	 */
+	public synchronized void invalidate(String tableName) {
+		invalidations.put(tableName, ++changes);
+		for (TableCache cache : tables.values()) {
+			if (cache.tableName.equals(tableName)) {
+				cache.clear();
+			}
+		}
+	}
+
+	/**
+	 * Discards all the cached rows.
+	 */
+	public synchronized void clear() {
+		lastCleared = ++changes;
+		invalidations.clear();
+		tables.clear();
+	}
+
+	/**
+	 * Converts the key value to a form that matches equivalent values of other
+	 * classes, for instance Integer 1 and Long 1.
+	 *
+	 * <p style="color: #F90;">Support DBvolution at
+	 * <a href="http://patreon.com/dbvolution" target=new>Patreon</a></p>
+	 *
+	 * @param value the value of a primary or foreign key
+	 * @return an object that equals the keys of equivalent values
+	 */
+	public static Object getKey(Object value) {
+		if (value instanceof Date) {
+			return ((Date) value).getTime();
+		} else if (value instanceof Number) {
+			final Number number = (Number) value;
+			final double doubleValue = number.doubleValue();
+			if (doubleValue == Math.rint(doubleValue) && Math.abs(doubleValue) < Long.MAX_VALUE) {
+				return number.longValue();
+			} else {
+				return doubleValue;
+			}
+		} else {
+			return value;
+		}
+	}
+
+	private static class TableCache extends LinkedHashMap<Object, DBRow> {
+
+		private static final long serialVersionUID = 1L;
+		private final String tableName;
+		private final int maximumSize;
+
+		TableCache(String tableName, int maximumSize) {
+			super(16, 0.75f, true);
+			this.tableName = tableName;
+			this.maximumSize = maximumSize;
+		}
+
+		@Override
+		protected boolean removeEldestEntry(Map.Entry<Object, DBRow> eldest) {
+			return size() > maximumSize;
+		}
+	}
+}
@@ -0,0 +1,97 @@
+/*
+ * Copyright 2019 Gregory Graham.
+ *
+ * Commercial licenses are available, please contact info@gregs.co.nz for details.
+ * 
+ * This work is licensed under the Creative Commons Attribution-NonCommercial-ShareAlike 4.0 International License. 
+ * To view a copy of this license, visit http://creativecommons.org/licenses/by-nc-sa/4.0/ 
+ * or send a letter to Creative Commons, PO Box 1866, Mountain View, CA 94042, USA.
+ * 
+ * You are free to:
+ *     Share - copy and redistribute the material in any medium or format
+ *     Adapt - remix, transform, and build upon the material
+ * 
+ *     The licensor cannot revoke these freedoms as long as you follow the license terms.               
+ *     Under the following terms:
+ *                 
+ *         Attribution - 
+ *             You must give appropriate credit, provide a link to the license, and indicate if changes were made. 
+ *             You may do so in any reasonable manner, but not in any way that suggests the licensor endorses you or your use.
+ *         NonCommercial - 
+ *             You may not use the material for commercial purposes.
+ *         ShareAlike - 
+ *             If you remix, transform, or build upon the material, 
+ *             you must distribute your contributions under the same license as the original.
+ *         No additional restrictions - 
+ *             You may not apply legal terms or technological measures that legally restrict others from doing anything the 
+ *             license permits.
+ * 
+ * Check the Creative Commons website for any details, legalese, and updates.
+ */
+package nz.co.gregs.dbvolution.internal.database;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.TreeSet;
+
+/**
+ * Counts the changes made to each table through a database.
+ *
+ * <p>
+ * Every action executed by the database moves the generation of its tables on
+ * and clearing the caches moves every table on. Queries record the generation
+ * of their tables before they start so that results read before a change are
+ * never shared with queries started after it.
+ *
+ * <p style="color: #F90;">Support DBvolution at
+ * <a href="http://patreon.com/dbvolution" target=new>Patreon</a></p>
+ *
+ * @author Gregory Graham
+ */
+public class TableGenerations {
+
+	private final Map<String, Long> generations = new HashMap<>();
+	private long epoch = 0;
+
+	/**
+	 * Returns the current generation of the tables.
+	 *
+	 * <p>
+	 * Two generations for the same tables are equal only if no action has
+	 * changed any of the tables in between.
+	 *
+	 * <p style="color: #F90;">Support DBvolution at
+	 * <a href="http://patreon.com/dbvolution" target=new>Patreon</a></p>
+	 *
+	 * @param tableNames the tables involved
+	 * @return the generation of the tables
+	 */
+	public synchronized String getGeneration(Collection<String> tableNames) {
+		StringBuilder generation = new StringBuilder().append(epoch);
+		for (String tableName : new TreeSet<>(tableNames)) {
+			final Long tableGeneration = generations.get(tableName);
+			generation.append(':').append(tableGeneration == null ? 0L : tableGeneration);
+		}
+		return generation.toString();
+	}
+
+	/**
+	 * Moves the table on to a new generation after it has been changed.
+	 *
+	 * @param tableName the table that has changed
+	 */
+	public synchronized void increment(String tableName) {
+		final Long tableGeneration = generations.get(tableName);
+		generations.put(tableName, tableGeneration == null ? 1L : tableGeneration + 1);
+	}
+
+	/**
+	 * Moves every table on to a new generation after changes that were not
+	 * tracked by table.
+	 */
+	public synchronized void incrementAll() {
+		epoch++;
+		generations.clear();
+	}
+}
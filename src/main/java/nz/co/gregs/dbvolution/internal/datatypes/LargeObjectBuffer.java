@@ -0,0 +1,424 @@
+/*
+ * Copyright 2019 Gregory Graham.
+ *
+ * Commercial licenses are available, please contact info@gregs.co.nz for details.
+ * 
+ * This work is licensed under the Creative Commons Attribution-NonCommercial-ShareAlike 4.0 International License. 
+ * To view a copy of this license, visit http://creativecommons.org/licenses/by-nc-sa/4.0/ 
+ * or send a letter to Creative Commons, PO Box 1866, Mountain View, CA 94042, USA.
+ * 
+ * You are free to:
+ *     Share - copy and redistribute the material in any medium or format
+ *     Adapt - remix, transform, and build upon the material
+ * 
+ *     The licensor cannot revoke these freedoms as long as you follow the license terms.               
+ *     Under the following terms:
+ *                 
+ *         Attribution - 
+ *             You must give appropriate credit, provide a link to the license, and indicate if changes were made. 
+ *             You may do so in any reasonable manner, but not in any way that suggests the licensor endorses you or your use.
+ *         NonCommercial - 
+ *             You may not use the material for commercial purposes.
+ *         ShareAlike - 
+ *             If you remix, transform, or build upon the material, 
+ *             you must distribute your contributions under the same license as the original.
+ *         No additional restrictions - 
+ *             You may not apply legal terms or technological measures that legally restrict others from doing anything the 
+ *             license permits.
+ * 
+ * Check the Creative Commons website for any details, legalese, and updates.
+ */
+package nz.co.gregs.dbvolution.internal.datatypes;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InvalidObjectException;
+import java.io.ObjectStreamException;
+import java.io.OutputStream;
+import java.io.Reader;
+import java.io.Serializable;
+import java.lang.ref.PhantomReference;
+import java.lang.ref.Reference;
+import java.lang.ref.ReferenceQueue;
+import java.nio.channels.Channels;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import static java.nio.charset.StandardCharsets.UTF_8;
+import java.util.Collections;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Holds the value of a large object read from the database, keeping small
+ * values in memory and spilling large values to a temporary file.
+ *
+ * <p>
+ * Values are read in chunks so the heap only ever holds the threshold plus a
+ * small buffer regardless of the size of the large object.
+ *
+ * <p>
+ * Buffers are shared by copies of a large object, so each user
+ * {@link #retain() retains} the buffer and {@link #release() releases} it when
+ * the value is replaced. The temporary file is deleted when the last user
+ * releases the buffer. Files of buffers that become unreachable without being
+ * released are deleted when the next value is spilled, and any remaining files
+ * are deleted when the JVM exits.
+ *
+ * <p style="color: #F90;">Support DBvolution at
+ * <a href="http://patreon.com/dbvolution" target=new>Patreon</a></p>
+ *
+ * @author Gregory Graham
+ */
+public class LargeObjectBuffer implements Serializable {
+
+	private static final long serialVersionUID = 1L;
+
+	private static final int CHUNK_SIZE = 64 * 1024;
+
+	private static final ReferenceQueue<LargeObjectBuffer> UNREACHABLE_BUFFERS = new ReferenceQueue<>();
+	private static final Set<TemporaryFile> TEMPORARY_FILES = Collections.newSetFromMap(new ConcurrentHashMap<TemporaryFile, Boolean>());
+
+	static {
+		Runtime.getRuntime().addShutdownHook(new Thread("DBvolution Large Object Cleanup") {
+			@Override
+			public void run() {
+				for (TemporaryFile temporaryFile : TEMPORARY_FILES) {
+					temporaryFile.delete();
+				}
+			}
+		});
+	}
+
+	private final byte[] bytes;
+	private final transient File file;
+	private final transient TemporaryFile temporaryFile;
+	private final transient AtomicInteger users;
+	private final long length;
+
+	private LargeObjectBuffer(byte[] bytes) {
+		this.bytes = bytes;
+		this.file = null;
+		this.temporaryFile = null;
+		this.users = null;
+		this.length = bytes.length;
+	}
+
+	private LargeObjectBuffer(File file, long length) {
+		this(file, length, true);
+	}
+
+	private LargeObjectBuffer(File file, long length, boolean temporary) {
+		this.bytes = null;
+		this.file = file;
+		this.temporaryFile = temporary ? new TemporaryFile(this, file) : null;
+		this.users = temporary ? new AtomicInteger(1) : null;
+		this.length = length;
+	}
+
+	/**
+	 * Creates a buffer that reads the value from an existing file.
+	 *
+	 * <p>
+	 * The file is not copied, so it is read each time the value is used and it
+	 * must not change until the value has been written to the database. The
+	 * file is never deleted.
+	 *
+	 * <p style="color: #F90;">Support DBvolution at
+	 * <a href="http://patreon.com/dbvolution" target=new>Patreon</a></p>
+	 *
+	 * @param path the file holding the large object's contents
+	 * @return a buffer over the file
+	 * @throws IOException the size of the file could not be read
+	 */
+	public static LargeObjectBuffer forFile(Path path) throws IOException {
+		return new LargeObjectBuffer(path.toFile(), Files.size(path), false);
+	}
+
+	/**
+	 * Reads the stream into a buffer, spilling to disk once the threshold is
+	 * passed.
+	 *
+	 * <p>
+	 * The stream is read to the end but not closed.
+	 *
+	 * @param input the large object's contents
+	 * @param threshold the largest number of bytes kept in memory
+	 * <p style="color: #F90;">Support DBvolution at
+	 * <a href="http://patreon.com/dbvolution" target=new>Patreon</a></p>
+	 * @return a buffer holding the contents of the stream
+	 * @throws IOException reading the stream or writing the temporary file
+	 * failed
+	 */
+	public static LargeObjectBuffer read(InputStream input, int threshold) throws IOException {
+		ByteArrayOutputStream memory = new ByteArrayOutputStream();
+		byte[] chunk = new byte[CHUNK_SIZE];
+		int bytesRead = input.read(chunk);
+		while (bytesRead >= 0) {
+			if (memory.size() + bytesRead > threshold) {
+				return spill(memory, chunk, bytesRead, input);
+			}
+			memory.write(chunk, 0, bytesRead);
+			bytesRead = input.read(chunk);
+		}
+		return new LargeObjectBuffer(memory.toByteArray());
+	}
+
+	/**
+	 * Reads the characters into a buffer, as UTF-8 bytes, spilling to disk once
+	 * the threshold is passed.
+	 *
+	 * <p>
+	 * The reader is read to the end but not closed.
+	 *
+	 * @param input the large object's contents
+	 * @param threshold the largest number of bytes kept in memory
+	 * <p style="color: #F90;">Support DBvolution at
+	 * <a href="http://patreon.com/dbvolution" target=new>Patreon</a></p>
+	 * @return a buffer holding the contents of the reader
+	 * @throws IOException reading the characters or writing the temporary file
+	 * failed
+	 */
+	public static LargeObjectBuffer read(Reader input, int threshold) throws IOException {
+		ByteArrayOutputStream memory = new ByteArrayOutputStream();
+		char[] chunk = new char[CHUNK_SIZE];
+		int charsRead = input.read(chunk);
+		while (charsRead >= 0) {
+			byte[] encoded = String.valueOf(chunk, 0, charsRead).getBytes(UTF_8);
+			if (memory.size() + encoded.length > threshold) {
+				File file = createTemporaryFile();
+				long length = 0;
+				try (OutputStream output = new BufferedOutputStream(new FileOutputStream(file))) {
+					memory.writeTo(output);
+					length += memory.size();
+					memory = null;
+					while (charsRead >= 0) {
+						encoded = String.valueOf(chunk, 0, charsRead).getBytes(UTF_8);
+						output.write(encoded);
+						length += encoded.length;
+						charsRead = input.read(chunk);
+					}
+				} catch (IOException ex) {
+					deleteFile(file);
+					throw ex;
+				}
+				return new LargeObjectBuffer(file, length);
+			}
+			memory.write(encoded);
+			charsRead = input.read(chunk);
+		}
+		return new LargeObjectBuffer(memory.toByteArray());
+	}
+
+	private static LargeObjectBuffer spill(ByteArrayOutputStream memory, byte[] chunk, int bytesRead, InputStream input) throws IOException {
+		File file = createTemporaryFile();
+		long length = 0;
+		try (OutputStream output = new BufferedOutputStream(new FileOutputStream(file))) {
+			memory.writeTo(output);
+			length += memory.size();
+			while (bytesRead >= 0) {
+				output.write(chunk, 0, bytesRead);
+				length += bytesRead;
+				bytesRead = input.read(chunk);
+			}
+		} catch (IOException ex) {
+			deleteFile(file);
+			throw ex;
+		}
+		return new LargeObjectBuffer(file, length);
+	}
+
+	private static File createTemporaryFile() throws IOException {
+		deleteUnreachableFiles();
+		return File.createTempFile("dbvolution-lob-", ".tmp");
+	}
+
+	private static void deleteUnreachableFiles() {
+		Reference<? extends LargeObjectBuffer> unreachable = UNREACHABLE_BUFFERS.poll();
+		while (unreachable != null) {
+			((TemporaryFile) unreachable).delete();
+			unreachable = UNREACHABLE_BUFFERS.poll();
+		}
+	}
+
+	private static boolean deleteFile(File file) {
+		return file == null || !file.exists() || file.delete();
+	}
+
+	/**
+	 * Indicates whether the value is held in a file rather than in memory.
+	 *
+	 * <p style="color: #F90;">Support DBvolution at
+	 * <a href="http://patreon.com/dbvolution" target=new>Patreon</a></p>
+	 *
+	 * @return TRUE if the value is stored on disk, otherwise FALSE
+	 */
+	public boolean isSpilled() {
+		return file != null;
+	}
+
+	/**
+	 * The number of bytes in the value.
+	 *
+	 * <p style="color: #F90;">Support DBvolution at
+	 * <a href="http://patreon.com/dbvolution" target=new>Patreon</a></p>
+	 *
+	 * @return the length of the value in bytes
+	 */
+	public long length() {
+		return length;
+	}
+
+	/**
+	 * Opens a new stream over the value.
+	 *
+	 * <p>
+	 * Remember to close the InputStream.
+	 *
+	 * <p style="color: #F90;">Support DBvolution at
+	 * <a href="http://patreon.com/dbvolution" target=new>Patreon</a></p>
+	 *
+	 * @return a stream that reads the value from the start
+	 * @throws IOException the temporary file could not be opened
+	 */
+	public InputStream getInputStream() throws IOException {
+		if (file == null) {
+			return new ByteArrayInputStream(bytes);
+		} else {
+			return new BufferedInputStream(new FileInputStream(file));
+		}
+	}
+
+	/**
+	 * Opens a new channel over the value.
+	 *
+	 * <p>
+	 * Remember to close the channel.
+	 *
+	 * <p style="color: #F90;">Support DBvolution at
+	 * <a href="http://patreon.com/dbvolution" target=new>Patreon</a></p>
+	 *
+	 * @return a channel that reads the value from the start
+	 * @throws IOException the temporary file could not be opened
+	 */
+	public ReadableByteChannel getChannel() throws IOException {
+		if (file == null) {
+			return Channels.newChannel(new ByteArrayInputStream(bytes));
+		} else {
+			return new FileInputStream(file).getChannel();
+		}
+	}
+
+	/**
+	 * Returns the whole value as a byte array.
+	 *
+	 * <p>
+	 * For spilled values this reads the entire temporary file into memory, use
+	 * {@link #getInputStream() } or {@link #getChannel() } to avoid that.
+	 *
+	 * <p style="color: #F90;">Support DBvolution at
+	 * <a href="http://patreon.com/dbvolution" target=new>Patreon</a></p>
+	 *
+	 * @return the value's bytes
+	 * @throws IOException the temporary file could not be read
+	 */
+	public byte[] getBytes() throws IOException {
+		if (file == null) {
+			return bytes;
+		} else {
+			if (length > Integer.MAX_VALUE) {
+				throw new IOException("Large Object Too Large For A Byte Array: " + length + " bytes, use getInputStream() instead.");
+			}
+			byte[] result = new byte[(int) length];
+			try (InputStream input = getInputStream()) {
+				int totalBytesRead = 0;
+				while (totalBytesRead < result.length) {
+					int bytesRead = input.read(result, totalBytesRead, result.length - totalBytesRead);
+					if (bytesRead < 0) {
+						throw new IOException("Large Object Temporary File Truncated: " + file.getAbsolutePath());
+					}
+					totalBytesRead += bytesRead;
+				}
+			}
+			return result;
+		}
+	}
+
+	/**
+	 * Adds a user of this buffer.
+	 *
+	 * <p>
+	 * Every call must be matched by a call to {@link #release() }.
+	 *
+	 * @return this buffer
+	 */
+	public LargeObjectBuffer retain() {
+		if (users != null) {
+			users.incrementAndGet();
+		}
+		return this;
+	}
+
+	/**
+	 * Removes a user of this buffer and deletes the temporary file, if there is
+	 * one, once the buffer has no users.
+	 *
+	 * <p>
+	 * The buffer cannot be read after the last user has released it.
+	 */
+	public void release() {
+		if (users != null && users.decrementAndGet() == 0) {
+			temporaryFile.delete();
+		}
+	}
+
+	/**
+	 * Serializes spilled values as in-memory values as the temporary file is
+	 * not available to other JVMs.
+	 *
+	 * @return an in-memory copy of this buffer
+	 * @throws ObjectStreamException the temporary file could not be read
+	 */
+	private Object writeReplace() throws ObjectStreamException {
+		if (file == null) {
+			return this;
+		}
+		try {
+			return new LargeObjectBuffer(getBytes());
+		} catch (IOException ex) {
+			InvalidObjectException invalid = new InvalidObjectException("Unable To Read Large Object: " + file.getAbsolutePath());
+			invalid.initCause(ex);
+			throw invalid;
+		}
+	}
+
+	/**
+	 * Deletes the temporary file of a buffer when the buffer is released or
+	 * becomes unreachable.
+	 */
+	private static class TemporaryFile extends PhantomReference<LargeObjectBuffer> {
+
+		private final File file;
+
+		TemporaryFile(LargeObjectBuffer buffer, File file) {
+			super(buffer, UNREACHABLE_BUFFERS);
+			this.file = file;
+			TEMPORARY_FILES.add(this);
+		}
+
+		void delete() {
+			if (deleteFile(file)) {
+				TEMPORARY_FILES.remove(this);
+				clear();
+			}
+		}
+	}
+}
@@ -17,8 +17,16 @@ package nz.co.gregs.dbvolution.internal.h2;
 
 import java.sql.SQLException;
 import java.sql.Statement;
+import java.util.Calendar;
+import java.util.Date;
+import java.util.GregorianCalendar;
 
 /**
+ * The H2 functions that implement {@link nz.co.gregs.dbvolution.datatypes.DBDateRepeat}.
+ *
+ * <p>
+ * Each function is a static method of this class that H2 calls directly.
+ * DateRepeat values are stored as strings like "P1Y2M3D4h5n6.7s".
  *
  * <p style="color: #F90;">Support DBvolution at
  * <a href="http://patreon.com/dbvolution" target=new>Patreon</a></p>
@@ -30,238 +38,71 @@ public enum DateRepeatFunctions implements DBVFeature {
 	/**
 	 *
 	 */
-	CREATE("String", "Date original, Date compareTo", ""
-			+ "import org.joda.time.Period;"
-			+ "import java.util.*;",
-			"		if (original==null||compareTo==null){return null;}\n"
-			+ "		int years = original.getYear() - compareTo.getYear();\n"
-			+ "		int months = original.getMonth() - compareTo.getMonth();\n"
-			+ "		int days = original.getDate() - compareTo.getDate();\n"
-			+ "		int hours = original.getHours() - compareTo.getHours();\n"
-			+ "		int minutes = original.getMinutes() - compareTo.getMinutes();\n"
-			+ "		int millis = (int) ((original.getTime() - ((original.getTime() / 1000) * 1000)) - (compareTo.getTime() - ((compareTo.getTime() / 1000) * 1000)));\n"
-			+ "		double seconds = original.getSeconds() - compareTo.getSeconds()+(millis/1000.0);\n"
-			+ "		String dateRepeatString = \"P\" + years + \"Y\" + months + \"M\" + days + \"D\" + hours + \"h\" + minutes + \"n\" + seconds + \"s\";\n"
-			+ "		return dateRepeatString;"
-			+ ""),
+	CREATE("create"),
 	/**
 	 *
 	 */
-	EQUALS("boolean", "String original, String compareTo",
-			"import org.joda.time.Period;"
-			+ "import java.util.*;",
-			"		if (original==null||compareTo==null){return false;}\n"
-			+ "		String[] splitOriginal = original.split(\"[A-Za-z]\");\n"
-			+ "		String[] splitCompareTo = compareTo.split(\"[A-Za-z]\");\n"
-			+ "		for (int i = 1; i < splitCompareTo.length; i++) { // Start at 1 because the first split is empty\n"
-			+ "			double intOriginal = Double.parseDouble(splitOriginal[i]);\n"
-			+ "			double intCompareTo = Double.parseDouble(splitCompareTo[i]);\n"
-			+ "			if (intOriginal > intCompareTo) {\n"
-			+ "				return false;\n"
-			+ "			}\n"
-			+ "			if (intOriginal < intCompareTo) {\n"
-			+ "				return false;\n"
-			+ "			}\n"
-			+ "		}\n"
-			+ "		return true;\n"),
+	EQUALS("isEqual"),
 	/**
 	 *
 	 */
-	LESSTHAN("boolean", "String original, String compareTo",
-			"import org.joda.time.Period;"
-			+ "import java.util.*;",
-			"		if (original==null||compareTo==null){return false;}\n"
-			+ "		String[] splitOriginal = original.split(\"[A-Za-z]\");\n"
-			+ "		String[] splitCompareTo = compareTo.split(\"[A-Za-z]\");\n"
-			+ "		for (int i = 1; i < splitCompareTo.length; i++) { // Start at 1 because the first split is empty\n"
-			+ "			double intOriginal = Double.parseDouble(splitOriginal[i]);\n"
-			+ "			double intCompareTo = Double.parseDouble(splitCompareTo[i]);\n"
-			+ "			if (intOriginal > intCompareTo) {\n"
-			+ "				return false;\n"
-			+ "			}\n"
-			+ "			if (intOriginal < intCompareTo) {\n"
-			+ "				return true;\n"
-			+ "			}\n"
-			+ "		}\n"
-			+ "		return false;\n"),
+	LESSTHAN("isLessThan"),
 	/**
 	 *
 	 */
-	LESSTHANEQUALS("boolean", "String original, String compareTo",
-			"import org.joda.time.Period;"
-			+ "import java.util.*;",
-			"		if (original==null||compareTo==null){return false;}\n"
-			+ "		String[] splitOriginal = original.split(\"[A-Za-z]\");\n"
-			+ "		String[] splitCompareTo = compareTo.split(\"[A-Za-z]\");\n"
-			+ "		for (int i = 1; i < splitCompareTo.length; i++) { // Start at 1 because the first split is empty\n"
-			+ "			double intOriginal = Double.parseDouble(splitOriginal[i]);\n"
-			+ "			double intCompareTo = Double.parseDouble(splitCompareTo[i]);\n"
-			+ "			if (intOriginal > intCompareTo) {\n"
-			+ "				return false;\n"
-			+ "			}\n"
-			+ "			if (intOriginal < intCompareTo) {\n"
-			+ "				return true;\n"
-			+ "			}\n"
-			+ "		}\n"
-			+ "		return true;\n"),
+	LESSTHANEQUALS("isLessThanOrEqual"),
 	/**
 	 *
 	 */
-	GREATERTHAN("boolean", "String original, String compareTo",
-			"import org.joda.time.Period;"
-			+ "import java.util.*;",
-			"		if (original==null||compareTo==null){return false;}\n"
-			+ "		String[] splitOriginal = original.split(\"[A-Za-z]\");\n"
-			+ "		String[] splitCompareTo = compareTo.split(\"[A-Za-z]\");\n"
-			+ "		for (int i = 1; i < splitCompareTo.length; i++) { // Start at 1 because the first split is empty\n"
-			+ "			double intOriginal = Double.parseDouble(splitOriginal[i]);\n"
-			+ "			double intCompareTo = Double.parseDouble(splitCompareTo[i]);\n"
-			+ "			if (intOriginal > intCompareTo) {\n"
-			+ "				return true;\n"
-			+ "			}\n"
-			+ "			if (intOriginal < intCompareTo) {\n"
-			+ "				return false;\n"
-			+ "			}\n"
-			+ "		}\n"
-			+ "		return false;\n"),
+	GREATERTHAN("isGreaterThan"),
 	/**
 	 *
 	 */
-	GREATERTHANEQUALS("boolean", "String original, String compareTo",
-			"import org.joda.time.Period;"
-			+ "import java.util.*;",
-			"		if (original==null||compareTo==null){return false;}\n"
-			+ "		String[] splitOriginal = original.split(\"[A-Za-z]\");\n"
-			+ "		String[] splitCompareTo = compareTo.split(\"[A-Za-z]\");\n"
-			+ "		for (int i = 1; i < splitCompareTo.length; i++) { // Start at 1 because the first split is empty\n"
-			+ "			double intOriginal = Double.parseDouble(splitOriginal[i]);\n"
-			+ "			double intCompareTo = Double.parseDouble(splitCompareTo[i]);\n"
-			+ "			if (intOriginal > intCompareTo) {\n"
-			+ "				return true;\n"
-			+ "			}\n"
-			+ "			if (intOriginal < intCompareTo) {\n"
-			+ "				return false;\n"
-			+ "			}\n"
-			+ "		}\n"
-			+ "		return true;\n"),
+	GREATERTHANEQUALS("isGreaterThanOrEqual"),
 	/**
 	 *
 	 */
-	DATEADDITION("Date", "Date original, String dateRepeatInput",
-			"import org.joda.time.Period;"
-			+ "import java.util.*;",
-			"\n"
-			+ "		if (original == null || dateRepeatInput == null || dateRepeatInput.length() == 0) {\n"
-			+ "			return null;\n"
-			+ "		}\n"
-			+ "		String dateRepeatStr = dateRepeatInput.replaceAll(\"[^-.PYMDhns0-9]+\", \"\");\n"
-			+ "		Calendar cal = new GregorianCalendar();\n"
-			+ "		cal.setTime(original);\n"
-			+ "		int years = Integer.parseInt(dateRepeatStr.replaceAll(\".*P([-0-9.]+)Y.*\", \"$1\"));\n"
-			+ "		int months = Integer.parseInt(dateRepeatStr.replaceAll(\".*Y([-0-9.]+)M.*\", \"$1\"));\n"
-			+ "		int days = Integer.parseInt(dateRepeatStr.replaceAll(\".*M([-0-9.]+)D.*\", \"$1\"));\n"
-			+ "		int hours = Integer.parseInt(dateRepeatStr.replaceAll(\".*D([-0-9.]+)h.*\", \"$1\"));\n"
-			+ "		int minutes = Integer.parseInt(dateRepeatStr.replaceAll(\".*h([-0-9.]+)n.*\", \"$1\"));\n"
-			+ "		int seconds = Integer.valueOf(dateRepeatStr.replaceAll(\".*n([-0-9]+)[.]*([0-9])*s.*\", \"$1\"));\n"
-			+ "		int millis = Integer.valueOf(dateRepeatStr.replaceAll(\".*n([-0-9]+)[.]*([0-9])*s.*\", \"$2\"));\n"
-			+ "\n"
-			+ "		cal.add(Calendar.YEAR, years);\n"
-			+ "		cal.add(Calendar.MONTH, months);\n"
-			+ "		cal.add(Calendar.DAY_OF_MONTH, days);\n"
-			+ "		cal.add(Calendar.HOUR, hours);\n"
-			+ "		cal.add(Calendar.MINUTE, minutes);\n"
-			+ "		cal.add(Calendar.SECOND, seconds);\n"
-			+ "		cal.add(Calendar.MILLISECOND, millis);\n"
-			+ "		return cal.getTime();"
-			+ ""),
+	DATEADDITION("addToDate"),
 	/**
 	 *
 	 */
-	DATESUBTRACTION("Date", "Date original, String dateRepeatInput",
-			"import org.joda.time.Period;"
-			+ "import java.util.*;",
-			"\n"
-			+ "		if (original == null || dateRepeatInput == null || dateRepeatInput.length() == 0) {\n"
-			+ "			return null;\n"
-			+ "		}\n"
-			+ "		String dateRepeatStr = dateRepeatInput.replaceAll(\"[^-.PYMDhns0-9]+\", \"\");\n"
-			+ "		Calendar cal = new GregorianCalendar();\n"
-			+ "		cal.setTime(original);\n"
-			+ "		int years = Integer.parseInt(dateRepeatStr.replaceAll(\".*P([-0-9.]+)Y.*\", \"$1\"));\n"
-			+ "		int months = Integer.parseInt(dateRepeatStr.replaceAll(\".*Y([-0-9.]+)M.*\", \"$1\"));\n"
-			+ "		int days = Integer.parseInt(dateRepeatStr.replaceAll(\".*M([-0-9.]+)D.*\", \"$1\"));\n"
-			+ "		int hours = Integer.parseInt(dateRepeatStr.replaceAll(\".*D([-0-9.]+)h.*\", \"$1\"));\n"
-			+ "		int minutes = Integer.parseInt(dateRepeatStr.replaceAll(\".*h([-0-9.]+)n.*\", \"$1\"));\n"
-			+ "		int seconds = Integer.valueOf(dateRepeatStr.replaceAll(\".*n([-0-9]+)[.]*([0-9])*s.*\", \"$1\"));\n"
-			+ "		int millis = Integer.valueOf(dateRepeatStr.replaceAll(\".*n([-0-9]+)[.]*([0-9])*s.*\", \"$2\"));\n"
-			+ "\n"
-			+ "		cal.add(Calendar.YEAR, -1 * years);\n"
-			+ "		cal.add(Calendar.MONTH, -1 * months);\n"
-			+ "		cal.add(Calendar.DAY_OF_MONTH, -1 * days);\n"
-			+ "		cal.add(Calendar.HOUR, -1 * hours);\n"
-			+ "		cal.add(Calendar.MINUTE, -1 * minutes);\n"
-			+ "		cal.add(Calendar.MILLISECOND, -1 * seconds);\n"
-			+ "		return cal.getTime();"
-			+ ""),
+	DATESUBTRACTION("subtractFromDate"),
 	/**
 	 *
 	 */
-	YEAR_PART("Integer", "String dateRepeatStr", "", "NumberFormatException",
-			"		if (dateRepeatStr==null||dateRepeatStr.length()==0){return null;}\n"
-			+ "		return Integer.parseInt(dateRepeatStr.replaceAll(\".*P([-0-9.]+)Y.*\", \"$1\"));\n"),
+	YEAR_PART("getYearPart"),
 	/**
 	 *
 	 */
-	MONTH_PART("Integer", "String dateRepeatStr", "", "NumberFormatException",
-			"		if (dateRepeatStr==null||dateRepeatStr.length()==0){return null;}\n"
-			+ "		return Integer.parseInt(dateRepeatStr.replaceAll(\".*Y([-0-9.]+)M.*\", \"$1\"));\n"),
+	MONTH_PART("getMonthPart"),
 	/**
 	 *
 	 */
-	DAY_PART("Integer", "String dateRepeatStr", "", "NumberFormatException",
-			"		if (dateRepeatStr==null||dateRepeatStr.length()==0){return null;}\n"
-			+ "		return Integer.parseInt(dateRepeatStr.replaceAll(\".*M([-0-9.]+)D.*\", \"$1\"));\n"),
+	DAY_PART("getDayPart"),
 	/**
 	 *
 	 */
-	HOUR_PART("Integer", "String dateRepeatStr", "", "NumberFormatException",
-			"		if (dateRepeatStr==null||dateRepeatStr.length()==0){return null;}\n"
-			+ "		return Integer.parseInt(dateRepeatStr.replaceAll(\".*D([-0-9.]+)h.*\", \"$1\"));\n"),
+	HOUR_PART("getHourPart"),
 	/**
 	 *
 	 */
-	MINUTE_PART("Integer", "String dateRepeatStr", "", "NumberFormatException",
-			"		if (dateRepeatStr==null||dateRepeatStr.length()==0){return null;}\n"
-			+ "		return Integer.parseInt(dateRepeatStr.replaceAll(\".*h([-0-9.]+)n.*\", \"$1\"));\n"),
+	MINUTE_PART("getMinutePart"),
 	/**
 	 *
 	 */
-	SECOND_PART("Integer", "String dateRepeatStr", "", "NumberFormatException",
-			"		if (dateRepeatStr==null||dateRepeatStr.length()==0){return null;}\n"
-			+ "		return Double.valueOf(dateRepeatStr.replaceAll(\".*n([-0-9.]+)s.*\", \"$1\")).intValue();\n");
+	SECOND_PART("getSecondPart");
 
-	private final String returnType;
-	private final String parameters;
-	private final String imports;
-	private final String exceptions;
-	private final String code;
+	private static final int YEARS = 0;
+	private static final int MONTHS = 1;
+	private static final int DAYS = 2;
+	private static final int HOURS = 3;
+	private static final int MINUTES = 4;
+	private static final int SECONDS = 5;
 
-	DateRepeatFunctions(String returnType, String parameters, String imports, String code) {
-//		this.functionName = functionName;
-		this.returnType = returnType;
-		this.parameters = parameters;
-		this.imports = imports;
-		this.exceptions = "";
-		this.code = code;
-	}
+	private final String methodName;
 
-	DateRepeatFunctions(String returnType, String parameters, String imports, String exceptions, String code) {
-//		this.functionName = functionName;
-		this.returnType = returnType;
-		this.parameters = parameters;
-		this.imports = imports;
-		this.exceptions = exceptions;
-		this.code = code;
+	DateRepeatFunctions(String methodName) {
+		this.methodName = methodName;
 	}
 
 	@Override
@@ -281,12 +122,215 @@ public enum DateRepeatFunctions implements DBVFeature {
 	 */
 	@Override
 	public void add(Statement stmt) throws SQLException {
-		try {
-			stmt.execute("DROP ALIAS " + this + ";");
-		} catch (SQLException sqlex) {
-			;// Not an issue.
+		stmt.execute("CREATE ALIAS IF NOT EXISTS " + this + " DETERMINISTIC FOR \"" + DateRepeatFunctions.class.getName() + "." + methodName + "\";");
+	}
+
+	/**
+	 * Implements DBV_DATEREPEAT_CREATE.
+	 *
+	 * @param original the later date
+	 * @param compareTo the earlier date
+	 * @return the DateRepeat value that separates the two dates
+	 */
+	@SuppressWarnings("deprecation")
+	public static String create(Date original, Date compareTo) {
+		if (original == null || compareTo == null) {
+			return null;
+		}
+		int years = original.getYear() - compareTo.getYear();
+		int months = original.getMonth() - compareTo.getMonth();
+		int days = original.getDate() - compareTo.getDate();
+		int hours = original.getHours() - compareTo.getHours();
+		int minutes = original.getMinutes() - compareTo.getMinutes();
+		int millis = (int) ((original.getTime() - ((original.getTime() / 1000) * 1000)) - (compareTo.getTime() - ((compareTo.getTime() / 1000) * 1000)));
+		double seconds = original.getSeconds() - compareTo.getSeconds() + (millis / 1000.0);
+		return "P" + years + "Y" + months + "M" + days + "D" + hours + "h" + minutes + "n" + seconds + "s";
+	}
+
+	/**
+	 * Compares the parts of the DateRepeat values from years down to seconds.
+	 *
+	 * @param original a DateRepeat value
+	 * @param compareTo a DateRepeat value
+	 * @return a negative number, zero, or a positive number as the first value
+	 * is less than, equal to, or greater than the second
+	 */
+	private static int compare(String original, String compareTo) {
+		double[] originalParts = ParsedValueCache.dateRepeat(original);
+		double[] compareToParts = ParsedValueCache.dateRepeat(compareTo);
+		for (int i = 0; i < compareToParts.length; i++) {
+			int result = Double.compare(originalParts[i], compareToParts[i]);
+			if (result != 0) {
+				return result;
+			}
+		}
+		return 0;
+	}
+
+	/**
+	 * Implements DBV_DATEREPEAT_EQUALS.
+	 *
+	 * @param original a DateRepeat value
+	 * @param compareTo a DateRepeat value
+	 * @return TRUE if the values are the same, FALSE if either is NULL
+	 */
+	public static boolean isEqual(String original, String compareTo) {
+		return original != null && compareTo != null && compare(original, compareTo) == 0;
+	}
+
+	/**
+	 * Implements DBV_DATEREPEAT_LESSTHAN.
+	 *
+	 * @param original a DateRepeat value
+	 * @param compareTo a DateRepeat value
+	 * @return TRUE if the first value is less than the second, FALSE if either
+	 * is NULL
+	 */
+	public static boolean isLessThan(String original, String compareTo) {
+		return original != null && compareTo != null && compare(original, compareTo) < 0;
+	}
+
+	/**
+	 * Implements DBV_DATEREPEAT_LESSTHANEQUALS.
+	 *
+	 * @param original a DateRepeat value
+	 * @param compareTo a DateRepeat value
+	 * @return TRUE if the first value is less than or equal to the second,
+	 * FALSE if either is NULL
+	 */
+	public static boolean isLessThanOrEqual(String original, String compareTo) {
+		return original != null && compareTo != null && compare(original, compareTo) <= 0;
+	}
+
+	/**
+	 * Implements DBV_DATEREPEAT_GREATERTHAN.
+	 *
+	 * @param original a DateRepeat value
+	 * @param compareTo a DateRepeat value
+	 * @return TRUE if the first value is greater than the second, FALSE if
+	 * either is NULL
+	 */
+	public static boolean isGreaterThan(String original, String compareTo) {
+		return original != null && compareTo != null && compare(original, compareTo) > 0;
+	}
+
+	/**
+	 * Implements DBV_DATEREPEAT_GREATERTHANEQUALS.
+	 *
+	 * @param original a DateRepeat value
+	 * @param compareTo a DateRepeat value
+	 * @return TRUE if the first value is greater than or equal to the second,
+	 * FALSE if either is NULL
+	 */
+	public static boolean isGreaterThanOrEqual(String original, String compareTo) {
+		return original != null && compareTo != null && compare(original, compareTo) >= 0;
+	}
+
+	/**
+	 * Implements DBV_DATEREPEAT_DATEADDITION.
+	 *
+	 * @param original a date
+	 * @param dateRepeatInput a DateRepeat value
+	 * @return the date moved forward by the DateRepeat value
+	 */
+	public static Date addToDate(Date original, String dateRepeatInput) {
+		return offsetDate(original, dateRepeatInput, 1);
+	}
+
+	/**
+	 * Implements DBV_DATEREPEAT_DATESUBTRACTION.
+	 *
+	 * @param original a date
+	 * @param dateRepeatInput a DateRepeat value
+	 * @return the date moved backward by the DateRepeat value
+	 */
+	public static Date subtractFromDate(Date original, String dateRepeatInput) {
+		return offsetDate(original, dateRepeatInput, -1);
+	}
+
+	private static Date offsetDate(Date original, String dateRepeatInput, int direction) {
+		if (original == null || dateRepeatInput == null || dateRepeatInput.length() == 0) {
+			return null;
 		}
-		final String createFunctionStatement = "CREATE ALIAS IF NOT EXISTS " + this + " DETERMINISTIC AS $$ \n" + imports + "\n\n" + "@CODE " + returnType + " " + this + "(" + parameters + ") " + (exceptions.equals("") ? "" : "throws " + exceptions) + "{\n" + code + "} $$;";
-		stmt.execute(createFunctionStatement);
+		double[] parts = ParsedValueCache.dateRepeat(dateRepeatInput);
+		final int seconds = (int) parts[SECONDS];
+		final int millis = (int) (parts[SECONDS] * 1000.0 - seconds * 1000);
+		Calendar cal = new GregorianCalendar();
+		cal.setTime(original);
+		cal.add(Calendar.YEAR, direction * (int) parts[YEARS]);
+		cal.add(Calendar.MONTH, direction * (int) parts[MONTHS]);
+		cal.add(Calendar.DAY_OF_MONTH, direction * (int) parts[DAYS]);
+		cal.add(Calendar.HOUR, direction * (int) parts[HOURS]);
+		cal.add(Calendar.MINUTE, direction * (int) parts[MINUTES]);
+		cal.add(Calendar.SECOND, direction * seconds);
+		cal.add(Calendar.MILLISECOND, direction * millis);
+		return cal.getTime();
+	}
+
+	private static Integer getPart(String dateRepeatStr, int part) {
+		if (dateRepeatStr == null || dateRepeatStr.length() == 0) {
+			return null;
+		}
+		return (int) ParsedValueCache.dateRepeat(dateRepeatStr)[part];
+	}
+
+	/**
+	 * Implements DBV_DATEREPEAT_YEAR_PART.
+	 *
+	 * @param dateRepeatStr a DateRepeat value
+	 * @return the years of the DateRepeat value
+	 */
+	public static Integer getYearPart(String dateRepeatStr) {
+		return getPart(dateRepeatStr, YEARS);
+	}
+
+	/**
+	 * Implements DBV_DATEREPEAT_MONTH_PART.
+	 *
+	 * @param dateRepeatStr a DateRepeat value
+	 * @return the months of the DateRepeat value
+	 */
+	public static Integer getMonthPart(String dateRepeatStr) {
+		return getPart(dateRepeatStr, MONTHS);
+	}
+
+	/**
+	 * Implements DBV_DATEREPEAT_DAY_PART.
+	 *
+	 * @param dateRepeatStr a DateRepeat value
+	 * @return the days of the DateRepeat value
+	 */
+	public static Integer getDayPart(String dateRepeatStr) {
+		return getPart(dateRepeatStr, DAYS);
+	}
+
+	/**
+	 * Implements DBV_DATEREPEAT_HOUR_PART.
+	 *
+	 * @param dateRepeatStr a DateRepeat value
+	 * @return the hours of the DateRepeat value
+	 */
+	public static Integer getHourPart(String dateRepeatStr) {
+		return getPart(dateRepeatStr, HOURS);
+	}
+
+	/**
+	 * Implements DBV_DATEREPEAT_MINUTE_PART.
+	 *
+	 * @param dateRepeatStr a DateRepeat value
+	 * @return the minutes of the DateRepeat value
+	 */
+	public static Integer getMinutePart(String dateRepeatStr) {
+		return getPart(dateRepeatStr, MINUTES);
+	}
+
+	/**
+	 * Implements DBV_DATEREPEAT_SECOND_PART.
+	 *
+	 * @param dateRepeatStr a DateRepeat value
+	 * @return the whole seconds of the DateRepeat value
+	 */
+	public static Integer getSecondPart(String dateRepeatStr) {
+		return getPart(dateRepeatStr, SECONDS);
 	}
 }
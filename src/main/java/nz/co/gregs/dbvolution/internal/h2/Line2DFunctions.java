@@ -17,8 +17,13 @@ package nz.co.gregs.dbvolution.internal.h2;
 
 import java.sql.SQLException;
 import java.sql.Statement;
+import nz.co.gregs.dbvolution.internal.h2.ParsedValueCache.Ordinates;
 
 /**
+ * The H2 functions that implement {@link nz.co.gregs.dbvolution.datatypes.spatial2D.DBLine2D}.
+ *
+ * <p>
+ * Each function is a static method of this class that H2 calls directly.
  *
  * <p style="color: #F90;">Support DBvolution at
  * <a href="http://patreon.com/dbvolution" target=new>Patreon</a></p>
@@ -30,291 +35,58 @@ public enum Line2DFunctions implements DBVFeature {
 	/**
 	 *
 	 */
-	CREATE("DBV_CREATE_LINE2D_FROM_COORDS", "String", "Double... coords", "\n"
-			+ "			Integer numberOfArguments = coords.length;\n"
-			+ "			if (numberOfArguments % 2 != 0) {\n"
-			+ "				return null;\n"
-			+ "			} else {\n"
-			+ "				String resultStr = \"LINESTRING (\";\n"
-			+ "				String sep = \"\";\n"
-			+ "				for (int i = 0; i < numberOfArguments; i += 2) {\n"
-			+ "					Double x = coords[i];\n"
-			+ "					Double y = coords[i + 1];\n"
-			+ "					if (x == null || y == null) {\n"
-			+ "						return null;\n"
-			+ "					} else {\n"
-			+ "						resultStr += sep + x + \" \" + y;\n"
-			+ "						sep = \", \";\n"
-			+ "					}\n"
-			+ "				}\n"
-			+ "				resultStr += \")\";\n"
-			+ "				return resultStr;\n"
-			+ "			}"),
+	CREATE("DBV_CREATE_LINE2D_FROM_COORDS", "create"),
 	/**
 	 *
 	 */
-	EQUALS("DBV_LINE2D_EQUALS", "Boolean", "String firstLine, String secondLine", "\n"
-			+ "			if (firstLine == null || secondLine == null) {\n"
-			+ "				return null;\n"
-			+ "			} else {\n"
-			+ "				return firstLine.equals(secondLine);\n"
-			+ "			}"),
+	EQUALS("DBV_LINE2D_EQUALS", "isEqual"),
 	/**
 	 *
 	 */
-	MAXX("DBV_LINE2D_MAXX", "Double", "String firstLine", "\n"
-			+ "			if (firstLine == null) {\n"
-			+ "				return null;\n"
-			+ "			} else {\n"
-			+ "				Double maxX = null;\n"
-			+ "				String[] split = firstLine.split(\"[ (),]+\");\n"
-			+ "				for (int i = 1; i < split.length; i += 2) {\n"
-			+ "					double x = Double.parseDouble(split[i]);\n"
-			+ "					if (maxX==null || maxX<x){\n"
-			+ "						maxX = x;\n"
-			+ "					}\n"
-			+ "				}\n"
-			+ "				return maxX;\n"
-			+ "			}"),
+	MAXX("DBV_LINE2D_MAXX", "getMaxX"),
 	/**
 	 *
 	 */
-	MAXY("DBV_LINE2D_MAXY", "Double", "String firstLine", "\n"
-			+ "			if (firstLine == null) {\n"
-			+ "				return null;\n"
-			+ "			} else {\n"
-			+ "				Double maxY = null;\n"
-			+ "				String[] split = firstLine.split(\"[ (),]+\");\n"
-			+ "				for (int i = 1; i < split.length; i += 2) {\n"
-			+ "					double y = Double.parseDouble(split[i + 1]);\n"
-			+ "					if (maxY==null || maxY<y){\n"
-			+ "						maxY = y;\n"
-			+ "					}\n"
-			+ "				}\n"
-			+ "				return maxY;\n"
-			+ "			}"),
+	MAXY("DBV_LINE2D_MAXY", "getMaxY"),
 	/**
 	 *
 	 */
-	MINX("DBV_LINE2D_MINX", "Double", "String firstLine", "\n"
-			+ "			if (firstLine == null) {\n"
-			+ "				return null;\n"
-			+ "			} else {\n"
-			+ "				Double maxX = null;\n"
-			+ "				String[] split = firstLine.split(\"[ (),]+\");\n"
-			+ "				for (int i = 1; i < split.length; i += 2) {\n"
-			+ "					double x = Double.parseDouble(split[i]);\n"
-			+ "					if (maxX==null || maxX>x){\n"
-			+ "						maxX = x;\n"
-			+ "					}\n"
-			+ "				}\n"
-			+ "				return maxX;\n"
-			+ "			}"),
+	MINX("DBV_LINE2D_MINX", "getMinX"),
 	/**
 	 *
 	 */
-	MINY("DBV_LINE2D_MINY", "Double", "String firstLine", "\n"
-			+ "			if (firstLine == null) {\n"
-			+ "				return null;\n"
-			+ "			} else {\n"
-			+ "				Double maxY = null;\n"
-			+ "				String[] split = firstLine.split(\"[ (),]+\");\n"
-			+ "				for (int i = 1; i < split.length; i += 2) {\n"
-			+ "					double y = Double.parseDouble(split[i + 1]);\n"
-			+ "					if (maxY==null || maxY>y){\n"
-			+ "						maxY = y;\n"
-			+ "					}\n"
-			+ "				}\n"
-			+ "				return maxY;\n"
-			+ "			}"),
+	MINY("DBV_LINE2D_MINY", "getMinY"),
 	/**
 	 *
 	 */
-	BOUNDINGBOX("DBV_LINE2D_BOUNDINGBOX", "String", "String firstLine", "\n"
-			+ "			if (firstLine == null) {\n"
-			+ "				return null;\n"
-			+ "			} else {\n"
-			+ "				Double maxX = null;\n"
-			+ "				Double maxY = null;\n"
-			+ "				Double minX = null;\n"
-			+ "				Double minY = null;\n"
-			+ "				String[] split = firstLine.split(\"[ (),]+\");\n"
-			+ "				for (int i = 1; i < split.length; i += 2) {\n"
-			+ "					double x = Double.parseDouble(split[i]);\n"
-			+ "					double y = Double.parseDouble(split[i + 1]);\n"
-			+ "					if (maxX==null || maxX<x){\n"
-			+ "						maxX = x;\n"
-			+ "					}\n"
-			+ "					if (maxY==null || maxY<y){\n"
-			+ "						maxY = y;\n"
-			+ "					}\n"
-			+ "					if (minX==null || minX>x){\n"
-			+ "						minX = x;\n"
-			+ "					}\n"
-			+ "					if (minY==null || minY>y){\n"
-			+ "						minY = y;\n"
-			+ "					}\n"
-			+ "				}\n"
-			+ "				String resultString = \"POLYGON ((\" + minX+\" \"+minY + \", \" + maxX+\" \"+minY + \", \" + maxX+\" \"+maxY + \", \" + minX+\" \"+maxY + \", \" + minX+\" \"+minY + \"))\";\n"
-			+ "				return resultString;\n"
-			+ "			}"),
+	BOUNDINGBOX("DBV_LINE2D_BOUNDINGBOX", "getBoundingBox"),
 	/**
 	 *
 	 */
-	DIMENSION("DBV_LINE2D_DIMENSION", "Integer", "String firstLine", "return 1;"),
+	DIMENSION("DBV_LINE2D_DIMENSION", "getDimension"),
 	/**
 	 *
 	 */
-	ASTEXT("DBV_LINE2D_ASTEXT", "String", "String firstLine", "return firstLine;"),
+	ASTEXT("DBV_LINE2D_ASTEXT", "asText"),
 	/**
 	 *
 	 */
-	INTERSECTS_LINE2D("DBV_LINE2D_INTERSECTS_LINE2D", "Boolean", "String firstLine, String secondLine", "\n"
-			+ "		if (firstLine == null || secondLine == null) {\n"
-			+ "			return null;\n"
-			+ "		}\n"
-			+ "		String[] split1 = firstLine.split(\"[ (),]+\");\n"
-			+ "		String[] split2 = secondLine.split(\"[ (),]+\");\n"
-			+ "		for (int index1 = 0; index1 < split1.length - 3; index1 += 2) {\n"
-			+ "			double p0x = Double.parseDouble(split1[index1 + 1]);\n"
-			+ "			double p0y = Double.parseDouble(split1[index1 + 2]);\n"
-			+ "			double p1x = Double.parseDouble(split1[index1 + 3]);\n"
-			+ "			double p1y = Double.parseDouble(split1[index1 + 4]);\n"
-			+ "\n"
-			+ "			for (int index2 = 0; index2 < split2.length - 3; index2 += 2) {\n"
-			+ "				double p2x = Double.parseDouble(split2[index2 + 1]);\n"
-			+ "				double p2y = Double.parseDouble(split2[index2 + 2]);\n"
-			+ "				double p3x = Double.parseDouble(split2[index2 + 3]);\n"
-			+ "				double p3y = Double.parseDouble(split2[index2 + 4]);\n"
-			+ "\n"
-			+ "				double s1_x, s1_y, s2_x, s2_y;\n"
-			+ "				double i_x, i_y;\n"
-			+ "				s1_x = p1x - p0x;\n"
-			+ "				s1_y = p1y - p0y;\n"
-			+ "				s2_x = p3x - p2x;\n"
-			+ "				s2_y = p3y - p2y;\n"
-			+ "\n"
-			+ "				double s, t;\n"
-			+ "\n"
-			+ "				s = (-s1_y * (p0x - p2x) + s1_x * (p0y - p2y)) / (-s2_x * s1_y + s1_x * s2_y);\n"
-			+ "				t = (s2_x * (p0y - p2y) - s2_y * (p0x - p2x)) / (-s2_x * s1_y + s1_x * s2_y);\n"
-			+ "\n"
-			+ "				if (s >= 0 && s <= 1 && t >= 0 && t <= 1) {\n"
-			+ "					// Collision detected\n"
-			+ "					return true;\n"
-			+ "					//i_x = p0x + (t * s1_x);\n"
-			+ "					//i_y = p0y + (t * s1_y);\n"
-			+ "					//pointsFound.add(\"POINT (\" + i_x + \" \" + i_y + \")\");\n"
-			+ "				} else {\n"
-			+ "					// No collision\n"
-			+ "					//return null;\n"
-			+ "				}\n"
-			+ "			}\n"
-			+ "		}\n"
-			+ "		return false;"),
+	INTERSECTS_LINE2D("DBV_LINE2D_INTERSECTS_LINE2D", "intersects"),
 	/**
 	 *
 	 */
-	INTERSECTIONWITH_LINE2D("DBV_LINE2D_INTERSECTIONWITH_LINE2D", "String", "String firstLine, String secondLine", "\n"
-			+ "		if (firstLine == null || secondLine == null) {\n"
-			+ "			return null;\n"
-			+ "		}\n"
-			+ "		String[] split1 = firstLine.split(\"[ (),]+\");\n"
-			+ "		String[] split2 = secondLine.split(\"[ (),]+\");\n"
-			+ "		for (int index1 = 0; index1 < split1.length - 3; index1 += 2) {\n"
-			+ "			double p0x = Double.parseDouble(split1[index1 + 1]);\n"
-			+ "			double p0y = Double.parseDouble(split1[index1 + 2]);\n"
-			+ "			double p1x = Double.parseDouble(split1[index1 + 3]);\n"
-			+ "			double p1y = Double.parseDouble(split1[index1 + 4]);\n"
-			+ "\n"
-			+ "			for (int index2 = 0; index2 < split2.length - 3; index2 += 2) {\n"
-			+ "				double p2x = Double.parseDouble(split2[index2 + 1]);\n"
-			+ "				double p2y = Double.parseDouble(split2[index2 + 2]);\n"
-			+ "				double p3x = Double.parseDouble(split2[index2 + 3]);\n"
-			+ "				double p3y = Double.parseDouble(split2[index2 + 4]);\n"
-			+ "\n"
-			+ "				double s1_x, s1_y, s2_x, s2_y;\n"
-			+ "				double i_x, i_y;\n"
-			+ "				s1_x = p1x - p0x;\n"
-			+ "				s1_y = p1y - p0y;\n"
-			+ "				s2_x = p3x - p2x;\n"
-			+ "				s2_y = p3y - p2y;\n"
-			+ "\n"
-			+ "				double s, t;\n"
-			+ "\n"
-			+ "				s = (-s1_y * (p0x - p2x) + s1_x * (p0y - p2y)) / (-s2_x * s1_y + s1_x * s2_y);\n"
-			+ "				t = (s2_x * (p0y - p2y) - s2_y * (p0x - p2x)) / (-s2_x * s1_y + s1_x * s2_y);\n"
-			+ "\n"
-			+ "				if (s >= 0 && s <= 1 && t >= 0 && t <= 1) {\n"
-			+ "					// Collision detected\n"
-			+ "					//return true;\n"
-			+ "					i_x = p0x + (t * s1_x);\n"
-			+ "					i_y = p0y + (t * s1_y);\n"
-			+ "					return \"POINT (\" + i_x + \" \" + i_y + \")\";\n"
-			+ "				} else {\n"
-			+ "					// No collision\n"
-			+ "					//return null;\n"
-			+ "				}\n"
-			+ "			}\n"
-			+ "		}\n"
-			+ "		return null;"),
+	INTERSECTIONWITH_LINE2D("DBV_LINE2D_INTERSECTIONWITH_LINE2D", "intersectionWith"),
 	/**
 	 *
 	 */
-	ALLINTERSECTIONSWITH_LINE2D("DBV_LINE2D_ALLINTERSECTIONSWITH_LINE2D", "String", "String firstLine, String secondLine", "\n"
-			+ "		if (firstLine == null || secondLine == null) {\n"
-			+ "			return null;\n"
-			+ "		}\n"
-			+ "		String result = \"\";\n"
-			+ "		String pointSeparator = \"\";\n"
-			+ "		String[] split1 = firstLine.split(\"[ (),]+\");\n"
-			+ "		String[] split2 = secondLine.split(\"[ (),]+\");\n"
-			+ "		for (int index1 = 0; index1 < split1.length - 3; index1 += 2) {\n"
-			+ "			double p0x = Double.parseDouble(split1[index1 + 1]);\n"
-			+ "			double p0y = Double.parseDouble(split1[index1 + 2]);\n"
-			+ "			double p1x = Double.parseDouble(split1[index1 + 3]);\n"
-			+ "			double p1y = Double.parseDouble(split1[index1 + 4]);\n"
-			+ "\n"
-			+ "			for (int index2 = 0; index2 < split2.length - 3; index2 += 2) {\n"
-			+ "				double p2x = Double.parseDouble(split2[index2 + 1]);\n"
-			+ "				double p2y = Double.parseDouble(split2[index2 + 2]);\n"
-			+ "				double p3x = Double.parseDouble(split2[index2 + 3]);\n"
-			+ "				double p3y = Double.parseDouble(split2[index2 + 4]);\n"
-			+ "\n"
-			+ "				double s1_x, s1_y, s2_x, s2_y;\n"
-			+ "				double i_x, i_y;\n"
-			+ "				s1_x = p1x - p0x;\n"
-			+ "				s1_y = p1y - p0y;\n"
-			+ "				s2_x = p3x - p2x;\n"
-			+ "				s2_y = p3y - p2y;\n"
-			+ "\n"
-			+ "				double s, t;\n"
-			+ "\n"
-			+ "				s = (-s1_y * (p0x - p2x) + s1_x * (p0y - p2y)) / (-s2_x * s1_y + s1_x * s2_y);\n"
-			+ "				t = (s2_x * (p0y - p2y) - s2_y * (p0x - p2x)) / (-s2_x * s1_y + s1_x * s2_y);\n"
-			+ "\n"
-			+ "				if (s >= 0 && s <= 1 && t >= 0 && t <= 1) {\n"
-			+ "					// Collision detected\n"
-			+ "					//return true;\n"
-			+ "					i_x = p0x + (t * s1_x);\n"
-			+ "					i_y = p0y + (t * s1_y);\n"
-			+ "					result += pointSeparator + i_x + \" \" + i_y;\n"
-			+ "					pointSeparator = \", \";\n"
-			+ "				}\n"
-			+ "			}\n"
-			+ "		}\n"
-			+ "		return result.equals(\"\")?null:\"MULTIPOINT ((\"+result+\"))\";");
+	ALLINTERSECTIONSWITH_LINE2D("DBV_LINE2D_ALLINTERSECTIONSWITH_LINE2D", "allIntersectionsWith");
 
 	private final String functionName;
-	private final String returnType;
-	private final String parameters;
-	private final String code;
+	private final String methodName;
 
-	Line2DFunctions(String functionName, String returnType, String parameters, String code) {
+	Line2DFunctions(String functionName, String methodName) {
 		this.functionName = functionName;
-		this.returnType = returnType;
-		this.parameters = parameters;
-		this.code = code;
+		this.methodName = methodName;
 	}
 
 	@Override
@@ -329,62 +101,246 @@ public enum Line2DFunctions implements DBVFeature {
 	 */
 	@Override
 	public void add(Statement stmt) throws SQLException {
-		try {
-			stmt.execute("DROP ALIAS " + functionName + ";");
-		} catch (SQLException sqlex) {
-			;
-		}
-		stmt.execute("CREATE ALIAS IF NOT EXISTS " + functionName + " DETERMINISTIC AS $$ \n" + "@CODE " + returnType + " " + functionName + "(" + parameters + ") {\n" + code + "} $$;");
+		stmt.execute("CREATE ALIAS IF NOT EXISTS " + functionName + " DETERMINISTIC FOR \"" + Line2DFunctions.class.getName() + "." + methodName + "\";");
 	}
 
-//	private Boolean intersects(String firstLine, String secondLine) {
-//		//List<String> pointsFound = new ArrayList<String>();
-//		if (firstLine == null || secondLine == null) {
-//			return null;
-//		}
-//		String[] split1 = firstLine.split("[ (),]+");
-//		String[] split2 = secondLine.split("[ (),]+");
-//		for (int index1 = 0; index1 < split1.length - 3; index1 += 2) {
-//			double p0x = Double.parseDouble(split1[index1 + 1]);
-//			double p0y = Double.parseDouble(split1[index1 + 2]);
-//			double p1x = Double.parseDouble(split1[index1 + 3]);
-//			double p1y = Double.parseDouble(split1[index1 + 4]);
-//
-//			for (int index2 = 0; index2 < split2.length - 3; index2 += 2) {
-//				double p2x = Double.parseDouble(split2[index2 + 1]);
-//				double p2y = Double.parseDouble(split2[index2 + 2]);
-//				double p3x = Double.parseDouble(split2[index2 + 3]);
-//				double p3y = Double.parseDouble(split2[index2 + 4]);
-//
-//				double s1_x, s1_y, s2_x, s2_y;
-//				double i_x, i_y;
-//				s1_x = p1x - p0x;
-//				s1_y = p1y - p0y;
-//				s2_x = p3x - p2x;
-//				s2_y = p3y - p2y;
-//
-//				double s, t;
-//
-//				s = (-s1_y * (p0x - p2x) + s1_x * (p0y - p2y)) / (-s2_x * s1_y + s1_x * s2_y);
-//				t = (s2_x * (p0y - p2y) - s2_y * (p0x - p2x)) / (-s2_x * s1_y + s1_x * s2_y);
-//
-//				if (s >= 0 && s <= 1 && t >= 0 && t <= 1) {
-//					// Collision detected
-//					return true;
-//					//i_x = p0x + (t * s1_x);
-//					//i_y = p0y + (t * s1_y);
-//					//pointsFound.add("POINT (" + i_x + " " + i_y + ")");
-//				} else {
-//					// No collision
-//					//return null;
-//				}
-//			}
-//		}
-//		return false;
-//	}
 	@Override
 	public String alias() {
 		return toString();
 	}
 
+	/**
+	 * Implements DBV_CREATE_LINE2D_FROM_COORDS.
+	 *
+	 * @param coords pairs of X and Y coordinates
+	 * @return the WKT of the line
+	 */
+	public static String create(Double... coords) {
+		return fromCoordinates("LINESTRING (", coords);
+	}
+
+	/**
+	 * Creates the WKT for a geometry made from the points.
+	 *
+	 * @param prefix the start of the WKT, for instance "LINESTRING ("
+	 * @param coords pairs of X and Y coordinates
+	 * @return the WKT or NULL if any coordinate is NULL or one is missing
+	 */
+	static String fromCoordinates(String prefix, Double[] coords) {
+		if (coords.length % 2 != 0) {
+			return null;
+		} else {
+			StringBuilder result = new StringBuilder(prefix);
+			String sep = "";
+			for (int i = 0; i < coords.length; i += 2) {
+				Double x = coords[i];
+				Double y = coords[i + 1];
+				if (x == null || y == null) {
+					return null;
+				} else {
+					result.append(sep).append(x).append(" ").append(y);
+					sep = ", ";
+				}
+			}
+			return result.append(")").toString();
+		}
+	}
+
+	/**
+	 * Implements DBV_LINE2D_EQUALS.
+	 *
+	 * @param firstLine the WKT of a line
+	 * @param secondLine the WKT of a line
+	 * @return TRUE if the lines are the same
+	 */
+	public static Boolean isEqual(String firstLine, String secondLine) {
+		if (firstLine == null || secondLine == null) {
+			return null;
+		} else {
+			return firstLine.equals(secondLine);
+		}
+	}
+
+	/**
+	 * Implements DBV_LINE2D_MAXX.
+	 *
+	 * @param firstLine the WKT of a line
+	 * @return the largest X coordinate of the line
+	 */
+	public static Double getMaxX(String firstLine) {
+		return firstLine == null ? null : ParsedValueCache.ordinates(firstLine).getMaxX();
+	}
+
+	/**
+	 * Implements DBV_LINE2D_MAXY.
+	 *
+	 * @param firstLine the WKT of a line
+	 * @return the largest Y coordinate of the line
+	 */
+	public static Double getMaxY(String firstLine) {
+		return firstLine == null ? null : ParsedValueCache.ordinates(firstLine).getMaxY();
+	}
+
+	/**
+	 * Implements DBV_LINE2D_MINX.
+	 *
+	 * @param firstLine the WKT of a line
+	 * @return the smallest X coordinate of the line
+	 */
+	public static Double getMinX(String firstLine) {
+		return firstLine == null ? null : ParsedValueCache.ordinates(firstLine).getMinX();
+	}
+
+	/**
+	 * Implements DBV_LINE2D_MINY.
+	 *
+	 * @param firstLine the WKT of a line
+	 * @return the smallest Y coordinate of the line
+	 */
+	public static Double getMinY(String firstLine) {
+		return firstLine == null ? null : ParsedValueCache.ordinates(firstLine).getMinY();
+	}
+
+	/**
+	 * Implements DBV_LINE2D_BOUNDINGBOX.
+	 *
+	 * @param firstLine the WKT of a line
+	 * @return the WKT of the smallest rectangle containing the line
+	 */
+	public static String getBoundingBox(String firstLine) {
+		return firstLine == null ? null : ParsedValueCache.ordinates(firstLine).getBoundingBox();
+	}
+
+	/**
+	 * Implements DBV_LINE2D_DIMENSION.
+	 *
+	 * @param firstLine the WKT of a line
+	 * @return 1
+	 */
+	public static Integer getDimension(String firstLine) {
+		return 1;
+	}
+
+	/**
+	 * Implements DBV_LINE2D_ASTEXT.
+	 *
+	 * @param firstLine the WKT of a line
+	 * @return the WKT of the line
+	 */
+	public static String asText(String firstLine) {
+		return firstLine;
+	}
+
+	/**
+	 * Implements DBV_LINE2D_INTERSECTS_LINE2D.
+	 *
+	 * @param firstLine the WKT of a line
+	 * @param secondLine the WKT of a line
+	 * @return TRUE if any segment of the first line crosses a segment of the
+	 * second
+	 */
+	public static Boolean intersects(String firstLine, String secondLine) {
+		if (firstLine == null || secondLine == null) {
+			return null;
+		}
+		Ordinates first = ParsedValueCache.ordinates(firstLine);
+		Ordinates second = ParsedValueCache.ordinates(secondLine);
+		for (int index1 = 0; index1 < first.size() - 2; index1 += 2) {
+			for (int index2 = 0; index2 < second.size() - 2; index2 += 2) {
+				if (intersectionOfSegments(first, index1, second, index2) != null) {
+					return true;
+				}
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * Implements DBV_LINE2D_INTERSECTIONWITH_LINE2D.
+	 *
+	 * @param firstLine the WKT of a line
+	 * @param secondLine the WKT of a line
+	 * @return the WKT of the first point where the lines cross, or NULL
+	 */
+	public static String intersectionWith(String firstLine, String secondLine) {
+		if (firstLine == null || secondLine == null) {
+			return null;
+		}
+		Ordinates first = ParsedValueCache.ordinates(firstLine);
+		Ordinates second = ParsedValueCache.ordinates(secondLine);
+		for (int index1 = 0; index1 < first.size() - 2; index1 += 2) {
+			for (int index2 = 0; index2 < second.size() - 2; index2 += 2) {
+				double[] intersection = intersectionOfSegments(first, index1, second, index2);
+				if (intersection != null) {
+					return "POINT (" + intersection[0] + " " + intersection[1] + ")";
+				}
+			}
+		}
+		return null;
+	}
+
+	/**
+	 * Implements DBV_LINE2D_ALLINTERSECTIONSWITH_LINE2D.
+	 *
+	 * @param firstLine the WKT of a line
+	 * @param secondLine the WKT of a line
+	 * @return the WKT of a multipoint containing every point where the lines
+	 * cross, or NULL
+	 */
+	public static String allIntersectionsWith(String firstLine, String secondLine) {
+		if (firstLine == null || secondLine == null) {
+			return null;
+		}
+		StringBuilder result = new StringBuilder();
+		String pointSeparator = "";
+		Ordinates first = ParsedValueCache.ordinates(firstLine);
+		Ordinates second = ParsedValueCache.ordinates(secondLine);
+		for (int index1 = 0; index1 < first.size() - 2; index1 += 2) {
+			for (int index2 = 0; index2 < second.size() - 2; index2 += 2) {
+				double[] intersection = intersectionOfSegments(first, index1, second, index2);
+				if (intersection != null) {
+					result.append(pointSeparator).append(intersection[0]).append(" ").append(intersection[1]);
+					pointSeparator = ", ";
+				}
+			}
+		}
+		return result.length() == 0 ? null : "MULTIPOINT ((" + result + "))";
+	}
+
+	/**
+	 * Finds where the segment starting at ordinate index1 of the first line
+	 * crosses the segment starting at ordinate index2 of the second line.
+	 *
+	 * @param first the ordinates of a line
+	 * @param index1 the position of the X ordinate that starts the first segment
+	 * @param second the ordinates of a line
+	 * @param index2 the position of the X ordinate that starts the second
+	 * segment
+	 * @return the X and Y coordinates of the intersection, or NULL if the
+	 * segments do not cross
+	 */
+	static double[] intersectionOfSegments(Ordinates first, int index1, Ordinates second, int index2) {
+		double p0x = first.get(index1);
+		double p0y = first.get(index1 + 1);
+		double p1x = first.get(index1 + 2);
+		double p1y = first.get(index1 + 3);
+		double p2x = second.get(index2);
+		double p2y = second.get(index2 + 1);
+		double p3x = second.get(index2 + 2);
+		double p3y = second.get(index2 + 3);
+
+		double s1_x = p1x - p0x;
+		double s1_y = p1y - p0y;
+		double s2_x = p3x - p2x;
+		double s2_y = p3y - p2y;
+
+		double s = (-s1_y * (p0x - p2x) + s1_x * (p0y - p2y)) / (-s2_x * s1_y + s1_x * s2_y);
+		double t = (s2_x * (p0y - p2y) - s2_y * (p0x - p2x)) / (-s2_x * s1_y + s1_x * s2_y);
+
+		if (s >= 0 && s <= 1 && t >= 0 && t <= 1) {
+			return new double[]{p0x + (t * s1_x), p0y + (t * s1_y)};
+		} else {
+			return null;
+		}
+	}
 }
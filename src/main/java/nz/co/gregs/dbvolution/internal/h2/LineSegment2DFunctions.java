@@ -17,8 +17,13 @@ package nz.co.gregs.dbvolution.internal.h2;
 
 import java.sql.SQLException;
 import java.sql.Statement;
+import nz.co.gregs.dbvolution.internal.h2.ParsedValueCache.Ordinates;
 
 /**
+ * The H2 functions that implement {@link nz.co.gregs.dbvolution.datatypes.spatial2D.DBLineSegment2D}.
+ *
+ * <p>
+ * Each function is a static method of this class that H2 calls directly.
  *
  * <p style="color: #F90;">Support DBvolution at
  * <a href="http://patreon.com/dbvolution" target=new>Patreon</a></p>
@@ -30,233 +35,52 @@ public enum LineSegment2DFunctions implements DBVFeature {
 	/**
 	 *
 	 */
-	CREATE("String", "Double... coords", "\n"
-			+ "			Integer numberOfArguments = coords.length;\n"
-			+ "			if (numberOfArguments % 2 != 0) {\n"
-			+ "				return null;\n"
-			+ "			} else {\n"
-			+ "				String resultStr = \"LINESTRING (\";\n"
-			+ "				String sep = \"\";\n"
-			+ "				for (int i = 0; i < numberOfArguments; i += 2) {\n"
-			+ "					Double x = coords[i];\n"
-			+ "					Double y = coords[i + 1];\n"
-			+ "					if (x == null || y == null) {\n"
-			+ "						return null;\n"
-			+ "					} else {\n"
-			+ "						resultStr += sep + x + \" \" + y;\n"
-			+ "						sep = \", \";\n"
-			+ "					}\n"
-			+ "				}\n"
-			+ "				resultStr += \")\";\n"
-			+ "				return resultStr;\n"
-			+ "			}"),
+	CREATE("create"),
 	/**
 	 *
 	 */
-	EQUALS("Boolean", "String firstLine, String secondLine", "\n"
-			+ "			if (firstLine == null || secondLine == null) {\n"
-			+ "				return null;\n"
-			+ "			} else {\n"
-			+ "				return firstLine.equals(secondLine);\n"
-			+ "			}"),
+	EQUALS("isEqual"),
 	/**
 	 *
 	 */
-	MAXX("Double", "String firstLine", "\n"
-			+ "			if (firstLine == null) {\n"
-			+ "				return null;\n"
-			+ "			} else {\n"
-			+ "				Double maxX = null;\n"
-			+ "				String[] split = firstLine.split(\"[ (),]+\");\n"
-			+ "				for (int i = 1; i < split.length; i += 2) {\n"
-			+ "					double x = Double.parseDouble(split[i]);\n"
-			+ "					if (maxX==null || maxX<x){\n"
-			+ "						maxX = x;\n"
-			+ "					}\n"
-			+ "				}\n"
-			+ "				return maxX;\n"
-			+ "			}"),
+	MAXX("getMaxX"),
 	/**
 	 *
 	 */
-	MAXY("Double", "String firstLine", "\n"
-			+ "			if (firstLine == null) {\n"
-			+ "				return null;\n"
-			+ "			} else {\n"
-			+ "				Double maxY = null;\n"
-			+ "				String[] split = firstLine.split(\"[ (),]+\");\n"
-			+ "				for (int i = 1; i < split.length; i += 2) {\n"
-			+ "					double y = Double.parseDouble(split[i + 1]);\n"
-			+ "					if (maxY==null || maxY<y){\n"
-			+ "						maxY = y;\n"
-			+ "					}\n"
-			+ "				}\n"
-			+ "				return maxY;\n"
-			+ "			}"),
+	MAXY("getMaxY"),
 	/**
 	 *
 	 */
-	MINX("Double", "String firstLine", "\n"
-			+ "			if (firstLine == null) {\n"
-			+ "				return null;\n"
-			+ "			} else {\n"
-			+ "				Double maxX = null;\n"
-			+ "				String[] split = firstLine.split(\"[ (),]+\");\n"
-			+ "				for (int i = 1; i < split.length; i += 2) {\n"
-			+ "					double x = Double.parseDouble(split[i]);\n"
-			+ "					if (maxX==null || maxX>x){\n"
-			+ "						maxX = x;\n"
-			+ "					}\n"
-			+ "				}\n"
-			+ "				return maxX;\n"
-			+ "			}"),
+	MINX("getMinX"),
 	/**
 	 *
 	 */
-	MINY("Double", "String firstLine", "\n"
-			+ "			if (firstLine == null) {\n"
-			+ "				return null;\n"
-			+ "			} else {\n"
-			+ "				Double maxY = null;\n"
-			+ "				String[] split = firstLine.split(\"[ (),]+\");\n"
-			+ "				for (int i = 1; i < split.length; i += 2) {\n"
-			+ "					double y = Double.parseDouble(split[i + 1]);\n"
-			+ "					if (maxY==null || maxY>y){\n"
-			+ "						maxY = y;\n"
-			+ "					}\n"
-			+ "				}\n"
-			+ "				return maxY;\n"
-			+ "			}"),
+	MINY("getMinY"),
 	/**
 	 *
 	 */
-	BOUNDINGBOX("String", "String firstLine", "\n"
-			+ "			if (firstLine == null) {\n"
-			+ "				return null;\n"
-			+ "			} else {\n"
-			+ "				Double maxX = null;\n"
-			+ "				Double maxY = null;\n"
-			+ "				Double minX = null;\n"
-			+ "				Double minY = null;\n"
-			+ "				String[] split = firstLine.split(\"[ (),]+\");\n"
-			+ "				for (int i = 1; i < split.length; i += 2) {\n"
-			+ "					double x = Double.parseDouble(split[i]);\n"
-			+ "					double y = Double.parseDouble(split[i + 1]);\n"
-			+ "					if (maxX==null || maxX<x){\n"
-			+ "						maxX = x;\n"
-			+ "					}\n"
-			+ "					if (maxY==null || maxY<y){\n"
-			+ "						maxY = y;\n"
-			+ "					}\n"
-			+ "					if (minX==null || minX>x){\n"
-			+ "						minX = x;\n"
-			+ "					}\n"
-			+ "					if (minY==null || minY>y){\n"
-			+ "						minY = y;\n"
-			+ "					}\n"
-			+ "				}\n"
-			+ "				String resultString = \"POLYGON ((\" + minX+\" \"+minY + \", \" + maxX+\" \"+minY + \", \" + maxX+\" \"+maxY + \", \" + minX+\" \"+maxY + \", \" + minX+\" \"+minY + \"))\";\n"
-			+ "				return resultString;\n"
-			+ "			}"),
+	BOUNDINGBOX("getBoundingBox"),
 	/**
 	 *
 	 */
-	DIMENSION("Integer", "String firstLine", "return 1;"),
+	DIMENSION("getDimension"),
 	/**
 	 *
 	 */
-	ASTEXT("String", "String firstLine", "return firstLine;"),
+	ASTEXT("asText"),
 	/**
 	 *
 	 */
-	INTERSECTS_LINESEGMENT2D("Boolean", "String firstLine, String secondLine", ""
-			+ "		if (firstLine == null || secondLine == null) {\n"
-			+ "			return null;\n"
-			+ "		}\n"
-			+ "		String[] split = firstLine.split(\"[ (),]+\");\n"
-			+ "		double p0x = Double.parseDouble(split[1]);\n"
-			+ "		double p0y = Double.parseDouble(split[2]);\n"
-			+ "		double p1x = Double.parseDouble(split[3]);\n"
-			+ "		double p1y = Double.parseDouble(split[4]);\n"
-			+ "		\n"
-			+ "		split = secondLine.split(\"[ (),]+\");\n"
-			+ "		double p2x = Double.parseDouble(split[1]);\n"
-			+ "		double p2y = Double.parseDouble(split[2]);\n"
-			+ "		double p3x = Double.parseDouble(split[3]);\n"
-			+ "		double p3y = Double.parseDouble(split[4]);\n"
-			+ "\n"
-			+ "		double s1_x, s1_y, s2_x, s2_y;\n"
-			+ "		double i_x, i_y;\n"
-			+ "		s1_x = p1x - p0x;\n"
-			+ "		s1_y = p1y - p0y;\n"
-			+ "		s2_x = p3x - p2x;\n"
-			+ "		s2_y = p3y - p2y;\n"
-			+ "\n"
-			+ "		double s, t;\n"
-			+ "\n"
-			+ "		s = (-s1_y * (p0x - p2x) + s1_x * (p0y - p2y)) / (-s2_x * s1_y + s1_x * s2_y);\n"
-			+ "		t = (s2_x * (p0y - p2y) - s2_y * (p0x - p2x)) / (-s2_x * s1_y + s1_x * s2_y);\n"
-			+ "\n"
-			+ "		if (s >= 0 && s <= 1 && t >= 0 && t <= 1) {\n"
-			+ "			// Collision detected\n"
-			+ "			i_x = p0x + (t * s1_x);\n"
-			+ "			i_y = p0y + (t * s1_y);\n"
-			+ "			return true;\n"
-			+ "		} else {\n"
-			+ "			// No collision\n"
-			+ "			return false;\n"
-			+ "		} "),
+	INTERSECTS_LINESEGMENT2D("intersects"),
 	/**
 	 *
 	 */
-	INTERSECTIONPOINT_LINESEGMENT2D("String", "String firstLine, String secondLine", ""
-			+ "		if (firstLine == null || secondLine == null) {\n"
-			+ "			return null;\n"
-			+ "		}\n"
-			+ "		String[] split = firstLine.split(\"[ (),]+\");\n"
-			+ "		double p0x = Double.parseDouble(split[1]);\n"
-			+ "		double p0y = Double.parseDouble(split[2]);\n"
-			+ "		double p1x = Double.parseDouble(split[3]);\n"
-			+ "		double p1y = Double.parseDouble(split[4]);\n"
-			+ "\n"
-			+ "		split = secondLine.split(\"[ (),]+\");\n"
-			+ "		double p2x = Double.parseDouble(split[1]);\n"
-			+ "		double p2y = Double.parseDouble(split[2]);\n"
-			+ "		double p3x = Double.parseDouble(split[3]);\n"
-			+ "		double p3y = Double.parseDouble(split[4]);\n"
-			+ "\n"
-			+ "		double s1_x, s1_y, s2_x, s2_y;\n"
-			+ "		double i_x, i_y;\n"
-			+ "		s1_x = p1x - p0x;\n"
-			+ "		s1_y = p1y - p0y;\n"
-			+ "		s2_x = p3x - p2x;\n"
-			+ "		s2_y = p3y - p2y;\n"
-			+ "\n"
-			+ "		double s, t;\n"
-			+ "\n"
-			+ "		s = (-s1_y * (p0x - p2x) + s1_x * (p0y - p2y)) / (-s2_x * s1_y + s1_x * s2_y);\n"
-			+ "		t = (s2_x * (p0y - p2y) - s2_y * (p0x - p2x)) / (-s2_x * s1_y + s1_x * s2_y);\n"
-			+ "\n"
-			+ "		if (s >= 0 && s <= 1 && t >= 0 && t <= 1) {\n"
-			+ "			// Collision detected\n"
-			+ "			i_x = p0x + (t * s1_x);\n"
-			+ "			i_y = p0y + (t * s1_y);\n"
-			+ "			return \"POINT (\"+i_x+\" \"+i_y+\")\";\n"
-			+ "		} else {\n"
-			+ "			// No collision\n"
-			+ "			return null;\n"
-			+ "		}");
+	INTERSECTIONPOINT_LINESEGMENT2D("intersectionPoint");
 
-//	private final String functionName;
-	private final String returnType;
-	private final String parameters;
-	private final String code;
+	private final String methodName;
 
-	LineSegment2DFunctions(String returnType, String parameters, String code) {
-//		this.functionName = functionName;
-		this.returnType = returnType;
-		this.parameters = parameters;
-		this.code = code;
+	LineSegment2DFunctions(String methodName) {
+		this.methodName = methodName;
 	}
 
 	@Override
@@ -271,17 +95,143 @@ public enum LineSegment2DFunctions implements DBVFeature {
 	 */
 	@Override
 	public void add(Statement stmt) throws SQLException {
-		try {
-			stmt.execute("DROP ALIAS " + this + ";");
-		} catch (SQLException sqlex) {
-			;
-		}
-		final String createFunctionStatement = "CREATE ALIAS IF NOT EXISTS " + this + " DETERMINISTIC AS $$ \n" + "@CODE " + returnType + " " + this + "(" + parameters + ") {\n" + code + "} $$;";
-		stmt.execute(createFunctionStatement);
+		stmt.execute("CREATE ALIAS IF NOT EXISTS " + this + " DETERMINISTIC FOR \"" + LineSegment2DFunctions.class.getName() + "." + methodName + "\";");
 	}
 
 	@Override
 	public String alias() {
 		return toString();
 	}
+
+	/**
+	 * Implements DBV_LINESEGMENT2D_CREATE.
+	 *
+	 * @param coords pairs of X and Y coordinates
+	 * @return the WKT of the line segment
+	 */
+	public static String create(Double... coords) {
+		return Line2DFunctions.fromCoordinates("LINESTRING (", coords);
+	}
+
+	/**
+	 * Implements DBV_LINESEGMENT2D_EQUALS.
+	 *
+	 * @param firstLine the WKT of a line segment
+	 * @param secondLine the WKT of a line segment
+	 * @return TRUE if the line segments are the same
+	 */
+	public static Boolean isEqual(String firstLine, String secondLine) {
+		if (firstLine == null || secondLine == null) {
+			return null;
+		} else {
+			return firstLine.equals(secondLine);
+		}
+	}
+
+	/**
+	 * Implements DBV_LINESEGMENT2D_MAXX.
+	 *
+	 * @param firstLine the WKT of a line segment
+	 * @return the largest X coordinate of the line segment
+	 */
+	public static Double getMaxX(String firstLine) {
+		return firstLine == null ? null : ParsedValueCache.ordinates(firstLine).getMaxX();
+	}
+
+	/**
+	 * Implements DBV_LINESEGMENT2D_MAXY.
+	 *
+	 * @param firstLine the WKT of a line segment
+	 * @return the largest Y coordinate of the line segment
+	 */
+	public static Double getMaxY(String firstLine) {
+		return firstLine == null ? null : ParsedValueCache.ordinates(firstLine).getMaxY();
+	}
+
+	/**
+	 * Implements DBV_LINESEGMENT2D_MINX.
+	 *
+	 * @param firstLine the WKT of a line segment
+	 * @return the smallest X coordinate of the line segment
+	 */
+	public static Double getMinX(String firstLine) {
+		return firstLine == null ? null : ParsedValueCache.ordinates(firstLine).getMinX();
+	}
+
+	/**
+	 * Implements DBV_LINESEGMENT2D_MINY.
+	 *
+	 * @param firstLine the WKT of a line segment
+	 * @return the smallest Y coordinate of the line segment
+	 */
+	public static Double getMinY(String firstLine) {
+		return firstLine == null ? null : ParsedValueCache.ordinates(firstLine).getMinY();
+	}
+
+	/**
+	 * Implements DBV_LINESEGMENT2D_BOUNDINGBOX.
+	 *
+	 * @param firstLine the WKT of a line segment
+	 * @return the WKT of the smallest rectangle containing the line segment
+	 */
+	public static String getBoundingBox(String firstLine) {
+		return firstLine == null ? null : ParsedValueCache.ordinates(firstLine).getBoundingBox();
+	}
+
+	/**
+	 * Implements DBV_LINESEGMENT2D_DIMENSION.
+	 *
+	 * @param firstLine the WKT of a line segment
+	 * @return 1
+	 */
+	public static Integer getDimension(String firstLine) {
+		return 1;
+	}
+
+	/**
+	 * Implements DBV_LINESEGMENT2D_ASTEXT.
+	 *
+	 * @param firstLine the WKT of a line segment
+	 * @return the WKT of the line segment
+	 */
+	public static String asText(String firstLine) {
+		return firstLine;
+	}
+
+	/**
+	 * Implements DBV_LINESEGMENT2D_INTERSECTS_LINESEGMENT2D.
+	 *
+	 * @param firstLine the WKT of a line segment
+	 * @param secondLine the WKT of a line segment
+	 * @return TRUE if the line segments cross
+	 */
+	public static Boolean intersects(String firstLine, String secondLine) {
+		if (firstLine == null || secondLine == null) {
+			return null;
+		}
+		Ordinates first = ParsedValueCache.ordinates(firstLine);
+		Ordinates second = ParsedValueCache.ordinates(secondLine);
+		return Line2DFunctions.intersectionOfSegments(first, 0, second, 0) != null;
+	}
+
+	/**
+	 * Implements DBV_LINESEGMENT2D_INTERSECTIONPOINT_LINESEGMENT2D.
+	 *
+	 * @param firstLine the WKT of a line segment
+	 * @param secondLine the WKT of a line segment
+	 * @return the WKT of the point where the line segments cross, or NULL
+	 */
+	public static String intersectionPoint(String firstLine, String secondLine) {
+		if (firstLine == null || secondLine == null) {
+			return null;
+		}
+		Ordinates first = ParsedValueCache.ordinates(firstLine);
+		Ordinates second = ParsedValueCache.ordinates(secondLine);
+		double[] intersection = Line2DFunctions.intersectionOfSegments(first, 0, second, 0);
+		if (intersection == null) {
+			return null;
+		} else {
+			return "POINT (" + intersection[0] + " " + intersection[1] + ")";
+		}
+	}
 }
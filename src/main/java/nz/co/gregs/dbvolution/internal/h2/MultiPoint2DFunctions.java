@@ -15,15 +15,20 @@
  */
 package nz.co.gregs.dbvolution.internal.h2;
 
-import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
 import java.sql.SQLException;
 import java.sql.Statement;
+import nz.co.gregs.dbvolution.internal.h2.ParsedValueCache.Ordinates;
 
 /**
  * a MultiPoint in H2 is a String formatted as MULTIPOINT ((1 2, 3 4, 5 6))
  * where each pair of numbers is a point and the entire string is less than 2000
  * characters
  *
+ * <p>
+ * Each function is a static method of this class that H2 calls directly. All
+ * the functions except CREATE take the version of the functions expected by
+ * the query as their last parameter.
+ *
  * <p style="color: #F90;">Support DBvolution at
  * <a href="http://patreon.com/dbvolution" target=new>Patreon</a></p>
  *
@@ -34,184 +39,56 @@ public enum MultiPoint2DFunctions implements DBVFeature {
 	/**
 	 *
 	 */
-	CREATE("String", "Double... coords", "\n"
-			+ "			Integer numberOfArguments = coords.length;\n"
-			+ "			if (numberOfArguments % 2 != 0) {\n"
-			+ "				return null;\n"
-			+ "			} else {\n"
-			+ "				String resultStr = \"MULTIPOINT (\";\n"
-			+ "				String sep = \"\";\n"
-			+ "				for (int i = 0; i < numberOfArguments; i += 2) {\n"
-			+ "					Double x = coords[i];\n"
-			+ "					Double y = coords[i + 1];\n"
-			+ "					if (x == null || y == null) {\n"
-			+ "						return null;\n"
-			+ "					} else {\n"
-			+ "						resultStr += sep + x + \" \" + y;\n"
-			+ "						sep = \", \";\n"
-			+ "					}\n"
-			+ "				}\n"
-			+ "				resultStr += \")\";\n"
-			+ "				return resultStr;\n"
-			+ "			}"),
+	CREATE("create"),
 	/**
 	 *
 	 */
-	EQUALS("Boolean", "String firstLine, String secondLine", "\n"
-			+ "			if (firstLine == null || secondLine == null) {\n"
-			+ "				return null;\n"
-			+ "			} else {\n"
-			+ "				return firstLine.equals(secondLine);\n"
-			+ "			}"),
+	EQUALS("isEqual"),
 	/**
 	 *
 	 */
-	MAXX("Double", "String firstLine", "\n"
-			+ "			if (firstLine == null) {\n"
-			+ "				return null;\n"
-			+ "			} else {\n"
-			+ "				Double maxX = null;\n"
-			+ "				String[] split = firstLine.split(\"[ (),]+\");\n"
-			+ "				for (int i = 1; i < split.length; i += 2) {\n"
-			+ "					double x = Double.parseDouble(split[i]);\n"
-			+ "					if (maxX==null || maxX<x){\n"
-			+ "						maxX = x;\n"
-			+ "					}\n"
-			+ "				}\n"
-			+ "				return maxX;\n"
-			+ "			}"),
+	MAXX("getMaxX"),
 	/**
 	 *
 	 */
-	MAXY("Double", "String firstLine", "\n"
-			+ "			if (firstLine == null) {\n"
-			+ "				return null;\n"
-			+ "			} else {\n"
-			+ "				Double maxY = null;\n"
-			+ "				String[] split = firstLine.split(\"[ (),]+\");\n"
-			+ "				for (int i = 1; i < split.length; i += 2) {\n"
-			+ "					double y = Double.parseDouble(split[i + 1]);\n"
-			+ "					if (maxY==null || maxY<y){\n"
-			+ "						maxY = y;\n"
-			+ "					}\n"
-			+ "				}\n"
-			+ "				return maxY;\n"
-			+ "			}"),
+	MAXY("getMaxY"),
 	/**
 	 *
 	 */
-	MINX("Double", "String firstLine", "\n"
-			+ "			if (firstLine == null) {\n"
-			+ "				return null;\n"
-			+ "			} else {\n"
-			+ "				Double maxX = null;\n"
-			+ "				String[] split = firstLine.split(\"[ (),]+\");\n"
-			+ "				for (int i = 1; i < split.length; i += 2) {\n"
-			+ "					double x = Double.parseDouble(split[i]);\n"
-			+ "					if (maxX==null || maxX>x){\n"
-			+ "						maxX = x;\n"
-			+ "					}\n"
-			+ "				}\n"
-			+ "				return maxX;\n"
-			+ "			}"),
+	MINX("getMinX"),
 	/**
 	 *
 	 */
-	MINY("Double", "String firstLine", "\n"
-			+ "			if (firstLine == null) {\n"
-			+ "				return null;\n"
-			+ "			} else {\n"
-			+ "				Double maxY = null;\n"
-			+ "				String[] split = firstLine.split(\"[ (),]+\");\n"
-			+ "				for (int i = 1; i < split.length; i += 2) {\n"
-			+ "					double y = Double.parseDouble(split[i + 1]);\n"
-			+ "					if (maxY==null || maxY>y){\n"
-			+ "						maxY = y;\n"
-			+ "					}\n"
-			+ "				}\n"
-			+ "				return maxY;\n"
-			+ "			}"),
+	MINY("getMinY"),
 	/**
 	 *
 	 */
-	BOUNDINGBOX("String", "String firstLine", "\n"
-			+ "			if (firstLine == null) {\n"
-			+ "				return null;\n"
-			+ "			} else {\n"
-			+ "				Double maxX = null;\n"
-			+ "				Double maxY = null;\n"
-			+ "				Double minX = null;\n"
-			+ "				Double minY = null;\n"
-			+ "				String[] split = firstLine.split(\"[ (),]+\");\n"
-			+ "				for (int i = 1; i < split.length; i += 2) {\n"
-			+ "					double x = Double.parseDouble(split[i]);\n"
-			+ "					double y = Double.parseDouble(split[i + 1]);\n"
-			+ "					if (maxX==null || maxX<x){\n"
-			+ "						maxX = x;\n"
-			+ "					}\n"
-			+ "					if (maxY==null || maxY<y){\n"
-			+ "						maxY = y;\n"
-			+ "					}\n"
-			+ "					if (minX==null || minX>x){\n"
-			+ "						minX = x;\n"
-			+ "					}\n"
-			+ "					if (minY==null || minY>y){\n"
-			+ "						minY = y;\n"
-			+ "					}\n"
-			+ "				}\n"
-			+ "				String resultString = \"POLYGON ((\" + minX+\" \"+minY + \", \" + maxX+\" \"+minY + \", \" + maxX+\" \"+maxY + \", \" + minX+\" \"+maxY + \", \" + minX+\" \"+minY + \"))\";\n"
-			+ "				return resultString;\n"
-			+ "			}"),
+	BOUNDINGBOX("getBoundingBox"),
 	/**
 	 *
 	 */
-	DIMENSION("Integer", "String firstLine", "return 0;"),
+	DIMENSION("getDimension"),
 	/**
 	 *
 	 */
-	ASTEXT("String", "String firstLine", "return firstLine;"),
+	ASTEXT("asText"),
 	/**
 	 *
 	 */
-	ASLINE2D("String", "String multipoint", "return multipoint.replace(\"(\",\"\").replace(\")\",\"\").replace(\"MULTIPOINT \", \"LINESTRING (\")+\")\";"),
+	ASLINE2D("asLine2D"),
 	/**
 	 *
 	 */
-	GETNUMBEROFPOINTS_FUNCTION("Integer", "String multipoint", "\n"
-			+ "			if (multipoint == null||multipoint.equals(\"\")) {\n"
-			+ "				return null;\n"
-			+ "			} else {\n"
-			+ "				Double maxX = null;\n"
-			+ "				String[] split = multipoint.trim().split(\"[ (),]+\");\n"
-			+ "				return (split.length - 1)/2;\n"
-			+ "			}"),
-
+	GETNUMBEROFPOINTS_FUNCTION("getNumberOfPoints"),
 	/**
 	 *
 	 */
-	GETPOINTATINDEX_FUNCTION("String", "String multipoint, Integer index", "\n"
-			+ "			final int indexInMPoint = index * 2;\n"
-			+ "			if (multipoint == null||indexInMPoint<=0) {\n"
-			+ "				return null;\n"
-			+ "			} else {\n"
-			+ "				String[] split = multipoint.split(\"[ (),]+\");\n"
-			+ "				if (indexInMPoint > split.length) {\n"
-			+ "					return null;\n"
-			+ "				} else {\n"
-			+ "					String x = split[indexInMPoint - 1];\n"
-			+ "					String y = split[indexInMPoint];\n"
-			+ "					return \"POINT (\" + x + \" \" + y + \")\";\n"
-			+ "				}\n"
-			+ "			}");
+	GETPOINTATINDEX_FUNCTION("getPointAtIndex");
 
-	private final String returnType;
-	private final String parameters;
-	private final String code;
+	private final String methodName;
 
-	MultiPoint2DFunctions(String returnType, String parameters, String code) {
-		this.returnType = returnType;
-		this.parameters = parameters;
-		this.code = code;
+	MultiPoint2DFunctions(String methodName) {
+		this.methodName = methodName;
 	}
 
 	/**
@@ -240,23 +117,189 @@ public enum MultiPoint2DFunctions implements DBVFeature {
 	 * @param stmt
 	 * @throws SQLException
 	 */
-	@SuppressFBWarnings(value = "SQL_NONCONSTANT_STRING_PASSED_TO_EXECUTE",
-			justification = "The strings are actually constant but made dynamically")
 	@Override
 	public void add(Statement stmt) throws SQLException {
-		try {
-			final String dropStatement = "DROP ALIAS " + this + ";";
-			stmt.execute(dropStatement);
-		} catch (SQLException sqlex) {
-			;// Not an issue.
+		stmt.execute("CREATE ALIAS IF NOT EXISTS " + this + " DETERMINISTIC FOR \"" + MultiPoint2DFunctions.class.getName() + "." + methodName + "\";");
+	}
+
+	private static void checkVersion(MultiPoint2DFunctions function, Integer version) throws SQLException {
+		if (version == null || version != getCurrentVersion()) {
+			throw new SQLException("Function " + function + " not found", "90022");
+		}
+	}
+
+	/**
+	 * Implements DBV_MULTIPOINT2D_CREATE.
+	 *
+	 * @param coords pairs of X and Y coordinates
+	 * @return the WKT of the multipoint
+	 */
+	public static String create(Double... coords) {
+		return Line2DFunctions.fromCoordinates("MULTIPOINT (", coords);
+	}
+
+	/**
+	 * Implements DBV_MULTIPOINT2D_EQUALS.
+	 *
+	 * @param firstLine the WKT of a multipoint
+	 * @param secondLine the WKT of a multipoint
+	 * @param version the version of the functions expected
+	 * @return TRUE if the multipoints are the same
+	 * @throws SQLException if the version is not the current version
+	 */
+	public static Boolean isEqual(String firstLine, String secondLine, Integer version) throws SQLException {
+		checkVersion(EQUALS, version);
+		if (firstLine == null || secondLine == null) {
+			return null;
+		} else {
+			return firstLine.equals(secondLine);
+		}
+	}
+
+	/**
+	 * Implements DBV_MULTIPOINT2D_MAXX.
+	 *
+	 * @param firstLine the WKT of a multipoint
+	 * @param version the version of the functions expected
+	 * @return the largest X coordinate of the multipoint
+	 * @throws SQLException if the version is not the current version
+	 */
+	public static Double getMaxX(String firstLine, Integer version) throws SQLException {
+		checkVersion(MAXX, version);
+		return firstLine == null ? null : ParsedValueCache.ordinates(firstLine).getMaxX();
+	}
+
+	/**
+	 * Implements DBV_MULTIPOINT2D_MAXY.
+	 *
+	 * @param firstLine the WKT of a multipoint
+	 * @param version the version of the functions expected
+	 * @return the largest Y coordinate of the multipoint
+	 * @throws SQLException if the version is not the current version
+	 */
+	public static Double getMaxY(String firstLine, Integer version) throws SQLException {
+		checkVersion(MAXY, version);
+		return firstLine == null ? null : ParsedValueCache.ordinates(firstLine).getMaxY();
+	}
+
+	/**
+	 * Implements DBV_MULTIPOINT2D_MINX.
+	 *
+	 * @param firstLine the WKT of a multipoint
+	 * @param version the version of the functions expected
+	 * @return the smallest X coordinate of the multipoint
+	 * @throws SQLException if the version is not the current version
+	 */
+	public static Double getMinX(String firstLine, Integer version) throws SQLException {
+		checkVersion(MINX, version);
+		return firstLine == null ? null : ParsedValueCache.ordinates(firstLine).getMinX();
+	}
+
+	/**
+	 * Implements DBV_MULTIPOINT2D_MINY.
+	 *
+	 * @param firstLine the WKT of a multipoint
+	 * @param version the version of the functions expected
+	 * @return the smallest Y coordinate of the multipoint
+	 * @throws SQLException if the version is not the current version
+	 */
+	public static Double getMinY(String firstLine, Integer version) throws SQLException {
+		checkVersion(MINY, version);
+		return firstLine == null ? null : ParsedValueCache.ordinates(firstLine).getMinY();
+	}
+
+	/**
+	 * Implements DBV_MULTIPOINT2D_BOUNDINGBOX.
+	 *
+	 * @param firstLine the WKT of a multipoint
+	 * @param version the version of the functions expected
+	 * @return the WKT of the smallest rectangle containing the multipoint
+	 * @throws SQLException if the version is not the current version
+	 */
+	public static String getBoundingBox(String firstLine, Integer version) throws SQLException {
+		checkVersion(BOUNDINGBOX, version);
+		return firstLine == null ? null : ParsedValueCache.ordinates(firstLine).getBoundingBox();
+	}
+
+	/**
+	 * Implements DBV_MULTIPOINT2D_DIMENSION.
+	 *
+	 * @param firstLine the WKT of a multipoint
+	 * @param version the version of the functions expected
+	 * @return 0
+	 * @throws SQLException if the version is not the current version
+	 */
+	public static Integer getDimension(String firstLine, Integer version) throws SQLException {
+		checkVersion(DIMENSION, version);
+		return 0;
+	}
+
+	/**
+	 * Implements DBV_MULTIPOINT2D_ASTEXT.
+	 *
+	 * @param firstLine the WKT of a multipoint
+	 * @param version the version of the functions expected
+	 * @return the WKT of the multipoint
+	 * @throws SQLException if the version is not the current version
+	 */
+	public static String asText(String firstLine, Integer version) throws SQLException {
+		checkVersion(ASTEXT, version);
+		return firstLine;
+	}
+
+	/**
+	 * Implements DBV_MULTIPOINT2D_ASLINE2D.
+	 *
+	 * @param multipoint the WKT of a multipoint
+	 * @param version the version of the functions expected
+	 * @return the WKT of a line joining the points in order
+	 * @throws SQLException if the version is not the current version
+	 */
+	public static String asLine2D(String multipoint, Integer version) throws SQLException {
+		checkVersion(ASLINE2D, version);
+		return multipoint.replace("(", "").replace(")", "").replace("MULTIPOINT ", "LINESTRING (") + ")";
+	}
+
+	/**
+	 * Implements DBV_MULTIPOINT2D_GETNUMBEROFPOINTS_FUNCTION.
+	 *
+	 * @param multipoint the WKT of a multipoint
+	 * @param version the version of the functions expected
+	 * @return the number of points in the multipoint
+	 * @throws SQLException if the version is not the current version
+	 */
+	public static Integer getNumberOfPoints(String multipoint, Integer version) throws SQLException {
+		checkVersion(GETNUMBEROFPOINTS_FUNCTION, version);
+		if (multipoint == null || multipoint.equals("")) {
+			return null;
+		} else {
+			return ParsedValueCache.ordinates(multipoint).size() / 2;
+		}
+	}
+
+	/**
+	 * Implements DBV_MULTIPOINT2D_GETPOINTATINDEX_FUNCTION.
+	 *
+	 * @param multipoint the WKT of a multipoint
+	 * @param index the position of the point, starting at 1
+	 * @param version the version of the functions expected
+	 * @return the WKT of the point, or NULL if there is no point at the index
+	 * @throws SQLException if the version is not the current version
+	 */
+	public static String getPointAtIndex(String multipoint, Integer index, Integer version) throws SQLException {
+		checkVersion(GETPOINTATINDEX_FUNCTION, version);
+		final int indexInMPoint = index * 2;
+		if (multipoint == null || indexInMPoint <= 0) {
+			return null;
+		} else {
+			Ordinates ordinates = ParsedValueCache.ordinates(multipoint);
+			if (indexInMPoint > ordinates.size()) {
+				return null;
+			} else {
+				String x = ordinates.getText(indexInMPoint - 2);
+				String y = ordinates.getText(indexInMPoint - 1);
+				return "POINT (" + x + " " + y + ")";
+			}
 		}
-		final String createFunctionStatement = "CREATE ALIAS IF NOT EXISTS " + this + " DETERMINISTIC AS $$ \n" + "@CODE " + returnType + " " + this + "(" + parameters + ", Integer version) throws org.h2.jdbc.JdbcSQLException {\n"
-				+ "if (version!=" + getCurrentVersion() + "){\n"
-				+ "	throw new org.h2.jdbc.JdbcSQLException(\"Function " + this + " not found\", \"Function " + this + " not found\", \"Function " + this + " not found\", version, null, \"Function " + this + " not found\"); \n"
-				+ "}else{\n"
-				+ code
-				+ "}\n"
-				+ "} $$;";
-		stmt.execute(createFunctionStatement);
 	}
 }
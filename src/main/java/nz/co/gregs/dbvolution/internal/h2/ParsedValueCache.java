@@ -0,0 +1,313 @@
+/*
+ * Copyright 2019 Gregory Graham.
+ *
+ * Commercial licenses are available, please contact info@gregs.co.nz for details.
+ * 
+ * This work is licensed under the Creative Commons Attribution-NonCommercial-ShareAlike 4.0 International License. 
+ * To view a copy of this license, visit http://creativecommons.org/licenses/by-nc-sa/4.0/ 
+ * or send a letter to Creative Commons, PO Box 1866, Mountain View, CA 94042, USA.
+ * 
+ * You are free to:
+ *     Share - copy and redistribute the material in any medium or format
+ *     Adapt - remix, transform, and build upon the material
+ * 
+ *     The licensor cannot revoke these freedoms as long as you follow the license terms.               
+ *     Under the following terms:
+ *                 
+ *         Attribution - 
+ *             You must give appropriate credit, provide a link to the license, and indicate if changes were made. 
+ *             You may do so in any reasonable manner, but not in any way that suggests the licensor endorses you or your use.
+ *         NonCommercial - 
+ *             You may not use the material for commercial purposes.
+ *         ShareAlike - 
+ *             If you remix, transform, or build upon the material, 
+ *             you must distribute your contributions under the same license as the original.
+ *         No additional restrictions - 
+ *             You may not apply legal terms or technological measures that legally restrict others from doing anything the 
+ *             license permits.
+ * 
+ * Check the Creative Commons website for any details, legalese, and updates.
+ */
+package nz.co.gregs.dbvolution.internal.h2;
+
+import com.vividsolutions.jts.geom.Geometry;
+import com.vividsolutions.jts.io.ParseException;
+import com.vividsolutions.jts.io.WKTReader;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Keeps the parsed forms of the WKT and DateRepeat strings passed to the H2
+ * functions.
+ *
+ * <p>
+ * Predicates like DBV_POLYGON2D_CONTAINS_POINT2D are evaluated for every row,
+ * usually with the same literal value on one side, so each thread keeps a
+ * small least recently used cache of the values it has parsed. Each cache
+ * holds at most 128 values and, because the parsed form of a value grows with
+ * the length of its text, at most 256K characters of text in total. Longer values are parsed every time. The caches
+ * belong to a single thread so the JTS geometries are never shared between
+ * threads, however callers must still copy a geometry before changing it.
+ *
+ * <p style="color: #F90;">Support DBvolution at
+ * <a href="http://patreon.com/dbvolution" target=new>Patreon</a></p>
+ *
+ * @author Gregory Graham
+ */
+final class ParsedValueCache {
+
+	private static final int MAXIMUM_SIZE = 128;
+	private static final int MAXIMUM_LENGTH = 256 * 1024;
+
+	private static final ThreadLocal<LeastRecentlyUsed<Ordinates>> ORDINATES = new ThreadLocal<LeastRecentlyUsed<Ordinates>>() {
+		@Override
+		protected LeastRecentlyUsed<Ordinates> initialValue() {
+			return new LeastRecentlyUsed<>();
+		}
+	};
+
+	private static final ThreadLocal<LeastRecentlyUsed<Geometry>> GEOMETRIES = new ThreadLocal<LeastRecentlyUsed<Geometry>>() {
+		@Override
+		protected LeastRecentlyUsed<Geometry> initialValue() {
+			return new LeastRecentlyUsed<>();
+		}
+	};
+
+	private static final ThreadLocal<LeastRecentlyUsed<double[]>> DATEREPEATS = new ThreadLocal<LeastRecentlyUsed<double[]>>() {
+		@Override
+		protected LeastRecentlyUsed<double[]> initialValue() {
+			return new LeastRecentlyUsed<>();
+		}
+	};
+
+	private ParsedValueCache() {
+	}
+
+	/**
+	 * Returns the numbers within a simple WKT value like "LINESTRING (1 2, 3 4)"
+	 * or "MULTIPOINT ((1 2), (3 4))".
+	 *
+	 * <p>
+	 * The geometry type is ignored so the ordinates are returned in the order
+	 * x1, y1, x2, y2, ...
+	 *
+	 * @param wkt a WKT value
+	 * @return the ordinates of the value
+	 * @throws NumberFormatException if any part of the value is not a number
+	 */
+	static Ordinates ordinates(String wkt) throws NumberFormatException {
+		final LeastRecentlyUsed<Ordinates> cache = ORDINATES.get();
+		Ordinates found = cache.get(wkt);
+		if (found == null) {
+			found = new Ordinates(wkt);
+			cache.store(wkt, found);
+		}
+		return found;
+	}
+
+	/**
+	 * Returns the JTS geometry for the WKT value.
+	 *
+	 * <p>
+	 * The geometry is shared with later calls on the same thread so use
+	 * {@link Geometry#clone()} before normalizing or otherwise changing it.
+	 *
+	 * @param wkt a WKT value
+	 * @return the geometry described by the value
+	 * @throws ParseException if the value is not valid WKT
+	 */
+	static Geometry geometry(String wkt) throws ParseException {
+		final LeastRecentlyUsed<Geometry> cache = GEOMETRIES.get();
+		Geometry found = cache.get(wkt);
+		if (found == null) {
+			found = new WKTReader().read(wkt);
+			cache.store(wkt, found);
+		}
+		return found;
+	}
+
+	/**
+	 * Returns the parts of a DateRepeat value like "P1Y2M3D4h5n6.7s".
+	 *
+	 * <p>
+	 * The parts are returned in the order years, months, days, hours, minutes,
+	 * and seconds. The array is shared with later calls on the same thread and
+	 * must not be changed.
+	 *
+	 * @param dateRepeat a DateRepeat value
+	 * @return the numeric parts of the value
+	 * @throws NumberFormatException if any part of the value is not a number
+	 */
+	static double[] dateRepeat(String dateRepeat) throws NumberFormatException {
+		final LeastRecentlyUsed<double[]> cache = DATEREPEATS.get();
+		double[] found = cache.get(dateRepeat);
+		if (found == null) {
+			found = parseNumbers(dateRepeat);
+			cache.store(dateRepeat, found);
+		}
+		return found;
+	}
+
+	private static double[] parseNumbers(String value) {
+		String[] words = splitWords(value, false);
+		double[] numbers = new double[words.length];
+		for (int i = 0; i < words.length; i++) {
+			numbers[i] = Double.parseDouble(words[i]);
+		}
+		return numbers;
+	}
+
+	/**
+	 * Finds every number in the string, ignoring the first word if required.
+	 *
+	 * @param value the string to parse
+	 * @param skipFirstWord TRUE if the first word names the value rather than
+	 * being part of it
+	 * @return the numbers in order
+	 */
+	private static String[] splitWords(String value, boolean skipFirstWord) {
+		String[] words = new String[value.length() / 2 + 1];
+		int count = 0;
+		int start = -1;
+		boolean skipping = skipFirstWord;
+		for (int i = 0; i <= value.length(); i++) {
+			final boolean partOfWord = i < value.length() && isPartOfNumber(value.charAt(i), skipping);
+			if (partOfWord && start < 0) {
+				start = i;
+			} else if (!partOfWord && start >= 0) {
+				if (skipping) {
+					skipping = false;
+				} else {
+					words[count++] = value.substring(start, i);
+				}
+				start = -1;
+			}
+		}
+		String[] result = new String[count];
+		System.arraycopy(words, 0, result, 0, count);
+		return result;
+	}
+
+	private static boolean isPartOfNumber(char c, boolean orLetter) {
+		return (c >= '0' && c <= '9') || c == '-' || c == '.' || c == 'E' || (orLetter && Character.isLetter(c));
+	}
+
+	/**
+	 * The ordinates of a simple WKT value as both the original text and numbers.
+	 *
+	 * <p>
+	 * The original text is kept so that values can be copied into new WKT
+	 * without changing their formatting.
+	 */
+	static final class Ordinates {
+
+		private final String[] text;
+		private final double[] values;
+
+		private Ordinates(String wkt) throws NumberFormatException {
+			text = splitWords(wkt, true);
+			values = new double[text.length];
+			for (int i = 0; i < text.length; i++) {
+				values[i] = Double.parseDouble(text[i]);
+			}
+		}
+
+		/**
+		 * @return the number of ordinates, twice the number of points
+		 */
+		int size() {
+			return values.length;
+		}
+
+		/**
+		 * @param index the position of the ordinate
+		 * @return the ordinate as a number
+		 */
+		double get(int index) {
+			return values[index];
+		}
+
+		/**
+		 * @param index the position of the ordinate
+		 * @return the ordinate exactly as it appeared in the WKT
+		 */
+		String getText(int index) {
+			return text[index];
+		}
+
+		/**
+		 * @return the smallest X coordinate or NULL if there are no points
+		 */
+		Double getMinX() {
+			return getExtreme(0, false);
+		}
+
+		/**
+		 * @return the smallest Y coordinate or NULL if there are no points
+		 */
+		Double getMinY() {
+			return getExtreme(1, false);
+		}
+
+		/**
+		 * @return the largest X coordinate or NULL if there are no points
+		 */
+		Double getMaxX() {
+			return getExtreme(0, true);
+		}
+
+		/**
+		 * @return the largest Y coordinate or NULL if there are no points
+		 */
+		Double getMaxY() {
+			return getExtreme(1, true);
+		}
+
+		/**
+		 * @return the WKT of the smallest rectangle containing all the points
+		 */
+		String getBoundingBox() {
+			Double minX = getMinX();
+			Double minY = getMinY();
+			Double maxX = getMaxX();
+			Double maxY = getMaxY();
+			return "POLYGON ((" + minX + " " + minY + ", " + maxX + " " + minY + ", " + maxX + " " + maxY + ", " + minX + " " + maxY + ", " + minX + " " + minY + "))";
+		}
+
+		private Double getExtreme(int first, boolean largest) {
+			Double extreme = null;
+			for (int i = first; i < values.length; i += 2) {
+				if (extreme == null || (largest ? extreme < values[i] : extreme > values[i])) {
+					extreme = values[i];
+				}
+			}
+			return extreme;
+		}
+	}
+
+	private static class LeastRecentlyUsed<V> extends LinkedHashMap<String, V> {
+
+		private static final long serialVersionUID = 1L;
+
+		private int totalLength = 0;
+
+		LeastRecentlyUsed() {
+			super(16, 0.75f, true);
+		}
+
+		void store(String text, V parsed) {
+			if (text.length() > MAXIMUM_LENGTH) {
+				return;
+			}
+			if (put(text, parsed) == null) {
+				totalLength += text.length();
+			}
+			Iterator<Map.Entry<String, V>> eldest = entrySet().iterator();
+			while ((size() > MAXIMUM_SIZE || totalLength > MAXIMUM_LENGTH) && eldest.hasNext()) {
+				totalLength -= eldest.next().getKey().length();
+				eldest.remove();
+			}
+		}
+	}
+}
@@ -17,8 +17,13 @@ package nz.co.gregs.dbvolution.internal.h2;
 
 import java.sql.SQLException;
 import java.sql.Statement;
+import nz.co.gregs.dbvolution.internal.h2.ParsedValueCache.Ordinates;
 
 /**
+ * The H2 functions that implement {@link nz.co.gregs.dbvolution.datatypes.spatial2D.DBPoint2D}.
+ *
+ * <p>
+ * Each function is a static method of this class that H2 calls directly.
  *
  * <p style="color: #F90;">Support DBvolution at
  * <a href="http://patreon.com/dbvolution" target=new>Patreon</a></p>
@@ -30,42 +35,38 @@ public enum Point2DFunctions implements DBVFeature {
 	/**
 	 *
 	 */
-	CREATE("DBV_CREATE_POINT2D_FROM_COORDS", "String", "Double x, Double y", "if (x == null || y == null) {\n" + "				return null;\n" + "			} else {\n" + "				return \"POINT (\" + x + \" \" + y + \")\" ;\n" + "	}"),
+	CREATE("DBV_CREATE_POINT2D_FROM_COORDS", "create"),
 	/**
 	 *
 	 */
-	EQUALS("DBV_POINT2D_EQUALS", "Boolean", "String firstPoint, String secondPoint", "			if (firstPoint == null || secondPoint == null) {\n" + "				return null;\n" + "			} else {\n" + "				return firstPoint.equals(secondPoint);\n" + "			}"),
+	EQUALS("DBV_POINT2D_EQUALS", "isEqual"),
 	/**
 	 *
 	 */
-	GETX("DBV_POINT2D_GETX", "Double", "String firstPoint", "			if (firstPoint == null) {\n" + "				return null;\n" + "			} else {\n" + "				String[] split = firstPoint.split(\"[ ()]+\");\n" + "				double x = Double.parseDouble(split[1]);\n" + "				return x;\n" + "			}"),
+	GETX("DBV_POINT2D_GETX", "getX"),
 	/**
 	 *
 	 */
-	GETY("DBV_POINT2D_GETY", "Double", "String firstPoint", "			if (firstPoint == null) {\n" + "				return null;\n" + "			} else {\n" + "				String[] split = firstPoint.split(\"[ ()]+\");\n" + "				double y = Double.parseDouble(split[2]);\n" + "				return y;\n" + "			}"),
+	GETY("DBV_POINT2D_GETY", "getY"),
 	/**
 	 *
 	 */
-	DIMENSION("DBV_POINT2D_GETDIMENSION", "Integer", "String firstPoint", "			return 0;"),
+	DIMENSION("DBV_POINT2D_GETDIMENSION", "getDimension"),
 	/**
 	 *
 	 */
-	BOUNDINGBOX("DBV_POINT2D_GETBOUNDINGBOX", "String", "String firstPoint", "			if (firstPoint == null) {\n" + "				return null;\n" + "			} else {\n" + "				String[] split = firstPoint.split(\"[ ()]+\");\n" + "				double x = Double.parseDouble(split[1]);\n" + "				double y = Double.parseDouble(split[2]);\n" + "				String point = x+\" \"+y;\n" + "				String resultString = \"POLYGON ((\"+point+\", \"+point+\", \"+point+\", \"+point+\", \"+point+\"))\";\n" + "				return resultString;\n" + "			}"),
+	BOUNDINGBOX("DBV_POINT2D_GETBOUNDINGBOX", "getBoundingBox"),
 	/**
 	 *
 	 */
-	ASTEXT("DBV_POINT2D_ASTEXT", "String", "String firstPoint", "return firstPoint;");
+	ASTEXT("DBV_POINT2D_ASTEXT", "asText");
 
 	private final String functionName;
-	private final String returnType;
-	private final String parameters;
-	private final String code;
+	private final String methodName;
 
-	Point2DFunctions(String functionName, String returnType, String parameters, String code) {
+	Point2DFunctions(String functionName, String methodName) {
 		this.functionName = functionName;
-		this.returnType = returnType;
-		this.parameters = parameters;
-		this.code = code;
+		this.methodName = methodName;
 	}
 
 	@Override
@@ -78,17 +79,107 @@ public enum Point2DFunctions implements DBVFeature {
 	 * @param stmt
 	 * @throws SQLException
 	 */
+	@Override
 	public void add(Statement stmt) throws SQLException {
-//		try {
-//			stmt.execute("DROP ALIAS " + functionName + ";");
-//		} catch (SQLException sqlex) {
-//			;
-//		}
-		stmt.execute("CREATE ALIAS IF NOT EXISTS " + functionName + " DETERMINISTIC AS $$ \n" + "@CODE " + returnType + " " + functionName + "(" + parameters + ") {\n" + code + "} $$;");
+		stmt.execute("CREATE ALIAS IF NOT EXISTS " + functionName + " DETERMINISTIC FOR \"" + Point2DFunctions.class.getName() + "." + methodName + "\";");
 	}
 
 	@Override
 	public String alias() {
 		return toString();
 	}
+
+	/**
+	 * Implements DBV_CREATE_POINT2D_FROM_COORDS.
+	 *
+	 * @param x the X coordinate
+	 * @param y the Y coordinate
+	 * @return the WKT of the point
+	 */
+	public static String create(Double x, Double y) {
+		if (x == null || y == null) {
+			return null;
+		} else {
+			return "POINT (" + x + " " + y + ")";
+		}
+	}
+
+	/**
+	 * Implements DBV_POINT2D_EQUALS.
+	 *
+	 * @param firstPoint the WKT of a point
+	 * @param secondPoint the WKT of a point
+	 * @return TRUE if the points are the same
+	 */
+	public static Boolean isEqual(String firstPoint, String secondPoint) {
+		if (firstPoint == null || secondPoint == null) {
+			return null;
+		} else {
+			return firstPoint.equals(secondPoint);
+		}
+	}
+
+	/**
+	 * Implements DBV_POINT2D_GETX.
+	 *
+	 * @param firstPoint the WKT of a point
+	 * @return the X coordinate of the point
+	 */
+	public static Double getX(String firstPoint) {
+		if (firstPoint == null) {
+			return null;
+		} else {
+			return ParsedValueCache.ordinates(firstPoint).get(0);
+		}
+	}
+
+	/**
+	 * Implements DBV_POINT2D_GETY.
+	 *
+	 * @param firstPoint the WKT of a point
+	 * @return the Y coordinate of the point
+	 */
+	public static Double getY(String firstPoint) {
+		if (firstPoint == null) {
+			return null;
+		} else {
+			return ParsedValueCache.ordinates(firstPoint).get(1);
+		}
+	}
+
+	/**
+	 * Implements DBV_POINT2D_GETDIMENSION.
+	 *
+	 * @param firstPoint the WKT of a point
+	 * @return 0
+	 */
+	public static Integer getDimension(String firstPoint) {
+		return 0;
+	}
+
+	/**
+	 * Implements DBV_POINT2D_GETBOUNDINGBOX.
+	 *
+	 * @param firstPoint the WKT of a point
+	 * @return the WKT of a polygon with every corner at the point
+	 */
+	public static String getBoundingBox(String firstPoint) {
+		if (firstPoint == null) {
+			return null;
+		} else {
+			Ordinates ordinates = ParsedValueCache.ordinates(firstPoint);
+			String point = ordinates.get(0) + " " + ordinates.get(1);
+			return "POLYGON ((" + point + ", " + point + ", " + point + ", " + point + ", " + point + "))";
+		}
+	}
+
+	/**
+	 * Implements DBV_POINT2D_ASTEXT.
+	 *
+	 * @param firstPoint the WKT of a point
+	 * @return the WKT of the point
+	 */
+	public static String asText(String firstPoint) {
+		return firstPoint;
+	}
 }
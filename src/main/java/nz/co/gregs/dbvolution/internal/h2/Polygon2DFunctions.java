@@ -15,10 +15,24 @@
  */
 package nz.co.gregs.dbvolution.internal.h2;
 
+import com.vividsolutions.jts.geom.Coordinate;
+import com.vividsolutions.jts.geom.Envelope;
+import com.vividsolutions.jts.geom.Geometry;
+import com.vividsolutions.jts.geom.GeometryFactory;
+import com.vividsolutions.jts.geom.LineString;
+import com.vividsolutions.jts.geom.Point;
+import com.vividsolutions.jts.geom.Polygon;
+import com.vividsolutions.jts.io.ParseException;
 import java.sql.SQLException;
 import java.sql.Statement;
 
 /**
+ * The H2 functions that implement {@link nz.co.gregs.dbvolution.datatypes.spatial2D.DBPolygon2D}.
+ *
+ * <p>
+ * Each function is a static method of this class that H2 calls directly. The
+ * polygons are parsed by JTS and the parsed geometries are reused while the
+ * same value is being compared to many rows.
  *
  * <p style="color: #F90;">Support DBvolution at
  * <a href="http://patreon.com/dbvolution" target=new>Patreon</a></p>
@@ -30,490 +44,90 @@ public enum Polygon2DFunctions implements DBVFeature {
 	/**
 	 *
 	 */
-	CREATE_FROM_WKTPOLYGON2D("String", "String wkt", "return wkt;"),
-	/**
-	 *
-	 */
-	CREATE_FROM_POINT2DS("String", "String... pointsArray", ""
-			+ "try {\n"
-			+ "				WKTReader wktReader = new WKTReader();\n"
-			+ "				GeometryFactory factory = new GeometryFactory();\n"
-			+ "				List<Coordinate> coords = new ArrayList<Coordinate>();\n"
-			+ "				String originalStr;\n"
-			+ "				int numberOfPoints = pointsArray.length;\n"
-			+ "				for (int index = 0; index < numberOfPoints; index++) {\n"
-			+ "					originalStr = pointsArray[index];\n"
-			+ "					if (originalStr == null) {\n"
-			+ "						return null;\n"
-			+ "					} else {\n"
-			+ "						Point point = null;\n"
-			+ "						Geometry geometry;\n"
-			+ "						geometry = wktReader.read(originalStr);\n"
-			+ "						if (geometry instanceof Point) {\n"
-			+ "							point = (Point) geometry;\n"
-			+ "							coords.add(point.getCoordinate());\n"
-			+ "						} else {\n"
-			+ "							throw new RuntimeException(\"Failed To Parse H2 Polygon2D\");\n"
-			+ "						}\n"
-			+ "					}\n"
-			+ "				}\n"
-			+ "				Polygon createPolygon = factory.createPolygon(coords.toArray(new Coordinate[]{}));\n"
-			+ "				createPolygon.normalize();\n"
-			+ "				return createPolygon.toText();\n"
-			+ "			} catch (Exception ex) {\n"
-			+ "				throw new RuntimeException(\"Failed To Parse H2 Polygon2D\", ex);\n"
-			+ "			}"),
-	/**
-	 *
-	 */
-	EQUALS("Boolean", "String firstPolyStr, String secondPolyStr", "\n"
-			+ "			try {\n"
-			+ "				if (firstPolyStr == null || secondPolyStr == null) {\n"
-			+ "					return null;\n"
-			+ "				} else {\n"
-			+ "					WKTReader wktReader = new WKTReader();\n"
-			+ "					GeometryFactory factory = new GeometryFactory();\n"
-			+ "					Geometry firstGeometry;\n"
-			+ "					Geometry secondGeometry;\n"
-			+ "					firstGeometry = wktReader.read(firstPolyStr);\n"
-			+ "					secondGeometry = wktReader.read(secondPolyStr);\n"
-			+ "					if ((firstGeometry instanceof Polygon)&&(secondGeometry instanceof Polygon)) {\n"
-			+ "						Polygon firstPoly = (Polygon) firstGeometry;\n"
-			+ "						Polygon secondPoly = (Polygon) secondGeometry;\n"
-			+ "						firstPoly.normalize();\n"
-			+ "						secondPoly.normalize();\n"
-			+ "						return firstPoly.toText().equals(secondPoly.toText());\n"
-			+ "					} else {\n"
-			+ "						return false;"
-			+ "					}\n"
-			+ "				}\n"
-			+ "			} catch (Exception ex) {\n"
-			+ "				throw new RuntimeException(\"Failed To Parse Polygon During EQUALS: either '\"+firstPolyStr+\"' or '\"+secondPolyStr+\"' is wrong somehow\", ex);\n"
-			+ "			}"),
-	/**
-	 *
-	 */
-	AREA("Double", "String firstPolyStr", "\n"
-			+ "			try {\n"
-			+ "				if (firstPolyStr == null) {\n"
-			+ "					return null;\n"
-			+ "				} else {\n"
-			+ "					WKTReader wktReader = new WKTReader();\n"
-			+ "					GeometryFactory factory = new GeometryFactory();\n"
-			+ "					Geometry firstGeometry;\n"
-			+ "					firstGeometry = wktReader.read(firstPolyStr);\n"
-			+ "					if ((firstGeometry instanceof Polygon)) {\n"
-			+ "						Polygon firstPoly = (Polygon) firstGeometry;\n"
-			+ "						return firstPoly.getArea();\n"
-			+ "					} else {\n"
-			+ "						return null;"
-			+ "					}\n"
-			+ "				}\n"
-			+ "			} catch (Exception ex) {\n"
-			+ "				throw new RuntimeException(\"Failed To Parse Polygon: '\"+firstPolyStr+\"'\", ex);\n"
-			+ "			}"),
-	/**
-	 *
-	 */
-	DIMENSION("Integer", "String firstPoly", "return 2;"),
-	/**
-	 *
-	 */
-	MIN_Y("Double", "String firstPoly", ""
-			+ "			try {\n"
-			+ "				WKTReader wktReader = new WKTReader();\n"
-			+ "				if (firstPoly == null) {\n"
-			+ "					return null;\n"
-			+ "				} else {\n"
-			+ "					Polygon polygon;\n"
-			+ "					Geometry geometry;\n"
-			+ "					geometry = wktReader.read(firstPoly);\n"
-			+ "					if (geometry instanceof Polygon) {\n"
-			+ "						polygon = (Polygon) geometry;\n"
-			+ "						Double minY = null;\n"
-			+ "						Coordinate[] coordinates = polygon.getCoordinates();\n"
-			+ "						for (Coordinate coordinate : coordinates) {\n"
-			+ "							if (minY == null || coordinate.y < minY) {\n"
-			+ "								minY = coordinate.y;\n"
-			+ "							}\n"
-			+ "						}\n"
-			+ "						return minY;\n"
-			+ "					} else {\n"
-			+ "						throw new RuntimeException(\"Failed To Parse Polygon\");\n"
-			+ "					}\n"
-			+ "				}\n"
-			+ "			} catch (Exception ex) {\n"
-			+ "				throw new RuntimeException(\"Failed To Parse Polygon\", ex);\n"
-			+ "			}"),
-	/**
-	 *
-	 */
-	MAX_Y("Double", "String firstPoly", ""
-			+ "			try {\n"
-			+ "				WKTReader wktReader = new WKTReader();\n"
-			+ "				if (firstPoly == null) {\n"
-			+ "					return null;\n"
-			+ "				} else {\n"
-			+ "					Geometry geometry = wktReader.read(firstPoly);\n"
-			+ "					if (geometry instanceof Polygon) {\n"
-			+ "						Polygon polygon = (Polygon) geometry;\n"
-			+ "						Double maxY = null;\n"
-			+ "						Coordinate[] coordinates = polygon.getCoordinates();\n"
-			+ "						for (Coordinate coordinate : coordinates) {\n"
-			+ "							if (maxY == null || coordinate.y > maxY) {\n"
-			+ "								maxY = coordinate.y;\n"
-			+ "							}\n"
-			+ "						}\n"
-			+ "						return maxY;\n"
-			+ "					} else {\n"
-			+ "						throw new RuntimeException(\"Failed To Parse Polygon\");\n"
-			+ "					}\n"
-			+ "				}\n"
-			+ "			} catch (Exception ex) {\n"
-			+ "				throw new RuntimeException(\"Failed To Parse Polygon\", ex);\n"
-			+ "			}"),
-	/**
-	 *
-	 */
-	MAX_X("Double", "String firstPoly", ""
-			+ "			try {\n"
-			+ "				if (firstPoly == null) {\n"
-			+ "					return null;\n"
-			+ "				} else {\n"
-			+ "					WKTReader wktReader = new WKTReader();\n"
-			+ "					Geometry geometry = wktReader.read(firstPoly);\n"
-			+ "					if (geometry instanceof Polygon) {\n"
-			+ "						Polygon polygon = (Polygon) geometry;\n"
-			+ "						Double maxX = null;\n"
-			+ "						Coordinate[] coordinates = polygon.getCoordinates();\n"
-			+ "						for (Coordinate coordinate : coordinates) {\n"
-			+ "							if (maxX == null || coordinate.x > maxX) {\n"
-			+ "								maxX = coordinate.x;\n"
-			+ "							}\n"
-			+ "						}\n"
-			+ "						return maxX;\n"
-			+ "					} else {\n"
-			+ "						throw new RuntimeException(\"Failed To Parse Polygon\");\n"
-			+ "					}\n"
-			+ "				}\n"
-			+ "			} catch (Exception ex) {\n"
-			+ "				throw new RuntimeException(\"Failed To Parse Polygon\", ex);\n"
-			+ "			}"),
-	/**
-	 *
-	 */
-	MIN_X("Double", "String firstPoly", "" + "			try {\n"
-			+ "				WKTReader wktReader = new WKTReader();\n"
-			+ "				if (firstPoly == null) {\n"
-			+ "					return null;\n"
-			+ "				} else {\n"
-			+ "					Geometry geometry = wktReader.read(firstPoly);\n"
-			+ "					if (geometry instanceof Polygon) {\n"
-			+ "						Polygon polygon = (Polygon) geometry;\n"
-			+ "						Double minX = null;\n"
-			+ "						Coordinate[] coordinates = polygon.getCoordinates();\n"
-			+ "						for (Coordinate coordinate : coordinates) {\n"
-			+ "							if (minX == null || coordinate.x < minX) {\n"
-			+ "								minX = coordinate.x;\n"
-			+ "							}\n"
-			+ "						}\n"
-			+ "						return minX;\n"
-			+ "					} else {\n"
-			+ "						throw new RuntimeException(\"Failed To Parse Polygon\");\n"
-			+ "					}\n"
-			+ "				}\n"
-			+ "			} catch (Exception ex) {\n"
-			+ "				throw new RuntimeException(\"Failed To Parse Polygon\", ex);\n"
-			+ "			}"),
-	/**
-	 *
-	 */
-	BOUNDINGBOX("String", "String firstPoly", "\n"
-			+ "			try {\n"
-			+ "				if (firstPoly == null) {\n"
-			+ "					return null;\n"
-			+ "				} else {\n"
-			+ "					WKTReader wktReader = new WKTReader();\n"
-			+ "					GeometryFactory factory = new GeometryFactory();\n"
-			+ "					Geometry geometry = wktReader.read(firstPoly);\n"
-			+ "					if (geometry instanceof Polygon) {\n"
-			+ "						Polygon polygon = (Polygon) geometry;\n"
-			+ "						Double minX = null;\n"
-			+ "						Double minY = null;\n"
-			+ "						Double maxX = null;\n"
-			+ "						Double maxY = null;\n"
-			+ "						Coordinate[] coordinates = polygon.getCoordinates();\n"
-			+ "						for (Coordinate coordinate : coordinates) {\n"
-			+ "							if (minX == null || coordinate.x < minX) {\n"
-			+ "								minX = coordinate.x;\n"
-			+ "							}\n"
-			+ "							if (minY == null || coordinate.y < minY) {\n"
-			+ "								minY = coordinate.y;\n"
-			+ "							}\n"
-			+ "							if (maxX == null || coordinate.x > maxX) {\n"
-			+ "								maxX = coordinate.x;\n"
-			+ "							}\n"
-			+ "							if (maxY == null || coordinate.y > minY) {\n"
-			+ "								maxY = coordinate.y;\n"
-			+ "							}\n"
-			+ "						}\n"
-			+ "						Polygon createPolygon = factory.createPolygon(new Coordinate[]{\n"
-			+ "							new Coordinate(minX, minY),\n"
-			+ "							new Coordinate(maxX, minY),\n"
-			+ "							new Coordinate(maxX, maxY),\n"
-			+ "							new Coordinate(minX, maxY),\n"
-			+ "							new Coordinate(minX, minY),});\n"
-			+ "						createPolygon.normalize();\n"
-			+ "						return createPolygon.toText();\n"
-			+ "					} else {\n"
-			+ "						throw new RuntimeException(\"Failed To Parse Polygon\");\n"
-			+ "					}\n"
-			+ "				}\n"
-			+ "			} catch (Exception ex) {\n"
-			+ "				throw new RuntimeException(\"Failed To Parse Polygon\", ex);\n"
-			+ "			}\n"),
-	/**
-	 *
-	 */
-	TOUCHES("Boolean", "String firstPolyStr, String secondPolyStr", ""
-			+ "			try {\n"
-			+ "				if (firstPolyStr == null || secondPolyStr == null) {\n"
-			+ "					return null;\n"
-			+ "				} else {\n"
-			+ "					WKTReader wktReader = new WKTReader();\n"
-			+ "					GeometryFactory factory = new GeometryFactory();\n"
-			+ "					Geometry firstGeometry = wktReader.read(firstPolyStr);\n"
-			+ "					Geometry secondGeometry = wktReader.read(secondPolyStr);\n"
-			+ "					if ((firstGeometry instanceof Polygon)&&(secondGeometry instanceof Polygon)) {\n"
-			+ "						Polygon firstPoly = (Polygon) firstGeometry;\n"
-			+ "						Polygon secondPoly = (Polygon) secondGeometry;\n"
-			+ "						return firstPoly.touches(secondPoly);\n"
-			+ "					}else{"
-			+ "						return false;"
-			+ "					}"
-			+ "				}\n"
-			+ "			} catch (Exception ex) {\n"
-			+ "				throw new RuntimeException(\"Failed To Parse Polygon\", ex);\n"
-			+ "			}\n"
-			+ ""),
-	/**
-	 *
-	 */
-	EXTERIORRING("String", "String firstPolyStr", "\n"
-			+ "			try {\n"
-			+ "				if (firstPolyStr == null) {\n"
-			+ "					return null;\n"
-			+ "				} else {\n"
-			+ "					WKTReader wktReader = new WKTReader();\n"
-			+ "					GeometryFactory factory = new GeometryFactory();\n"
-			+ "					Geometry firstGeometry = wktReader.read(firstPolyStr);\n"
-			+ "					if ((firstGeometry instanceof Polygon)) {\n"
-			+ "						Polygon firstPoly = (Polygon) firstGeometry;\n"
-			+ "						final LineString exteriorRing = firstPoly.getExteriorRing();\n"
-			+ "						exteriorRing.normalize();\n"
-			+ "						LineString createLineString = (new GeometryFactory()).createLineString(exteriorRing.getCoordinateSequence());\n"
-			+ "						Geometry reverse = createLineString.reverse();\n"
-			+ "						return reverse.toText();\n"
-			+ "					} else {\n"
-			+ "						return null;"
-			+ "					}\n"
-			+ "				}\n"
-			+ "			} catch (Exception ex) {\n"
-			+ "				throw new RuntimeException(\"Failed To Parse SQLite Polygon\", ex);\n"
-			+ "			}"),
-	/**
-	 *
-	 */
-	CONTAINS_POLYGON2D("Boolean", "String firstPolyStr, String secondPolyStr", ""
-			+ "			try {\n"
-			+ "				if (firstPolyStr == null || secondPolyStr == null) {\n"
-			+ "					return null;\n"
-			+ "				} else {\n"
-			+ "					WKTReader wktReader = new WKTReader();\n"
-			+ "					GeometryFactory factory = new GeometryFactory();\n"
-			+ "					Geometry firstGeometry = wktReader.read(firstPolyStr);\n"
-			+ "					Geometry secondGeometry = wktReader.read(secondPolyStr);\n"
-			+ "					if ((firstGeometry instanceof Polygon)&&(secondGeometry instanceof Polygon)) {\n"
-			+ "						Polygon firstPoly = (Polygon) firstGeometry;\n"
-			+ "						Polygon secondPoly = (Polygon) secondGeometry;\n"
-			+ "						return firstPoly.contains(secondPoly);\n"
-			+ "					}else{"
-			+ "						return false;"
-			+ "					}"
-			+ "				}\n"
-			+ "			} catch (Exception ex) {\n"
-			+ "				throw new RuntimeException(\"Failed To Parse Polygon\", ex);\n"
-			+ "			}"),
-	/**
-	 *
-	 */
-	CONTAINS_POINT2D("Boolean", "String firstPolyStr, String secondPolyStr", ""
-			+ "			try {\n"
-			+ "				if (firstPolyStr == null || secondPolyStr == null) {\n"
-			+ "					return null;\n"
-			+ "				} else {\n"
-			+ "					WKTReader wktReader = new WKTReader();\n"
-			+ "					GeometryFactory factory = new GeometryFactory();\n"
-			+ "					Geometry firstGeometry = wktReader.read(firstPolyStr);\n"
-			+ "					Geometry secondGeometry = wktReader.read(secondPolyStr);\n"
-			+ "					if ((firstGeometry instanceof Polygon)&&(secondGeometry instanceof Point)) {\n"
-			+ "						Polygon firstPoly = (Polygon) firstGeometry;\n"
-			+ "						Point secondPoly = (Point) secondGeometry;\n"
-			+ "						return firstPoly.contains(secondPoly);\n"
-			+ "					}else{"
-			+ "						return false;"
-			+ "					}"
-			+ "				}\n"
-			+ "			} catch (Exception ex) {\n"
-			+ "				throw new RuntimeException(\"Failed To Parse Polygon\", ex);\n"
-			+ "			}"),
-	/**
-	 *
-	 */
-	WITHIN("Boolean", "String firstPolyStr, String secondPolyStr", ""
-			+ "			try {\n"
-			+ "				if (firstPolyStr == null || secondPolyStr == null) {\n"
-			+ "					return null;\n"
-			+ "				} else {\n"
-			+ "					WKTReader wktReader = new WKTReader();\n"
-			+ "					GeometryFactory factory = new GeometryFactory();\n"
-			+ "					Geometry firstGeometry = wktReader.read(firstPolyStr);\n"
-			+ "					Geometry secondGeometry = wktReader.read(secondPolyStr);\n"
-			+ "					if ((firstGeometry instanceof Polygon)&&(secondGeometry instanceof Polygon)) {\n"
-			+ "						Polygon firstPoly = (Polygon) firstGeometry;\n"
-			+ "						Polygon secondPoly = (Polygon) secondGeometry;\n"
-			+ "						return firstPoly.within(secondPoly);\n"
-			+ "					}else{"
-			+ "						return false;"
-			+ "					}"
-			+ "				}\n"
-			+ "			} catch (Exception ex) {\n"
-			+ "				throw new RuntimeException(\"Failed To Parse Polygon\", ex);\n"
-			+ "			}"),
-	/**
-	 *
-	 */
-	OVERLAPS("Boolean", "String firstPolyStr, String secondPolyStr", ""
-			+ "			try {\n"
-			+ "				if (firstPolyStr == null || secondPolyStr == null) {\n"
-			+ "					return null;\n"
-			+ "				} else {\n"
-			+ "					WKTReader wktReader = new WKTReader();\n"
-			+ "					GeometryFactory factory = new GeometryFactory();\n"
-			+ "					Geometry firstGeometry = wktReader.read(firstPolyStr);\n"
-			+ "					Geometry secondGeometry = wktReader.read(secondPolyStr);\n"
-			+ "					if ((firstGeometry instanceof Polygon)&&(secondGeometry instanceof Polygon)) {\n"
-			+ "						Polygon firstPoly = (Polygon) firstGeometry;\n"
-			+ "						Polygon secondPoly = (Polygon) secondGeometry;\n"
-			+ "						return firstPoly.overlaps(secondPoly);\n"
-			+ "					}else{"
-			+ "						return false;"
-			+ "					}"
-			+ "				}\n"
-			+ "			} catch (Exception ex) {\n"
-			+ "				throw new RuntimeException(\"Failed To Parse Polygon\", ex);\n"
-			+ "			}"),
-	/**
-	 *
-	 */
-	UNION("String", "String firstPolyStr, String secondPolyStr", ""
-			+ "			try {\n"
-			+ "				if (firstPolyStr == null || secondPolyStr == null) {\n"
-			+ "					return null;\n"
-			+ "				} else {\n"
-			+ "					WKTReader wktReader = new WKTReader();\n"
-			+ "					GeometryFactory factory = new GeometryFactory();\n"
-			+ "					Geometry firstGeometry = wktReader.read(firstPolyStr);\n"
-			+ "					Geometry secondGeometry = wktReader.read(secondPolyStr);\n"
-			+ "					if ((firstGeometry instanceof Polygon)&&(secondGeometry instanceof Polygon)) {\n"
-			+ "						Polygon firstPoly = (Polygon) firstGeometry;\n"
-			+ "						Polygon secondPoly = (Polygon) secondGeometry;\n"
-			+ "						return firstPoly.union(secondPoly).toText();\n"
-			+ "					}else{"
-			+ "						return null;"
-			+ "					}"
-			+ "				}\n"
-			+ "			} catch (Exception ex) {\n"
-			+ "				throw new RuntimeException(\"Failed To Parse Polygon\", ex);\n"
-			+ "			}"),
-	/**
-	 *
-	 */
-	INTERSECTION("String", "String firstPolyStr, String secondPolyStr", ""
-			+ "			try {\n"
-			+ "				if (firstPolyStr == null || secondPolyStr == null) {\n"
-			+ "					return null;\n"
-			+ "				} else {\n"
-			+ "					WKTReader wktReader = new WKTReader();\n"
-			+ "					GeometryFactory factory = new GeometryFactory();\n"
-			+ "					Geometry firstGeometry = wktReader.read(firstPolyStr);\n"
-			+ "					Geometry secondGeometry = wktReader.read(secondPolyStr);\n"
-			+ "					if ((firstGeometry instanceof Polygon)&&(secondGeometry instanceof Polygon)) {\n"
-			+ "						Polygon firstPoly = (Polygon) firstGeometry;\n"
-			+ "						Polygon secondPoly = (Polygon) secondGeometry;\n"
-			+ "						return firstPoly.intersection(secondPoly).toText();\n"
-			+ "					}else{"
-			+ "						return null;"
-			+ "					}"
-			+ "				}\n"
-			+ "			} catch (Exception ex) {\n"
-			+ "				throw new RuntimeException(\"Failed To Parse Polygon During INTERSECTION\", ex);\n"
-			+ "			}"),
-	/**
-	 *
-	 */
-	INTERSECTS("Boolean", "String firstPolyStr, String secondPolyStr", ""
-			+ "			try {\n"
-			+ "				if (firstPolyStr == null || secondPolyStr == null) {\n"
-			+ "					return null;\n"
-			+ "				} else {\n"
-			+ "					WKTReader wktReader = new WKTReader();\n"
-			+ "					GeometryFactory factory = new GeometryFactory();\n"
-			+ "					Geometry firstGeometry = wktReader.read(firstPolyStr);\n"
-			+ "					Geometry secondGeometry = wktReader.read(secondPolyStr);\n"
-			+ "					if ((firstGeometry instanceof Polygon)&&(secondGeometry instanceof Polygon)) {\n"
-			+ "						Polygon firstPoly = (Polygon) firstGeometry;\n"
-			+ "						Polygon secondPoly = (Polygon) secondGeometry;\n"
-			+ "						return firstPoly.intersects(secondPoly);\n"
-			+ "					}else{"
-			+ "						return false;"
-			+ "					}"
-			+ "				}\n"
-			+ "			} catch (Exception ex) {\n"
-			+ "				throw new RuntimeException(\"Failed To Parse Polygon During INTERSECTS\", ex);\n"
-			+ "			}"),
-	/**
-	 *
-	 */
-	DISJOINT("Boolean", "String firstPolyStr, String secondPolyStr", ""
-			+ "			try {\n"
-			+ "				if (firstPolyStr == null || secondPolyStr == null) {\n"
-			+ "					return null;\n"
-			+ "				} else {\n"
-			+ "					WKTReader wktReader = new WKTReader();\n"
-			+ "					GeometryFactory factory = new GeometryFactory();\n"
-			+ "					Geometry firstGeometry = wktReader.read(firstPolyStr);\n"
-			+ "					Geometry secondGeometry = wktReader.read(secondPolyStr);\n"
-			+ "					if ((firstGeometry instanceof Polygon)&&(secondGeometry instanceof Polygon)) {\n"
-			+ "						Polygon firstPoly = (Polygon) firstGeometry;\n"
-			+ "						Polygon secondPoly = (Polygon) secondGeometry;\n"
-			+ "						return firstPoly.disjoint(secondPoly);\n"
-			+ "					}else{"
-			+ "						return false;"
-			+ "					}"
-			+ "				}\n"
-			+ "			} catch (Exception ex) {\n"
-			+ "				throw new RuntimeException(\"Failed To Parse Polygon\", ex);\n"
-			+ "			}");
+	CREATE_FROM_WKTPOLYGON2D("createFromWKT"),
+	/**
+	 *
+	 */
+	CREATE_FROM_POINT2DS("createFromPoints"),
+	/**
+	 *
+	 */
+	EQUALS("isEqual"),
+	/**
+	 *
+	 */
+	AREA("getArea"),
+	/**
+	 *
+	 */
+	DIMENSION("getDimension"),
+	/**
+	 *
+	 */
+	MIN_Y("getMinY"),
+	/**
+	 *
+	 */
+	MAX_Y("getMaxY"),
+	/**
+	 *
+	 */
+	MAX_X("getMaxX"),
+	/**
+	 *
+	 */
+	MIN_X("getMinX"),
+	/**
+	 *
+	 */
+	BOUNDINGBOX("getBoundingBox"),
+	/**
+	 *
+	 */
+	TOUCHES("touches"),
+	/**
+	 *
+	 */
+	EXTERIORRING("getExteriorRing"),
+	/**
+	 *
+	 */
+	CONTAINS_POLYGON2D("containsPolygon"),
+	/**
+	 *
+	 */
+	CONTAINS_POINT2D("containsPoint"),
+	/**
+	 *
+	 */
+	WITHIN("within"),
+	/**
+	 *
+	 */
+	OVERLAPS("overlaps"),
+	/**
+	 *
+	 */
+	UNION("union"),
+	/**
+	 *
+	 */
+	INTERSECTION("intersection"),
+	/**
+	 *
+	 */
+	INTERSECTS("intersects"),
+	/**
+	 *
+	 */
+	DISJOINT("disjoint");
+
+	private static final GeometryFactory FACTORY = new GeometryFactory();
 
-	private final String returnType;
-	private final String parameters;
-	private final String code;
+	private final String methodName;
 
-	Polygon2DFunctions(String returnType, String parameters, String code) {
-		this.returnType = returnType;
-		this.parameters = parameters;
-		this.code = code;
+	Polygon2DFunctions(String methodName) {
+		this.methodName = methodName;
 	}
 
 	@Override
@@ -533,17 +147,415 @@ public enum Polygon2DFunctions implements DBVFeature {
 	 */
 	@Override
 	public void add(Statement stmt) throws SQLException {
+		stmt.execute("CREATE ALIAS IF NOT EXISTS " + alias() + " DETERMINISTIC FOR \"" + Polygon2DFunctions.class.getName() + "." + methodName + "\";");
+	}
+
+	private static Geometry geometry(String wkt) {
+		try {
+			return ParsedValueCache.geometry(wkt);
+		} catch (ParseException ex) {
+			throw new RuntimeException("Failed To Parse Polygon: '" + wkt + "'", ex);
+		}
+	}
+
+	private static Polygon polygon(String wkt) {
+		Geometry geometry = geometry(wkt);
+		if (geometry instanceof Polygon) {
+			return (Polygon) geometry;
+		} else {
+			throw new RuntimeException("Failed To Parse Polygon: '" + wkt + "'");
+		}
+	}
+
+	/**
+	 * Implements DBV_POLYGON2D_CREATE_FROM_WKTPOLYGON2D.
+	 *
+	 * @param wkt the WKT of a polygon
+	 * @return the WKT of the polygon
+	 */
+	public static String createFromWKT(String wkt) {
+		return wkt;
+	}
+
+	/**
+	 * Implements DBV_POLYGON2D_CREATE_FROM_POINT2DS.
+	 *
+	 * @param pointsArray the WKT of the points around the polygon
+	 * @return the WKT of the polygon or NULL if any point is NULL
+	 */
+	public static String createFromPoints(String... pointsArray) {
+		Coordinate[] coords = new Coordinate[pointsArray.length];
+		for (int index = 0; index < pointsArray.length; index++) {
+			String originalStr = pointsArray[index];
+			if (originalStr == null) {
+				return null;
+			} else {
+				Geometry geometry = geometry(originalStr);
+				if (geometry instanceof Point) {
+					coords[index] = new Coordinate(geometry.getCoordinate());
+				} else {
+					throw new RuntimeException("Failed To Parse H2 Polygon2D");
+				}
+			}
+		}
 		try {
-			stmt.execute("DROP ALIAS " + alias() + ";");
-		} catch (SQLException sqlex) {
-			;
+			Polygon createPolygon = FACTORY.createPolygon(coords);
+			createPolygon.normalize();
+			return createPolygon.toText();
+		} catch (Exception ex) {
+			throw new RuntimeException("Failed To Parse H2 Polygon2D", ex);
+		}
+	}
+
+	/**
+	 * Implements DBV_POLYGON2D_EQUALS.
+	 *
+	 * @param firstPolyStr the WKT of a polygon
+	 * @param secondPolyStr the WKT of a polygon
+	 * @return TRUE if the polygons are the same after normalization
+	 */
+	public static Boolean isEqual(String firstPolyStr, String secondPolyStr) {
+		if (firstPolyStr == null || secondPolyStr == null) {
+			return null;
+		} else {
+			Geometry firstGeometry = geometry(firstPolyStr);
+			Geometry secondGeometry = geometry(secondPolyStr);
+			if ((firstGeometry instanceof Polygon) && (secondGeometry instanceof Polygon)) {
+				Geometry firstPoly = (Geometry) firstGeometry.clone();
+				Geometry secondPoly = (Geometry) secondGeometry.clone();
+				firstPoly.normalize();
+				secondPoly.normalize();
+				return firstPoly.toText().equals(secondPoly.toText());
+			} else {
+				return false;
+			}
+		}
+	}
+
+	/**
+	 * Implements DBV_POLYGON2D_AREA.
+	 *
+	 * @param firstPolyStr the WKT of a polygon
+	 * @return the area of the polygon
+	 */
+	public static Double getArea(String firstPolyStr) {
+		if (firstPolyStr == null) {
+			return null;
+		} else {
+			Geometry firstGeometry = geometry(firstPolyStr);
+			if (firstGeometry instanceof Polygon) {
+				return firstGeometry.getArea();
+			} else {
+				return null;
+			}
+		}
+	}
+
+	/**
+	 * Implements DBV_POLYGON2D_DIMENSION.
+	 *
+	 * @param firstPoly the WKT of a polygon
+	 * @return 2
+	 */
+	public static Integer getDimension(String firstPoly) {
+		return 2;
+	}
+
+	/**
+	 * Implements DBV_POLYGON2D_MIN_Y.
+	 *
+	 * @param firstPoly the WKT of a polygon
+	 * @return the smallest Y coordinate of the polygon
+	 */
+	public static Double getMinY(String firstPoly) {
+		if (firstPoly == null) {
+			return null;
+		} else {
+			Envelope envelope = polygon(firstPoly).getEnvelopeInternal();
+			return envelope.isNull() ? null : envelope.getMinY();
+		}
+	}
+
+	/**
+	 * Implements DBV_POLYGON2D_MAX_Y.
+	 *
+	 * @param firstPoly the WKT of a polygon
+	 * @return the largest Y coordinate of the polygon
+	 */
+	public static Double getMaxY(String firstPoly) {
+		if (firstPoly == null) {
+			return null;
+		} else {
+			Envelope envelope = polygon(firstPoly).getEnvelopeInternal();
+			return envelope.isNull() ? null : envelope.getMaxY();
+		}
+	}
+
+	/**
+	 * Implements DBV_POLYGON2D_MAX_X.
+	 *
+	 * @param firstPoly the WKT of a polygon
+	 * @return the largest X coordinate of the polygon
+	 */
+	public static Double getMaxX(String firstPoly) {
+		if (firstPoly == null) {
+			return null;
+		} else {
+			Envelope envelope = polygon(firstPoly).getEnvelopeInternal();
+			return envelope.isNull() ? null : envelope.getMaxX();
+		}
+	}
+
+	/**
+	 * Implements DBV_POLYGON2D_MIN_X.
+	 *
+	 * @param firstPoly the WKT of a polygon
+	 * @return the smallest X coordinate of the polygon
+	 */
+	public static Double getMinX(String firstPoly) {
+		if (firstPoly == null) {
+			return null;
+		} else {
+			Envelope envelope = polygon(firstPoly).getEnvelopeInternal();
+			return envelope.isNull() ? null : envelope.getMinX();
+		}
+	}
+
+	/**
+	 * Implements DBV_POLYGON2D_BOUNDINGBOX.
+	 *
+	 * @param firstPoly the WKT of a polygon
+	 * @return the WKT of the smallest rectangle containing the polygon
+	 */
+	public static String getBoundingBox(String firstPoly) {
+		if (firstPoly == null) {
+			return null;
+		} else {
+			Envelope envelope = polygon(firstPoly).getEnvelopeInternal();
+			final double minX = envelope.getMinX();
+			final double minY = envelope.getMinY();
+			final double maxX = envelope.getMaxX();
+			final double maxY = envelope.getMaxY();
+			Polygon createPolygon = FACTORY.createPolygon(new Coordinate[]{
+				new Coordinate(minX, minY),
+				new Coordinate(maxX, minY),
+				new Coordinate(maxX, maxY),
+				new Coordinate(minX, maxY),
+				new Coordinate(minX, minY),});
+			createPolygon.normalize();
+			return createPolygon.toText();
+		}
+	}
+
+	/**
+	 * Implements DBV_POLYGON2D_TOUCHES.
+	 *
+	 * @param firstPolyStr the WKT of a polygon
+	 * @param secondPolyStr the WKT of a polygon
+	 * @return TRUE if the polygons touch
+	 */
+	public static Boolean touches(String firstPolyStr, String secondPolyStr) {
+		if (firstPolyStr == null || secondPolyStr == null) {
+			return null;
+		} else {
+			Geometry firstGeometry = geometry(firstPolyStr);
+			Geometry secondGeometry = geometry(secondPolyStr);
+			if ((firstGeometry instanceof Polygon) && (secondGeometry instanceof Polygon)) {
+				return firstGeometry.touches(secondGeometry);
+			} else {
+				return false;
+			}
+		}
+	}
+
+	/**
+	 * Implements DBV_POLYGON2D_EXTERIORRING.
+	 *
+	 * @param firstPolyStr the WKT of a polygon
+	 * @return the WKT of a line following the outside of the polygon
+	 */
+	public static String getExteriorRing(String firstPolyStr) {
+		if (firstPolyStr == null) {
+			return null;
+		} else {
+			Geometry firstGeometry = geometry(firstPolyStr);
+			if (firstGeometry instanceof Polygon) {
+				Polygon firstPoly = (Polygon) firstGeometry.clone();
+				final LineString exteriorRing = firstPoly.getExteriorRing();
+				exteriorRing.normalize();
+				LineString createLineString = FACTORY.createLineString(exteriorRing.getCoordinateSequence());
+				return createLineString.reverse().toText();
+			} else {
+				return null;
+			}
+		}
+	}
+
+	/**
+	 * Implements DBV_POLYGON2D_CONTAINS_POLYGON2D.
+	 *
+	 * @param firstPolyStr the WKT of a polygon
+	 * @param secondPolyStr the WKT of a polygon
+	 * @return TRUE if the first polygon contains the second
+	 */
+	public static Boolean containsPolygon(String firstPolyStr, String secondPolyStr) {
+		if (firstPolyStr == null || secondPolyStr == null) {
+			return null;
+		} else {
+			Geometry firstGeometry = geometry(firstPolyStr);
+			Geometry secondGeometry = geometry(secondPolyStr);
+			if ((firstGeometry instanceof Polygon) && (secondGeometry instanceof Polygon)) {
+				return firstGeometry.contains(secondGeometry);
+			} else {
+				return false;
+			}
+		}
+	}
+
+	/**
+	 * Implements DBV_POLYGON2D_CONTAINS_POINT2D.
+	 *
+	 * @param firstPolyStr the WKT of a polygon
+	 * @param secondPolyStr the WKT of a point
+	 * @return TRUE if the polygon contains the point
+	 */
+	public static Boolean containsPoint(String firstPolyStr, String secondPolyStr) {
+		if (firstPolyStr == null || secondPolyStr == null) {
+			return null;
+		} else {
+			Geometry firstGeometry = geometry(firstPolyStr);
+			Geometry secondGeometry = geometry(secondPolyStr);
+			if ((firstGeometry instanceof Polygon) && (secondGeometry instanceof Point)) {
+				return firstGeometry.contains(secondGeometry);
+			} else {
+				return false;
+			}
+		}
+	}
+
+	/**
+	 * Implements DBV_POLYGON2D_WITHIN.
+	 *
+	 * @param firstPolyStr the WKT of a polygon
+	 * @param secondPolyStr the WKT of a polygon
+	 * @return TRUE if the first polygon is within the second
+	 */
+	public static Boolean within(String firstPolyStr, String secondPolyStr) {
+		if (firstPolyStr == null || secondPolyStr == null) {
+			return null;
+		} else {
+			Geometry firstGeometry = geometry(firstPolyStr);
+			Geometry secondGeometry = geometry(secondPolyStr);
+			if ((firstGeometry instanceof Polygon) && (secondGeometry instanceof Polygon)) {
+				return firstGeometry.within(secondGeometry);
+			} else {
+				return false;
+			}
+		}
+	}
+
+	/**
+	 * Implements DBV_POLYGON2D_OVERLAPS.
+	 *
+	 * @param firstPolyStr the WKT of a polygon
+	 * @param secondPolyStr the WKT of a polygon
+	 * @return TRUE if the polygons overlap
+	 */
+	public static Boolean overlaps(String firstPolyStr, String secondPolyStr) {
+		if (firstPolyStr == null || secondPolyStr == null) {
+			return null;
+		} else {
+			Geometry firstGeometry = geometry(firstPolyStr);
+			Geometry secondGeometry = geometry(secondPolyStr);
+			if ((firstGeometry instanceof Polygon) && (secondGeometry instanceof Polygon)) {
+				return firstGeometry.overlaps(secondGeometry);
+			} else {
+				return false;
+			}
+		}
+	}
+
+	/**
+	 * Implements DBV_POLYGON2D_UNION.
+	 *
+	 * @param firstPolyStr the WKT of a polygon
+	 * @param secondPolyStr the WKT of a polygon
+	 * @return the WKT of the union of the polygons
+	 */
+	public static String union(String firstPolyStr, String secondPolyStr) {
+		if (firstPolyStr == null || secondPolyStr == null) {
+			return null;
+		} else {
+			Geometry firstGeometry = geometry(firstPolyStr);
+			Geometry secondGeometry = geometry(secondPolyStr);
+			if ((firstGeometry instanceof Polygon) && (secondGeometry instanceof Polygon)) {
+				return firstGeometry.union(secondGeometry).toText();
+			} else {
+				return null;
+			}
+		}
+	}
+
+	/**
+	 * Implements DBV_POLYGON2D_INTERSECTION.
+	 *
+	 * @param firstPolyStr the WKT of a polygon
+	 * @param secondPolyStr the WKT of a polygon
+	 * @return the WKT of the intersection of the polygons
+	 */
+	public static String intersection(String firstPolyStr, String secondPolyStr) {
+		if (firstPolyStr == null || secondPolyStr == null) {
+			return null;
+		} else {
+			Geometry firstGeometry = geometry(firstPolyStr);
+			Geometry secondGeometry = geometry(secondPolyStr);
+			if ((firstGeometry instanceof Polygon) && (secondGeometry instanceof Polygon)) {
+				return firstGeometry.intersection(secondGeometry).toText();
+			} else {
+				return null;
+			}
 		}
-		if (code.isEmpty()) {
-			stmt.execute("CREATE ALIAS IF NOT EXISTS " + alias() + " DETERMINISTIC AS $$ \n"
-					+ "import com.vividsolutions.jts.geom.*; import com.vividsolutions.jts.io.*;\n import java.util.*;\n" + "@CODE " + returnType + " " + alias() + "(" + parameters + ") {\n throw new UnsupportedOperationException(\"Not supported yet.\");} $$;");
+	}
+
+	/**
+	 * Implements DBV_POLYGON2D_INTERSECTS.
+	 *
+	 * @param firstPolyStr the WKT of a polygon
+	 * @param secondPolyStr the WKT of a polygon
+	 * @return TRUE if the polygons intersect
+	 */
+	public static Boolean intersects(String firstPolyStr, String secondPolyStr) {
+		if (firstPolyStr == null || secondPolyStr == null) {
+			return null;
+		} else {
+			Geometry firstGeometry = geometry(firstPolyStr);
+			Geometry secondGeometry = geometry(secondPolyStr);
+			if ((firstGeometry instanceof Polygon) && (secondGeometry instanceof Polygon)) {
+				return firstGeometry.intersects(secondGeometry);
+			} else {
+				return false;
+			}
+		}
+	}
+
+	/**
+	 * Implements DBV_POLYGON2D_DISJOINT.
+	 *
+	 * @param firstPolyStr the WKT of a polygon
+	 * @param secondPolyStr the WKT of a polygon
+	 * @return TRUE if the polygons do not intersect
+	 */
+	public static Boolean disjoint(String firstPolyStr, String secondPolyStr) {
+		if (firstPolyStr == null || secondPolyStr == null) {
+			return null;
 		} else {
-			stmt.execute("CREATE ALIAS IF NOT EXISTS " + alias() + " DETERMINISTIC AS $$ \n"
-					+ "import com.vividsolutions.jts.geom.*; import com.vividsolutions.jts.io.*;\n import java.util.*;\n" + "@CODE " + returnType + " " + alias() + "(" + parameters + ") {\n" + code + "} $$;");
+			Geometry firstGeometry = geometry(firstPolyStr);
+			Geometry secondGeometry = geometry(secondPolyStr);
+			if ((firstGeometry instanceof Polygon) && (secondGeometry instanceof Polygon)) {
+				return firstGeometry.disjoint(secondGeometry);
+			} else {
+				return false;
+			}
 		}
 	}
 }
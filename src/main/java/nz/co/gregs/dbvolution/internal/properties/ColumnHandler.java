@@ -5,6 +5,8 @@ import nz.co.gregs.dbvolution.DBRow;
 import nz.co.gregs.dbvolution.annotations.DBAutoIncrement;
 import nz.co.gregs.dbvolution.annotations.DBColumn;
 import nz.co.gregs.dbvolution.annotations.DBForeignKey;
+import nz.co.gregs.dbvolution.annotations.DBKeyAllocation;
+import nz.co.gregs.dbvolution.annotations.DBLazy;
 import nz.co.gregs.dbvolution.annotations.DBPrimaryKey;
 
 /**
@@ -30,6 +32,8 @@ class ColumnHandler  implements Serializable{
 	private transient final DBColumn columnAnnotation; // null if not present on property
 	private transient final DBPrimaryKey primaryKeyAnnotation; // null if not present on property
 	private transient final DBAutoIncrement autoIncrementAnnotation; // null if not present on property
+	private transient final DBKeyAllocation keyAllocationAnnotation; // null if not present on property
+	private transient final DBLazy lazyAnnotation; // null if not present on property
 	private transient final DBForeignKey foreignKeyAnnotation; // null if not present on property
 //	private transient final boolean foreignKeyIsRecursive = false;
 
@@ -37,6 +41,8 @@ class ColumnHandler  implements Serializable{
 		this.columnAnnotation = adaptee.getAnnotation(DBColumn.class);
 		this.primaryKeyAnnotation = adaptee.getAnnotation(DBPrimaryKey.class);
 		this.autoIncrementAnnotation = adaptee.getAnnotation(DBAutoIncrement.class);
+		this.keyAllocationAnnotation = adaptee.getAnnotation(DBKeyAllocation.class);
+		this.lazyAnnotation = adaptee.getAnnotation(DBLazy.class);
 		this.foreignKeyAnnotation = adaptee.getAnnotation(DBForeignKey.class);
 
 		// pre-calculate column name
@@ -121,4 +127,45 @@ class ColumnHandler  implements Serializable{
 	public boolean isAutoIncrement() {
 		return this.autoIncrementAnnotation != null;
 	}
+
+	/**
+	 * Indicates whether the auto-increment values of this column are allocated
+	 * in blocks by DBvolution.
+	 *
+	 * <p style="color: #F90;">Support DBvolution at
+	 * <a href="http://patreon.com/dbvolution" target=new>Patreon</a></p>
+	 *
+	 * @return TRUE if the property is a {@link DBAutoIncrement} with a
+	 * {@link DBKeyAllocation} annotation, otherwise FALSE.
+	 */
+	public boolean isKeyAllocated() {
+		return isAutoIncrement() && this.keyAllocationAnnotation != null;
+	}
+
+	/**
+	 * Gets the number of keys to reserve at a time for this column.
+	 *
+	 * <p style="color: #F90;">Support DBvolution at
+	 * <a href="http://patreon.com/dbvolution" target=new>Patreon</a></p>
+	 *
+	 * @return the block size from the {@link DBKeyAllocation} annotation or 0 if
+	 * the column is not allocated in blocks.
+	 */
+	public int getKeyAllocationBlockSize() {
+		return isKeyAllocated() ? this.keyAllocationAnnotation.blockSize() : 0;
+	}
+
+	/**
+	 * Indicates whether this column should be loaded when first used rather
+	 * than by the query.
+	 *
+	 * <p style="color: #F90;">Support DBvolution at
+	 * <a href="http://patreon.com/dbvolution" target=new>Patreon</a></p>
+	 *
+	 * @return TRUE if the property has a {@link DBLazy} annotation and is not a
+	 * primary key, otherwise FALSE.
+	 */
+	public boolean isLazy() {
+		return this.lazyAnnotation != null && !isPrimaryKey();
+	}
 }
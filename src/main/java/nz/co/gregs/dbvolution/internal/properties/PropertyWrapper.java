@@ -748,6 +748,52 @@ public class PropertyWrapper implements Serializable {
 		return propertyDefinition.isAutoIncrementColumn();
 	}
 
+	/**
+	 * Returns true if the property wrapped is an auto-incrementing column with
+	 * keys allocated in blocks by DBvolution.
+	 *
+	 * <p>
+	 * Allocated keys are set on the row before it is inserted, rather than
+	 * being generated by the database.
+	 *
+	 * <p style="color: #F90;">Support DBvolution at
+	 * <a href="http://patreon.com/dbvolution" target=new>Patreon</a></p>
+	 *
+	 * @return TRUE if the column has a
+	 * {@link nz.co.gregs.dbvolution.annotations.DBKeyAllocation} annotation,
+	 * otherwise FALSE.
+	 */
+	public boolean isKeyAllocated() {
+		return propertyDefinition.isKeyAllocatedColumn();
+	}
+
+	/**
+	 * Returns the number of keys reserved at a time for this column.
+	 *
+	 * <p style="color: #F90;">Support DBvolution at
+	 * <a href="http://patreon.com/dbvolution" target=new>Patreon</a></p>
+	 *
+	 * @return the block size or 0 if the column is not allocated in blocks.
+	 */
+	public int getKeyAllocationBlockSize() {
+		return propertyDefinition.getKeyAllocationBlockSize();
+	}
+
+	/**
+	 * Returns true if the property wrapped is a column that is loaded when first
+	 * used rather than by the query.
+	 *
+	 * <p style="color: #F90;">Support DBvolution at
+	 * <a href="http://patreon.com/dbvolution" target=new>Patreon</a></p>
+	 *
+	 * @return TRUE if the column has a
+	 * {@link nz.co.gregs.dbvolution.annotations.DBLazy} annotation, otherwise
+	 * FALSE.
+	 */
+	public boolean isLazy() {
+		return propertyDefinition.isLazyColumn();
+	}
+
 	/**
 	 * Returns true if the property wrapped is a Spatial2D column.
 	 *
@@ -694,6 +694,18 @@ public class PropertyWrapperDefinition  implements Serializable{
 		return columnHandler.isAutoIncrement();
 	}
 
+	boolean isKeyAllocatedColumn() {
+		return columnHandler.isKeyAllocated();
+	}
+
+	int getKeyAllocationBlockSize() {
+		return columnHandler.getKeyAllocationBlockSize();
+	}
+
+	boolean isLazyColumn() {
+		return columnHandler.isLazy();
+	}
+
 	boolean isSpatial2DType() {
 		Class<? extends QueryableDatatype<?>> qdt = type();
 		return (Spatial2DResult.class.isAssignableFrom(qdt));
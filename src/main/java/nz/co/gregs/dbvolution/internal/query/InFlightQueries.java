@@ -0,0 +1,203 @@
+/*
+ * Copyright 2019 Gregory Graham.
+ *
+ * Commercial licenses are available, please contact info@gregs.co.nz for details.
+ * 
+ * This work is licensed under the Creative Commons Attribution-NonCommercial-ShareAlike 4.0 International License. 
+ * To view a copy of this license, visit http://creativecommons.org/licenses/by-nc-sa/4.0/ 
+ * or send a letter to Creative Commons, PO Box 1866, Mountain View, CA 94042, USA.
+ * 
+ * You are free to:
+ *     Share - copy and redistribute the material in any medium or format
+ *     Adapt - remix, transform, and build upon the material
+ * 
+ *     The licensor cannot revoke these freedoms as long as you follow the license terms.               
+ *     Under the following terms:
+ *                 
+ *         Attribution - 
+ *             You must give appropriate credit, provide a link to the license, and indicate if changes were made. 
+ *             You may do so in any reasonable manner, but not in any way that suggests the licensor endorses you or your use.
+ *         NonCommercial - 
+ *             You may not use the material for commercial purposes.
+ *         ShareAlike - 
+ *             If you remix, transform, or build upon the material, 
+ *             you must distribute your contributions under the same license as the original.
+ *         No additional restrictions - 
+ *             You may not apply legal terms or technological measures that legally restrict others from doing anything the 
+ *             license permits.
+ * 
+ * Check the Creative Commons website for any details, legalese, and updates.
+ */
+package nz.co.gregs.dbvolution.internal.query;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import nz.co.gregs.dbvolution.DBQueryRow;
+
+/**
+ * Tracks the queries currently running on a database so that identical
+ * queries started at the same time only run once.
+ *
+ * <p>
+ * The first query to {@link #join(java.lang.String) join} with a key becomes
+ * the leader and runs the query. Queries joining with the same key while the
+ * leader is running wait for the leader to {@link #land(java.lang.String) land}
+ * and then copy the leader's rows. If the leader fails, or takes longer than
+ * the follower is prepared to wait, the follower receives no rows and runs the
+ * query itself.
+ *
+ * <p>
+ * Callers include the {@link nz.co.gregs.dbvolution.internal.database.TableGenerations generation}
+ * of the query's tables in the key, so a query started after an action has
+ * changed a table never joins a query that started before the change.
+ *
+ * <p style="color: #F90;">Support DBvolution at
+ * <a href="http://patreon.com/dbvolution" target=new>Patreon</a></p>
+ *
+ * @author Gregory Graham
+ */
+public class InFlightQueries {
+
+	private final Map<String, Flight> flights = new HashMap<>();
+	private long sharedQueries = 0;
+
+	/**
+	 * Joins the query currently running for the key, or registers the caller as
+	 * the leader for the key.
+	 *
+	 * <p>
+	 * A leader must call {@link #land(java.lang.String)} when its query has
+	 * finished, even if the query failed.
+	 *
+	 * <p style="color: #F90;">Support DBvolution at
+	 * <a href="http://patreon.com/dbvolution" target=new>Patreon</a></p>
+	 *
+	 * @param key the key for the query
+	 * @return the running query to wait for, or NULL if the caller is the
+	 * leader and must run the query
+	 */
+	public synchronized Flight join(String key) {
+		Flight flight = flights.get(key);
+		if (flight == null) {
+			flights.put(key, new Flight());
+			return null;
+		}
+		flight.followers++;
+		sharedQueries++;
+		return flight;
+	}
+
+	/**
+	 * The number of queries that have joined a query that was already running
+	 * instead of running themselves.
+	 *
+	 * <p style="color: #F90;">Support DBvolution at
+	 * <a href="http://patreon.com/dbvolution" target=new>Patreon</a></p>
+	 *
+	 * @return the number of followers so far
+	 */
+	public synchronized long getSharedQueryCount() {
+		return sharedQueries;
+	}
+
+	/**
+	 * Removes the leader's query from the registry so that no more queries can
+	 * join it.
+	 *
+	 * <p>
+	 * The leader must then supply the rows, if there are followers, and
+	 * {@link Flight#finish() finish} the flight.
+	 *
+	 * <p style="color: #F90;">Support DBvolution at
+	 * <a href="http://patreon.com/dbvolution" target=new>Patreon</a></p>
+	 *
+	 * @param key the key for the query
+	 * @return the leader's flight
+	 */
+	public synchronized Flight land(String key) {
+		return flights.remove(key);
+	}
+
+	/**
+	 * A query being run by a leader and waited for by its followers.
+	 *
+	 * <p style="color: #F90;">Support DBvolution at
+	 * <a href="http://patreon.com/dbvolution" target=new>Patreon</a></p>
+	 *
+	 * @author Gregory Graham
+	 */
+	public static class Flight {
+
+		private final CountDownLatch finished = new CountDownLatch(1);
+		private int followers = 0;
+		private volatile List<DBQueryRow> rows = null;
+
+		/**
+		 * Indicates whether any queries are waiting for this flight.
+		 *
+		 * <p>
+		 * Only reliable after the flight has landed, as followers join while
+		 * holding the registry's lock.
+		 *
+		 * <p style="color: #F90;">Support DBvolution at
+		 * <a href="http://patreon.com/dbvolution" target=new>Patreon</a></p>
+		 *
+		 * @return TRUE if there are followers, otherwise FALSE
+		 */
+		public boolean hasFollowers() {
+			return followers > 0;
+		}
+
+		/**
+		 * Supplies the rows for the followers to copy.
+		 *
+		 * <p>
+		 * The rows must not be changed after they are supplied.
+		 *
+		 * @param rows the results of the leader's query
+		 */
+		public void setRows(List<DBQueryRow> rows) {
+			this.rows = rows;
+		}
+
+		/**
+		 * Releases the followers.
+		 */
+		public void finish() {
+			finished.countDown();
+		}
+
+		/**
+		 * Waits for the leader to finish and returns the leader's rows.
+		 *
+		 * <p>
+		 * The rows are shared with the other followers and must be copied before
+		 * use.
+		 *
+		 * @param timeoutInMilliseconds the longest time to wait for the leader,
+		 * zero or less to wait until the leader finishes
+		 * <p style="color: #F90;">Support DBvolution at
+		 * <a href="http://patreon.com/dbvolution" target=new>Patreon</a></p>
+		 * @return the rows or NULL if the leader failed, the wait timed out, or
+		 * the wait was interrupted
+		 */
+		public List<DBQueryRow> awaitRows(long timeoutInMilliseconds) {
+			try {
+				if (timeoutInMilliseconds > 0) {
+					if (!finished.await(timeoutInMilliseconds, TimeUnit.MILLISECONDS)) {
+						return null;
+					}
+				} else {
+					finished.await();
+				}
+				return rows;
+			} catch (InterruptedException ex) {
+				Thread.currentThread().interrupt();
+				return null;
+			}
+		}
+	}
+}
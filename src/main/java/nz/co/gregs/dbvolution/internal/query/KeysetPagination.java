@@ -0,0 +1,225 @@
+/*
+ * Copyright 2019 Gregory Graham.
+ *
+ * Commercial licenses are available, please contact info@gregs.co.nz for details.
+ * 
+ * This work is licensed under the Creative Commons Attribution-NonCommercial-ShareAlike 4.0 International License. 
+ * To view a copy of this license, visit http://creativecommons.org/licenses/by-nc-sa/4.0/ 
+ * or send a letter to Creative Commons, PO Box 1866, Mountain View, CA 94042, USA.
+ * 
+ * You are free to:
+ *     Share - copy and redistribute the material in any medium or format
+ *     Adapt - remix, transform, and build upon the material
+ * 
+ *     The licensor cannot revoke these freedoms as long as you follow the license terms.               
+ *     Under the following terms:
+ *                 
+ *         Attribution - 
+ *             You must give appropriate credit, provide a link to the license, and indicate if changes were made. 
+ *             You may do so in any reasonable manner, but not in any way that suggests the licensor endorses you or your use.
+ *         NonCommercial - 
+ *             You may not use the material for commercial purposes.
+ *         ShareAlike - 
+ *             If you remix, transform, or build upon the material, 
+ *             you must distribute your contributions under the same license as the original.
+ *         No additional restrictions - 
+ *             You may not apply legal terms or technological measures that legally restrict others from doing anything the 
+ *             license permits.
+ * 
+ * Check the Creative Commons website for any details, legalese, and updates.
+ */
+package nz.co.gregs.dbvolution.internal.query;
+
+import java.util.ArrayList;
+import java.util.List;
+import nz.co.gregs.dbvolution.DBQueryRow;
+import nz.co.gregs.dbvolution.DBRow;
+import nz.co.gregs.dbvolution.columns.ColumnProvider;
+import nz.co.gregs.dbvolution.datatypes.QueryableDatatype;
+import nz.co.gregs.dbvolution.exceptions.DBRuntimeException;
+import nz.co.gregs.dbvolution.expressions.BooleanExpression;
+import nz.co.gregs.dbvolution.expressions.DBExpression;
+import nz.co.gregs.dbvolution.expressions.RangeExpression;
+import nz.co.gregs.dbvolution.expressions.SortProvider;
+import nz.co.gregs.dbvolution.internal.properties.PropertyWrapper;
+import nz.co.gregs.dbvolution.internal.properties.PropertyWrapperDefinition;
+import nz.co.gregs.dbvolution.query.RowDefinition;
+
+/**
+ * Keyset, or seek, pagination for a query.
+ *
+ * <p>
+ * Instead of skipping the rows of the earlier pages with an offset, the next
+ * page is found by requiring the rows to sort after the last row of the
+ * previous page. With an index on the sort columns every page costs the same
+ * as the first page.
+ *
+ * <p>
+ * The keys are the query's sort columns followed by the primary keys of the
+ * required tables in the query, so that every row has a unique position.
+ * Optional tables are not used as they may have NULL primary keys. Only
+ * sorting by columns is supported, and the last row of the previous page must
+ * not have a NULL value in any of the keys.
+ *
+ * <p style="color: #F90;">Support DBvolution at
+ * <a href="http://patreon.com/dbvolution" target=new>Patreon</a></p>
+ *
+ * @author Gregory Graham
+ */
+public class KeysetPagination {
+
+	private final List<Key> keys = new ArrayList<>();
+	private final List<SortProvider> sortOrder = new ArrayList<>();
+
+	/**
+	 * Creates the keyset for the query.
+	 *
+	 * @param details the query to be paged
+	 */
+	public KeysetPagination(QueryDetails details) {
+		final SortProvider[] existingSortOrder = details.getSortOrder();
+		if (existingSortOrder != null) {
+			for (SortProvider sorter : existingSortOrder) {
+				final PropertyWrapper prop = getSortedProperty(sorter);
+				if (prop == null) {
+					throw new DBRuntimeException("Keyset Pagination Requires Column Sorting: only columns can be used to sort the query when using getPageAfter");
+				}
+				if (!hasKey(prop.getPropertyWrapperDefinition())) {
+					keys.add(new Key(prop, sorter.getOrdering() == SortProvider.Ordering.DESCENDING));
+					sortOrder.add(sorter);
+				}
+			}
+		}
+		List<DBRow> keyTables = details.getRequiredQueryTables();
+		if (keyTables.isEmpty()) {
+			keyTables = details.getAllQueryTables();
+		}
+		for (DBRow table : keyTables) {
+			for (QueryableDatatype<?> pk : table.getPrimaryKeys()) {
+				final ColumnProvider column = pk.getColumn(table);
+				final PropertyWrapper prop = column.getColumn().getPropertyWrapper();
+				if (!hasKey(prop.getPropertyWrapperDefinition())) {
+					keys.add(new Key(prop, false));
+					sortOrder.add(column.getSortProvider());
+				}
+			}
+		}
+	}
+
+	/**
+	 * The sort order required for keyset pagination.
+	 *
+	 * <p>
+	 * This is the original sort order with the primary keys added to the end.
+	 *
+	 * @return the sort order to use for the query
+	 */
+	public SortProvider[] getSortOrder() {
+		return sortOrder.toArray(new SortProvider[]{});
+	}
+
+	/**
+	 * Creates the condition that only allows rows that sort after the supplied
+	 * row.
+	 *
+	 * @param lastRow the last row of the previous page
+	 * @return a condition to add to the query
+	 */
+	public BooleanExpression getConditionForRowsAfter(DBQueryRow lastRow) {
+		List<DBExpression> values = new ArrayList<>(keys.size());
+		for (Key key : keys) {
+			values.add(key.getValue(lastRow.get(key.getTable())));
+		}
+		return getConditionForValuesAfter(values);
+	}
+
+	/**
+	 * Creates the condition that only allows rows that sort after the supplied
+	 * row.
+	 *
+	 * <p>
+	 * For use with single table queries like
+	 * {@link nz.co.gregs.dbvolution.DBTable}.
+	 *
+	 * @param lastRow the last row of the previous page
+	 * @return a condition to add to the query
+	 */
+	public BooleanExpression getConditionForRowsAfter(DBRow lastRow) {
+		List<DBExpression> values = new ArrayList<>(keys.size());
+		for (Key key : keys) {
+			values.add(key.getValue(key.getTable().getClass().isInstance(lastRow) ? lastRow : null));
+		}
+		return getConditionForValuesAfter(values);
+	}
+
+	@SuppressWarnings({"unchecked", "rawtypes"})
+	private BooleanExpression getConditionForValuesAfter(List<DBExpression> values) {
+		BooleanExpression condition = null;
+		for (int i = keys.size() - 1; i >= 0; i--) {
+			final Key key = keys.get(i);
+			final RangeExpression column = key.getColumn();
+			final DBExpression value = values.get(i);
+			if (condition == null) {
+				condition = key.descending ? column.isLessThan(value) : column.isGreaterThan(value);
+			} else {
+				condition = key.descending ? column.isLessThan(value, condition) : column.isGreaterThan(value, condition);
+			}
+		}
+		return condition;
+	}
+
+	private boolean hasKey(PropertyWrapperDefinition definition) {
+		for (Key key : keys) {
+			if (key.property.getPropertyWrapperDefinition().equals(definition)) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	private static PropertyWrapper getSortedProperty(SortProvider sorter) {
+		if (sorter instanceof SortProvider.Column) {
+			return ((SortProvider.Column) sorter).getPropertyWrapper();
+		} else if (sorter.hasInnerExpression() && sorter.getInnerExpression() instanceof ColumnProvider) {
+			return ((ColumnProvider) sorter.getInnerExpression()).getColumn().getPropertyWrapper();
+		}
+		return null;
+	}
+
+	private static class Key {
+
+		private final PropertyWrapper property;
+		private final boolean descending;
+
+		Key(PropertyWrapper property, boolean descending) {
+			this.property = property;
+			this.descending = descending;
+		}
+
+		RangeExpression<?, ?, ?> getColumn() {
+			final RowDefinition row = property.getRowDefinitionInstanceWrapper().adapteeRowDefinition();
+			final QueryableDatatype<?> qdt = property.getQueryableDatatype();
+			final ColumnProvider column = qdt.getColumn(row);
+			if (column instanceof RangeExpression) {
+				return (RangeExpression<?, ?, ?>) column;
+			}
+			throw new DBRuntimeException("Keyset Pagination Requires Comparable Columns: " + property.qualifiedJavaName() + " can not be compared using greater than");
+		}
+
+		DBRow getTable() {
+			final RowDefinition row = property.getRowDefinitionInstanceWrapper().adapteeRowDefinition();
+			if (!(row instanceof DBRow)) {
+				throw new DBRuntimeException("Keyset Pagination Requires Table Columns: " + property.qualifiedJavaName() + " is not a column of a table in the query");
+			}
+			return (DBRow) row;
+		}
+
+		DBExpression getValue(DBRow lastRowInstance) {
+			final QueryableDatatype<?> value = lastRowInstance == null ? null : property.getPropertyWrapperDefinition().getQueryableDatatype(lastRowInstance);
+			if (value == null || value.isNull()) {
+				throw new DBRuntimeException("Keyset Pagination Requires Values: the last row has no value for " + property.qualifiedJavaName());
+			}
+			return value.copy();
+		}
+	}
+}
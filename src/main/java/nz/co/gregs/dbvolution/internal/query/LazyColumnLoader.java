@@ -0,0 +1,219 @@
+/*
+ * Copyright 2019 Gregory Graham.
+ *
+ * Commercial licenses are available, please contact info@gregs.co.nz for details.
+ * 
+ * This work is licensed under the Creative Commons Attribution-NonCommercial-ShareAlike 4.0 International License. 
+ * To view a copy of this license, visit http://creativecommons.org/licenses/by-nc-sa/4.0/ 
+ * or send a letter to Creative Commons, PO Box 1866, Mountain View, CA 94042, USA.
+ * 
+ * You are free to:
+ *     Share - copy and redistribute the material in any medium or format
+ *     Adapt - remix, transform, and build upon the material
+ * 
+ *     The licensor cannot revoke these freedoms as long as you follow the license terms.               
+ *     Under the following terms:
+ *                 
+ *         Attribution - 
+ *             You must give appropriate credit, provide a link to the license, and indicate if changes were made. 
+ *             You may do so in any reasonable manner, but not in any way that suggests the licensor endorses you or your use.
+ *         NonCommercial - 
+ *             You may not use the material for commercial purposes.
+ *         ShareAlike - 
+ *             If you remix, transform, or build upon the material, 
+ *             you must distribute your contributions under the same license as the original.
+ *         No additional restrictions - 
+ *             You may not apply legal terms or technological measures that legally restrict others from doing anything the 
+ *             license permits.
+ * 
+ * Check the Creative Commons website for any details, legalese, and updates.
+ */
+package nz.co.gregs.dbvolution.internal.query;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import nz.co.gregs.dbvolution.DBRow;
+import nz.co.gregs.dbvolution.databases.DBDatabase;
+import nz.co.gregs.dbvolution.databases.DBStatement;
+import nz.co.gregs.dbvolution.databases.definitions.DBDefinition;
+import nz.co.gregs.dbvolution.datatypes.InternalQueryableDatatypeProxy;
+import nz.co.gregs.dbvolution.datatypes.QueryableDatatype;
+import nz.co.gregs.dbvolution.exceptions.DBRuntimeException;
+import nz.co.gregs.dbvolution.internal.properties.PropertyWrapper;
+import nz.co.gregs.dbvolution.internal.properties.PropertyWrapperDefinition;
+
+/**
+ * Loads the lazy columns of a set of rows when one of them is first used.
+ *
+ * <p>
+ * The rows are all instances of the same table from the same query result.
+ * All the lazy columns of all the rows are retrieved together using the
+ * primary keys of the rows, in batches of {@link #ROWS_PER_QUERY} rows.
+ *
+ * <p style="color: #F90;">Support DBvolution at
+ * <a href="http://patreon.com/dbvolution" target=new>Patreon</a></p>
+ *
+ * @author Gregory Graham
+ * @see nz.co.gregs.dbvolution.annotations.DBLazy
+ */
+public class LazyColumnLoader {
+
+	/**
+	 * The maximum number of rows loaded by each query.
+	 */
+	public static final int ROWS_PER_QUERY = 500;
+
+	private final DBDatabase database;
+	private final List<DBRow> rows;
+	private final List<PropertyWrapperDefinition> lazyProperties;
+	private boolean loading = false;
+	private boolean loaded = false;
+
+	private LazyColumnLoader(DBDatabase database, List<DBRow> rows, List<PropertyWrapperDefinition> lazyProperties) {
+		this.database = database;
+		this.rows = rows;
+		this.lazyProperties = lazyProperties;
+	}
+
+	/**
+	 * Attaches a loader for the lazy properties to the rows supplied.
+	 *
+	 * <p>
+	 * The rows must all be instances of the same DBRow class and have their
+	 * primary keys set.
+	 *
+	 * @param database the database the rows were retrieved from
+	 * @param rows the rows to be loaded together
+	 * @param lazyProperties the properties that were not retrieved by the query
+	 */
+	public static void attach(DBDatabase database, List<DBRow> rows, List<PropertyWrapperDefinition> lazyProperties) {
+		if (!rows.isEmpty() && !lazyProperties.isEmpty()) {
+			LazyColumnLoader loader = new LazyColumnLoader(database, new ArrayList<>(rows), new ArrayList<>(lazyProperties));
+			loader.setLoaderOnLazyColumns(rows, loader);
+		}
+	}
+
+	/**
+	 * Retrieves the lazy columns of all the rows, unless they have already been
+	 * retrieved.
+	 *
+	 * @throws DBRuntimeException if the database could not be queried
+	 */
+	public synchronized void load() {
+		if (loading || loaded) {
+			return;
+		}
+		loading = true;
+		try {
+			final DBDefinition defn = database.getDefinition();
+			for (int start = 0; start < rows.size(); start += ROWS_PER_QUERY) {
+				loadRows(defn, rows.subList(start, Math.min(rows.size(), start + ROWS_PER_QUERY)));
+			}
+			loaded = true;
+		} catch (SQLException ex) {
+			throw new DBRuntimeException("Unable To Load Lazy Columns: " + ex.getMessage(), ex);
+		} finally {
+			loading = false;
+		}
+	}
+
+	private void loadRows(DBDefinition defn, List<DBRow> batch) throws SQLException {
+		final DBRow example = batch.get(0);
+		final List<PropertyWrapper> primaryKeys = example.getPrimaryKeyPropertyWrappers();
+
+		Map<String, DBRow> rowsByKey = new HashMap<>();
+		for (DBRow row : batch) {
+			rowsByKey.put(getKey(defn, row, primaryKeys), row);
+		}
+
+		try (DBStatement statement = database.getDBStatement()) {
+			try (ResultSet resultSet = statement.executeQuery(getSQLForBatch(defn, example, primaryKeys, batch))) {
+				while (resultSet.next()) {
+					DBRow found = DBRow.getDBRow(example.getClass());
+					for (PropertyWrapper pk : primaryKeys) {
+						final PropertyWrapperDefinition pkDefn = pk.getPropertyWrapperDefinition();
+						pkDefn.getQueryableDatatype(found).setFromResultSet(defn, resultSet, getColumnAlias(defn, example, pkDefn));
+					}
+					DBRow original = rowsByKey.get(getKey(defn, found, primaryKeys));
+					if (original != null) {
+						for (PropertyWrapperDefinition lazyProperty : lazyProperties) {
+							final QueryableDatatype<?> qdt = lazyProperty.getQueryableDatatype(original);
+							qdt.setFromResultSet(defn, resultSet, getColumnAlias(defn, example, lazyProperty));
+						}
+					}
+				}
+			}
+		}
+		setLoaderOnLazyColumns(batch, null);
+	}
+
+	private String getSQLForBatch(DBDefinition defn, DBRow example, List<PropertyWrapper> primaryKeys, List<DBRow> batch) {
+		StringBuilder sql = new StringBuilder(defn.beginSelectStatement());
+		String separator = defn.getStartingSelectSubClauseSeparator();
+		for (PropertyWrapper pk : primaryKeys) {
+			sql.append(separator).append(getSelectableColumn(defn, example, pk.getPropertyWrapperDefinition()));
+			separator = defn.getSubsequentSelectSubClauseSeparator();
+		}
+		for (PropertyWrapperDefinition lazyProperty : lazyProperties) {
+			sql.append(separator).append(getSelectableColumn(defn, example, lazyProperty));
+			separator = defn.getSubsequentSelectSubClauseSeparator();
+		}
+		sql.append(defn.beginFromClause()).append(defn.getFromClause(example));
+		sql.append(defn.beginWhereClause());
+		if (primaryKeys.size() == 1) {
+			final String columnName = primaryKeys.get(0).columnName();
+			List<String> values = new ArrayList<>(batch.size());
+			for (DBRow row : batch) {
+				values.add(row.getPrimaryKeys().get(0).toSQLString(defn));
+			}
+			sql.append(defn.doInTransform(defn.formatTableAliasAndColumnName(example, columnName), values));
+		} else {
+			String rowSeparator = "";
+			for (DBRow row : batch) {
+				sql.append(rowSeparator).append("(");
+				String pkSeparator = "";
+				for (PropertyWrapper pk : row.getPrimaryKeyPropertyWrappers()) {
+					sql.append(pkSeparator)
+							.append(defn.formatTableAliasAndColumnName(example, pk.columnName()))
+							.append(defn.getEqualsComparator())
+							.append(pk.getQueryableDatatype().toSQLString(defn));
+					pkSeparator = defn.beginAndLine();
+				}
+				sql.append(")");
+				rowSeparator = defn.beginOrLine();
+			}
+		}
+		sql.append(defn.endSQLStatement());
+		return sql.toString();
+	}
+
+	private static String getSelectableColumn(DBDefinition defn, DBRow example, PropertyWrapperDefinition property) {
+		final QueryableDatatype<?> qdt = property.getQueryableDatatype(example);
+		final String selectableName = defn.formatTableAliasAndColumnName(example, property.getColumnName());
+		return defn.doColumnTransformForSelect(qdt, selectableName) + " " + getColumnAlias(defn, example, property);
+	}
+
+	private static String getColumnAlias(DBDefinition defn, DBRow example, PropertyWrapperDefinition property) {
+		return defn.formatColumnNameForDBQueryResultSet(example, property.getColumnName());
+	}
+
+	private static String getKey(DBDefinition defn, DBRow row, List<PropertyWrapper> primaryKeys) {
+		StringBuilder key = new StringBuilder();
+		for (PropertyWrapper pk : primaryKeys) {
+			key.append(pk.getPropertyWrapperDefinition().getQueryableDatatype(row).toSQLString(defn)).append("|");
+		}
+		return key.toString();
+	}
+
+	private void setLoaderOnLazyColumns(List<DBRow> batch, LazyColumnLoader loader) {
+		for (DBRow row : batch) {
+			for (PropertyWrapperDefinition lazyProperty : lazyProperties) {
+				new InternalQueryableDatatypeProxy(lazyProperty.getQueryableDatatype(row)).setLazyColumnLoader(loader);
+			}
+		}
+	}
+}
@@ -17,6 +17,7 @@ package nz.co.gregs.dbvolution.internal.query;
 
 import java.io.Serializable;
 import java.lang.reflect.Array;
+import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.sql.SQLTimeoutException;
@@ -26,6 +27,7 @@ import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.IdentityHashMap;
 import java.util.LinkedHashMap;
 import java.util.LinkedList;
 import java.util.List;
@@ -39,17 +41,21 @@ import nz.co.gregs.dbvolution.columns.ColumnProvider;
 import nz.co.gregs.dbvolution.databases.DBDatabase;
 import nz.co.gregs.dbvolution.databases.DBStatement;
 import nz.co.gregs.dbvolution.databases.definitions.DBDefinition;
+import nz.co.gregs.dbvolution.databases.listeners.ExecutionEvent;
 import nz.co.gregs.dbvolution.datatypes.QueryableDatatype;
 import nz.co.gregs.dbvolution.exceptions.AccidentalBlankQueryException;
 import nz.co.gregs.dbvolution.exceptions.AccidentalCartesianJoinException;
 import nz.co.gregs.dbvolution.exceptions.UnableToInstantiateDBRowSubclassException;
 import nz.co.gregs.dbvolution.exceptions.UnacceptableClassForAutoFillAnnotation;
+import nz.co.gregs.dbvolution.expressions.AnyExpression;
 import nz.co.gregs.dbvolution.expressions.BooleanExpression;
+import nz.co.gregs.dbvolution.expressions.BooleanExpressionSimplifier;
 import nz.co.gregs.dbvolution.expressions.DBExpression;
 import nz.co.gregs.dbvolution.expressions.SortProvider;
 import nz.co.gregs.dbvolution.internal.properties.PropertyWrapper;
 import nz.co.gregs.dbvolution.internal.properties.PropertyWrapperDefinition;
 import nz.co.gregs.dbvolution.internal.querygraph.QueryGraph;
+import nz.co.gregs.dbvolution.query.LazyLoadingPolicy;
 
 /**
  *
@@ -91,6 +97,7 @@ public class QueryDetails implements DBQueryable, Serializable {
 	private SortProvider[] sortOrderColumns;
 //	private ArrayList<PropertyWrapper> sortOrder;
 	private List<DBQueryRow> currentPage;
+	private BooleanExpression seekCondition = null;
 
 	/**
 	 * <p style="color: #F90;">Support DBvolution at
@@ -397,6 +404,9 @@ public class QueryDetails implements DBQueryable, Serializable {
 			initialiseQueryGraph();
 
 			DBDefinition defn = database.getDefinition();
+			if (options.isSimplifyingConditions()) {
+				queryState.simplifyRemainingExpressions(new BooleanExpressionSimplifier(defn), options.isMatchAllConditions());
+			}
 			StringBuilder selectClause = new StringBuilder().append(defn.beginSelectStatement());
 			int columnIndex = 1;
 			boolean groupByIsRequired = false;
@@ -427,7 +437,26 @@ public class QueryDetails implements DBQueryable, Serializable {
 			for (DBRow tabRow : sortedQueryTables) {
 				tableName = tabRow.getTableNameOrVariantIdentifier();
 
-				List<PropertyWrapper> tabProps = tabRow.getSelectedProperties();
+				List<PropertyWrapper> tabProps = getQueriedProperties(tabRow, options);
+				final SelectColumnsTemplate template = SelectColumnsTemplate.getTemplate(defn, tabRow, tabProps);
+				if (template != null) {
+					// the columns have been formatted before so just copy them in
+					for (int i = 0; i < template.size(); i++) {
+						final String selectColumn = template.getSelectColumn(i);
+						selectClause.append(colSep).append(selectColumn).append(" ").append(template.getColumnAlias(i));
+						colSep = defn.getSubsequentSelectSubClauseSeparator() + lineSep;
+
+						groupByIsRequired = true;
+						groupByColumnIndex += groupByColumnIndexSeparator + columnIndex;
+						groupByColumnIndexSeparator = defn.getSubsequentGroupBySubClauseSeparator();
+						groupByClause.append(groupByColSep).append(selectColumn);
+						groupByColSep = defn.getSubsequentGroupBySubClauseSeparator() + lineSep;
+
+						indexesOfSelectedColumns.put(template.getProperty(i), columnIndex);
+						columnIndex++;
+					}
+					tabProps = new ArrayList<>(0);
+				}
 				for (PropertyWrapper propWrapper : tabProps) {
 					final QueryableDatatype<?> qdt = propWrapper.getQueryableDatatype();
 					final List<PropertyWrapperDefinition.ColumnAspects> columnAspectsList = propWrapper.getColumnAspects(defn);
@@ -526,7 +555,9 @@ public class QueryDetails implements DBQueryable, Serializable {
 			}
 
 			for (BooleanExpression expression : queryState.getRemainingExpressions()) {
-				whereClause.append(lineSep).append(defn.beginConditionClauseLine(options)).append("(").append(expression.toSQLString(defn)).append(")");
+				whereClause.append(lineSep).append(defn.beginConditionClauseLine(options)).append("(");
+				AnyExpression.appendSQLStringOf(expression, defn, whereClause);
+				whereClause.append(")");
 				queryState.consumeExpression(expression);
 			}
 
@@ -591,6 +622,15 @@ public class QueryDetails implements DBQueryable, Serializable {
 			// tidy up the raw SQL provided
 			String rawSQLClauseFinal = (getRawSQLClause().isEmpty() ? "" : getRawSQLClause() + lineSep);
 
+			if (seekCondition != null) {
+				// the seek condition must hold even when the query matches any condition
+				final String conditionsSQL = whereClause.substring(defn.beginWhereClause().length());
+				whereClause = new StringBuilder(defn.beginWhereClause())
+						.append("(").append(conditionsSQL).append(")")
+						.append(defn.beginAndLine())
+						.append("(").append(seekCondition.toSQLString(defn)).append(")");
+			}
+
 			// Strip the unnecessary where clause if possible
 			if (whereClause.toString().equals(initialWhereClause) && rawSQLClauseFinal.isEmpty()) {
 				whereClause = new StringBuilder("");
@@ -878,7 +918,8 @@ public class QueryDetails implements DBQueryable, Serializable {
 			final String beginAndLine = defn.beginAndLine();
 			StringBuilder returnStr = new StringBuilder(havingClauseStart);
 			for (BooleanExpression havingColumn : having) {
-				returnStr.append(sep).append(havingColumn.toSQLString(defn));
+				returnStr.append(sep);
+				AnyExpression.appendSQLStringOf(havingColumn, defn, returnStr);
 				sep = beginAndLine;
 			}
 			return returnStr.toString();
@@ -934,6 +975,18 @@ public class QueryDetails implements DBQueryable, Serializable {
 		return sqlForQuery;
 	}
 
+	/**
+	 * The sort order of the query.
+	 *
+	 * <p style="color: #F90;">Support DBvolution at
+	 * <a href="http://patreon.com/dbvolution" target=new>Patreon</a></p>
+	 *
+	 * @return the sort order, or null if the query is not sorted
+	 */
+	public synchronized SortProvider[] getSortOrder() {
+		return sortOrderColumns == null ? null : Arrays.copyOf(sortOrderColumns, sortOrderColumns.length);
+	}
+
 	public synchronized void setSortOrder(SortProvider[] sortColumns) {
 		blankResults();
 		sortOrderColumns = Arrays.copyOf(sortColumns, sortColumns.length);
@@ -971,27 +1024,70 @@ public class QueryDetails implements DBQueryable, Serializable {
 		sortOrderColumns = null;
 	}
 
-	private synchronized void prepareForQuery(DBDatabase database, QueryOptions options) throws SQLException {
+	private synchronized void prepareForQuery(DBDatabase database, QueryOptions options, ResultsCheck check) throws SQLException {
 		clearResults();
-		setResultSQL(this.getSQLForQuery(database, new QueryState(this), QueryType.SELECT, options));
+		String sql = check == null ? null : check.getSQLFor(database, options);
+		if (sql == null) {
+			sql = this.getSQLForQuery(database, new QueryState(this), QueryType.SELECT, options);
+		}
+		setResultSQL(sql);
 	}
 
 	public synchronized boolean needsResults(QueryOptions options) {
+		return checkResults(options).isResultsNeeded();
+	}
+
+	/**
+	 * Checks whether the query must be run to get the results for the options.
+	 *
+	 * <p>
+	 * Pass the check to {@link #getQueryable(nz.co.gregs.dbvolution.internal.query.QueryDetails.ResultsCheck)
+	 * } or {@link #prepareForStreaming(nz.co.gregs.dbvolution.databases.DBDatabase, nz.co.gregs.dbvolution.internal.query.QueryDetails.ResultsCheck)
+	 * } so that running the query reuses any SQL generated during the check.
+	 *
+	 * @param options the options the results are needed for
+	 * <p style="color: #F90;">Support DBvolution at
+	 * <a href="http://patreon.com/dbvolution" target=new>Patreon</a></p>
+	 * @return the outcome of the check
+	 */
+	public synchronized ResultsCheck checkResults(QueryOptions options) {
 		final DBDatabase queryDatabase = options.getQueryDatabase();
-		return getResults() == null
+		if (getResults() == null
 				|| queryDatabase == null
 				|| getResultSQL() == null
 				|| getResults().isEmpty()
 				|| !getResultsPageIndex().equals(options.getPageIndex())
-				|| !getResultsRowLimit().equals(options.getRowLimit())
-				|| !getResultSQL().equals(getSQLForQuery(queryDatabase, new QueryState(this), QueryType.SELECT, options));
+				|| !getResultsRowLimit().equals(options.getRowLimit())) {
+			return new ResultsCheck(true, null, options, null);
+		}
+		final String sql = getSQLForQuery(queryDatabase, new QueryState(this), QueryType.SELECT, options);
+		if (getResultSQL().equals(sql)) {
+			return new ResultsCheck(false, null, options, null);
+		} else {
+			return new ResultsCheck(true, sql, options, queryDatabase.getDefinition().getClass());
+		}
+	}
+
+	/**
+	 * Creates a DBQueryable that runs this query, as a SELECT, using the SQL
+	 * generated by the check if it is still applicable.
+	 *
+	 * @param check the check that found the query needed to be run
+	 * <p style="color: #F90;">Support DBvolution at
+	 * <a href="http://patreon.com/dbvolution" target=new>Patreon</a></p>
+	 * @return a DBQueryable for {@link DBDatabase#executeDBQuery(nz.co.gregs.dbvolution.actions.DBQueryable)
+	 * }
+	 */
+	public DBQueryable getQueryable(final ResultsCheck check) {
+		return new CheckedQuery(check);
 	}
 
 	@Override
 	public synchronized List<DBQueryRow> getAllRows() throws SQLException, SQLTimeoutException, AccidentalBlankQueryException, AccidentalCartesianJoinException {
 		final QueryOptions opts = getOptions();
-		if (this.needsResults(opts)) {
-			getOptions().getQueryDatabase().executeDBQuery(this);
+		final ResultsCheck check = checkResults(opts);
+		if (check.isResultsNeeded()) {
+			getOptions().getQueryDatabase().executeDBQuery(getQueryable(check));
 		}
 		if (opts.getRowLimit() > 0 && getResults().size() > opts.getRowLimit()) {
 			final int firstItemOfPage = opts.getPageIndex() * opts.getRowLimit();
@@ -1035,8 +1131,9 @@ public class QueryDetails implements DBQueryable, Serializable {
 
 		if (defn.supportsPagingNatively(opts)) {
 			opts.setPageIndex(pageNumber);
-			if (details.needsResults(opts)) {
-				fillResultSetInternal(database, details, options);
+			final ResultsCheck check = details.checkResults(opts);
+			if (check.isResultsNeeded()) {
+				fillResultSetInternal(database, details, options, check);
 			}
 			setCurrentPage(getResults());
 		} else {
@@ -1075,7 +1172,11 @@ public class QueryDetails implements DBQueryable, Serializable {
 	}
 
 	protected synchronized void fillResultSetInternal(DBDatabase db, QueryDetails details, QueryOptions options) throws SQLException, AccidentalBlankQueryException {
-		prepareForQuery(db, options);
+		fillResultSetInternal(db, details, options, null);
+	}
+
+	private synchronized void fillResultSetInternal(DBDatabase db, QueryDetails details, QueryOptions options, ResultsCheck check) throws SQLException, AccidentalBlankQueryException {
+		prepareForQuery(db, options, check);
 
 		final DBDefinition defn = db.getDefinition();
 
@@ -1094,21 +1195,421 @@ public class QueryDetails implements DBQueryable, Serializable {
 	}
 
 	protected synchronized void fillResultSetFromSQL(DBDatabase db, QueryDetails details, final DBDefinition defn, String sqlString) throws SQLException, AccidentalCartesianJoinException, AccidentalBlankQueryException {
-		DBQueryRow queryRow;
+		final SharedResults shared = details.startSharedResults(db, sqlString);
+		if (!shared.fillFromSharedRows()) {
+			boolean succeeded = false;
+			try {
+				try (DBStatement dbStatement = db.getDBStatement()) {
+					try (ResultSet resultSet = getResultSetForSQL(dbStatement, sqlString)) {
+						shared.fillFromResultSet(resultSet);
+					}
+				}
+				succeeded = true;
+			} finally {
+				shared.finish(succeeded);
+			}
+		}
+	}
 
-		try (DBStatement dbStatement = db.getDBStatement()) {
-			try (ResultSet resultSet = getResultSetForSQL(dbStatement, sqlString)) {
-				while (resultSet.next()) {
-					queryRow = new DBQueryRow(this);
+	/**
+	 * Looks for rows this query can share with the query result cache and
+	 * identical queries already running.
+	 *
+	 * <p>
+	 * Call {@link SharedResults#fillFromSharedRows() } to use the shared rows,
+	 * and if there are none read the rows with
+	 * {@link SharedResults#fillFromResultSet(java.sql.ResultSet) } and then
+	 * call {@link SharedResults#finish(boolean) }, even if the query fails.
+	 *
+	 * @param db the database the query will be run on
+	 * @param sqlString the SQL for this query
+	 * @return the shared results of this query
+	 */
+	public synchronized SharedResults startSharedResults(DBDatabase db, String sqlString) {
+		return new SharedResults(db, sqlString);
+	}
 
-					setExpressionColumns(defn, resultSet, queryRow);
+	/**
+	 * Shares the rows of a query with the query result cache and with identical
+	 * queries running at the same time.
+	 *
+	 * <p>
+	 * Used by every query that reads its rows into the results of the query, so
+	 * the cache, in-flight query sharing, and MATERIALISE execution events apply
+	 * however the SQL was executed.
+	 *
+	 * <p style="color: #F90;">Support DBvolution at
+	 * <a href="http://patreon.com/dbvolution" target=new>Patreon</a></p>
+	 *
+	 * @author Gregory Graham
+	 */
+	public class SharedResults {
+
+		private final DBDatabase db;
+		private final String sqlString;
+		private final QueryResultCache cache;
+		private final boolean useCache;
+		private final String resultsKey;
+		private final List<String> tableNames = new ArrayList<>();
+		private final String flightKey;
+		private final long cacheGeneration;
+		private List<DBQueryRow> cachedRows;
+		private InFlightQueries.Flight followedFlight = null;
+		private boolean leadingQuery = false;
+		private List<DBQueryRow> resultsToShare = null;
+
+		private SharedResults(DBDatabase db, String sqlString) {
+			this.db = db;
+			this.sqlString = sqlString;
+			final boolean canShareResults = !db.isInATransaction();
+			this.cache = db.getQueryResultCache();
+			this.useCache = canShareResults && cache != null && getRawSQLClause().isEmpty();
+			this.resultsKey = canShareResults ? getResultCacheKey(QueryDetails.this, sqlString) : null;
+			for (DBRow table : getAllQueryTables()) {
+				tableNames.add(table.getTableName());
+			}
+			// queries started after a change to the tables must not join flights started before it
+			this.flightKey = canShareResults ? db.getTableGenerations().getGeneration(tableNames) + " " + resultsKey : null;
+			this.cacheGeneration = useCache ? cache.getGeneration(tableNames) : 0L;
+			this.cachedRows = useCache ? cache.get(resultsKey) : null;
+			if (cachedRows == null && canShareResults) {
+				followedFlight = db.getInFlightQueries().join(flightKey);
+				leadingQuery = followedFlight == null;
+			}
+		}
+
+		/**
+		 * Indicates that an identical query was already running when this query
+		 * started, so {@link #fillFromSharedRows() } will wait for it.
+		 *
+		 * @return TRUE if this query is waiting for another query's rows
+		 */
+		public boolean isFollowingAnotherQuery() {
+			return followedFlight != null;
+		}
 
-					setQueryRowFromResultSet(defn, resultSet, details, queryRow, details.isGroupedQuery());
-					details.getResults().add(queryRow);
+		/**
+		 * Indicates that the rows were found in the query result cache.
+		 *
+		 * @return TRUE if {@link #fillFromSharedRows() } will not need to wait or
+		 * query the database
+		 */
+		public boolean isCached() {
+			return cachedRows != null;
+		}
+
+		/**
+		 * Sets the results of the query from the cached rows, or from the rows of
+		 * the identical query already running, waiting for it if necessary.
+		 *
+		 * <p>
+		 * The wait is limited by this query's timeout, after which this query
+		 * must be run itself.
+		 *
+		 * @return TRUE if the results have been set, FALSE if the query must be
+		 * run
+		 */
+		public boolean fillFromSharedRows() {
+			synchronized (QueryDetails.this) {
+				List<DBQueryRow> sharedRows = cachedRows;
+				if (sharedRows == null && followedFlight != null) {
+					sharedRows = followedFlight.awaitRows(getTimeoutInMilliseconds());
+				}
+				if (sharedRows == null) {
+					return false;
+				}
+				getResults().addAll(copyQueryRows(QueryDetails.this, sharedRows));
+				finishResults(db, QueryDetails.this);
+				return true;
+			}
+		}
+
+		/**
+		 * Adds all the rows in the ResultSet to the results of the query.
+		 *
+		 * <p>
+		 * Call {@link #finish(boolean) } afterwards to complete the results.
+		 *
+		 * @param resultSet the rows produced by the SQL for this query
+		 * @throws SQLException database errors
+		 */
+		public void fillFromResultSet(ResultSet resultSet) throws SQLException {
+			synchronized (QueryDetails.this) {
+				final DBDefinition defn = db.getDefinition();
+				if (db.hasExecutionListeners()) {
+					final long start = System.nanoTime();
+					addResultsFromResultSet(defn, resultSet, QueryDetails.this);
+					db.fireExecutionEvent(new ExecutionEvent(db, ExecutionEvent.Type.MATERIALISE, sqlString, 0, 0, 0L, 0L, System.nanoTime() - start, getResults().size(), null));
+				} else {
+					addResultsFromResultSet(defn, resultSet, QueryDetails.this);
+				}
+				if (useCache) {
+					resultsToShare = copyQueryRows(QueryDetails.this, getResults());
+					cache.put(resultsKey, tableNames, resultsToShare, cacheGeneration);
+				}
+			}
+		}
+
+		/**
+		 * Releases the queries waiting for this query's rows and, if the rows were
+		 * read successfully, completes the results of the query.
+		 *
+		 * @param succeeded TRUE if the rows were read successfully
+		 */
+		public void finish(boolean succeeded) {
+			synchronized (QueryDetails.this) {
+				if (leadingQuery) {
+					leadingQuery = false;
+					final InFlightQueries.Flight flight = db.getInFlightQueries().land(flightKey);
+					try {
+						if (succeeded && resultsToShare == null && flight.hasFollowers()) {
+							resultsToShare = copyQueryRows(QueryDetails.this, getResults());
+						}
+						flight.setRows(succeeded ? resultsToShare : null);
+					} finally {
+						flight.finish();
+					}
+				}
+				if (succeeded) {
+					finishResults(db, QueryDetails.this);
+				}
+			}
+		}
+	}
+
+	/**
+	 * The outcome of checking whether a query must be run to get the results for
+	 * a set of options.
+	 *
+	 * <p>
+	 * If the SQL had to be generated to decide, the check keeps it so that
+	 * running the query for the same options on the same kind of database does
+	 * not generate it again.
+	 *
+	 * <p style="color: #F90;">Support DBvolution at
+	 * <a href="http://patreon.com/dbvolution" target=new>Patreon</a></p>
+	 *
+	 * @author Gregory Graham
+	 */
+	public static class ResultsCheck {
+
+		private final boolean resultsNeeded;
+		private final String sql;
+		private final QueryOptions options;
+		private final Class<?> definition;
+
+		private ResultsCheck(boolean resultsNeeded, String sql, QueryOptions options, Class<?> definition) {
+			this.resultsNeeded = resultsNeeded;
+			this.sql = sql;
+			this.options = options;
+			this.definition = definition;
+		}
+
+		/**
+		 * Indicates whether the query must be run.
+		 *
+		 * @return TRUE if the current results are missing or out of date
+		 */
+		public boolean isResultsNeeded() {
+			return resultsNeeded;
+		}
+
+		private String getSQLFor(DBDatabase database, QueryOptions queryOptions) {
+			if (sql != null && options == queryOptions && definition == database.getDefinition().getClass()) {
+				return sql;
+			}
+			return null;
+		}
+	}
+
+	/**
+	 * Runs the query as a SELECT with the SQL kept by a {@link ResultsCheck}.
+	 */
+	private class CheckedQuery implements DBQueryable {
+
+		private final ResultsCheck check;
+
+		CheckedQuery(ResultsCheck check) {
+			this.check = check;
+		}
+
+		@Override
+		public DBQueryable query(DBDatabase db) throws SQLException, AccidentalCartesianJoinException, AccidentalBlankQueryException {
+			synchronized (QueryDetails.this) {
+				getOptions().setQueryDatabase(db);
+				fillResultSetInternal(db, QueryDetails.this, getOptions(), check);
+			}
+			return this;
+		}
+
+		@Override
+		public List<DBQueryRow> getAllRows() {
+			return getResults();
+		}
+
+		@Override
+		public String toSQLString(DBDatabase db) {
+			return QueryDetails.this.toSQLString(db);
+		}
+	}
+
+	private static String getResultCacheKey(QueryDetails details, String sqlString) {
+		StringBuilder key = new StringBuilder();
+		for (DBRow table : details.getAllQueryTables()) {
+			key.append(table.getClass().getName()).append(' ');
+		}
+		return key.append(sqlString).toString();
+	}
+
+	private List<DBQueryRow> copyQueryRows(QueryDetails details, List<DBQueryRow> originals) {
+		final List<DBQueryRow> copies = new ArrayList<>(originals.size());
+		final Map<DBRow, DBRow> copiedRows = new IdentityHashMap<>();
+		final List<Object> expressionKeys = new ArrayList<>(details.getExpressionColumns().keySet());
+		for (DBQueryRow original : originals) {
+			DBQueryRow copy = new DBQueryRow(this);
+			int index = 0;
+			for (QueryableDatatype<?> value : original.getExpressionColumns().values()) {
+				if (index < expressionKeys.size()) {
+					copy.addExpressionColumnValue(expressionKeys.get(index), value.copy());
 				}
+				index++;
 			}
+			for (Map.Entry<Class<? extends DBRow>, DBRow> entry : original.entrySet()) {
+				final DBRow row = entry.getValue();
+				DBRow copiedRow = copiedRows.get(row);
+				if (copiedRow == null && row != null) {
+					copiedRow = DBRow.copyDBRow(row);
+					copiedRows.put(row, copiedRow);
+				}
+				copy.put(entry.getKey(), copiedRow);
+			}
+			copies.add(copy);
+		}
+		return copies;
+	}
+
+	/**
+	 * Executes the prepared statement and sets the results of this query from
+	 * the rows returned.
+	 *
+	 * <p>
+	 * The statement must have been created from SQL generated by this query, or
+	 * a query with the same tables and columns, and have all its parameters set.
+	 *
+	 * @param db the database the statement was prepared on
+	 * @param dbStatement the statement whose connection prepared the statement
+	 * @param sqlString the SQL used to create the statement
+	 * @param statement the prepared statement with all parameters set
+	 * @param bindCount the number of parameters set on the statement
+	 * @throws SQLException database errors
+	 */
+	public synchronized void fillResultSetFromPreparedStatement(DBDatabase db, DBStatement dbStatement, String sqlString, PreparedStatement statement, int bindCount) throws SQLException {
+		clearResults();
+		setResultSQL(sqlString);
+		final Long timeout = getTimeoutInMilliseconds();
+		if (timeout != null && timeout > 0) {
+			statement.setQueryTimeout((int) Math.max(1, (timeout + 999) / 1000));
+		}
+		try (ResultSet resultSet = dbStatement.executeQuery(statement, sqlString, bindCount)) {
+			addResultsFromResultSet(db.getDefinition(), resultSet, this);
+		}
+		finishResults(db, this);
+	}
+
+	/**
+	 * Generates the SQL for this query so that the rows can be read a few at a
+	 * time with {@link #readQueryRows(nz.co.gregs.dbvolution.databases.DBDatabase, java.sql.ResultSet, long)
+	 * }.
+	 *
+	 * <p>
+	 * Performs the same blank query and cartesian join checks as a normal
+	 * query.
+	 *
+	 * @param db the database the query will be run on
+	 * @return the SQL to execute
+	 * @throws SQLException database errors
+	 * @throws AccidentalBlankQueryException the query has no conditions
+	 * @throws AccidentalCartesianJoinException the query has unconnected tables
+	 */
+	public synchronized String prepareForStreaming(DBDatabase db) throws SQLException, AccidentalBlankQueryException, AccidentalCartesianJoinException {
+		return prepareForStreaming(db, null);
+	}
+
+	/**
+	 * Generates the SQL for this query, reusing the SQL generated by the check
+	 * if it is still applicable, and checks that it is safe to run.
+	 *
+	 * @param db the database the query will be run on
+	 * @param check the check that found the query needed to be run, or NULL
+	 * <p style="color: #F90;">Support DBvolution at
+	 * <a href="http://patreon.com/dbvolution" target=new>Patreon</a></p>
+	 * @return the SQL to execute
+	 * @throws SQLException database errors
+	 * @throws AccidentalBlankQueryException the query has no conditions
+	 * @throws AccidentalCartesianJoinException the query has unconnected tables
+	 */
+	public synchronized String prepareForStreaming(DBDatabase db, ResultsCheck check) throws SQLException, AccidentalBlankQueryException, AccidentalCartesianJoinException {
+		final QueryOptions options = getOptions();
+		setQueryType(QueryType.SELECT);
+		prepareForQuery(db, options, check);
+		if (!options.isBlankQueryAllowed() && willCreateBlankQuery(db) && getRawSQLClause().isEmpty()) {
+			throw new AccidentalBlankQueryException(options.isBlankQueryAllowed(), willCreateBlankQuery(db), getRawSQLClause().isEmpty());
+		}
+		if (!options.isCartesianJoinAllowed()
+				&& (getRequiredQueryTables().size() + getOptionalQueryTables().size()) > 1
+				&& queryGraph.willCreateCartesianJoin()) {
+			throw new AccidentalCartesianJoinException(this);
+		}
+		return getResultSQL();
+	}
+
+	/**
+	 * Reads at most the specified number of rows from the ResultSet.
+	 *
+	 * <p>
+	 * The rows are returned rather than added to the results of this query, so
+	 * large queries can be processed without holding every row in memory.
+	 *
+	 * @param db the database the ResultSet came from
+	 * @param resultSet the results of the SQL from {@link #prepareForStreaming(nz.co.gregs.dbvolution.databases.DBDatabase)
+	 * }
+	 * @param maximumRows the most rows to read
+	 * @return the rows read, fewer than maximumRows only if the ResultSet is
+	 * exhausted
+	 * @throws SQLException database errors
+	 */
+	public synchronized List<DBQueryRow> readQueryRows(DBDatabase db, ResultSet resultSet, long maximumRows) throws SQLException {
+		final DBDefinition defn = db.getDefinition();
+		List<DBQueryRow> rows = new ArrayList<>();
+		while (rows.size() < maximumRows && resultSet.next()) {
+			DBQueryRow queryRow = new DBQueryRow(this);
+			setExpressionColumns(defn, resultSet, queryRow);
+			setQueryRowFromResultSet(defn, resultSet, this, queryRow, isGroupedQuery());
+			rows.add(queryRow);
 		}
-		for (DBQueryRow result : details.getResults()) {
+		finishResults(db, this, rows);
+		return rows;
+	}
+
+	private void addResultsFromResultSet(final DBDefinition defn, ResultSet resultSet, QueryDetails details) throws SQLException {
+		DBQueryRow queryRow;
+		while (resultSet.next()) {
+			queryRow = new DBQueryRow(this);
+
+			setExpressionColumns(defn, resultSet, queryRow);
+
+			setQueryRowFromResultSet(defn, resultSet, details, queryRow, details.isGroupedQuery());
+			details.getResults().add(queryRow);
+		}
+	}
+
+	private void finishResults(DBDatabase db, QueryDetails details) {
+		finishResults(db, details, details.getResults());
+	}
+
+	private void finishResults(DBDatabase db, QueryDetails details, List<DBQueryRow> results) {
+		attachLazyColumnLoaders(db, details, results);
+		for (DBQueryRow result : results) {
 			List<DBRow> rows = result.getAll();
 			for (DBRow row : rows) {
 				if (row != null) {
@@ -1289,6 +1790,205 @@ public class QueryDetails implements DBQueryable, Serializable {
 		}
 	}
 
+	/**
+	 * Creates a copy of the parts of this query required to read its results.
+	 *
+	 * <p>
+	 * The tables are copied so later changes to this query do not affect the
+	 * copy. Used by {@link nz.co.gregs.dbvolution.PreparedDBQuery} to keep the
+	 * structure of the query after it has been compiled.
+	 *
+	 * <p style="color: #F90;">Support DBvolution at
+	 * <a href="http://patreon.com/dbvolution" target=new>Patreon</a></p>
+	 *
+	 * @return a new QueryDetails that can read the results of this query
+	 */
+	public synchronized QueryDetails copyForPreparedQuery() {
+		QueryDetails copy = new QueryDetails();
+		copyResultStructureTo(copy, true);
+		return copy;
+	}
+
+	/**
+	 * Creates a new QueryDetails, sharing the tables of this query, to hold the
+	 * results of one execution of a prepared query.
+	 *
+	 * <p>
+	 * The tables are shared so this query should not be changed while the
+	 * execution is running.
+	 *
+	 * <p style="color: #F90;">Support DBvolution at
+	 * <a href="http://patreon.com/dbvolution" target=new>Patreon</a></p>
+	 *
+	 * @return a new QueryDetails with empty results
+	 */
+	public synchronized QueryDetails copyForPreparedQueryExecution() {
+		QueryDetails copy = new QueryDetails();
+		copyResultStructureTo(copy, false);
+		return copy;
+	}
+
+	/**
+	 * Creates a copy of this query that retrieves the rows following the seek
+	 * condition.
+	 *
+	 * <p>
+	 * The copy has the conditions of this query plus the seek condition, which
+	 * is always ANDed with the other conditions, even when the query matches any
+	 * condition. This query is not changed. Used by
+	 * {@link nz.co.gregs.dbvolution.DBQuery#getPageAfter(nz.co.gregs.dbvolution.DBQueryRow)}.
+	 *
+	 * <p style="color: #F90;">Support DBvolution at
+	 * <a href="http://patreon.com/dbvolution" target=new>Patreon</a></p>
+	 *
+	 * @param sortOrder the sort order of the page
+	 * @param seekCondition the condition the rows of the page must meet, or
+	 * NULL for the first page
+	 * @return a new QueryDetails with empty results
+	 */
+	public synchronized QueryDetails copyForKeysetPage(SortProvider[] sortOrder, BooleanExpression seekCondition) {
+		QueryDetails copy = new QueryDetails();
+		copyResultStructureTo(copy, false);
+		copy.extraExamples.addAll(getExtraExamples());
+		copy.conditions.addAll(getConditions());
+		copy.havingColumns.addAll(havingColumns);
+		copy.rawSQLClause = getRawSQLClause();
+		copy.sortOrderColumns = sortOrder == null ? null : Arrays.copyOf(sortOrder, sortOrder.length);
+		copy.seekCondition = seekCondition;
+		return copy;
+	}
+
+	private void copyResultStructureTo(QueryDetails copy, boolean copyTables) {
+		for (DBRow table : getAllQueryTables()) {
+			final DBRow row = copyTables ? DBRow.copyDBRow(table) : table;
+			copy.allQueryTables.add(row);
+			if (getOptionalQueryTables().contains(table)) {
+				copy.optionalQueryTables.add(row);
+			} else {
+				copy.requiredQueryTables.add(row);
+			}
+		}
+		copy.options = new QueryOptions(getOptions());
+		copy.expressionColumns.putAll(getExpressionColumns());
+		copy.dbReportGroupByColumns.putAll(getDBReportGroupByColumns());
+		copy.groupByRequiredByAggregator = getGroupByRequiredByAggregator();
+		copy.sortOrderColumns = sortOrderColumns;
+		copy.timeoutInMilliseconds = getTimeoutInMilliseconds();
+	}
+
+	/**
+	 * Finds the properties of the row that will be left out of the SELECT clause
+	 * and loaded when first used.
+	 *
+	 * <p>
+	 * Lazy columns are only used when the row has a primary key, and all the
+	 * columns are being returned. Columns used to sort the query are never lazy.
+	 *
+	 * @param row the table being queried
+	 * @param options the options of the query
+	 * @return the lazy properties of the row, possibly empty
+	 */
+	protected List<PropertyWrapper> getLazyProperties(DBRow row, QueryOptions options) {
+		List<PropertyWrapper> lazyProperties = new ArrayList<>();
+		final LazyLoadingPolicy policy = options.getLazyLoadingPolicy();
+		if (policy == LazyLoadingPolicy.NONE
+				|| row.getPrimaryKeys().isEmpty()
+				|| row.getRecursiveTableAlias() != null) {
+			return lazyProperties;
+		}
+		final List<PropertyWrapper> allProperties = row.getColumnPropertyWrappers();
+		if (row.getSelectedProperties().size() != allProperties.size()) {
+			// the return fields have been limited so honour them exactly
+			return lazyProperties;
+		}
+		for (PropertyWrapper prop : allProperties) {
+			if ((prop.isLazy() || (policy == LazyLoadingPolicy.LARGE_OBJECTS_AND_ANNOTATED_COLUMNS && prop.isLargeObjectType()))
+					&& !prop.isPrimaryKey()
+					&& !prop.isTypeAdapted()
+					&& !prop.hasColumnExpression()
+					&& !isSortedBy(prop)) {
+				lazyProperties.add(prop);
+			}
+		}
+		return lazyProperties;
+	}
+
+	private synchronized boolean isSortedBy(PropertyWrapper prop) {
+		if (sortOrderColumns != null) {
+			for (SortProvider sorter : sortOrderColumns) {
+				if (sorter instanceof SortProvider.Column
+						&& ((SortProvider.Column) sorter).getPropertyWrapper().getPropertyWrapperDefinition().equals(prop.getPropertyWrapperDefinition())) {
+					return true;
+				}
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * Finds the properties of the row that will be included in the SELECT
+	 * clause.
+	 *
+	 * @param row the table being queried
+	 * @param options the options of the query
+	 * @return the selected properties of the row without the lazy properties
+	 */
+	protected List<PropertyWrapper> getQueriedProperties(DBRow row, QueryOptions options) {
+		final List<PropertyWrapper> selectedProperties = row.getSelectedProperties();
+		final List<PropertyWrapper> lazyProperties = getLazyProperties(row, options);
+		if (lazyProperties.isEmpty()) {
+			return selectedProperties;
+		}
+		List<PropertyWrapper> queried = new ArrayList<>();
+		for (PropertyWrapper prop : selectedProperties) {
+			boolean isLazy = false;
+			for (PropertyWrapper lazyProp : lazyProperties) {
+				isLazy = isLazy || lazyProp.getPropertyWrapperDefinition().equals(prop.getPropertyWrapperDefinition());
+			}
+			if (!isLazy) {
+				queried.add(prop);
+			}
+		}
+		return queried;
+	}
+
+	/**
+	 * Connects the lazy columns of the rows in the results to a loader shared by
+	 * all the rows of the same table.
+	 *
+	 * @param db the database the results were retrieved from
+	 * @param details the query that has just been run
+	 */
+	private void attachLazyColumnLoaders(DBDatabase db, QueryDetails details, List<DBQueryRow> results) {
+		for (DBRow table : details.getAllQueryTables()) {
+			final List<PropertyWrapper> lazyProperties = getLazyProperties(table, details.getOptions());
+			if (!lazyProperties.isEmpty()) {
+				List<PropertyWrapperDefinition> lazyDefinitions = new ArrayList<>();
+				for (PropertyWrapper lazyProperty : lazyProperties) {
+					lazyDefinitions.add(lazyProperty.getPropertyWrapperDefinition());
+				}
+				Set<DBRow> found = Collections.newSetFromMap(new IdentityHashMap<DBRow, Boolean>());
+				List<DBRow> rows = new ArrayList<>();
+				for (DBQueryRow result : results) {
+					final DBRow row = result.get(table);
+					if (row != null && !row.isEmptyRow() && hasPrimaryKeyValues(row) && found.add(row)) {
+						rows.add(row);
+					}
+				}
+				LazyColumnLoader.attach(db, rows, lazyDefinitions);
+			}
+		}
+	}
+
+	private static boolean hasPrimaryKeyValues(DBRow row) {
+		for (QueryableDatatype<?> pk : row.getPrimaryKeys()) {
+			if (pk.isNull()) {
+				return false;
+			}
+		}
+		return true;
+	}
+
 	/**
 	 * Based on the template provided by oldInstance, fill all the fields of
 	 * newInstance with data from the current row of the ResultSet.
@@ -1306,7 +2006,7 @@ public class QueryDetails implements DBQueryable, Serializable {
 	 * @throws java.sql.SQLException java.sql.SQLException
 	 */
 	protected void setFieldsFromColumns(DBDefinition defn, DBRow oldInstance, DBRow newInstance, ResultSet resultSet) throws SQLException {
-		List<PropertyWrapper> selectedProperties = oldInstance.getSelectedProperties();
+		List<PropertyWrapper> selectedProperties = getQueriedProperties(oldInstance, getOptions());
 		List<PropertyWrapper> newProperties = newInstance.getColumnPropertyWrappers();
 		for (PropertyWrapper newProp : newProperties) {
 			QueryableDatatype<?> qdt = newProp.getQueryableDatatype();
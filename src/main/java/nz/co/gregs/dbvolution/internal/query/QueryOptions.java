@@ -19,6 +19,7 @@ import java.io.Serializable;
 import java.util.Arrays;
 import nz.co.gregs.dbvolution.databases.DBDatabase;
 import nz.co.gregs.dbvolution.expressions.SortProvider;
+import nz.co.gregs.dbvolution.query.LazyLoadingPolicy;
 
 /**
  *
@@ -41,6 +42,8 @@ public class QueryOptions  implements Serializable{
 	private boolean matchAnyRelationship = false;
 	private boolean queryIsNativeQuery = true;
 	private QueryType queryType = QueryType.SELECT;
+	private LazyLoadingPolicy lazyLoadingPolicy = LazyLoadingPolicy.ANNOTATED_COLUMNS;
+	private boolean simplifyConditions = true;
 
 	public QueryOptions() {
 		super();
@@ -59,6 +62,8 @@ public class QueryOptions  implements Serializable{
 		setRowLimit(opts.getRowLimit());
 		setSortColumns(opts.getSortColumns());
 		setUseANSISyntax(opts.isUseANSISyntax());
+		setLazyLoadingPolicy(opts.getLazyLoadingPolicy());
+		setSimplifyConditions(opts.isSimplifyingConditions());
 	}
 
 	/**
@@ -176,6 +181,45 @@ public class QueryOptions  implements Serializable{
 		this.useANSISyntax = useANSISyntax;
 	}
 
+	/**
+	 * <p style="color: #F90;">Support DBvolution at
+	 * <a href="http://patreon.com/dbvolution" target=new>Patreon</a></p>
+	 *
+	 * @return the lazyLoadingPolicy
+	 */
+	public LazyLoadingPolicy getLazyLoadingPolicy() {
+		return lazyLoadingPolicy;
+	}
+
+	/**
+	 * @param lazyLoadingPolicy the lazyLoadingPolicy to set
+	 */
+	public final void setLazyLoadingPolicy(LazyLoadingPolicy lazyLoadingPolicy) {
+		this.lazyLoadingPolicy = lazyLoadingPolicy == null ? LazyLoadingPolicy.ANNOTATED_COLUMNS : lazyLoadingPolicy;
+	}
+
+	/**
+	 * Indicates whether the conditions of the query will be simplified before
+	 * the SQL is generated.
+	 *
+	 * <p style="color: #F90;">Support DBvolution at
+	 * <a href="http://patreon.com/dbvolution" target=new>Patreon</a></p>
+	 *
+	 * @return TRUE if the conditions will be simplified, FALSE otherwise
+	 * @see nz.co.gregs.dbvolution.expressions.BooleanExpressionSimplifier
+	 */
+	public boolean isSimplifyingConditions() {
+		return simplifyConditions;
+	}
+
+	/**
+	 * @param simplifyConditions TRUE to simplify the conditions before
+	 * generating the SQL
+	 */
+	public final void setSimplifyConditions(boolean simplifyConditions) {
+		this.simplifyConditions = simplifyConditions;
+	}
+
 	/**
 	 * <p style="color: #F90;">Support DBvolution at
 	 * <a href="http://patreon.com/dbvolution" target=new>Patreon</a></p>
@@ -0,0 +1,284 @@
+/*
+ * Copyright 2019 Gregory Graham.
+ *
+ * Commercial licenses are available, please contact info@gregs.co.nz for details.
+ * 
+ * This work is licensed under the Creative Commons Attribution-NonCommercial-ShareAlike 4.0 International License. 
+ * To view a copy of this license, visit http://creativecommons.org/licenses/by-nc-sa/4.0/ 
+ * or send a letter to Creative Commons, PO Box 1866, Mountain View, CA 94042, USA.
+ * 
+ * You are free to:
+ *     Share - copy and redistribute the material in any medium or format
+ *     Adapt - remix, transform, and build upon the material
+ * 
+ *     The licensor cannot revoke these freedoms as long as you follow the license terms.               
+ *     Under the following terms:
+ *                 
+ *         Attribution - 
+ *             You must give appropriate credit, provide a link to the license, and indicate if changes were made. 
+ *             You may do so in any reasonable manner, but not in any way that suggests the licensor endorses you or your use.
+ *         NonCommercial - 
+ *             You may not use the material for commercial purposes.
+ *         ShareAlike - 
+ *             If you remix, transform, or build upon the material, 
+ *             you must distribute your contributions under the same license as the original.
+ *         No additional restrictions - 
+ *             You may not apply legal terms or technological measures that legally restrict others from doing anything the 
+ *             license permits.
+ * 
+ * Check the Creative Commons website for any details, legalese, and updates.
+ */
+package nz.co.gregs.dbvolution.internal.query;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import nz.co.gregs.dbvolution.DBQueryRow;
+import nz.co.gregs.dbvolution.exceptions.DBRuntimeException;
+
+/**
+ * A size-bounded cache of query results shared by all the queries on a
+ * database.
+ *
+ * <p>
+ * Results are keyed by the SQL that produced them and tagged with the names of
+ * the tables the query read. Entries expire after the time to live and the
+ * least recently used entry is removed when the cache is full.
+ *
+ * <p>
+ * Actions executed by the database invalidate every entry tagged with the
+ * action's table. Changes made outside DBvolution, or with raw SQL, are not
+ * noticed and will only appear once the entry expires or the cache is
+ * cleared.
+ *
+ * <p style="color: #F90;">Support DBvolution at
+ * <a href="http://patreon.com/dbvolution" target=new>Patreon</a></p>
+ *
+ * @author Gregory Graham
+ */
+public class QueryResultCache {
+
+	private final int maximumSize;
+	private final long timeToLiveInMilliseconds;
+	private final LinkedHashMap<String, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+	private final Map<String, Set<String>> keysByTable = new HashMap<>();
+	private final Map<String, Long> invalidations = new HashMap<>();
+	private long changes = 0;
+	private long lastCleared = 0;
+	private long hits = 0;
+	private long misses = 0;
+
+	/**
+	 * Creates a cache holding at most the specified number of query results.
+	 *
+	 * @param maximumSize the maximum number of query results to keep
+	 * @param timeToLiveInMilliseconds how long a result may be used for, zero or
+	 * less for results that only expire when a table changes
+	 */
+	public QueryResultCache(int maximumSize, long timeToLiveInMilliseconds) {
+		if (maximumSize < 1) {
+			throw new DBRuntimeException("Invalid Cache Size: the query result cache must be able to hold at least 1 result");
+		}
+		this.maximumSize = maximumSize;
+		this.timeToLiveInMilliseconds = timeToLiveInMilliseconds;
+	}
+
+	/**
+	 * Returns the cached rows for the key, or null if there are no current
+	 * results.
+	 *
+	 * <p>
+	 * The rows returned are the cache's own instances and must be copied before
+	 * they are given to a query.
+	 *
+	 * <p style="color: #F90;">Support DBvolution at
+	 * <a href="http://patreon.com/dbvolution" target=new>Patreon</a></p>
+	 *
+	 * @param key the key for the query
+	 * @return the cached rows or NULL
+	 */
+	public synchronized List<DBQueryRow> get(String key) {
+		Entry entry = entries.get(key);
+		if (entry != null && entry.hasExpired(System.currentTimeMillis())) {
+			remove(key);
+			entry = null;
+		}
+		if (entry == null) {
+			misses++;
+			return null;
+		}
+		hits++;
+		return entry.rows;
+	}
+
+	/**
+	 * Returns the current generation of the cached results for the tables.
+	 *
+	 * <p>
+	 * Get the generation before running the query and supply it to
+	 * {@link #put(java.lang.String, java.util.Collection, java.util.List, long) put}
+	 * so that results read before a table was changed are not cached after the
+	 * change.
+	 *
+	 * <p style="color: #F90;">Support DBvolution at
+	 * <a href="http://patreon.com/dbvolution" target=new>Patreon</a></p>
+	 *
+	 * @param tableNames the tables the query reads
+	 * @return the generation of the tables
+	 */
+	public synchronized long getGeneration(Collection<String> tableNames) {
+		long generation = lastCleared;
+		for (String tableName : tableNames) {
+			final Long invalidated = invalidations.get(tableName);
+			if (invalidated != null && invalidated > generation) {
+				generation = invalidated;
+			}
+		}
+		return generation;
+	}
+
+	/**
+	 * Stores the rows for the key and tags them with the tables read.
+	 *
+	 * <p>
+	 * The cache keeps the rows supplied, so they should not be shared with a
+	 * query. The rows are ignored if any of the tables has been invalidated
+	 * since the generation supplied.
+	 *
+	 * @param key the key for the query
+	 * @param tableNames the tables the query read
+	 * @param rows the results of the query
+	 * @param generation the {@link #getGeneration(java.util.Collection) generation}
+	 * of the tables before the query was run
+	 */
+	public synchronized void put(String key, Collection<String> tableNames, List<DBQueryRow> rows, long generation) {
+		if (getGeneration(tableNames) != generation) {
+			return;
+		}
+		remove(key);
+		final long expiry = timeToLiveInMilliseconds > 0 ? System.currentTimeMillis() + timeToLiveInMilliseconds : Long.MAX_VALUE;
+		entries.put(key, new Entry(new ArrayList<>(rows), new HashSet<>(tableNames), expiry));
+		for (String tableName : tableNames) {
+			Set<String> keys = keysByTable.get(tableName);
+			if (keys == null) {
+				keys = new HashSet<>();
+				keysByTable.put(tableName, keys);
+			}
+			keys.add(key);
+		}
+		Iterator<Map.Entry<String, Entry>> eldest = entries.entrySet().iterator();
+		while (entries.size() > maximumSize && eldest.hasNext()) {
+			final Map.Entry<String, Entry> eldestEntry = eldest.next();
+			eldest.remove();
+			removeTags(eldestEntry.getKey(), eldestEntry.getValue());
+		}
+	}
+
+	/**
+	 * Removes all the results that read the table.
+	 *
+	 * @param tableName the table that has changed
+	 */
+	public synchronized void invalidate(String tableName) {
+		invalidations.put(tableName, ++changes);
+		Set<String> keys = keysByTable.remove(tableName);
+		if (keys != null) {
+			for (String key : keys) {
+				Entry entry = entries.remove(key);
+				if (entry != null) {
+					entry.tableNames.remove(tableName);
+					removeTags(key, entry);
+				}
+			}
+		}
+	}
+
+	/**
+	 * Removes all results from the cache.
+	 */
+	public synchronized void clear() {
+		lastCleared = ++changes;
+		invalidations.clear();
+		entries.clear();
+		keysByTable.clear();
+	}
+
+	/**
+	 * The number of results currently held, including any that have expired but
+	 * not been removed yet.
+	 *
+	 * <p style="color: #F90;">Support DBvolution at
+	 * <a href="http://patreon.com/dbvolution" target=new>Patreon</a></p>
+	 *
+	 * @return the number of cached results
+	 */
+	public synchronized int size() {
+		return entries.size();
+	}
+
+	/**
+	 * The number of requests answered by the cache.
+	 *
+	 * <p style="color: #F90;">Support DBvolution at
+	 * <a href="http://patreon.com/dbvolution" target=new>Patreon</a></p>
+	 *
+	 * @return the number of cache hits
+	 */
+	public synchronized long getHitCount() {
+		return hits;
+	}
+
+	/**
+	 * The number of requests that had to be sent to the database.
+	 *
+	 * <p style="color: #F90;">Support DBvolution at
+	 * <a href="http://patreon.com/dbvolution" target=new>Patreon</a></p>
+	 *
+	 * @return the number of cache misses
+	 */
+	public synchronized long getMissCount() {
+		return misses;
+	}
+
+	private void remove(String key) {
+		Entry entry = entries.remove(key);
+		if (entry != null) {
+			removeTags(key, entry);
+		}
+	}
+
+	private void removeTags(String key, Entry entry) {
+		for (String tableName : entry.tableNames) {
+			Set<String> keys = keysByTable.get(tableName);
+			if (keys != null) {
+				keys.remove(key);
+				if (keys.isEmpty()) {
+					keysByTable.remove(tableName);
+				}
+			}
+		}
+	}
+
+	private static class Entry {
+
+		private final List<DBQueryRow> rows;
+		private final Set<String> tableNames;
+		private final long expiry;
+
+		Entry(List<DBQueryRow> rows, Set<String> tableNames, long expiry) {
+			this.rows = rows;
+			this.tableNames = tableNames;
+			this.expiry = expiry;
+		}
+
+		boolean hasExpired(long now) {
+			return now > expiry;
+		}
+	}
+}
@@ -32,6 +32,7 @@ import java.util.ArrayList;
 import java.util.List;
 import nz.co.gregs.dbvolution.DBRow;
 import nz.co.gregs.dbvolution.expressions.BooleanExpression;
+import nz.co.gregs.dbvolution.expressions.BooleanExpressionSimplifier;
 import nz.co.gregs.dbvolution.expressions.DBExpression;
 
 /**
@@ -51,6 +52,7 @@ public class QueryState {
 	private boolean hasBeenOrdered = false;
 	private final List<DBRow> joinedTables = new ArrayList<>();
 	private final List<DBExpression> joinedComplexExpressions = new ArrayList<>();
+	private BooleanExpressionSimplifier simplifier = null;
 
 	public QueryState(QueryDetails details) {
 		this.remainingExpressions = new ArrayList<>(details.getConditions());
@@ -60,6 +62,20 @@ public class QueryState {
 		return new ArrayList<>(remainingExpressions);
 	}
 
+	/**
+	 * Simplifies the remaining expressions and removes duplicates from any
+	 * expressions added later.
+	 *
+	 * @param simplifier the simplifier to use
+	 * @param matchAll TRUE if the expressions are connected with AND
+	 */
+	public void simplifyRemainingExpressions(BooleanExpressionSimplifier simplifier, boolean matchAll) {
+		this.simplifier = simplifier;
+		List<BooleanExpression> simplified = simplifier.simplifyConditions(remainingExpressions, matchAll);
+		remainingExpressions.clear();
+		remainingExpressions.addAll(simplified);
+	}
+
 	public void consumeExpression(BooleanExpression expr) {
 		remainingExpressions.remove(expr);
 		consumedExpressions.add(expr);
@@ -131,7 +147,13 @@ public class QueryState {
 	}
 
 	public void addAllToRemainingExpressions(List<BooleanExpression> relationshipsAsBooleanExpressions) {
-		remainingExpressions.addAll(relationshipsAsBooleanExpressions);
+		if (simplifier == null) {
+			remainingExpressions.addAll(relationshipsAsBooleanExpressions);
+		} else {
+			List<BooleanExpression> existing = new ArrayList<>(remainingExpressions);
+			existing.addAll(consumedExpressions);
+			remainingExpressions.addAll(simplifier.removeDuplicates(existing, relationshipsAsBooleanExpressions));
+		}
 	}
 
 	public synchronized boolean hasBeenOrdered() {
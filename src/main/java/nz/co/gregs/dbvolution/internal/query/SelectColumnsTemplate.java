@@ -0,0 +1,197 @@
+/*
+ * Copyright 2019 Gregory Graham.
+ *
+ * Commercial licenses are available, please contact info@gregs.co.nz for details.
+ * 
+ * This work is licensed under the Creative Commons Attribution-NonCommercial-ShareAlike 4.0 International License. 
+ * To view a copy of this license, visit http://creativecommons.org/licenses/by-nc-sa/4.0/ 
+ * or send a letter to Creative Commons, PO Box 1866, Mountain View, CA 94042, USA.
+ * 
+ * You are free to:
+ *     Share - copy and redistribute the material in any medium or format
+ *     Adapt - remix, transform, and build upon the material
+ * 
+ *     The licensor cannot revoke these freedoms as long as you follow the license terms.               
+ *     Under the following terms:
+ *                 
+ *         Attribution - 
+ *             You must give appropriate credit, provide a link to the license, and indicate if changes were made. 
+ *             You may do so in any reasonable manner, but not in any way that suggests the licensor endorses you or your use.
+ *         NonCommercial - 
+ *             You may not use the material for commercial purposes.
+ *         ShareAlike - 
+ *             If you remix, transform, or build upon the material, 
+ *             you must distribute your contributions under the same license as the original.
+ *         No additional restrictions - 
+ *             You may not apply legal terms or technological measures that legally restrict others from doing anything the 
+ *             license permits.
+ * 
+ * Check the Creative Commons website for any details, legalese, and updates.
+ */
+package nz.co.gregs.dbvolution.internal.query;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import nz.co.gregs.dbvolution.DBRow;
+import nz.co.gregs.dbvolution.databases.definitions.DBDefinition;
+import nz.co.gregs.dbvolution.datatypes.QueryableDatatype;
+import nz.co.gregs.dbvolution.internal.properties.PropertyWrapper;
+import nz.co.gregs.dbvolution.internal.properties.PropertyWrapperDefinition;
+
+/**
+ * The compiled SELECT clause columns of one table in a query.
+ *
+ * <p>
+ * Formatting the table alias, column name, column alias, and database specific
+ * transform of each column is the same every time a query with the same shape
+ * is run. The templates are cached using the DBDefinition class, the table's
+ * class and alias, and the selected properties, so repeated queries only
+ * format their columns once. Only the SELECT clause is templated, the FROM and
+ * WHERE clauses are generated for each query.
+ *
+ * <p>
+ * Properties with column expressions are not cached as the expression may
+ * change between queries.
+ *
+ * <p style="color: #F90;">Support DBvolution at
+ * <a href="http://patreon.com/dbvolution" target=new>Patreon</a></p>
+ *
+ * @author Gregory Graham
+ */
+public class SelectColumnsTemplate {
+
+	/**
+	 * The maximum number of templates retained, the least recently used template
+	 * is discarded when another is added.
+	 */
+	public static final int MAXIMUM_CACHED_TEMPLATES = 2000;
+
+	private static final Map<List<Object>, SelectColumnsTemplate> TEMPLATES = new LinkedHashMap<List<Object>, SelectColumnsTemplate>(16, 0.75f, true) {
+		private static final long serialVersionUID = 1L;
+
+		@Override
+		protected boolean removeEldestEntry(Map.Entry<List<Object>, SelectColumnsTemplate> eldest) {
+			return size() > MAXIMUM_CACHED_TEMPLATES;
+		}
+	};
+
+	private final PropertyWrapperDefinition[] properties;
+	private final String[] selectColumns;
+	private final String[] columnAliases;
+
+	private SelectColumnsTemplate(DBDefinition defn, List<PropertyWrapper> props) {
+		final int size = props.size();
+		properties = new PropertyWrapperDefinition[size];
+		selectColumns = new String[size];
+		columnAliases = new String[size];
+		for (int i = 0; i < size; i++) {
+			final PropertyWrapper prop = props.get(i);
+			final PropertyWrapperDefinition.ColumnAspects aspects = prop.getColumnAspects(defn).get(0);
+			properties[i] = prop.getPropertyWrapperDefinition();
+			selectColumns[i] = defn.doColumnTransformForSelect(prop.getQueryableDatatype(), aspects.selectableName);
+			columnAliases[i] = aspects.columnAlias;
+		}
+	}
+
+	/**
+	 * Finds, or creates, the template for the selected properties of the table.
+	 *
+	 * @param defn the database definition used to format the columns
+	 * @param table the table being queried
+	 * @param props the selected properties of the table
+	 * <p style="color: #F90;">Support DBvolution at
+	 * <a href="http://patreon.com/dbvolution" target=new>Patreon</a></p>
+	 * @return the template for the columns, or NULL if the columns can't be
+	 * templated.
+	 */
+	public static SelectColumnsTemplate getTemplate(DBDefinition defn, DBRow table, List<PropertyWrapper> props) {
+		List<Object> key = new ArrayList<>(3 + props.size() * 2);
+		key.add(defn.getClass());
+		key.add(table.getClass());
+		key.add(table.getTableVariantAlias());
+		for (PropertyWrapper prop : props) {
+			final QueryableDatatype<?> qdt = prop.getQueryableDatatype();
+			if (qdt == null || qdt.hasColumnExpression()) {
+				return null;
+			}
+			key.add(prop.getPropertyWrapperDefinition());
+			key.add(qdt.getClass());
+		}
+		SelectColumnsTemplate template;
+		synchronized (TEMPLATES) {
+			template = TEMPLATES.get(key);
+		}
+		if (template == null) {
+			template = new SelectColumnsTemplate(defn, props);
+			synchronized (TEMPLATES) {
+				TEMPLATES.put(key, template);
+			}
+		}
+		return template;
+	}
+
+	/**
+	 * Removes all the cached templates.
+	 */
+	public static void clearTemplates() {
+		synchronized (TEMPLATES) {
+			TEMPLATES.clear();
+		}
+	}
+
+	/**
+	 * The number of columns in the template.
+	 *
+	 * <p style="color: #F90;">Support DBvolution at
+	 * <a href="http://patreon.com/dbvolution" target=new>Patreon</a></p>
+	 *
+	 * @return the number of columns
+	 */
+	public int size() {
+		return properties.length;
+	}
+
+	/**
+	 * The property selected by the column.
+	 *
+	 * @param index the index of the column within the template
+	 * <p style="color: #F90;">Support DBvolution at
+	 * <a href="http://patreon.com/dbvolution" target=new>Patreon</a></p>
+	 * @return the property definition
+	 */
+	public PropertyWrapperDefinition getProperty(int index) {
+		return properties[index];
+	}
+
+	/**
+	 * The column, transformed for the SELECT clause, but without the alias.
+	 *
+	 * @param index the index of the column within the template
+	 * <p style="color: #F90;">Support DBvolution at
+	 * <a href="http://patreon.com/dbvolution" target=new>Patreon</a></p>
+	 * @return the SQL for the column
+	 */
+	public String getSelectColumn(int index) {
+		return selectColumns[index];
+	}
+
+	/**
+	 * The alias of the column within the SELECT clause.
+	 *
+	 * @param index the index of the column within the template
+	 * <p style="color: #F90;">Support DBvolution at
+	 * <a href="http://patreon.com/dbvolution" target=new>Patreon</a></p>
+	 * @return the alias of the column
+	 */
+	public String getColumnAlias(int index) {
+		return columnAliases[index];
+	}
+
+	@Override
+	public String toString() {
+		return Arrays.toString(selectColumns);
+	}
+}
@@ -119,6 +119,30 @@ abstract public class DBOperator implements Serializable {
 		includeNulls = true;
 	}
 
+	/**
+	 * Indicates whether this operator has been inverted with {@link #not()}.
+	 *
+	 * <p style="color: #F90;">Support DBvolution at
+	 * <a href="http://patreon.com/dbvolution" target=new>Patreon</a></p>
+	 *
+	 * @return TRUE if the operator is inverted, otherwise FALSE
+	 */
+	public boolean isInverted() {
+		return invertOperator;
+	}
+
+	/**
+	 * Indicates whether this operator also matches NULL values.
+	 *
+	 * <p style="color: #F90;">Support DBvolution at
+	 * <a href="http://patreon.com/dbvolution" target=new>Patreon</a></p>
+	 *
+	 * @return TRUE if NULL values match the operator, otherwise FALSE
+	 */
+	public boolean isIncludingNulls() {
+		return includeNulls;
+	}
+
 	@Override
 	public int hashCode() {
 		return super.hashCode();
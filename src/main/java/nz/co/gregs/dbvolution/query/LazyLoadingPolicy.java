@@ -0,0 +1,70 @@
+/*
+ * Copyright 2019 Gregory Graham.
+ *
+ * Commercial licenses are available, please contact info@gregs.co.nz for details.
+ * 
+ * This work is licensed under the Creative Commons Attribution-NonCommercial-ShareAlike 4.0 International License. 
+ * To view a copy of this license, visit http://creativecommons.org/licenses/by-nc-sa/4.0/ 
+ * or send a letter to Creative Commons, PO Box 1866, Mountain View, CA 94042, USA.
+ * 
+ * You are free to:
+ *     Share - copy and redistribute the material in any medium or format
+ *     Adapt - remix, transform, and build upon the material
+ * 
+ *     The licensor cannot revoke these freedoms as long as you follow the license terms.               
+ *     Under the following terms:
+ *                 
+ *         Attribution - 
+ *             You must give appropriate credit, provide a link to the license, and indicate if changes were made. 
+ *             You may do so in any reasonable manner, but not in any way that suggests the licensor endorses you or your use.
+ *         NonCommercial - 
+ *             You may not use the material for commercial purposes.
+ *         ShareAlike - 
+ *             If you remix, transform, or build upon the material, 
+ *             you must distribute your contributions under the same license as the original.
+ *         No additional restrictions - 
+ *             You may not apply legal terms or technological measures that legally restrict others from doing anything the 
+ *             license permits.
+ * 
+ * Check the Creative Commons website for any details, legalese, and updates.
+ */
+package nz.co.gregs.dbvolution.query;
+
+/**
+ * Controls which columns a query leaves out of the SELECT clause and loads
+ * when the value is first used.
+ *
+ * <p>
+ * Set the policy with
+ * {@link nz.co.gregs.dbvolution.DBQuery#setLazyLoadingPolicy(nz.co.gregs.dbvolution.query.LazyLoadingPolicy)}
+ * or
+ * {@link nz.co.gregs.dbvolution.DBTable#setLazyLoadingPolicy(nz.co.gregs.dbvolution.query.LazyLoadingPolicy)}.
+ *
+ * <p style="color: #F90;">Support DBvolution at
+ * <a href="http://patreon.com/dbvolution" target=new>Patreon</a></p>
+ *
+ * @author Gregory Graham
+ * @see nz.co.gregs.dbvolution.annotations.DBLazy
+ */
+public enum LazyLoadingPolicy {
+
+	/**
+	 * Columns annotated with {@link nz.co.gregs.dbvolution.annotations.DBLazy}
+	 * are loaded when first used, all other columns are retrieved by the query.
+	 *
+	 * <p>
+	 * This is the default policy.
+	 */
+	ANNOTATED_COLUMNS,
+	/**
+	 * Large objects and columns annotated with
+	 * {@link nz.co.gregs.dbvolution.annotations.DBLazy} are loaded when first
+	 * used.
+	 */
+	LARGE_OBJECTS_AND_ANNOTATED_COLUMNS,
+	/**
+	 * All columns are retrieved by the query, ignoring
+	 * {@link nz.co.gregs.dbvolution.annotations.DBLazy}.
+	 */
+	NONE;
+}
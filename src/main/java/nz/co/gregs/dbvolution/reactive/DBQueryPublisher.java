@@ -0,0 +1,337 @@
+/*
+ * Copyright 2019 Gregory Graham.
+ *
+ * Commercial licenses are available, please contact info@gregs.co.nz for details.
+ * 
+ * This work is licensed under the Creative Commons Attribution-NonCommercial-ShareAlike 4.0 International License. 
+ * To view a copy of this license, visit http://creativecommons.org/licenses/by-nc-sa/4.0/ 
+ * or send a letter to Creative Commons, PO Box 1866, Mountain View, CA 94042, USA.
+ * 
+ * You are free to:
+ *     Share - copy and redistribute the material in any medium or format
+ *     Adapt - remix, transform, and build upon the material
+ * 
+ *     The licensor cannot revoke these freedoms as long as you follow the license terms.               
+ *     Under the following terms:
+ *                 
+ *         Attribution - 
+ *             You must give appropriate credit, provide a link to the license, and indicate if changes were made. 
+ *             You may do so in any reasonable manner, but not in any way that suggests the licensor endorses you or your use.
+ *         NonCommercial - 
+ *             You may not use the material for commercial purposes.
+ *         ShareAlike - 
+ *             If you remix, transform, or build upon the material, 
+ *             you must distribute your contributions under the same license as the original.
+ *         No additional restrictions - 
+ *             You may not apply legal terms or technological measures that legally restrict others from doing anything the 
+ *             license permits.
+ * 
+ * Check the Creative Commons website for any details, legalese, and updates.
+ */
+package nz.co.gregs.dbvolution.reactive;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayDeque;
+import java.util.Queue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import nz.co.gregs.dbvolution.DBQuery;
+import nz.co.gregs.dbvolution.DBQueryRow;
+import nz.co.gregs.dbvolution.databases.DBDatabase;
+import nz.co.gregs.dbvolution.databases.DBStatement;
+import nz.co.gregs.dbvolution.internal.query.QueryDetails;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+/**
+ * Publishes the rows of a query as the subscriber requests them.
+ *
+ * <p>
+ * The query is not executed until the first request. Rows are then read from
+ * the ResultSet in batches no larger than the outstanding demand or the batch
+ * size, so only a batch of rows is held in memory however large the query is.
+ * The statement and connection are closed when the last row has been sent,
+ * the subscription is cancelled, or an error occurs.
+ *
+ * <p>
+ * Each subscriber runs the query separately. By default rows are read on the
+ * thread that calls {@link Subscription#request(long) }. Supply an Executor,
+ * such as the one from {@link DBDatabase#async() }, to read them on another
+ * thread.
+ *
+ * <p>
+ * Use {@link DBQuery#publishRows() }, {@link nz.co.gregs.dbvolution.DBTable#publishRows()
+ * }, or {@link nz.co.gregs.dbvolution.DBReport#publishRows(nz.co.gregs.dbvolution.databases.DBDatabase, nz.co.gregs.dbvolution.DBReport, nz.co.gregs.dbvolution.DBRow...)
+ * } to create a publisher.
+ *
+ * <p style="color: #F90;">Support DBvolution at
+ * <a href="http://patreon.com/dbvolution" target=new>Patreon</a></p>
+ *
+ * @author Gregory Graham
+ * @param <T> the type of rows published
+ */
+public class DBQueryPublisher<T> implements Publisher<T> {
+
+	private static final Log LOG = LogFactory.getLog(DBQueryPublisher.class);
+
+	/**
+	 * The default maximum number of rows read from the database at once.
+	 */
+	public static final int DEFAULT_BATCH_SIZE = 256;
+
+	/**
+	 * Converts each DBQueryRow into the row type published.
+	 *
+	 * @param <T> the type of rows published
+	 */
+	public static interface RowConverter<T> {
+
+		/**
+		 * Converts the query row.
+		 *
+		 * @param row the row read from the database
+		 * @return the row to publish, or null to skip the row
+		 */
+		T convert(DBQueryRow row);
+	}
+
+	private final DBDatabase database;
+	private final QueryDetails details;
+	private final RowConverter<T> converter;
+	private int batchSize = DEFAULT_BATCH_SIZE;
+	private Executor executor = null;
+
+	/**
+	 * Creates a publisher for the query.
+	 *
+	 * @param query the query to publish
+	 * @param converter converts each DBQueryRow into the published type
+	 */
+	public DBQueryPublisher(DBQuery query, RowConverter<T> converter) {
+		this.database = query.getDatabase();
+		this.details = query.getQueryDetails();
+		this.converter = converter;
+	}
+
+	/**
+	 * Sets the maximum number of rows read from the database at once.
+	 *
+	 * @param batchSize the largest batch, at least 1
+	 * @return this publisher
+	 */
+	public DBQueryPublisher<T> setBatchSize(int batchSize) {
+		this.batchSize = Math.max(1, batchSize);
+		return this;
+	}
+
+	/**
+	 * Reads and sends the rows on the executor rather than the requesting
+	 * thread.
+	 *
+	 * @param executor the executor to use, or null to use the requesting thread
+	 * @return this publisher
+	 */
+	public DBQueryPublisher<T> setExecutor(Executor executor) {
+		this.executor = executor;
+		return this;
+	}
+
+	@Override
+	public void subscribe(Subscriber<? super T> subscriber) {
+		if (subscriber == null) {
+			throw new NullPointerException("Subscriber Required: subscribe(null) is not allowed");
+		}
+		final QuerySubscription subscription = new QuerySubscription(subscriber, batchSize, executor);
+		subscriber.onSubscribe(subscription);
+	}
+
+	private class QuerySubscription implements Subscription, Runnable {
+
+		private final Subscriber<? super T> subscriber;
+		private final int batchSize;
+		private final Executor executor;
+		private final AtomicLong demand = new AtomicLong(0);
+		private final AtomicInteger pendingWork = new AtomicInteger(0);
+		private final Queue<T> buffer = new ArrayDeque<>();
+		private volatile boolean cancelled = false;
+		private volatile Throwable invalidRequest = null;
+		private boolean finished = false;
+		private boolean exhausted = false;
+		private DBStatement statement = null;
+		private ResultSet resultSet = null;
+		private Connection autoCommitConnection = null;
+
+		QuerySubscription(Subscriber<? super T> subscriber, int batchSize, Executor executor) {
+			this.subscriber = subscriber;
+			this.batchSize = batchSize;
+			this.executor = executor;
+		}
+
+		@Override
+		public void request(long n) {
+			if (n <= 0) {
+				invalidRequest = new IllegalArgumentException("Invalid Request: the number of rows requested must be positive but was " + n);
+			} else {
+				long current;
+				long updated;
+				do {
+					current = demand.get();
+					updated = current + n < 0 ? Long.MAX_VALUE : current + n;
+				} while (!demand.compareAndSet(current, updated));
+			}
+			schedule();
+		}
+
+		@Override
+		public void cancel() {
+			cancelled = true;
+			schedule();
+		}
+
+		private void schedule() {
+			if (pendingWork.getAndIncrement() == 0) {
+				if (executor == null) {
+					run();
+				} else {
+					executor.execute(this);
+				}
+			}
+		}
+
+		@Override
+		public void run() {
+			int missed = 1;
+			do {
+				drain();
+				missed = pendingWork.addAndGet(-missed);
+			} while (missed != 0);
+		}
+
+		private void drain() {
+			if (finished) {
+				return;
+			}
+			if (invalidRequest != null) {
+				fail(invalidRequest);
+				return;
+			}
+			try {
+				long emitted = 0;
+				long requested = demand.get();
+				while (!cancelled) {
+					if (emitted == requested) {
+						requested = demand.addAndGet(-emitted);
+						emitted = 0;
+						if (requested == 0) {
+							break;
+						}
+					}
+					if (buffer.isEmpty()) {
+						if (exhausted) {
+							break;
+						}
+						fillBuffer(Math.min(requested - emitted, batchSize));
+					} else {
+						subscriber.onNext(buffer.poll());
+						emitted++;
+					}
+				}
+				if (emitted > 0) {
+					demand.addAndGet(-emitted);
+				}
+				// look ahead so the subscriber is told the rows are complete without requesting more
+				while (!cancelled && !exhausted && buffer.isEmpty() && resultSet != null) {
+					fillBuffer(1);
+				}
+				if (cancelled) {
+					finish();
+				} else if (exhausted && buffer.isEmpty()) {
+					finish();
+					subscriber.onComplete();
+				}
+			} catch (SQLException | RuntimeException ex) {
+				fail(ex);
+			}
+		}
+
+		private void fillBuffer(long rows) throws SQLException {
+			if (resultSet == null) {
+				final String sql = details.prepareForStreaming(database);
+				statement = database.getDBStatement();
+				prepareStatementForStreaming();
+				resultSet = statement.executeQuery(sql);
+			}
+			int read = 0;
+			for (DBQueryRow row : details.readQueryRows(database, resultSet, rows)) {
+				read++;
+				final T converted = converter.convert(row);
+				if (converted != null) {
+					buffer.add(converted);
+				}
+			}
+			if (read < rows) {
+				exhausted = true;
+			}
+		}
+
+		/**
+		 * Asks the driver to stream the rows rather than read them all at once.
+		 *
+		 * <p>
+		 * PostgreSQL only uses the fetch size when autocommit is off, so
+		 * autocommit is turned off until the subscription finishes. The settings
+		 * are only hints and are ignored if the statement does not support them.
+		 */
+		private void prepareStatementForStreaming() {
+			try {
+				statement.setFetchSize(batchSize);
+				final Connection connection = statement.getConnection();
+				if (connection.getAutoCommit()) {
+					connection.setAutoCommit(false);
+					autoCommitConnection = connection;
+				}
+			} catch (SQLException | UnsupportedOperationException ex) {
+				LOG.debug("Unable to stream rows: " + ex.getMessage(), ex);
+			}
+		}
+
+		private void fail(Throwable throwable) {
+			if (!finished) {
+				finish();
+				subscriber.onError(throwable);
+			}
+		}
+
+		private void finish() {
+			finished = true;
+			buffer.clear();
+			try {
+				if (resultSet != null) {
+					resultSet.close();
+				}
+			} catch (SQLException ex) {
+				LOG.warn("Exception occurred during close(): " + ex.getMessage(), ex);
+			}
+			try {
+				if (autoCommitConnection != null) {
+					autoCommitConnection.setAutoCommit(true);
+				}
+			} catch (SQLException ex) {
+				LOG.warn("Exception occurred during close(): " + ex.getMessage(), ex);
+			}
+			try {
+				if (statement != null) {
+					statement.close();
+				}
+			} catch (SQLException ex) {
+				LOG.warn("Exception occurred during close(): " + ex.getMessage(), ex);
+			}
+			resultSet = null;
+			autoCommitConnection = null;
+			statement = null;
+		}
+	}
+}
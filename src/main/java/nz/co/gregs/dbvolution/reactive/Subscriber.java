@@ -0,0 +1,74 @@
+/*
+ * Copyright 2019 Gregory Graham.
+ *
+ * Commercial licenses are available, please contact info@gregs.co.nz for details.
+ * 
+ * This work is licensed under the Creative Commons Attribution-NonCommercial-ShareAlike 4.0 International License. 
+ * To view a copy of this license, visit http://creativecommons.org/licenses/by-nc-sa/4.0/ 
+ * or send a letter to Creative Commons, PO Box 1866, Mountain View, CA 94042, USA.
+ * 
+ * You are free to:
+ *     Share - copy and redistribute the material in any medium or format
+ *     Adapt - remix, transform, and build upon the material
+ * 
+ *     The licensor cannot revoke these freedoms as long as you follow the license terms.               
+ *     Under the following terms:
+ *                 
+ *         Attribution - 
+ *             You must give appropriate credit, provide a link to the license, and indicate if changes were made. 
+ *             You may do so in any reasonable manner, but not in any way that suggests the licensor endorses you or your use.
+ *         NonCommercial - 
+ *             You may not use the material for commercial purposes.
+ *         ShareAlike - 
+ *             If you remix, transform, or build upon the material, 
+ *             you must distribute your contributions under the same license as the original.
+ *         No additional restrictions - 
+ *             You may not apply legal terms or technological measures that legally restrict others from doing anything the 
+ *             license permits.
+ * 
+ * Check the Creative Commons website for any details, legalese, and updates.
+ */
+package nz.co.gregs.dbvolution.reactive;
+
+/**
+ * Receives rows from a {@link Publisher}.
+ *
+ * <p>
+ * Mirrors org.reactivestreams.Subscriber and
+ * java.util.concurrent.Flow.Subscriber.
+ *
+ * <p style="color: #F90;">Support DBvolution at
+ * <a href="http://patreon.com/dbvolution" target=new>Patreon</a></p>
+ *
+ * @author Gregory Graham
+ * @param <T> the type of rows received
+ */
+public interface Subscriber<T> {
+
+	/**
+	 * Called once before any rows are sent.
+	 *
+	 * @param subscription the subscription to use to request rows or cancel
+	 */
+	void onSubscribe(Subscription subscription);
+
+	/**
+	 * Called for each row, never more often than the rows requested.
+	 *
+	 * @param item the next row
+	 */
+	void onNext(T item);
+
+	/**
+	 * Called once if the rows cannot be produced, no more methods are called
+	 * afterwards.
+	 *
+	 * @param throwable the cause of the failure
+	 */
+	void onError(Throwable throwable);
+
+	/**
+	 * Called once after the last row, no more methods are called afterwards.
+	 */
+	void onComplete();
+}
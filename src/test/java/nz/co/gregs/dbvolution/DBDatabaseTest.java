@@ -15,26 +15,52 @@
  */
 package nz.co.gregs.dbvolution;
 
-import java.sql.SQLException;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Date;
 import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import nz.co.gregs.dbvolution.actions.DBBulkInsert;
+import nz.co.gregs.dbvolution.actions.DBQueryable;
 import nz.co.gregs.dbvolution.annotations.DBAutoIncrement;
 import nz.co.gregs.dbvolution.annotations.DBColumn;
 import nz.co.gregs.dbvolution.annotations.DBForeignKey;
 import nz.co.gregs.dbvolution.annotations.DBPrimaryKey;
 import nz.co.gregs.dbvolution.annotations.DBRequiredTable;
 import nz.co.gregs.dbvolution.annotations.DBTableName;
+import nz.co.gregs.dbvolution.databases.DBAsyncDatabase;
+import nz.co.gregs.dbvolution.databases.DBDatabase;
+import nz.co.gregs.dbvolution.databases.DBStatement;
+import nz.co.gregs.dbvolution.databases.DBUnitOfWork;
+import nz.co.gregs.dbvolution.databases.H2DB;
+import nz.co.gregs.dbvolution.databases.H2SharedDB;
+import nz.co.gregs.dbvolution.databases.listeners.ExecutionEvent;
+import nz.co.gregs.dbvolution.databases.listeners.LatencyHistogramListener;
 import nz.co.gregs.dbvolution.datatypes.DBInteger;
 import nz.co.gregs.dbvolution.datatypes.DBString;
+import nz.co.gregs.dbvolution.example.CarCompany;
 import nz.co.gregs.dbvolution.example.Marque;
 import nz.co.gregs.dbvolution.exceptions.AccidentalDroppingOfDatabaseException;
 import nz.co.gregs.dbvolution.exceptions.AccidentalDroppingOfTableException;
 import nz.co.gregs.dbvolution.exceptions.AutoCommitActionDuringTransactionException;
 import nz.co.gregs.dbvolution.exceptions.DBRuntimeException;
+import nz.co.gregs.dbvolution.exceptions.ExceptionThrownDuringTransaction;
 import nz.co.gregs.dbvolution.exceptions.UnexpectedNumberOfRowsException;
 import nz.co.gregs.dbvolution.generic.AbstractTest;
+import nz.co.gregs.dbvolution.generic.RecordingExecutionListener;
+import nz.co.gregs.dbvolution.transactions.DBTransaction;
 import static org.hamcrest.Matchers.*;
 import org.junit.After;
-import org.junit.Assert;
+import org.junit.Assert;
+import org.junit.Assume;
 import org.junit.Before;
 import org.junit.Test;
 
@@ -89,6 +115,403 @@ public class DBDatabaseTest extends AbstractTest {
 		}
 	}
 
+	@Test
+	public void testQueryResultCacheIsInvalidatedByActions() throws SQLException {
+		database.setQueryResultCache(10, 60000);
+		try {
+			final DBTable<CarCompany> table = database.getDBTable(new CarCompany()).setBlankQueryAllowed(true);
+			List<CarCompany> firstRows = table.getAllRows();
+			Assert.assertThat(firstRows.size(), is(4));
+
+			firstRows.get(0).name.setValue("CHANGED WITHOUT SAVING");
+			List<CarCompany> cachedRows = table.getAllRows();
+			Assert.assertThat(cachedRows.size(), is(4));
+			for (CarCompany carCompany : cachedRows) {
+				Assert.assertThat(carCompany.name.stringValue(), not("CHANGED WITHOUT SAVING"));
+				Assert.assertThat(firstRows, not(hasItem(sameInstance(carCompany))));
+			}
+
+			database.insert(new CarCompany("CACHE TEST", 5));
+			Assert.assertThat(table.getAllRows().size(), is(5));
+
+			database.delete(new CarCompany("CACHE TEST", 5));
+			Assert.assertThat(table.getAllRows().size(), is(4));
+		} finally {
+			database.removeQueryResultCache();
+		}
+	}
+
+	@Test
+	public void testQueryResultCacheIsInvalidatedForEveryTableInABulkInsert() throws SQLException {
+		database.setQueryResultCache(10, 60000);
+		try {
+			final DBTable<CarCompany> companies = database.getDBTable(new CarCompany()).setBlankQueryAllowed(true);
+			final DBTable<Marque> marques = database.getDBTable(new Marque()).setBlankQueryAllowed(true);
+			Assert.assertThat(companies.getAllRows().size(), is(4));
+			Assert.assertThat(marques.getAllRows().size(), is(22));
+
+			DBBulkInsert insert = new DBBulkInsert(new CarCompany("CACHE TEST", 5));
+			insert.addRow(new Marque(3, "False", 1246974, "", 0, "", "CACHE TEST", "", "Y", new Date(), 5, null));
+			database.executeDBAction(insert);
+
+			Assert.assertThat(companies.getAllRows().size(), is(5));
+			Assert.assertThat(marques.getAllRows().size(), is(23));
+		} finally {
+			database.removeQueryResultCache();
+		}
+	}
+
+	@Test
+	public void testExecutionListenersReceiveQueriesAndActions() throws SQLException {
+		final RecordingExecutionListener recorder = new RecordingExecutionListener();
+		final LatencyHistogramListener histogram = new LatencyHistogramListener(ExecutionEvent.Type.QUERY);
+		database.addExecutionListener(recorder);
+		database.addExecutionListener(histogram);
+		try {
+			List<CarCompany> rows = database.getDBTable(new CarCompany()).setBlankQueryAllowed(true).getAllRows();
+			Assert.assertThat(rows.size(), is(4));
+
+			boolean foundQuery = false;
+			for (ExecutionEvent event : recorder.getEvents()) {
+				if (event.getType() == ExecutionEvent.Type.QUERY && event.getSQL().toLowerCase().contains("car_company")) {
+					foundQuery = true;
+					Assert.assertThat(event.wasSuccessful(), is(true));
+					Assert.assertThat(event.getRowCount(), is(4L));
+				}
+			}
+			Assert.assertThat(foundQuery, is(true));
+			Assert.assertThat(histogram.getCount(), greaterThan(0L));
+
+			recorder.clear();
+			database.insert(new CarCompany("LISTENER TEST", 5));
+			boolean foundAction = false;
+			for (ExecutionEvent event : recorder.getEvents()) {
+				if (event.getType() == ExecutionEvent.Type.ACTION) {
+					foundAction = true;
+					Assert.assertThat(event.getSQL(), startsWith("DBInsert"));
+				}
+			}
+			Assert.assertThat(foundAction, is(true));
+			database.delete(new CarCompany("LISTENER TEST", 5));
+		} finally {
+			database.removeExecutionListener(recorder);
+			database.removeExecutionListener(histogram);
+		}
+		recorder.clear();
+		database.getDBTable(new CarCompany()).setBlankQueryAllowed(true).getAllRows();
+		Assert.assertThat(recorder.getEvents().isEmpty(), is(true));
+	}
+
+	@Test
+	public void testExecutionListenersReceiveTransactionsAndMaterialisation() throws SQLException, ExceptionThrownDuringTransaction {
+		final RecordingExecutionListener recorder = new RecordingExecutionListener();
+		database.addExecutionListener(recorder);
+		try {
+			List<CarCompany> rows = database.doTransaction(new DBTransaction<List<CarCompany>>() {
+				@Override
+				public List<CarCompany> doTransaction(DBDatabase dbDatabase) throws ExceptionThrownDuringTransaction {
+					try {
+						return dbDatabase.getDBTable(new CarCompany()).setBlankQueryAllowed(true).getAllRows();
+					} catch (SQLException ex) {
+						throw new ExceptionThrownDuringTransaction(ex);
+					}
+				}
+			});
+			Assert.assertThat(rows.size(), is(4));
+
+			boolean foundMaterialisation = false;
+			boolean foundTransaction = false;
+			for (ExecutionEvent event : recorder.getEvents()) {
+				if (event.getType() == ExecutionEvent.Type.MATERIALISE) {
+					foundMaterialisation = true;
+					Assert.assertThat(event.getRowCount(), is(4L));
+					Assert.assertThat(event.getSQLHash(), is(event.getSQL().hashCode()));
+				} else if (event.getType() == ExecutionEvent.Type.TRANSACTION) {
+					foundTransaction = true;
+					Assert.assertThat(event.getSQL(), endsWith("COMMIT"));
+					Assert.assertThat(event.wasSuccessful(), is(true));
+				}
+			}
+			Assert.assertThat(foundMaterialisation, is(true));
+			Assert.assertThat(foundTransaction, is(true));
+		} finally {
+			database.removeExecutionListener(recorder);
+		}
+	}
+
+	@Test
+	public void testAsyncQueriesRunInParallel() throws Exception {
+		final DBAsyncDatabase async = database.async();
+		Future<List<CarCompany>> companies = async.getAllRows(database.getDBTable(new CarCompany()).setBlankQueryAllowed(true));
+		Future<List<Marque>> marques = async.getAllRows(database.getDBTable(new Marque()).setBlankQueryAllowed(true));
+
+		Assert.assertThat(companies.get().size(), is(4));
+		Assert.assertThat(marques.get().size(), is(22));
+
+		final CarCompany asyncCompany = new CarCompany("ASYNC TEST", 5);
+		async.insert(asyncCompany).get();
+		Assert.assertThat(database.getDBTable(new CarCompany()).setBlankQueryAllowed(true).getAllRows().size(), is(5));
+		async.delete(asyncCompany).get();
+		Assert.assertThat(database.getDBTable(new CarCompany()).setBlankQueryAllowed(true).getAllRows().size(), is(4));
+	}
+
+	@Test
+	public void testAsyncRefusesWorkWhenFull() throws Exception {
+		final DBAsyncDatabase async = new DBAsyncDatabase(database, 1, 0);
+		try {
+			final CountDownLatch release = new CountDownLatch(1);
+			final CountDownLatch completed = new CountDownLatch(1);
+			Future<Integer> blocking = async.submit(new Callable<Integer>() {
+				@Override
+				public Integer call() throws Exception {
+					release.await();
+					return database.getDBTable(new CarCompany()).setBlankQueryAllowed(true).getAllRows().size();
+				}
+			}, new DBAsyncDatabase.CompletionListener<Integer>() {
+				@Override
+				public void completed(Future<Integer> result) {
+					completed.countDown();
+				}
+			});
+
+			Assert.assertThat(async.trySubmit(new Callable<Integer>() {
+				@Override
+				public Integer call() throws Exception {
+					return 1;
+				}
+			}), nullValue());
+
+			release.countDown();
+			Assert.assertThat(blocking.get(), is(4));
+			Assert.assertThat(completed.await(10, TimeUnit.SECONDS), is(true));
+
+			Future<Integer> accepted = null;
+			for (int attempt = 0; accepted == null && attempt < 100; attempt++) {
+				accepted = async.trySubmit(new Callable<Integer>() {
+					@Override
+					public Integer call() throws Exception {
+						return 1;
+					}
+				});
+				if (accepted == null) {
+					Thread.sleep(10);
+				}
+			}
+			Assert.assertThat(accepted, notNullValue());
+			Assert.assertThat(accepted.get(), is(1));
+		} finally {
+			async.shutdown();
+		}
+	}
+
+	@Test
+	public void testAsyncCancelStopsTheTaskAndInformsTheListener() throws Exception {
+		final DBAsyncDatabase async = new DBAsyncDatabase(database, 1, 0);
+		try {
+			final CountDownLatch started = new CountDownLatch(1);
+			final CountDownLatch completed = new CountDownLatch(1);
+			final CountDownLatch finished = new CountDownLatch(1);
+			final List<Boolean> cancelled = Collections.synchronizedList(new ArrayList<Boolean>());
+			final List<SQLException> failures = Collections.synchronizedList(new ArrayList<SQLException>());
+			final List<Connection> usedConnections = Collections.synchronizedList(new ArrayList<Connection>());
+			Future<Integer> waiting = async.submit(new Callable<Integer>() {
+				@Override
+				public Integer call() throws Exception {
+					try (DBStatement statement = database.getDBStatement()) {
+						try {
+							started.countDown();
+							statement.execute("SELECT COUNT(*) FROM marque m1, marque m2, marque m3, marque m4, marque m5, marque m6, marque m7");
+						} catch (SQLException ex) {
+							failures.add(ex);
+						} finally {
+							usedConnections.add(statement.getConnection());
+						}
+					} finally {
+						finished.countDown();
+					}
+					return 1;
+				}
+			}, new DBAsyncDatabase.CompletionListener<Integer>() {
+				@Override
+				public void completed(Future<Integer> result) {
+					cancelled.add(result.isCancelled());
+					completed.countDown();
+				}
+			});
+
+			Assert.assertThat(started.await(10, TimeUnit.SECONDS), is(true));
+			Thread.sleep(250);
+			Assert.assertThat(finished.getCount(), is(1L));
+			Assert.assertThat(waiting.cancel(true), is(true));
+			Assert.assertThat(completed.await(10, TimeUnit.SECONDS), is(true));
+			Assert.assertThat(cancelled, contains(true));
+
+			Assert.assertThat(finished.await(30, TimeUnit.SECONDS), is(true));
+			Assert.assertThat(failures.size(), is(1));
+			Assert.assertThat(usedConnections.size(), is(1));
+
+			final Connection cancelledConnection = usedConnections.get(0);
+			Assert.assertThat(cancelledConnection.isClosed(), is(false));
+			final List<DBStatement> pooled = new ArrayList<>();
+			boolean returnedToPool = false;
+			try {
+				while (!returnedToPool && pooled.size() < 20) {
+					final DBStatement statement = database.getDBStatement();
+					pooled.add(statement);
+					returnedToPool = statement.getConnection() == cancelledConnection;
+				}
+			} finally {
+				for (DBStatement statement : pooled) {
+					statement.close();
+				}
+			}
+			Assert.assertThat(returnedToPool, is(true));
+
+			Assert.assertThat(async.submit(new Callable<Integer>() {
+				@Override
+				public Integer call() throws Exception {
+					return database.getDBTable(new CarCompany()).setBlankQueryAllowed(true).getAllRows().size();
+				}
+			}).get(), is(4));
+		} finally {
+			async.shutdown();
+		}
+	}
+
+	@Test
+	public void testUnitOfWorkSharesOneConnection() throws SQLException {
+		final RecordingExecutionListener recorder = new RecordingExecutionListener(ExecutionEvent.Type.CONNECTION);
+		List<CarCompany> companies = new ArrayList<>();
+		companies.add(new CarCompany("UNIT OF WORK 1", 5));
+		companies.add(new CarCompany("UNIT OF WORK 2", 6));
+		companies.add(new CarCompany("UNIT OF WORK 3", 7));
+		database.addExecutionListener(recorder);
+		try {
+			try (DBUnitOfWork unitOfWork = database.startUnitOfWork()) {
+				Assume.assumeTrue(unitOfWork.isActive());
+				final List<Statement> jdbcStatements = new ArrayList<>();
+				for (CarCompany company : companies) {
+					database.insert(company);
+					try (DBStatement statement = database.getDBStatement()) {
+						jdbcStatements.add(statement.unwrap(Statement.class));
+					}
+				}
+				Assert.assertThat(jdbcStatements.size(), is(3));
+				for (Statement jdbcStatement : jdbcStatements) {
+					Assert.assertThat(jdbcStatement, sameInstance(jdbcStatements.get(0)));
+				}
+				Assert.assertThat(jdbcStatements.get(0).isClosed(), is(false));
+				Assert.assertThat(database.getDBTable(new CarCompany()).setBlankQueryAllowed(true).getAllRows().size(), is(7));
+				Assert.assertThat(recorder.getEvents().size(), is(1));
+			}
+		} finally {
+			database.removeExecutionListener(recorder);
+			database.delete(companies);
+		}
+		Assert.assertThat(database.getDBTable(new CarCompany()).setBlankQueryAllowed(true).getAllRows().size(), is(4));
+	}
+
+	@Test
+	public void testInstallFeaturesCanBeRepeated() throws SQLException {
+		database.installFeatures();
+		database.installFeatures();
+		Assert.assertThat(database.getDBTable(new CarCompany()).setBlankQueryAllowed(true).getAllRows().size(), is(4));
+	}
+
+	@Test
+	public void testH2FunctionsArePrecompiled() throws SQLException {
+		if (database instanceof H2DB) {
+			final String jdbcURL = database.getJdbcURL();
+			final boolean remote = database instanceof H2SharedDB
+					|| (jdbcURL != null && (jdbcURL.startsWith("jdbc:h2:tcp:") || jdbcURL.startsWith("jdbc:h2:ssl:")));
+			database.installFeatures();
+			try (DBStatement statement = database.getDBStatement()) {
+				try (ResultSet resultSet = statement.executeQuery("SELECT COUNT(*) FROM INFORMATION_SCHEMA.FUNCTION_ALIASES WHERE ALIAS_NAME LIKE 'DBV\\_%' AND SOURCE IS NOT NULL AND SOURCE <> ''")) {
+					resultSet.next();
+					if (remote) {
+						// the server may not have DBvolution so it keeps the source code functions
+						Assert.assertThat(resultSet.getInt(1) > 0, is(true));
+					} else {
+						Assert.assertThat(resultSet.getInt(1), is(0));
+					}
+				}
+				try (ResultSet resultSet = statement.executeQuery("SELECT DBV_POINT2D_GETX('POINT (1.5 2)'), DBV_LINE2D_MAXY('LINESTRING (1 2, 3 4)'), DBV_DATEREPEAT_MONTH_PART('P1Y2M3D4h5n6.0s')")) {
+					resultSet.next();
+					Assert.assertThat(resultSet.getDouble(1), is(1.5));
+					Assert.assertThat(resultSet.getDouble(2), is(4.0));
+					Assert.assertThat(resultSet.getInt(3), is(2));
+				}
+			}
+		}
+	}
+
+	@Test
+	public void testH2SourceFunctionsOnASharedServer() throws SQLException {
+		if (database instanceof H2DB) {
+			final H2SharedDB shared = new H2SharedDB("mem:dbvolutionSourceFunctions", "", "");
+			try (DBStatement statement = shared.getDBStatement()) {
+				try (ResultSet resultSet = statement.executeQuery("SELECT COUNT(*) FROM INFORMATION_SCHEMA.FUNCTION_ALIASES WHERE ALIAS_NAME LIKE 'DBV\\_%' AND SOURCE IS NOT NULL AND SOURCE <> ''")) {
+					resultSet.next();
+					Assert.assertThat(resultSet.getInt(1) > 0, is(true));
+				}
+				try (ResultSet resultSet = statement.executeQuery("SELECT "
+						+ "DBV_DATEREPEAT_DATEADDITION(TIMESTAMP '2019-01-01 00:00:10', 'P0Y0M0D0h0n2.5s'), "
+						+ "DBV_DATEREPEAT_DATESUBTRACTION(TIMESTAMP '2019-01-01 00:00:10', 'P0Y0M0D0h0n2.5s'), "
+						+ "DBV_POLYGON2D_MAX_Y(DBV_POLYGON2D_BOUNDINGBOX('POLYGON ((0 0, 2 3, 4 1, 0 0))'))")) {
+					resultSet.next();
+					Assert.assertThat(resultSet.getTimestamp(1), is(Timestamp.valueOf("2019-01-01 00:00:12.5")));
+					Assert.assertThat(resultSet.getTimestamp(2), is(Timestamp.valueOf("2019-01-01 00:00:07.5")));
+					Assert.assertThat(resultSet.getDouble(3), is(3.0));
+				}
+			} finally {
+				shared.stop();
+			}
+		}
+	}
+
+	@Test
+	public void testExecuteAllRunsEveryQuery() throws Exception {
+		final CarCompany firstCompany = new CarCompany();
+		firstCompany.uidCarCompany.permittedValues(1);
+		DBQuery companies = database.getDBQuery(new CarCompany()).setBlankQueryAllowed(true);
+		DBQuery marques = database.getDBQuery(new Marque()).setBlankQueryAllowed(true);
+		DBQuery oneCompany = database.getDBQuery(firstCompany);
+
+		List<DBQueryable> executed = database.executeAll(companies, marques, oneCompany);
+
+		Assert.assertThat(executed.size(), is(3));
+		Assert.assertThat(executed.get(0), sameInstance((DBQueryable) companies));
+		Assert.assertThat(executed.get(2), sameInstance((DBQueryable) oneCompany));
+		Assert.assertThat(companies.getAllRows().size(), is(4));
+		Assert.assertThat(marques.getAllRows().size(), is(22));
+		Assert.assertThat(oneCompany.getAllInstancesOf(firstCompany).get(0).uidCarCompany.intValue(), is(1));
+	}
+
+	@Test
+	public void testExecuteAllUsesTheQueryResultCache() throws Exception {
+		final RecordingExecutionListener recorder = new RecordingExecutionListener(ExecutionEvent.Type.MATERIALISE);
+		database.setQueryResultCache(10, 60000);
+		database.addExecutionListener(recorder);
+		try {
+			database.executeAll(
+					database.getDBQuery(new CarCompany()).setBlankQueryAllowed(true),
+					database.getDBQuery(new Marque()).setBlankQueryAllowed(true));
+			Assert.assertThat(recorder.getEvents().size(), is(2));
+
+			recorder.clear();
+			DBQuery companies = database.getDBQuery(new CarCompany()).setBlankQueryAllowed(true);
+			DBQuery marques = database.getDBQuery(new Marque()).setBlankQueryAllowed(true);
+			database.executeAll(companies, marques);
+			Assert.assertThat(recorder.getEvents().size(), is(0));
+			Assert.assertThat(companies.getAllRows().size(), is(4));
+			Assert.assertThat(marques.getAllRows().size(), is(22));
+			Assert.assertThat(recorder.getEvents().size(), is(0));
+		} finally {
+			database.removeExecutionListener(recorder);
+			database.removeQueryResultCache();
+		}
+	}
+
 	@Test
 	public void testTableExists() throws SQLException {
 		final CreateTableTestClass createTableTestClass = new CreateTableTestClass();
@@ -16,10 +16,24 @@
 package nz.co.gregs.dbvolution;
 
 import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
 import java.util.List;
+import java.util.Set;
 
 import java.util.SortedSet;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 import static org.hamcrest.Matchers.*;
+import nz.co.gregs.dbvolution.databases.DBDatabaseCluster;
+import nz.co.gregs.dbvolution.databases.listeners.ExecutionEvent;
+import nz.co.gregs.dbvolution.databases.listeners.ExecutionListener;
 import nz.co.gregs.dbvolution.example.CarCompany;
 import nz.co.gregs.dbvolution.example.CompanyLogo;
 import nz.co.gregs.dbvolution.example.LinkCarCompanyAndLogo;
@@ -28,6 +42,8 @@ import nz.co.gregs.dbvolution.example.Marque;
 import nz.co.gregs.dbvolution.example.MarqueSelectQuery;
 import nz.co.gregs.dbvolution.exceptions.IncorrectRowProviderInstanceSuppliedException;
 import nz.co.gregs.dbvolution.generic.AbstractTest;
+import nz.co.gregs.dbvolution.reactive.Subscriber;
+import nz.co.gregs.dbvolution.reactive.Subscription;
 import org.junit.Assert;
 import org.junit.Test;
 import static junit.framework.TestCase.assertEquals;
@@ -154,6 +170,29 @@ public class DBQueryTest extends AbstractTest {
 		}
 	}
 
+	@Test
+	public void testRepeatedQueryGenerationWithChangedValues() throws SQLException {
+		CarCompany carCompany = new CarCompany();
+		carCompany.name.permittedValues("TOYOTA");
+		DBQuery dbQuery = database.getDBQuery(carCompany, new Marque());
+
+		final String firstSQL = dbQuery.getSQLForQuery();
+		Assert.assertThat(dbQuery.getSQLForQuery(), is(firstSQL));
+		Assert.assertThat(dbQuery.getAllRows().size(), is(2));
+
+		carCompany.name.permittedValues("GENERAL MOTORS");
+		Assert.assertThat(dbQuery.getSQLForQuery(), not(firstSQL));
+		Assert.assertThat(dbQuery.getAllRows().size(), is(3));
+		for (DBQueryRow row : dbQuery.getAllRows()) {
+			Assert.assertThat(row.get(carCompany).name.stringValue(), is("GENERAL MOTORS"));
+		}
+
+		carCompany.setReturnFields(carCompany.name);
+		final String limitedSQL = dbQuery.getSQLForQuery();
+		Assert.assertThat(limitedSQL, not(firstSQL));
+		Assert.assertThat(limitedSQL.contains(database.getDefinition().formatTableAliasAndColumnName(carCompany, "uid_carcompany")), is(false));
+	}
+
 	@Test
 	public void testDBTableRowReuse() throws SQLException {
 		CarCompany carCompany = new CarCompany();
@@ -309,4 +348,190 @@ public class DBQueryTest extends AbstractTest {
 		Assert.assertEquals(CarCompany.class, rowArray[0].getClass());
 		Assert.assertEquals(CompanyLogo.class, rowArray[1].getClass());
 	}
+
+	@Test
+	public void testIdenticalConcurrentQueriesReturnSeparateRows() throws Exception {
+		// clusters spread queries over their members so only single databases are guaranteed to share
+		final boolean checkSharing = !(database instanceof DBDatabaseCluster);
+		final long sharedBefore = database.getInFlightQueries().getSharedQueryCount();
+		final AtomicInteger executions = new AtomicInteger(0);
+		final ExecutionListener holdFirstQuery = new ExecutionListener() {
+			@Override
+			public void executed(ExecutionEvent event) {
+				if (event.getType() == ExecutionEvent.Type.MATERIALISE && executions.incrementAndGet() == 1) {
+					// keep the first query running until the others have joined it
+					final long giveUp = System.currentTimeMillis() + 10000;
+					while (database.getInFlightQueries().getSharedQueryCount() < sharedBefore + 9
+							&& System.currentTimeMillis() < giveUp) {
+						try {
+							Thread.sleep(10);
+						} catch (InterruptedException ex) {
+							Thread.currentThread().interrupt();
+							return;
+						}
+					}
+				}
+			}
+		};
+		if (checkSharing) {
+			database.addExecutionListener(holdFirstQuery);
+		}
+		ExecutorService threadpool = Executors.newFixedThreadPool(10);
+		List<Callable<List<DBQueryRow>>> taskGroup = new ArrayList<>();
+		for (int i = 0; i < 10; i++) {
+			taskGroup.add(new Callable<List<DBQueryRow>>() {
+				@Override
+				public List<DBQueryRow> call() throws Exception {
+					DBQuery query = database.getDBQuery(new Marque()).setBlankQueryAllowed(true);
+					return query.getAllRows();
+				}
+			});
+		}
+		List<Future<List<DBQueryRow>>> results;
+		try {
+			results = threadpool.invokeAll(taskGroup);
+		} finally {
+			threadpool.shutdown();
+			database.removeExecutionListener(holdFirstQuery);
+		}
+
+		Set<Marque> allMarques = Collections.newSetFromMap(new IdentityHashMap<Marque, Boolean>());
+		for (Future<List<DBQueryRow>> result : results) {
+			List<DBQueryRow> rows = result.get();
+			Assert.assertThat(rows.size(), is(22));
+			for (DBQueryRow row : rows) {
+				Assert.assertThat(allMarques.add(row.get(new Marque())), is(true));
+			}
+		}
+		Assert.assertThat(allMarques.size(), is(220));
+		if (checkSharing) {
+			Assert.assertThat(executions.get(), is(1));
+			Assert.assertThat(database.getInFlightQueries().getSharedQueryCount() - sharedBefore, is(9L));
+		}
+	}
+
+	@Test
+	public void testFollowerRunsItsOwnQueryWhenTheLeaderTakesTooLong() throws Exception {
+		if (database instanceof DBDatabaseCluster) {
+			// clusters spread queries over their members so only single databases are guaranteed to share
+			return;
+		}
+		final long sharedBefore = database.getInFlightQueries().getSharedQueryCount();
+		final AtomicInteger executions = new AtomicInteger(0);
+		final CountDownLatch leaderRunning = new CountDownLatch(1);
+		final CountDownLatch releaseLeader = new CountDownLatch(1);
+		final ExecutionListener holdFirstQuery = new ExecutionListener() {
+			@Override
+			public void executed(ExecutionEvent event) {
+				if (event.getType() == ExecutionEvent.Type.MATERIALISE && executions.incrementAndGet() == 1) {
+					leaderRunning.countDown();
+					try {
+						releaseLeader.await(10, TimeUnit.SECONDS);
+					} catch (InterruptedException ex) {
+						Thread.currentThread().interrupt();
+					}
+				}
+			}
+		};
+		database.addExecutionListener(holdFirstQuery);
+		ExecutorService threadpool = Executors.newSingleThreadExecutor();
+		try {
+			Future<List<DBQueryRow>> leader = threadpool.submit(new Callable<List<DBQueryRow>>() {
+				@Override
+				public List<DBQueryRow> call() throws Exception {
+					return database.getDBQuery(new Marque()).setBlankQueryAllowed(true).getAllRows();
+				}
+			});
+			Assert.assertThat(leaderRunning.await(10, TimeUnit.SECONDS), is(true));
+
+			DBQuery follower = database.getDBQuery(new Marque()).setBlankQueryAllowed(true);
+			follower.setTimeoutInMilliseconds(500);
+			final long start = System.currentTimeMillis();
+			Assert.assertThat(follower.getAllRows().size(), is(22));
+			Assert.assertThat(System.currentTimeMillis() - start, lessThan(10000L));
+			Assert.assertThat(database.getInFlightQueries().getSharedQueryCount() - sharedBefore, is(1L));
+			Assert.assertThat(executions.get(), is(2));
+
+			releaseLeader.countDown();
+			Assert.assertThat(leader.get().size(), is(22));
+		} finally {
+			releaseLeader.countDown();
+			threadpool.shutdown();
+			database.removeExecutionListener(holdFirstQuery);
+		}
+	}
+
+	@Test
+	public void testPublishedRowsFollowDemand() throws Exception {
+		final List<CarCompany> received = new ArrayList<>();
+		final List<Throwable> errors = new ArrayList<>();
+		final boolean[] completed = new boolean[]{false};
+		final Subscription[] subscription = new Subscription[1];
+		DBTable<CarCompany> table = database.getDBTable(new CarCompany()).setBlankQueryAllowed(true);
+		table.publishRows().setBatchSize(1).subscribe(new Subscriber<CarCompany>() {
+			@Override
+			public void onSubscribe(Subscription s) {
+				subscription[0] = s;
+			}
+
+			@Override
+			public void onNext(CarCompany item) {
+				received.add(item);
+			}
+
+			@Override
+			public void onError(Throwable throwable) {
+				errors.add(throwable);
+			}
+
+			@Override
+			public void onComplete() {
+				completed[0] = true;
+			}
+		});
+		Assert.assertThat(received.size(), is(0));
+		subscription[0].request(3);
+		Assert.assertThat(received.size(), is(3));
+		Assert.assertThat(completed[0], is(false));
+		// requesting exactly the remaining rows completes the subscription
+		subscription[0].request(1);
+		Assert.assertThat(received.size(), is(4));
+		Assert.assertThat(completed[0], is(true));
+		Assert.assertThat(errors.size(), is(0));
+
+		final List<DBQueryRow> rows = new ArrayList<>();
+		DBQuery query = database.getDBQuery(new Marque()).setBlankQueryAllowed(true);
+		query.publishRows().subscribe(new Subscriber<DBQueryRow>() {
+			private Subscription sub;
+
+			@Override
+			public void onSubscribe(Subscription s) {
+				sub = s;
+				sub.request(1);
+			}
+
+			@Override
+			public void onNext(DBQueryRow item) {
+				rows.add(item);
+				if (rows.size() < 5) {
+					sub.request(1);
+				} else {
+					sub.cancel();
+				}
+			}
+
+			@Override
+			public void onError(Throwable throwable) {
+				errors.add(throwable);
+			}
+
+			@Override
+			public void onComplete() {
+				errors.add(new AssertionError("Completed After Cancel"));
+			}
+		});
+		Assert.assertThat(rows.size(), is(5));
+		Assert.assertThat(rows.get(0).get(new Marque()), notNullValue());
+		Assert.assertThat(errors.size(), is(0));
+	}
 }
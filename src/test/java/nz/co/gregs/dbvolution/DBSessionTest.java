@@ -0,0 +1,129 @@
+/*
+ * Copyright 2019 Gregory Graham.
+ *
+ * Commercial licenses are available, please contact info@gregs.co.nz for details.
+ * 
+ * This work is licensed under the Creative Commons Attribution-NonCommercial-ShareAlike 4.0 International License. 
+ * To view a copy of this license, visit http://creativecommons.org/licenses/by-nc-sa/4.0/ 
+ * or send a letter to Creative Commons, PO Box 1866, Mountain View, CA 94042, USA.
+ * 
+ * You are free to:
+ *     Share - copy and redistribute the material in any medium or format
+ *     Adapt - remix, transform, and build upon the material
+ * 
+ *     The licensor cannot revoke these freedoms as long as you follow the license terms.               
+ *     Under the following terms:
+ *                 
+ *         Attribution - 
+ *             You must give appropriate credit, provide a link to the license, and indicate if changes were made. 
+ *             You may do so in any reasonable manner, but not in any way that suggests the licensor endorses you or your use.
+ *         NonCommercial - 
+ *             You may not use the material for commercial purposes.
+ *         ShareAlike - 
+ *             If you remix, transform, or build upon the material, 
+ *             you must distribute your contributions under the same license as the original.
+ *         No additional restrictions - 
+ *             You may not apply legal terms or technological measures that legally restrict others from doing anything the 
+ *             license permits.
+ * 
+ * Check the Creative Commons website for any details, legalese, and updates.
+ */
+package nz.co.gregs.dbvolution;
+
+import java.util.Arrays;
+import java.util.List;
+import nz.co.gregs.dbvolution.example.CarCompany;
+import nz.co.gregs.dbvolution.example.Marque;
+import nz.co.gregs.dbvolution.generic.AbstractTest;
+import static org.hamcrest.Matchers.*;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ *
+ * <p style="color: #F90;">Support DBvolution at
+ * <a href="http://patreon.com/dbvolution" target=new>Patreon</a></p>
+ *
+ * @author Gregory Graham
+ */
+public class DBSessionTest extends AbstractTest {
+
+	public DBSessionTest(Object testIterationName, Object db) {
+		super(testIterationName, db);
+	}
+
+	@Test
+	public void testTablesAreOrderedByForeignKeys() {
+		List<Class<?>> order = DBSession.sortByForeignKeys(Arrays.<DBRow>asList(new Marque(), new CarCompany()));
+		Assert.assertThat(order.size(), is(2));
+		Assert.assertThat(order.get(0).equals(CarCompany.class), is(true));
+		Assert.assertThat(order.get(1).equals(Marque.class), is(true));
+	}
+
+	@Test
+	public void testInsertsAreWrittenParentFirst() throws Exception {
+		Marque marque = new Marque(5000001, "False", 1246974, "", 1, "UV", "LADA", "", "Y", null, 50, true);
+		CarCompany carCompany = new CarCompany("AVTOVAZ", 50);
+
+		DBSession session = database.getDBSession();
+		session.insert(marque);
+		session.insert(carCompany);
+		Assert.assertThat(session.hasPendingChanges(), is(true));
+		session.flush();
+		Assert.assertThat(session.hasPendingChanges(), is(false));
+		Assert.assertThat(marque.getDefined(), is(true));
+
+		Marque example = new Marque();
+		example.carCompany.permittedValues(50);
+		List<Marque> found = database.getDBTable(example).getAllRows();
+		Assert.assertThat(found.size(), is(1));
+		Assert.assertThat(found.get(0).name.stringValue(), is("LADA"));
+	}
+
+	@Test
+	public void testRepeatedChangesProduceOneUpdate() throws Exception {
+		CarCompany example = new CarCompany();
+		example.name.permittedValues("TOYOTA");
+		CarCompany toyota = database.getDBTable(example).getOnlyRow();
+
+		DBSession session = database.getDBSession();
+		session.track(toyota);
+		Assert.assertThat(session.hasPendingChanges(), is(false));
+		toyota.name.setValue("TOYOTA MOTOR");
+		session.track(toyota);
+		toyota.name.setValue("TOYOTA MOTOR CORPORATION");
+		Assert.assertThat(session.hasPendingChanges(), is(true));
+		Assert.assertThat(session.flush().size(), is(1));
+		Assert.assertThat(session.flush().size(), is(0));
+
+		example = new CarCompany();
+		example.uidCarCompany.permittedValues(toyota.uidCarCompany.intValue());
+		Assert.assertThat(database.getDBTable(example).getOnlyRow().name.stringValue(), is("TOYOTA MOTOR CORPORATION"));
+	}
+
+	@Test
+	public void testDeletesAreWrittenChildFirst() throws Exception {
+		CarCompany carCompany = new CarCompany("AVTOVAZ", 51);
+		Marque marque = new Marque(5000002, "False", 1246974, "", 1, "UV", "LADA", "", "Y", null, 51, true);
+		database.insert(carCompany);
+		database.insert(marque);
+
+		DBSession session = database.getDBSession();
+		session.delete(carCompany, marque);
+		session.flush();
+
+		CarCompany example = new CarCompany();
+		example.uidCarCompany.permittedValues(51);
+		Assert.assertThat(database.getDBTable(example).getAllRows().size(), is(0));
+	}
+
+	@Test
+	public void testDeletingANewRowRemovesItFromTheSession() throws Exception {
+		CarCompany carCompany = new CarCompany("AVTOVAZ", 52);
+		DBSession session = database.getDBSession();
+		session.insert(carCompany);
+		session.delete(carCompany);
+		Assert.assertThat(session.hasPendingChanges(), is(false));
+		Assert.assertThat(session.flush().size(), is(0));
+	}
+}
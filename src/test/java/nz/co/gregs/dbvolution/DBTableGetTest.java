@@ -18,6 +18,7 @@ package nz.co.gregs.dbvolution;
 import java.sql.SQLException;
 import java.text.ParseException;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Calendar;
 import java.util.Date;
 import java.util.GregorianCalendar;
@@ -25,6 +26,7 @@ import java.util.List;
 import java.util.Locale;
 import net.sourceforge.tedhi.DateRange;
 import net.sourceforge.tedhi.FlexibleDateFormat;
+import nz.co.gregs.dbvolution.annotations.DBCacheByPrimaryKey;
 import nz.co.gregs.dbvolution.example.CarCompany;
 import nz.co.gregs.dbvolution.example.Marque;
 import nz.co.gregs.dbvolution.example.MarqueSelectQuery;
@@ -439,4 +441,55 @@ public class DBTableGetTest extends AbstractTest {
 			Assert.assertThat(marq.uidMarque.isNull(), is(false));
 		}
 	}
+
+	@Test
+	public void testPrimaryKeyCacheIsUsedAndInvalidated() throws SQLException, ClassNotFoundException {
+		database.getPrimaryKeyCache().clear();
+		DBTable<CachedCarCompany> table = DBTable.getInstance(database, new CachedCarCompany());
+
+		List<CachedCarCompany> rows = table.getRowsByPrimaryKey(1);
+		Assert.assertThat(rows.size(), is(1));
+		Assert.assertThat(rows.get(0).name.stringValue(), is("TOYOTA"));
+		rows.get(0).name.setValue("CHANGED WITHOUT SAVING");
+
+		CachedCarCompany example = new CachedCarCompany();
+		example.uidCarCompany.setValue(1);
+		CachedCarCompany toyota = table.getOnlyRowByExample(example);
+		Assert.assertThat(toyota.name.stringValue(), is("TOYOTA"));
+
+		List<CachedCarCompany> companies = table.getRowsByPrimaryKeys(Arrays.asList(1, 2, 3, 99));
+		Assert.assertThat(companies.size(), is(3));
+
+		toyota.name.setValue("TOYOTA MOTOR CORPORATION");
+		database.update(toyota);
+
+		rows = table.getRowsByPrimaryKey(1);
+		Assert.assertThat(rows.size(), is(1));
+		Assert.assertThat(rows.get(0).name.stringValue(), is("TOYOTA MOTOR CORPORATION"));
+	}
+
+	@Test
+	public void testPrimaryKeyCacheIgnoresRowsReadBeforeAChange() throws SQLException, ClassNotFoundException {
+		database.getPrimaryKeyCache().clear();
+		final CachedCarCompany exemplar = new CachedCarCompany();
+		DBTable<CachedCarCompany> table = DBTable.getInstance(database, exemplar);
+		final long generation = database.getPrimaryKeyCache().getGeneration(exemplar);
+		CachedCarCompany example = new CachedCarCompany();
+		example.uidCarCompany.permittedValues(1);
+		List<CachedCarCompany> rows = table.getRowsByExample(example);
+		Assert.assertThat(rows.size(), is(1));
+
+		database.getPrimaryKeyCache().invalidate(exemplar.getTableName());
+		database.getPrimaryKeyCache().put(rows, generation);
+		Assert.assertThat(database.getPrimaryKeyCache().get(exemplar, 1), is(nullValue()));
+
+		database.getPrimaryKeyCache().put(rows, database.getPrimaryKeyCache().getGeneration(exemplar));
+		Assert.assertThat(database.getPrimaryKeyCache().get(exemplar, 1), is(notNullValue()));
+	}
+
+	@DBCacheByPrimaryKey(maximumSize = 2)
+	public static class CachedCarCompany extends CarCompany {
+
+		private static final long serialVersionUID = 1L;
+	}
 }
@@ -0,0 +1,205 @@
+/*
+ * Copyright 2019 Gregory Graham.
+ *
+ * Commercial licenses are available, please contact info@gregs.co.nz for details.
+ * 
+ * This work is licensed under the Creative Commons Attribution-NonCommercial-ShareAlike 4.0 International License. 
+ * To view a copy of this license, visit http://creativecommons.org/licenses/by-nc-sa/4.0/ 
+ * or send a letter to Creative Commons, PO Box 1866, Mountain View, CA 94042, USA.
+ * 
+ * You are free to:
+ *     Share - copy and redistribute the material in any medium or format
+ *     Adapt - remix, transform, and build upon the material
+ * 
+ *     The licensor cannot revoke these freedoms as long as you follow the license terms.               
+ *     Under the following terms:
+ *                 
+ *         Attribution - 
+ *             You must give appropriate credit, provide a link to the license, and indicate if changes were made. 
+ *             You may do so in any reasonable manner, but not in any way that suggests the licensor endorses you or your use.
+ *         NonCommercial - 
+ *             You may not use the material for commercial purposes.
+ *         ShareAlike - 
+ *             If you remix, transform, or build upon the material, 
+ *             you must distribute your contributions under the same license as the original.
+ *         No additional restrictions - 
+ *             You may not apply legal terms or technological measures that legally restrict others from doing anything the 
+ *             license permits.
+ * 
+ * Check the Creative Commons website for any details, legalese, and updates.
+ */
+package nz.co.gregs.dbvolution;
+
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import nz.co.gregs.dbvolution.databases.listeners.ExecutionEvent;
+import nz.co.gregs.dbvolution.datatypes.DBParameter;
+import nz.co.gregs.dbvolution.example.CarCompany;
+import nz.co.gregs.dbvolution.example.Marque;
+import nz.co.gregs.dbvolution.generic.AbstractTest;
+import nz.co.gregs.dbvolution.generic.RecordingExecutionListener;
+import org.junit.Assert;
+import org.junit.Test;
+import static org.hamcrest.Matchers.*;
+
+/**
+ *
+ * <p style="color: #F90;">Support DBvolution at
+ * <a href="http://patreon.com/dbvolution" target=new>Patreon</a></p>
+ *
+ * @author Gregory Graham
+ */
+public class PreparedDBQueryTest extends AbstractTest {
+
+	public PreparedDBQueryTest(Object testIterationName, Object db) {
+		super(testIterationName, db);
+	}
+
+	@Test
+	public void testPreparedQueryWithStringParameter() throws SQLException {
+		CarCompany carCompany = new CarCompany();
+		DBQuery dbQuery = database.getDBQuery(carCompany, new Marque());
+		dbQuery.addCondition(carCompany.column(carCompany.name).is(DBParameter.stringParameter("company")));
+
+		PreparedDBQuery prepared = dbQuery.prepare();
+		Assert.assertThat(prepared.getParameterNames(), contains("company"));
+		Assert.assertThat(prepared.getSQLForQuery(), containsString("?"));
+		Assert.assertThat(prepared.getSQLForQuery(), not(containsString("DBV_PARAM")));
+
+		Assert.assertThat(prepared.bind("company", "TOYOTA").getAllRows().size(), is(2));
+		List<Marque> marques = prepared.bind("company", "GENERAL MOTORS").getAllInstancesOf(new Marque());
+		Assert.assertThat(marques.size(), is(3));
+		Assert.assertThat(prepared.bind("company", "TOYOTA").getAllRows().size(), is(2));
+	}
+
+	@Test
+	public void testPreparedQueryWithIntegerParameters() throws SQLException {
+		Marque marque = new Marque();
+		DBQuery dbQuery = database.getDBQuery(marque);
+		dbQuery.addCondition(marque.column(marque.carCompany).is(DBParameter.integerParameter("company")));
+		dbQuery.addCondition(marque.column(marque.uidMarque).isNot(DBParameter.integerParameter("excluded")));
+		dbQuery.setSortOrder(marque.column(marque.uidMarque));
+
+		PreparedDBQuery prepared = dbQuery.prepare();
+		Assert.assertThat(prepared.getParameterNames(), contains("company", "excluded"));
+		List<Marque> marques = prepared.bind("company", 3).bind("excluded", 4893101).getAllInstancesOf(marque);
+		Assert.assertThat(marques.size(), is(2));
+		for (Marque found : marques) {
+			Assert.assertThat(found.carCompany.intValue(), is(3));
+			Assert.assertThat(found.uidMarque.intValue(), not(4893101));
+		}
+	}
+
+	@Test
+	public void testPreparedQueryIsReportedToExecutionListeners() throws SQLException {
+		final RecordingExecutionListener recorder = new RecordingExecutionListener();
+		Marque marque = new Marque();
+		DBQuery dbQuery = database.getDBQuery(marque);
+		dbQuery.addCondition(marque.column(marque.carCompany).is(DBParameter.integerParameter("company")));
+		dbQuery.addCondition(marque.column(marque.uidMarque).isNot(DBParameter.integerParameter("excluded")));
+		PreparedDBQuery prepared = dbQuery.prepare();
+
+		database.addExecutionListener(recorder);
+		try {
+			List<Marque> marques = prepared.bind("company", 3).bind("excluded", 4893101).getAllInstancesOf(marque);
+			Assert.assertThat(marques.size(), is(2));
+
+			boolean foundQuery = false;
+			for (ExecutionEvent event : recorder.getEvents()) {
+				if (event.getType() == ExecutionEvent.Type.QUERY && event.getBindCount() > 0) {
+					foundQuery = true;
+					Assert.assertThat(event.getBindCount(), is(2));
+					Assert.assertThat(event.getRowCount(), is(2L));
+				}
+			}
+			Assert.assertThat(foundQuery, is(true));
+		} finally {
+			database.removeExecutionListener(recorder);
+		}
+	}
+
+	@Test
+	public void testPreparedQueryIsNotChangedByTheOriginalQuery() throws SQLException {
+		CarCompany carCompany = new CarCompany();
+		DBQuery dbQuery = database.getDBQuery(carCompany, new Marque());
+		dbQuery.addCondition(carCompany.column(carCompany.name).is(DBParameter.stringParameter("company")));
+		PreparedDBQuery prepared = dbQuery.prepare();
+		final String preparedSQL = prepared.getSQLForQuery();
+
+		dbQuery.addCondition(carCompany.column(carCompany.uidCarCompany).is(4));
+
+		Assert.assertThat(prepared.getSQLForQuery(), is(preparedSQL));
+		Assert.assertThat(prepared.bind("company", "TOYOTA").getAllRows().size(), is(2));
+	}
+
+	@Test
+	public void testClosingAPreparedQueryClosesItsStatements() throws SQLException {
+		CarCompany carCompany = new CarCompany();
+		DBQuery dbQuery = database.getDBQuery(carCompany, new Marque());
+		dbQuery.addCondition(carCompany.column(carCompany.name).is(DBParameter.stringParameter("company")));
+
+		final PreparedDBQuery prepared;
+		try (PreparedDBQuery closing = dbQuery.prepare()) {
+			prepared = closing;
+			Assert.assertThat(prepared.bind("company", "TOYOTA").getAllRows().size(), is(2));
+			Assert.assertThat(prepared.bind("company", "TOYOTA").getAllRows().size(), is(2));
+			Assert.assertThat(prepared.getCachedStatementCount(), greaterThan(0));
+		}
+		Assert.assertThat(prepared.getCachedStatementCount(), is(0));
+
+		Assert.assertThat(prepared.bind("company", "GENERAL MOTORS").getAllRows().size(), is(3));
+		Assert.assertThat(prepared.getCachedStatementCount(), is(0));
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testInvalidParameterName() {
+		DBParameter.stringParameter("bad__name");
+	}
+
+	@Test
+	public void testPreparedQuerySharedBetweenThreads() throws Exception {
+		CarCompany carCompany = new CarCompany();
+		DBQuery dbQuery = database.getDBQuery(carCompany, new Marque());
+		dbQuery.addCondition(carCompany.column(carCompany.name).is(DBParameter.stringParameter("company")));
+		final PreparedDBQuery prepared = dbQuery.prepare();
+
+		ExecutorService executor = Executors.newFixedThreadPool(4);
+		try {
+			List<Future<Integer>> toyotas = new ArrayList<>();
+			List<Future<Integer>> generalMotors = new ArrayList<>();
+			for (int i = 0; i < 10; i++) {
+				toyotas.add(executor.submit(new CountRows(prepared, "TOYOTA")));
+				generalMotors.add(executor.submit(new CountRows(prepared, "GENERAL MOTORS")));
+			}
+			for (Future<Integer> toyota : toyotas) {
+				Assert.assertThat(toyota.get(), is(2));
+			}
+			for (Future<Integer> generalMotor : generalMotors) {
+				Assert.assertThat(generalMotor.get(), is(3));
+			}
+		} finally {
+			executor.shutdown();
+		}
+	}
+
+	private static class CountRows implements Callable<Integer> {
+
+		private final PreparedDBQuery prepared;
+		private final String company;
+
+		CountRows(PreparedDBQuery prepared, String company) {
+			this.prepared = prepared;
+			this.company = company;
+		}
+
+		@Override
+		public Integer call() throws Exception {
+			return prepared.bind("company", company).getAllRows().size();
+		}
+	}
+}
@@ -15,8 +15,13 @@
  */
 package nz.co.gregs.dbvolution;
 
+import java.sql.SQLException;
+import java.util.List;
 import java.util.Set;
+import nz.co.gregs.dbvolution.annotations.AutoFillDuringQueryIfPossibleTest.FilledCarCoWithList;
+import nz.co.gregs.dbvolution.annotations.AutoFillDuringQueryIfPossibleTest.FilledMarque;
 import nz.co.gregs.dbvolution.example.*;
+import nz.co.gregs.dbvolution.exceptions.DBRuntimeException;
 import nz.co.gregs.dbvolution.generic.AbstractTest;
 import org.junit.Assert;
 import org.junit.Test;
@@ -86,4 +91,64 @@ public class RelatedTableTest extends AbstractTest {
 		allRelatedTables = (new LinkCarCompanyAndLogo()).getRelatedTables();
 		Assert.assertThat(allRelatedTables.size(), is(0));
 	}
+
+	@Test
+	public void loadRelatedRowsInBatchesTest() throws SQLException {
+		final Marque marqueExample = new Marque();
+		final List<FilledMarque> marques = database.getDBTable(new FilledMarque()).setBlankQueryAllowed(true).getAllRows();
+		final DBRelationshipLoader loader = database.getDBRelationshipLoader().setBatchSize(2);
+
+		final List<CarCompany> companiesOfMarques = loader.loadRelatedRows(marques, marqueExample.column(marqueExample.carCompany), new CarCompany());
+		Assert.assertThat(companiesOfMarques.size(), greaterThan(0));
+		int marquesWithCompanies = 0;
+		for (FilledMarque marque : marques) {
+			if (marque.actualCarCo != null) {
+				Assert.assertThat(marque.actualCarCo.uidCarCompany.getValue(), is(marque.carCompany.getValue()));
+				Assert.assertThat(companiesOfMarques, hasItem(sameInstance(marque.actualCarCo)));
+				marquesWithCompanies++;
+			}
+		}
+		Assert.assertThat(marquesWithCompanies, greaterThan(0));
+
+		final List<FilledCarCoWithList> companies = database.getDBTable(new FilledCarCoWithList()).setBlankQueryAllowed(true).getAllRows();
+		loader.loadRelatedRows(companies, marqueExample.column(marqueExample.carCompany), new Marque());
+		int companiesOfAllMarques = 0;
+		for (FilledCarCoWithList company : companies) {
+			Assert.assertThat(company.marques, notNullValue());
+			for (Marque marque : company.marques) {
+				Assert.assertThat(marque.carCompany.getValue(), is(company.uidCarCompany.getValue()));
+				companiesOfAllMarques++;
+			}
+		}
+		Assert.assertThat(companiesOfAllMarques, is(marquesWithCompanies));
+	}
+
+	@Test
+	public void loadRelatedRowsKeepsTheExampleConditionOnTheForeignKeyTest() throws SQLException {
+		final Marque marqueExample = new Marque();
+		final List<FilledCarCoWithList> companies = database.getDBTable(new FilledCarCoWithList()).setBlankQueryAllowed(true).getAllRows();
+		final Long chosenCompany = companies.get(0).uidCarCompany.getValue();
+		final Marque example = new Marque();
+		example.carCompany.permittedValues(chosenCompany);
+
+		final List<Marque> marques = database.getDBRelationshipLoader().setBatchSize(2).loadRelatedRows(companies, marqueExample.column(marqueExample.carCompany), example);
+		Assert.assertThat(marques.size(), greaterThan(0));
+		for (Marque marque : marques) {
+			Assert.assertThat(marque.carCompany.getValue(), is(chosenCompany));
+		}
+		for (FilledCarCoWithList company : companies) {
+			Assert.assertThat(company.marques, notNullValue());
+			if (!company.uidCarCompany.getValue().equals(chosenCompany)) {
+				Assert.assertThat(company.marques.size(), is(0));
+			}
+		}
+		Assert.assertThat(database.getDBTable(example).getAllRows().size(), is(marques.size()));
+	}
+
+	@Test(expected = DBRuntimeException.class)
+	public void loadRelatedRowsRequiresAnAutoFillingFieldTest() throws SQLException {
+		final Marque marqueExample = new Marque();
+		final List<Marque> marques = database.getDBTable(new Marque()).setBlankQueryAllowed(true).getAllRows();
+		database.getDBRelationshipLoader().loadRelatedRows(marques, marqueExample.column(marqueExample.carCompany), new CarCompany());
+	}
 }
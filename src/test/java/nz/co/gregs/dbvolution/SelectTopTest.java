@@ -116,4 +116,73 @@ public class SelectTopTest extends AbstractTest {
 		Assert.assertThat(thirdPage.get(0).get(marque).name.stringValue(), is("LANDROVER"));
 		Assert.assertThat(thirdPage.get(1).get(marque).name.stringValue(), is("MAZDA"));
 	}
+
+	@Test
+	public void queryKeysetPagingTest() throws SQLException {
+		CarCompany carCompany = new CarCompany();
+		final Marque marque = new Marque();
+		DBQuery query = database.getDBQuery(carCompany, marque);
+		query.setSortOrder(carCompany.column(carCompany.name), marque.column(marque.name));
+		query.setBlankQueryAllowed(true);
+		query.setRowLimit(5);
+
+		List<DBQueryRow> firstPage = query.getPageAfter(null);
+		List<DBQueryRow> secondPage = query.getPageAfter(firstPage.get(4));
+		List<DBQueryRow> thirdPage = query.getPageAfter(secondPage.get(4));
+
+		Assert.assertThat(firstPage.size(), is(5));
+		Assert.assertThat(secondPage.size(), is(5));
+		Assert.assertThat(thirdPage.size(), is(5));
+
+		Assert.assertThat(firstPage.get(0).get(carCompany).name.stringValue(), is("Ford"));
+		Assert.assertThat(firstPage.get(1).get(carCompany).name.stringValue(), is("GENERAL MOTORS"));
+
+		Assert.assertThat(secondPage.get(0).get(carCompany).name.stringValue(), is("OTHER"));
+		Assert.assertThat(secondPage.get(0).get(marque).name.stringValue(), is("CHRYSLER"));
+		Assert.assertThat(secondPage.get(1).get(marque).name.stringValue(), is("DAEWOO"));
+
+		Assert.assertThat(thirdPage.get(0).get(marque).name.stringValue(), is("LANDROVER"));
+		Assert.assertThat(thirdPage.get(1).get(marque).name.stringValue(), is("MAZDA"));
+
+		Assert.assertThat(query.getAllRowsForPage(1).get(0).get(marque).name.stringValue(), is("CHRYSLER"));
+	}
+
+	@Test
+	public void queryKeysetPagingWithAnyConditionTest() throws SQLException {
+		CarCompany carCompany = new CarCompany();
+		DBQuery query = database.getDBQuery(carCompany);
+		query.addCondition(carCompany.column(carCompany.uidCarCompany).is(1));
+		query.addCondition(carCompany.column(carCompany.uidCarCompany).is(2));
+		query.addCondition(carCompany.column(carCompany.uidCarCompany).is(3));
+		query.setToMatchAnyCondition();
+		query.setSortOrder(carCompany.column(carCompany.uidCarCompany));
+		query.setRowLimit(2);
+
+		List<DBQueryRow> firstPage = query.getPageAfter(null);
+		List<DBQueryRow> secondPage = query.getPageAfter(firstPage.get(1));
+		List<DBQueryRow> thirdPage = query.getPageAfter(secondPage.get(0));
+
+		Assert.assertThat(firstPage.size(), is(2));
+		Assert.assertThat(secondPage.size(), is(1));
+		Assert.assertThat(thirdPage.size(), is(0));
+		Assert.assertThat(secondPage.get(0).get(carCompany).uidCarCompany.intValue(), is(3));
+		Assert.assertThat(query.getQueryDetails().getConditions().size(), is(3));
+	}
+
+	@Test
+	public void tableKeysetPagingTest() throws SQLException {
+		DBTable<CarCompany> carCoTable = database.getDBTable(new CarCompany());
+		carCoTable.setBlankQueryAllowed(true);
+		carCoTable.setRowLimit(3);
+
+		List<CarCompany> firstPage = carCoTable.getPageAfter(null);
+		List<CarCompany> secondPage = carCoTable.getPageAfter(firstPage.get(2));
+		List<CarCompany> thirdPage = carCoTable.getPageAfter(secondPage.get(secondPage.size() - 1));
+
+		Assert.assertThat(firstPage.size(), is(3));
+		Assert.assertThat(secondPage.size(), is(1));
+		Assert.assertThat(thirdPage.size(), is(0));
+		Assert.assertThat(firstPage.get(0).uidCarCompany.intValue(), is(1));
+		Assert.assertThat(secondPage.get(0).uidCarCompany.intValue(), is(4));
+	}
 }
@@ -75,6 +75,46 @@ public class DBBulkInsertTest extends AbstractTest {
 		Assert.assertThat(row2.pk.getValue(), is(2l));
 	}
 	
+	@Test
+	public void testSaveWithAllocatedKeys() throws Exception {
+		database.preventDroppingOfTables(false);
+		database.dropTableNoExceptions(new AllocatedKeyTestTable());
+		database.createTableNoExceptions(new AllocatedKeyTestTable());
+		final AllocatedKeyTestTable row = new AllocatedKeyTestTable("Lada");
+		final AllocatedKeyTestTable row2 = new AllocatedKeyTestTable("Saab");
+		DBActionList result = database.insert(row, row2);
+		Assert.assertThat(result.size(), is(2));
+		Assert.assertThat(row.pk.isDefined(), is(true));
+		Assert.assertThat(row2.pk.isDefined(), is(true));
+		Assert.assertThat(row2.pk.getValue(), is(row.pk.getValue() + 1));
+
+		final AllocatedKeyTestTable row3 = new AllocatedKeyTestTable("Volvo");
+		database.insert(row3);
+		Assert.assertThat(row3.pk.getValue(), is(row.pk.getValue() + 2));
+		Assert.assertThat(database.getDBTable(new AllocatedKeyTestTable()).setBlankQueryAllowed(true).count(), is(3l));
+	}
+
+	public static class AllocatedKeyTestTable extends DBRow {
+
+		private static final long serialVersionUID = 1L;
+
+		@DBPrimaryKey
+		@DBAutoIncrement
+		@DBKeyAllocation(blockSize = 10)
+		@DBColumn
+		DBInteger pk = new DBInteger();
+
+		@DBColumn
+		DBString string = new DBString();
+
+		public AllocatedKeyTestTable() {
+		}
+
+		public AllocatedKeyTestTable(String str) {
+			string.setValue(str);
+		}
+	}
+
 	public static class BulkInsertTestTable extends DBRow {
 
 	private static final long serialVersionUID = 1L;
@@ -0,0 +1,160 @@
+/*
+ * Copyright 2019 Gregory Graham.
+ *
+ * Commercial licenses are available, please contact info@gregs.co.nz for details.
+ * 
+ * This work is licensed under the Creative Commons Attribution-NonCommercial-ShareAlike 4.0 International License. 
+ * To view a copy of this license, visit http://creativecommons.org/licenses/by-nc-sa/4.0/ 
+ * or send a letter to Creative Commons, PO Box 1866, Mountain View, CA 94042, USA.
+ * 
+ * You are free to:
+ *     Share - copy and redistribute the material in any medium or format
+ *     Adapt - remix, transform, and build upon the material
+ * 
+ *     The licensor cannot revoke these freedoms as long as you follow the license terms.               
+ *     Under the following terms:
+ *                 
+ *         Attribution - 
+ *             You must give appropriate credit, provide a link to the license, and indicate if changes were made. 
+ *             You may do so in any reasonable manner, but not in any way that suggests the licensor endorses you or your use.
+ *         NonCommercial - 
+ *             You may not use the material for commercial purposes.
+ *         ShareAlike - 
+ *             If you remix, transform, or build upon the material, 
+ *             you must distribute your contributions under the same license as the original.
+ *         No additional restrictions - 
+ *             You may not apply legal terms or technological measures that legally restrict others from doing anything the 
+ *             license permits.
+ * 
+ * Check the Creative Commons website for any details, legalese, and updates.
+ */
+package nz.co.gregs.dbvolution.databases.definitions;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import static org.hamcrest.Matchers.*;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ *
+ * <p style="color: #F90;">Support DBvolution at
+ * <a href="http://patreon.com/dbvolution" target=new>Patreon</a></p>
+ *
+ * @author Gregory Graham
+ */
+public class DBDefinitionInListTest {
+
+	private static final Pattern IN_LIST = Pattern.compile("col (NOT )?IN \\( ([^)]*)\\)");
+
+	@Test
+	public void testOracleSplitsLargeInListsWithOr() {
+		final OracleDBDefinition defn = new OracleDBDefinition();
+		final String sql = defn.doInTransform("col", getValuesWithDuplicates(2500));
+
+		Assert.assertThat(sql, startsWith("((col IN ( 0, 1, "));
+		Assert.assertThat(countOf(sql, " OR "), is(2));
+		Assert.assertThat(countOf(sql, " AND "), is(0));
+		assertListsHaveDistinctValues(sql, false, 1000, 1000, 500);
+	}
+
+	@Test
+	public void testOracleSplitsLargeNotInListsWithAnd() {
+		final OracleDBDefinition defn = new OracleDBDefinition();
+		final String sql = defn.doNotInTransform("col", getValuesWithDuplicates(2500));
+
+		Assert.assertThat(sql, startsWith("(col NOT IN ( 0, 1, "));
+		Assert.assertThat(countOf(sql, " AND "), is(2));
+		Assert.assertThat(countOf(sql, " OR "), is(0));
+		assertListsHaveDistinctValues(sql, true, 1000, 1000, 500);
+	}
+
+	@Test
+	public void testOracleKeepsAFullInListTogether() {
+		final OracleDBDefinition defn = new OracleDBDefinition();
+		final String sql = defn.doInTransform("col", getValuesWithDuplicates(1000));
+
+		Assert.assertThat(countOf(sql, " OR "), is(0));
+		assertListsHaveDistinctValues(sql, false, 1000);
+	}
+
+	@Test
+	public void testMSSQLServerSplitsLargeInListsWithOr() {
+		final MSSQLServerDBDefinition defn = new MSSQLServerDBDefinition();
+		final String sql = defn.doInTransform("col", getValuesWithDuplicates(4500));
+
+		Assert.assertThat(sql, startsWith("(col IN ( 0, 1, "));
+		Assert.assertThat(countOf(sql, " OR "), is(2));
+		Assert.assertThat(countOf(sql, " AND "), is(0));
+		assertListsHaveDistinctValues(sql, false, 2000, 2000, 500);
+	}
+
+	@Test
+	public void testMSSQLServerSplitsLargeNotInListsWithAnd() {
+		final MSSQLServerDBDefinition defn = new MSSQLServerDBDefinition();
+		final String sql = defn.doNotInTransform("col", getValuesWithDuplicates(4500));
+
+		Assert.assertThat(sql, startsWith("(col NOT IN ( 0, 1, "));
+		Assert.assertThat(countOf(sql, " AND "), is(2));
+		Assert.assertThat(countOf(sql, " OR "), is(0));
+		assertListsHaveDistinctValues(sql, true, 2000, 2000, 500);
+	}
+
+	@Test
+	public void testMSSQLServerKeepsAFullNotInListTogether() {
+		final MSSQLServerDBDefinition defn = new MSSQLServerDBDefinition();
+		final String sql = defn.doNotInTransform("col", getValuesWithDuplicates(2000));
+
+		Assert.assertThat(sql, startsWith("col NOT IN ( 0, 1, "));
+		Assert.assertThat(countOf(sql, " AND "), is(0));
+		assertListsHaveDistinctValues(sql, true, 2000);
+	}
+
+	/**
+	 * The numbers from zero to distinctValues - 1, with every value repeated
+	 * once at the end of the list and NULL in the middle.
+	 */
+	private static List<String> getValuesWithDuplicates(int distinctValues) {
+		List<String> values = new ArrayList<>();
+		for (int i = 0; i < distinctValues; i++) {
+			values.add("" + i);
+		}
+		values.add(null);
+		for (int i = 0; i < distinctValues; i++) {
+			values.add("" + i);
+		}
+		return values;
+	}
+
+	private static void assertListsHaveDistinctValues(String sql, boolean notIn, Integer... expectedSizes) {
+		final Set<String> found = new HashSet<>();
+		final List<Integer> sizes = new ArrayList<>();
+		int total = 0;
+		final Matcher matcher = IN_LIST.matcher(sql);
+		while (matcher.find()) {
+			Assert.assertThat(matcher.group(1) != null, is(notIn));
+			final String[] values = matcher.group(2).split(", ");
+			sizes.add(values.length);
+			for (String value : values) {
+				found.add(value);
+				total++;
+			}
+		}
+		Assert.assertThat(sizes, contains(expectedSizes));
+		Assert.assertThat(found.size(), is(total));
+	}
+
+	private static int countOf(String sql, String part) {
+		int count = 0;
+		int found = sql.indexOf(part);
+		while (found >= 0) {
+			count++;
+			found = sql.indexOf(part, found + part.length());
+		}
+		return count;
+	}
+}
@@ -23,6 +23,8 @@ import java.io.FileNotFoundException;
 import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.ReadableByteChannel;
 import java.util.List;
 import java.sql.SQLException;
 import nz.co.gregs.dbvolution.DBRow;
@@ -157,6 +159,59 @@ public class DBLargeBinaryTest extends AbstractTest {
 		Assert.assertThat(imgcomp.match(), is(true));
 	}
 
+	@Test
+	public void retrieveRowWithBinaryObjectSpilledToDisk() throws FileNotFoundException, IOException, SQLException, UnexpectedNumberOfRowsException, ClassNotFoundException, InstantiationException {
+
+		CompanyLogoForRetreivingBinaryObject blobTable = new CompanyLogoForRetreivingBinaryObject();
+
+		database.preventDroppingOfTables(false);
+		database.dropTableNoExceptions(blobTable);
+		database.createTable(blobTable);
+
+		int primaryKey = 3;
+		blobTable.logoID.setValue(primaryKey);
+		blobTable.carCompany.setValue(1);//Toyota
+		blobTable.imageFilename.setValue("toyota_logo.jpg");
+		File image = new File("toyota_share_logo.jpg");
+		blobTable.imageBytes.setValue(image);
+		database.insert(blobTable);
+
+		File newFile = new File("retrieveRowWithBinaryObjectSpilledToDisk.jpg");
+		try {
+			newFile.delete();
+		} catch (Exception exp) {
+			;// I just need it gone
+		}
+
+		final int originalThreshold = DBLargeObject.getSpillToDiskThreshold();
+		try {
+			DBLargeObject.setSpillToDiskThreshold(1024);
+			blobTable = new CompanyLogoForRetreivingBinaryObject();
+			CompanyLogoForRetreivingBinaryObject firstRow = database.getDBTable(blobTable).getRowsByPrimaryKey(primaryKey).get(0);
+
+			Assert.assertThat((long) firstRow.imageBytes.getSize(), is(image.length()));
+			long channelLength = 0;
+			try (ReadableByteChannel channel = firstRow.imageBytes.getReadableByteChannel()) {
+				ByteBuffer buffer = ByteBuffer.allocate(4096);
+				int bytesRead = channel.read(buffer);
+				while (bytesRead >= 0) {
+					channelLength += bytesRead;
+					buffer.clear();
+					bytesRead = channel.read(buffer);
+				}
+			}
+			Assert.assertThat(channelLength, is(image.length()));
+
+			firstRow.imageBytes.writeToFileSystem(newFile);
+			Assert.assertThat(newFile.length(), is(image.length()));
+			ImageCompare imgcomp = new ImageCompare(newFile, image);
+			imgcomp.setParameters(8, 6, 5, 10);
+			Assert.assertThat(imgcomp.match(), is(true));
+		} finally {
+			DBLargeObject.setSpillToDiskThreshold(originalThreshold);
+		}
+	}
+
 	@Test
 	public void retrieveRowWithBinaryObjectUsingInputStream() throws FileNotFoundException, IOException, SQLException, UnexpectedNumberOfRowsException, ClassNotFoundException, InstantiationException {
 
@@ -15,21 +15,25 @@
  */
 package nz.co.gregs.dbvolution.datatypes;
 
+import java.io.ByteArrayInputStream;
 import java.io.File;
 import java.io.FileNotFoundException;
 import java.io.IOException;
 import java.util.List;
 import java.sql.SQLException;
+import static java.nio.charset.StandardCharsets.UTF_8;
 import nz.co.gregs.dbvolution.DBRow;
 import nz.co.gregs.dbvolution.annotations.DBAutoIncrement;
 import nz.co.gregs.dbvolution.annotations.DBColumn;
 import nz.co.gregs.dbvolution.annotations.DBForeignKey;
+import nz.co.gregs.dbvolution.annotations.DBLazy;
 import nz.co.gregs.dbvolution.annotations.DBPrimaryKey;
 import nz.co.gregs.dbvolution.annotations.DBTableName;
 import nz.co.gregs.dbvolution.exceptions.UnexpectedNumberOfRowsException;
 import nz.co.gregs.dbvolution.example.CarCompany;
 import nz.co.gregs.dbvolution.example.CompanyText;
 import nz.co.gregs.dbvolution.generic.AbstractTest;
+import nz.co.gregs.dbvolution.query.LazyLoadingPolicy;
 import org.junit.Assert;
 import org.junit.Test;
 import static org.hamcrest.Matchers.*;
@@ -159,6 +163,87 @@ public class DBLargeTextTest extends AbstractTest {
 		Assert.assertThat(stringValue, is(SOURCEDATAASSTRING));
 	}
 
+	@Test
+	public void insertStreamedStringLargerThanWriteChunks() throws FileNotFoundException, IOException, SQLException, UnexpectedNumberOfRowsException, ClassNotFoundException, InstantiationException {
+
+		CompanyTextForRetreivingString clobTable = new CompanyTextForRetreivingString();
+
+		database.preventDroppingOfTables(false);
+		database.dropTableNoExceptions(clobTable);
+		database.createTable(clobTable);
+
+		StringBuilder builder = new StringBuilder();
+		while (builder.length() < 500000) {
+			builder.append("Maranhāo ").append(SOURCEDATAASSTRING);
+		}
+		final String largeString = builder.toString();
+
+		final int originalThreshold = DBLargeObject.getSpillToDiskThreshold();
+		try {
+			DBLargeObject.setSpillToDiskThreshold(1024);
+			int primaryKey = 5;
+			clobTable.textID.setValue(primaryKey);
+			clobTable.carCompany.setValue(1);
+			clobTable.textFilename.setValue("history.txt");
+			clobTable.filetext.setValue(new ByteArrayInputStream(largeString.getBytes(UTF_8)));
+			Assert.assertThat(clobTable.filetext.isSpilledToDisk(), is(true));
+			database.insert(clobTable);
+
+			CompanyTextForRetreivingString firstRow = database.getDBTable(new CompanyTextForRetreivingString()).getRowsByPrimaryKey(primaryKey).get(0);
+
+			String stringValue = firstRow.filetext.stringValue();
+			Assert.assertThat(stringValue, is(largeString));
+
+			// copies share the spilled value so replacing the original must not delete it
+			DBLargeText copy = (DBLargeText) firstRow.filetext.copy();
+			firstRow.filetext.setValue("replaced");
+			Assert.assertThat(firstRow.filetext.isSpilledToDisk(), is(false));
+			Assert.assertThat(copy.isSpilledToDisk(), is(true));
+			Assert.assertThat(copy.stringValue(), is(largeString));
+		} finally {
+			DBLargeObject.setSpillToDiskThreshold(originalThreshold);
+		}
+	}
+
+	@Test
+	public void retrieveLazyStringOnFirstAccess() throws FileNotFoundException, IOException, SQLException, UnexpectedNumberOfRowsException, ClassNotFoundException, InstantiationException {
+
+		CompanyTextForRetreivingString clobTable = new CompanyTextForRetreivingString();
+
+		database.preventDroppingOfTables(false);
+		database.dropTableNoExceptions(clobTable);
+		database.createTable(clobTable);
+
+		for (int primaryKey = 1; primaryKey <= 3; primaryKey++) {
+			clobTable = new CompanyTextForRetreivingString();
+			clobTable.textID.setValue(primaryKey);
+			clobTable.carCompany.setValue(1);
+			clobTable.textFilename.setValue("history" + primaryKey + ".txt");
+			clobTable.filetext.setValue(primaryKey + SOURCEDATAASSTRING);
+			database.insert(clobTable);
+		}
+
+		LazyCompanyText example = new LazyCompanyText();
+		List<LazyCompanyText> rows = database.getDBTable(example).setBlankQueryAllowed(true).setSortOrder(example.column(example.textID)).getAllRows();
+		Assert.assertThat(rows.size(), is(3));
+		for (LazyCompanyText row : rows) {
+			Assert.assertThat(row.filetext.hasLazyValue(), is(true));
+			Assert.assertThat(row.textFilename.stringValue(), is("history" + row.textID.intValue() + ".txt"));
+		}
+		Assert.assertThat(rows.get(1).filetext.stringValue(), is(2 + SOURCEDATAASSTRING));
+		for (LazyCompanyText row : rows) {
+			Assert.assertThat(row.filetext.hasLazyValue(), is(false));
+			Assert.assertThat(row.filetext.stringValue(), is(row.textID.intValue() + SOURCEDATAASSTRING));
+		}
+
+		rows = database.getDBTable(new LazyCompanyText()).setLazyLoadingPolicy(LazyLoadingPolicy.NONE).setBlankQueryAllowed(true).getAllRows();
+		Assert.assertThat(rows.size(), is(3));
+		for (LazyCompanyText row : rows) {
+			Assert.assertThat(row.filetext.hasLazyValue(), is(false));
+			Assert.assertThat(row.filetext.stringValue(), is(row.textID.intValue() + SOURCEDATAASSTRING));
+		}
+	}
+
 	@Test
 	public void retrieveStringWithBinaryObjectAndAutoIncrement() throws FileNotFoundException, IOException, SQLException, UnexpectedNumberOfRowsException, ClassNotFoundException, InstantiationException {
 
@@ -243,6 +328,27 @@ public class DBLargeTextTest extends AbstractTest {
 		public DBString textFilename = new DBString();
 	}
 
+	@DBTableName("bigtext")
+	public static class LazyCompanyText extends DBRow {
+
+		private static final long serialVersionUID = 1L;
+
+		@DBPrimaryKey
+		@DBColumn("logo_id")
+		public DBInteger textID = new DBInteger();
+
+		@DBForeignKey(CarCompany.class)
+		@DBColumn("car_company_fk")
+		public DBInteger carCompany = new DBInteger();
+
+		@DBLazy
+		@DBColumn("image_file")
+		public DBLargeText filetext = new DBLargeText();
+
+		@DBColumn("image_name")
+		public DBString textFilename = new DBString();
+	}
+
 	static final String SOURCEDATAASSTRING = "\n"
 			+ "-------------------------------------------------------\n"
 			+ " T E S T S\n"
@@ -114,6 +114,101 @@ public class BooleanExpressionTest extends AbstractTest {
 		Assert.assertThat(allRows.size(), is(0));
 	}
 
+	@Test
+	public void testAppendSQLStringOfNestedExpressions() throws SQLException {
+		Marque marque = new Marque();
+		BooleanExpression condition = BooleanExpression.anyOf(
+				BooleanExpression.allOf(
+						marque.column(marque.name).isIn("TOYOTA", "FORD"),
+						marque.column(marque.uidMarque).isGreaterThan(0)
+				),
+				marque.column(marque.uidMarque).isIn(4893101, 4899527)
+		);
+
+		StringBuilder appended = new StringBuilder();
+		condition.appendSQLString(database.getDefinition(), appended);
+		Assert.assertThat(appended.toString(), is(condition.toSQLString(database.getDefinition())));
+
+		DBQuery dbQuery = database.getDBQuery(marque);
+		dbQuery.addCondition(condition);
+
+		List<DBQueryRow> allRows = dbQuery.getAllRows();
+
+		Assert.assertThat(allRows.size(), is(4));
+	}
+
+	@Test
+	public void testSimplifiedConditionsMatchOriginalConditions() throws SQLException {
+		Marque marque = new Marque();
+		BooleanExpression condition = BooleanExpression.allOf(
+				BooleanExpression.trueExpression(),
+				BooleanExpression.anyOf(
+						marque.column(marque.uidMarque).is(4893101),
+						marque.column(marque.uidMarque).is(4899527),
+						BooleanExpression.anyOf(marque.column(marque.uidMarque).is(1))
+				),
+				BooleanExpression.allOf(marque.column(marque.name).isNotNull())
+		);
+
+		DBQuery simplified = database.getDBQuery(marque);
+		simplified.addCondition(condition);
+		simplified.addCondition(condition);
+
+		DBQuery original = database.getDBQuery(marque).setSimplifyConditions(false);
+		original.addCondition(condition);
+		original.addCondition(condition);
+
+		Assert.assertThat(simplified.getSQLForQuery().toUpperCase(), containsString(" IN "));
+		Assert.assertThat(original.getSQLForQuery().toUpperCase(), not(containsString(" IN ")));
+
+		Assert.assertThat(simplified.getAllRows().size(), is(3));
+		Assert.assertThat(original.getAllRows().size(), is(3));
+	}
+
+	@Test
+	public void testSimplifiedConditionsKeepAFalseConditionWhenMatchingAnyCondition() throws SQLException {
+		Marque marque = new Marque();
+		DBQuery simplified = database.getDBQuery(marque).setToMatchAnyCondition();
+		simplified.addCondition(BooleanExpression.falseExpression());
+		simplified.addCondition(BooleanExpression.anyOf(BooleanExpression.falseExpression(), BooleanExpression.falseExpression()));
+
+		DBQuery original = database.getDBQuery(marque).setToMatchAnyCondition().setSimplifyConditions(false);
+		original.addCondition(BooleanExpression.falseExpression());
+		original.addCondition(BooleanExpression.anyOf(BooleanExpression.falseExpression(), BooleanExpression.falseExpression()));
+
+		Assert.assertThat(simplified.getAllRows().size(), is(0));
+		Assert.assertThat(original.getAllRows().size(), is(0));
+
+		List<BooleanExpression> conditions = new ArrayList<>();
+		conditions.add(BooleanExpression.falseExpression());
+		conditions.add(BooleanExpression.falseExpression());
+		List<BooleanExpression> simplifiedConditions = new BooleanExpressionSimplifier(database.getDefinition()).simplifyConditions(conditions, false);
+		Assert.assertThat(simplifiedConditions.size(), is(1));
+		Assert.assertThat(simplifiedConditions.get(0), instanceOf(BooleanExpression.FalseExpression.class));
+	}
+
+	@Test
+	public void testSimplifiedConditionsKeepATrueConditionWhenMatchingAllConditions() throws SQLException {
+		Marque marque = new Marque();
+		DBQuery simplified = database.getDBQuery(marque);
+		simplified.addCondition(BooleanExpression.trueExpression());
+		simplified.addCondition(BooleanExpression.allOf(BooleanExpression.trueExpression(), BooleanExpression.trueExpression()));
+
+		DBQuery original = database.getDBQuery(marque).setSimplifyConditions(false);
+		original.addCondition(BooleanExpression.trueExpression());
+		original.addCondition(BooleanExpression.allOf(BooleanExpression.trueExpression(), BooleanExpression.trueExpression()));
+
+		Assert.assertThat(simplified.getAllRows().size(), is(22));
+		Assert.assertThat(original.getAllRows().size(), is(22));
+
+		List<BooleanExpression> conditions = new ArrayList<>();
+		conditions.add(BooleanExpression.trueExpression());
+		conditions.add(BooleanExpression.trueExpression());
+		List<BooleanExpression> simplifiedConditions = new BooleanExpressionSimplifier(database.getDefinition()).simplifyConditions(conditions, true);
+		Assert.assertThat(simplifiedConditions.size(), is(1));
+		Assert.assertThat(simplifiedConditions.get(0), instanceOf(BooleanExpression.TrueExpression.class));
+	}
+
 	@Test
 	public void testStringIfThenElse() throws SQLException {
 		MarqueWithIfThenElse marque = new MarqueWithIfThenElse();
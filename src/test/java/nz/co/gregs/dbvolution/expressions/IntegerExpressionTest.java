@@ -767,6 +767,27 @@ public class IntegerExpressionTest extends AbstractTest {
 		Assert.assertThat(marque.uidMarque.getValue().intValue(), is(4893059));
 	}
 
+	@Test
+	public void testInWithManyValues() throws SQLException {
+		List<Long> values = new ArrayList<>();
+		for (long i = 1; i <= 2500; i++) {
+			values.add(-i);
+			values.add(-i);
+		}
+		values.add(4893059l);
+
+		Marque marq = new Marque();
+		DBQuery dbQuery = database.getDBQuery(marq);
+		dbQuery.addCondition(
+				marq.column(marq.uidMarque).isIn(values)
+		);
+		List<DBQueryRow> allRows = dbQuery.getAllRows();
+
+		Assert.assertThat(allRows.size(), is(1));
+		Marque marque = allRows.get(0).get(marq);
+		Assert.assertThat(marque.uidMarque.getValue(), is(4893059l));
+	}
+
 	@Test
 	public void testIsBetween() throws SQLException {
 		Marque marq = new Marque();
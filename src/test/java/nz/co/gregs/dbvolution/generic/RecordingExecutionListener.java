@@ -0,0 +1,85 @@
+/*
+ * Copyright 2019 Gregory Graham.
+ *
+ * Commercial licenses are available, please contact info@gregs.co.nz for details.
+ * 
+ * This work is licensed under the Creative Commons Attribution-NonCommercial-ShareAlike 4.0 International License. 
+ * To view a copy of this license, visit http://creativecommons.org/licenses/by-nc-sa/4.0/ 
+ * or send a letter to Creative Commons, PO Box 1866, Mountain View, CA 94042, USA.
+ * 
+ * You are free to:
+ *     Share - copy and redistribute the material in any medium or format
+ *     Adapt - remix, transform, and build upon the material
+ * 
+ *     The licensor cannot revoke these freedoms as long as you follow the license terms.               
+ *     Under the following terms:
+ *                 
+ *         Attribution - 
+ *             You must give appropriate credit, provide a link to the license, and indicate if changes were made. 
+ *             You may do so in any reasonable manner, but not in any way that suggests the licensor endorses you or your use.
+ *         NonCommercial - 
+ *             You may not use the material for commercial purposes.
+ *         ShareAlike - 
+ *             If you remix, transform, or build upon the material, 
+ *             you must distribute your contributions under the same license as the original.
+ *         No additional restrictions - 
+ *             You may not apply legal terms or technological measures that legally restrict others from doing anything the 
+ *             license permits.
+ * 
+ * Check the Creative Commons website for any details, legalese, and updates.
+ */
+package nz.co.gregs.dbvolution.generic;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import nz.co.gregs.dbvolution.databases.listeners.ExecutionEvent;
+import nz.co.gregs.dbvolution.databases.listeners.ExecutionListener;
+
+/**
+ * Records the execution events received from a database so that tests can
+ * check them.
+ *
+ * @author Gregory Graham
+ */
+public class RecordingExecutionListener implements ExecutionListener {
+
+	private final List<ExecutionEvent.Type> types;
+	private final List<ExecutionEvent> events = Collections.synchronizedList(new ArrayList<ExecutionEvent>());
+
+	/**
+	 * Records the events of the types supplied, or every event if no types are
+	 * supplied.
+	 *
+	 * @param types the types of event to record
+	 */
+	public RecordingExecutionListener(ExecutionEvent.Type... types) {
+		this.types = Arrays.asList(types);
+	}
+
+	@Override
+	public void executed(ExecutionEvent event) {
+		if (types.isEmpty() || types.contains(event.getType())) {
+			events.add(event);
+		}
+	}
+
+	/**
+	 * Copies the events recorded so far.
+	 *
+	 * @return the recorded events in the order they were received
+	 */
+	public List<ExecutionEvent> getEvents() {
+		synchronized (events) {
+			return new ArrayList<>(events);
+		}
+	}
+
+	/**
+	 * Forgets the events recorded so far.
+	 */
+	public void clear() {
+		events.clear();
+	}
+}